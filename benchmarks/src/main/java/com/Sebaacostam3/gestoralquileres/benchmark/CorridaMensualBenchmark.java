@@ -0,0 +1,111 @@
+package com.Sebaacostam3.gestoralquileres.benchmark;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.servicio.GestorAlquileres;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cargas de trabajo realistas que combinan varias operaciones.
+ * <p>
+ * {@link #corridaMensualDePagos} simula el cierre de un mes: recorre por páginas todos los
+ * contratos activos, registra el pago del período y lo confirma. Como cada corrida agrega pagos,
+ * el gestor se vuelve a cargar antes de cada iteración y se mide una sola ejecución por iteración.
+ * <p>
+ * {@link #mezclaDiaria} reparte las operaciones como una jornada típica: mayoría de consultas,
+ * algunos pagos registrados y confirmados, y algún listado por página.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CorridaMensualBenchmark {
+
+    private static final int TAMANIO_PAGINA = 500;
+
+    /**
+     * Gestor que se vuelve a cargar antes de cada iteración de la corrida mensual.
+     */
+    @State(Scope.Benchmark)
+    public static class EstadoCorrida {
+        @Param({"1000", "100000", "1000000"})
+        public int tamanio;
+
+        private GestorAlquileres gestor;
+
+        @Setup(Level.Iteration)
+        public void cargar() {
+            gestor = new GestorAlquileres();
+            EstadoGestor.cargarDatos(gestor, tamanio, null);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int corridaMensualDePagos(EstadoCorrida estado) {
+        GestorAlquileres gestor = estado.gestor;
+        int registrados = 0;
+        Pagina<ContratoAlquiler> pagina = gestor.listarContratosActivos(null, TAMANIO_PAGINA);
+        while (true) {
+            for (ContratoAlquiler contrato : pagina.getElementos()) {
+                Pago pago = new Pago(null, contrato, EstadoGestor.HOY, contrato.getValorMensual(), false, "2025-01");
+                if (gestor.registrarPago(pago).isExitoso() && gestor.confirmarPago(pago.getId()).isExitoso()) {
+                    registrados++;
+                }
+            }
+            if (!pagina.hayMas()) {
+                return registrados;
+            }
+            pagina = gestor.listarContratosActivos(pagina.getCursorSiguiente(), TAMANIO_PAGINA);
+        }
+    }
+
+    /**
+     * Estado propio de la mezcla diaria, cargado una sola vez; la mezcla elimina los pagos que registra
+     * para que el conjunto de datos no crezca durante la medición.
+     */
+    @State(Scope.Benchmark)
+    public static class EstadoMezcla extends EstadoGestor {
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void mezclaDiaria(EstadoMezcla estado, Blackhole agujero) {
+        GestorAlquileres g = estado.gestor;
+        int tirada = ThreadLocalRandom.current().nextInt(100);
+        if (tirada < 50) {
+            agujero.consume(g.buscarContratoPorId(estado.idsContratos[estado.indice()]));
+        } else if (tirada < 70) {
+            agujero.consume(g.buscarPagoPorId(estado.idsPagos[estado.indice()]));
+        } else if (tirada < 85) {
+            agujero.consume(g.listarPagosPorContrato(estado.idsContratos[estado.indice()]));
+        } else if (tirada < 95) {
+            ContratoAlquiler contrato = g.buscarContratoPorId(estado.idsContratos[estado.indice()]).get();
+            Pago pago = new Pago(null, contrato, EstadoGestor.HOY, contrato.getValorMensual(), false, "2025-01");
+            g.registrarPago(pago);
+            agujero.consume(g.confirmarPago(pago.getId()));
+            g.eliminarPago(pago.getId());
+        } else {
+            agujero.consume(g.listarContratosActivos(null, 50));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.Sebaacostam3.gestoralquileres.benchmark;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.servicio.GestorAlquileres;
+import com.Sebaacostam3.gestoralquileres.servicio.Resultado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Altas, búsquedas, actualizaciones y bajas de cada una de las cinco entidades sobre un gestor precargado.
+ * <p>
+ * Las altas se miden junto con la baja de la misma entidad para que el tamaño del conjunto de
+ * datos no crezca entre iteraciones; así el costo medido corresponde siempre al tamaño del parámetro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class CrudBenchmark {
+
+    // ----- Propiedad -----
+
+    @Benchmark
+    public Optional<Propiedad> buscarPropiedad(EstadoGestor estado) {
+        return estado.gestor.buscarPropiedadPorId(estado.idsPropiedades[estado.indice()]);
+    }
+
+    @Benchmark
+    public Resultado actualizarPropiedad(EstadoGestor estado) {
+        Propiedad propiedad = estado.gestor.buscarPropiedadPorId(estado.idsPropiedades[estado.indice()]).get();
+        return estado.gestor.actualizarPropiedad(propiedad);
+    }
+
+    @Benchmark
+    public Resultado agregarYEliminarPropiedad(EstadoGestor estado) {
+        Propiedad propiedad = new Propiedad(null, "Calle nueva", "Casa", 70, false, 12000);
+        estado.gestor.agregarPropiedad(propiedad);
+        return estado.gestor.eliminarPropiedad(propiedad.getId());
+    }
+
+    /**
+     * Intento de baja rechazado por las reglas de negocio (la propiedad tiene contrato o incidencias).
+     */
+    @Benchmark
+    public Resultado eliminarPropiedadRechazada(EstadoGestor estado) {
+        return estado.gestor.eliminarPropiedad(estado.idsPropiedades[estado.indice()]);
+    }
+
+    // ----- Inquilino -----
+
+    @Benchmark
+    public Optional<Inquilino> buscarInquilino(EstadoGestor estado) {
+        return estado.gestor.buscarInquilinoPorId(estado.idsInquilinos[estado.indice()]);
+    }
+
+    @Benchmark
+    public Resultado actualizarInquilino(EstadoGestor estado) {
+        Inquilino inquilino = estado.gestor.buscarInquilinoPorId(estado.idsInquilinos[estado.indice()]).get();
+        return estado.gestor.actualizarInquilino(inquilino);
+    }
+
+    @Benchmark
+    public Resultado agregarYEliminarInquilino(EstadoGestor estado) {
+        Inquilino inquilino = new Inquilino(null, "Nuevo", "Inquilino", "099000000", "12345678", "nuevo@correo.com");
+        estado.gestor.agregarInquilino(inquilino);
+        return estado.gestor.eliminarInquilino(inquilino.getId());
+    }
+
+    // ----- ContratoAlquiler -----
+
+    @Benchmark
+    public Optional<ContratoAlquiler> buscarContrato(EstadoGestor estado) {
+        return estado.gestor.buscarContratoPorId(estado.idsContratos[estado.indice()]);
+    }
+
+    @Benchmark
+    public Resultado actualizarContrato(EstadoGestor estado) {
+        ContratoAlquiler contrato = estado.gestor.buscarContratoPorId(estado.idsContratos[estado.indice()]).get();
+        return estado.gestor.actualizarContrato(contrato);
+    }
+
+    @Benchmark
+    public Resultado crearYEliminarContrato(EstadoGestor estado) {
+        ContratoAlquiler contrato = new ContratoAlquiler(null, EstadoGestor.HOY, EstadoGestor.HOY.plusYears(1),
+                estado.propiedadLibre, estado.inquilinoLibre, 15000, true);
+        estado.gestor.crearContrato(contrato);
+        return estado.gestor.eliminarContrato(contrato.getId());
+    }
+
+    // ----- Pago -----
+
+    @Benchmark
+    public Optional<Pago> buscarPago(EstadoGestor estado) {
+        return estado.gestor.buscarPagoPorId(estado.idsPagos[estado.indice()]);
+    }
+
+    @Benchmark
+    public Resultado actualizarPago(EstadoGestor estado) {
+        Pago pago = estado.gestor.buscarPagoPorId(estado.idsPagos[estado.indice()]).get();
+        return estado.gestor.actualizarPago(pago);
+    }
+
+    @Benchmark
+    public Resultado registrarYEliminarPago(EstadoGestor estado) {
+        GestorAlquileres gestor = estado.gestor;
+        ContratoAlquiler contrato = gestor.buscarContratoPorId(estado.idsContratos[estado.indice()]).get();
+        Pago pago = new Pago(null, contrato, EstadoGestor.HOY, contrato.getValorMensual(), false, "2025-01");
+        gestor.registrarPago(pago);
+        return gestor.eliminarPago(pago.getId());
+    }
+
+    // ----- Incidencia -----
+
+    @Benchmark
+    public Optional<Incidencia> buscarIncidencia(EstadoGestor estado) {
+        return estado.gestor.buscarIncidenciaPorId(estado.idsIncidencias[estado.indice()]);
+    }
+
+    @Benchmark
+    public Resultado actualizarIncidencia(EstadoGestor estado) {
+        Incidencia incidencia = estado.gestor.buscarIncidenciaPorId(estado.idsIncidencias[estado.indice()]).get();
+        return estado.gestor.actualizarIncidencia(incidencia);
+    }
+
+    @Benchmark
+    public Resultado reportarYEliminarIncidencia(EstadoGestor estado) {
+        GestorAlquileres gestor = estado.gestor;
+        Propiedad propiedad = gestor.buscarPropiedadPorId(estado.idsPropiedades[estado.indice()]).get();
+        Incidencia incidencia = new Incidencia(null, propiedad, "Pérdida de agua", EstadoGestor.HOY, EstadoIncidencia.PENDIENTE, 800);
+        gestor.reportarIncidencia(incidencia);
+        return gestor.eliminarIncidencia(incidencia.getId());
+    }
+}
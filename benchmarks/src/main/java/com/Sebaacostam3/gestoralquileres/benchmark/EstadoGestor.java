@@ -0,0 +1,119 @@
+package com.Sebaacostam3.gestoralquileres.benchmark;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.servicio.GestorAlquileres;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gestor precargado que comparten los benchmarks.
+ * <p>
+ * Con {@code tamanio} = N se cargan N propiedades, N inquilinos, N contratos (la mitad activos),
+ * N pagos repartidos entre los contratos y N incidencias repartidas entre las propiedades.
+ * Además se reserva una propiedad y un inquilino libres para medir altas y bajas de contratos
+ * sin cambiar el tamaño del conjunto de datos.
+ */
+@State(Scope.Benchmark)
+public class EstadoGestor {
+
+    static final LocalDate HOY = LocalDate.of(2025, 1, 1);
+
+    @Param({"1000", "100000", "1000000"})
+    public int tamanio;
+
+    GestorAlquileres gestor;
+
+    String[] idsPropiedades;
+    String[] idsInquilinos;
+    String[] idsContratos;
+    String[] idsPagos;
+    String[] idsIncidencias;
+
+    Propiedad propiedadLibre;
+    Inquilino inquilinoLibre;
+
+    @Setup(Level.Trial)
+    public void cargar() {
+        gestor = new GestorAlquileres();
+        cargarDatos(gestor, tamanio, this);
+    }
+
+    /**
+     * Carga el conjunto de datos en un gestor vacío.
+     * @param gestor El gestor a cargar.
+     * @param tamanio La cantidad de entidades de cada tipo.
+     * @param destino Si no es null, recibe los IDs generados y las entidades libres.
+     */
+    static void cargarDatos(GestorAlquileres gestor, int tamanio, EstadoGestor destino) {
+        String[] propiedades = new String[tamanio];
+        String[] inquilinos = new String[tamanio];
+        String[] contratos = new String[tamanio];
+        String[] pagos = new String[tamanio];
+        String[] incidencias = new String[tamanio];
+
+        for (int i = 0; i < tamanio; i++) {
+            Propiedad propiedad = new Propiedad(null, "Calle " + i, i % 3 == 0 ? "Casa" : "Apartamento", 40 + i % 200, false, 10000 + i % 5000);
+            gestor.agregarPropiedad(propiedad);
+            propiedades[i] = propiedad.getId();
+
+            Inquilino inquilino = new Inquilino(null, "Nombre" + i, "Apellido" + i, "099" + i, Integer.toString(10000000 + i), "inquilino" + i + "@correo.com");
+            gestor.agregarInquilino(inquilino);
+            inquilinos[i] = inquilino.getId();
+
+            ContratoAlquiler contrato = new ContratoAlquiler(null, HOY.minusDays(i % 700), HOY.plusDays(30 + i % 700), propiedad, inquilino, propiedad.getPrecioMensual(), true);
+            gestor.crearContrato(contrato);
+            contratos[i] = contrato.getId();
+        }
+        // La mitad de los contratos se finaliza para que los listados filtrados tengan trabajo real
+        for (int i = 1; i < tamanio; i += 2) {
+            gestor.finalizarContrato(contratos[i]);
+        }
+        for (int i = 0; i < tamanio; i++) {
+            ContratoAlquiler contrato = gestor.buscarContratoPorId(contratos[(int) ((i * 7L) % tamanio)]).get();
+            Pago pago = new Pago(null, contrato, HOY.minusDays(i % 365), contrato.getValorMensual(), false, YearMonth.of(2024, 1 + i % 12).toString());
+            gestor.registrarPago(pago);
+            pagos[i] = pago.getId();
+
+            Propiedad propiedad = gestor.buscarPropiedadPorId(propiedades[(int) ((i * 13L) % tamanio)]).get();
+            Incidencia incidencia = new Incidencia(null, propiedad, "Incidencia " + i, HOY.minusDays(i % 90), EstadoIncidencia.PENDIENTE, 500);
+            gestor.reportarIncidencia(incidencia);
+            incidencias[i] = incidencia.getId();
+        }
+
+        Propiedad propiedadLibre = new Propiedad(null, "Calle libre", "Casa", 80, false, 15000);
+        gestor.agregarPropiedad(propiedadLibre);
+        Inquilino inquilinoLibre = new Inquilino(null, "Libre", "Libre", "0990", "00000000", "libre@correo.com");
+        gestor.agregarInquilino(inquilinoLibre);
+
+        if (destino != null) {
+            destino.idsPropiedades = propiedades;
+            destino.idsInquilinos = inquilinos;
+            destino.idsContratos = contratos;
+            destino.idsPagos = pagos;
+            destino.idsIncidencias = incidencias;
+            destino.propiedadLibre = propiedadLibre;
+            destino.inquilinoLibre = inquilinoLibre;
+        }
+    }
+
+    /**
+     * El estado se comparte entre los hilos del benchmark, así que el azar es el de cada hilo:
+     * un generador común sería una carrera de datos y sumaría contención a lo medido.
+     * @return Un índice al azar dentro del conjunto de datos.
+     */
+    int indice() {
+        return ThreadLocalRandom.current().nextInt(tamanio);
+    }
+}
@@ -0,0 +1,138 @@
+package com.Sebaacostam3.gestoralquileres.benchmark;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.servicio.ConsultaPropiedades;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listados filtrados del gestor, tanto completos como por página, y las consultas por índice:
+ * búsqueda de propiedades por criterios, búsqueda de inquilinos por texto, pagos por período
+ * y contratos por fechas. Los listados completos pueden recorrer todo el almacén, por lo que
+ * se informan en microsegundos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ListadoBenchmark {
+
+    private static final int TAMANIO_PAGINA = 50;
+    private static final int LIMITE_BUSQUEDA = 20;
+
+    // Casas de 100 a 120 m²: un tercio de los tipos y una décima parte de las superficies
+    private static final ConsultaPropiedades CASAS_MEDIANAS = new ConsultaPropiedades("casa", null, 100.0, 120.0, null, null);
+    // Apartamentos disponibles en una franja angosta de precios
+    private static final ConsultaPropiedades APARTAMENTOS_BARATOS = new ConsultaPropiedades("Apartamento", false, null, null, 10000.0, 10100.0);
+
+    @Benchmark
+    public List<ContratoAlquiler> listarContratosActivos(EstadoGestor estado) {
+        return estado.gestor.listarContratosActivos();
+    }
+
+    @Benchmark
+    public Pagina<ContratoAlquiler> primeraPaginaContratosActivos(EstadoGestor estado) {
+        return estado.gestor.listarContratosActivos(null, TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    public List<Pago> listarPagosPorContrato(EstadoGestor estado) {
+        return estado.gestor.listarPagosPorContrato(estado.idsContratos[estado.indice()]);
+    }
+
+    @Benchmark
+    public List<Incidencia> listarIncidenciasPorPropiedad(EstadoGestor estado) {
+        return estado.gestor.listarIncidenciasPorPropiedad(estado.idsPropiedades[estado.indice()]);
+    }
+
+    @Benchmark
+    public Pagina<Pago> primeraPaginaPagos(EstadoGestor estado) {
+        return estado.gestor.listarPagos(null, TAMANIO_PAGINA);
+    }
+
+    // ----- Propiedades por criterios -----
+
+    @Benchmark
+    public List<Propiedad> buscarCasasMedianas(EstadoGestor estado) {
+        return estado.gestor.buscarPropiedades(CASAS_MEDIANAS);
+    }
+
+    @Benchmark
+    public List<Propiedad> buscarApartamentosBaratos(EstadoGestor estado) {
+        return estado.gestor.buscarPropiedades(APARTAMENTOS_BARATOS);
+    }
+
+    // ----- Inquilinos por texto y por DNI -----
+
+    @Benchmark
+    public List<Inquilino> buscarInquilinosPorApellido(EstadoGestor estado) {
+        return estado.gestor.buscarInquilinos("apellido" + estado.indice(), LIMITE_BUSQUEDA);
+    }
+
+    /**
+     * Búsqueda con un error de tipeo, que sólo encuentra el ranking por trigramas.
+     */
+    @Benchmark
+    public List<Inquilino> buscarInquilinosConErrorDeTipeo(EstadoGestor estado) {
+        return estado.gestor.buscarInquilinos("apelido" + estado.indice(), LIMITE_BUSQUEDA);
+    }
+
+    @Benchmark
+    public Optional<Inquilino> buscarInquilinoPorDni(EstadoGestor estado) {
+        return estado.gestor.buscarInquilinoPorDni(Integer.toString(10000000 + estado.indice()));
+    }
+
+    // ----- Pagos por período -----
+
+    @Benchmark
+    public List<Pago> listarPagosDeUnPeriodo(EstadoGestor estado) {
+        YearMonth periodo = YearMonth.of(2024, 1 + estado.indice() % 12);
+        return estado.gestor.listarPagosPorPeriodo(periodo, periodo);
+    }
+
+    @Benchmark
+    public List<Pago> listarPagosPorContratoYPeriodo(EstadoGestor estado) {
+        return estado.gestor.listarPagosPorContratoYPeriodo(estado.idsContratos[estado.indice()],
+                YearMonth.of(2024, 1), YearMonth.of(2024, 6));
+    }
+
+    @Benchmark
+    public List<YearMonth> listarPeriodosAdeudados(EstadoGestor estado) {
+        return estado.gestor.listarPeriodosAdeudados(estado.idsContratos[estado.indice()], YearMonth.of(2025, 12));
+    }
+
+    // ----- Contratos por fechas -----
+
+    @Benchmark
+    public List<ContratoAlquiler> listarContratosPorVencer(EstadoGestor estado) {
+        return estado.gestor.listarContratosPorVencer(EstadoGestor.HOY.plusDays(estado.indice() % 700), 7);
+    }
+
+    @Benchmark
+    public List<ContratoAlquiler> listarContratosVigentesEn(EstadoGestor estado) {
+        return estado.gestor.listarContratosVigentesEn(EstadoGestor.HOY.plusDays(700 + estado.indice() % 30));
+    }
+
+    @Benchmark
+    public List<ContratoAlquiler> listarContratosSuperpuestos(EstadoGestor estado) {
+        LocalDate desde = EstadoGestor.HOY.plusDays(700 + estado.indice() % 30);
+        return estado.gestor.listarContratosSuperpuestos(desde, desde.plusDays(7));
+    }
+}
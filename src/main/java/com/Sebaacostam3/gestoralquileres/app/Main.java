@@ -1,19 +1,38 @@
 package com.Sebaacostam3.gestoralquileres.app;
 
+import com.Sebaacostam3.gestoralquileres.servicio.ConsultaPropiedades;
+import com.Sebaacostam3.gestoralquileres.servicio.ExportadorDatos;
+import com.Sebaacostam3.gestoralquileres.servicio.FiltroExportacion;
+import com.Sebaacostam3.gestoralquileres.servicio.FormatoExportacion;
 import com.Sebaacostam3.gestoralquileres.servicio.GestorAlquileres;
+import com.Sebaacostam3.gestoralquileres.servicio.ImportadorCsv;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import com.Sebaacostam3.gestoralquileres.servicio.ReporteImportacion;
+import com.Sebaacostam3.gestoralquileres.servicio.Resultado;
+import com.Sebaacostam3.gestoralquileres.servicio.Repositorios;
 import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
 import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
 import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
 import com.Sebaacostam3.gestoralquileres.modelo.Pago;
 import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
-
+import com.Sebaacostam3.gestoralquileres.modelo.Dinero;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.ResumenPagos;
+import com.Sebaacostam3.gestoralquileres.persistencia.sql.BaseDatosEmbebida;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.InputMismatchException; // Importación útil para el manejo de entrada, aunque no usada directamente en este código, al escalar será más usado.
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase principal que proporciona una interfaz de consola para interactuar
@@ -22,17 +41,75 @@ import java.util.Scanner;
  */
 public class Main {
 
+    // Directorio donde el gestor guarda su diario e instantáneas para recuperarlos en la próxima ejecución
+    private static final Path DIRECTORIO_DATOS = Paths.get("datos");
+    // Propiedad del sistema con la URL JDBC de una base de datos embebida; si se indica, se usa en lugar del directorio de datos
+    private static final String PROPIEDAD_URL_BASE_DATOS = "gestor.jdbc";
+    // Propiedad del sistema que activa el archivo en disco de los contratos inactivos y sus pagos
+    private static final String PROPIEDAD_NIVEL_FRIO = "gestor.nivelFrio";
+    // Propiedad del sistema que guarda los pagos fuera del heap (no se combina con el nivel frío)
+    private static final String PROPIEDAD_PAGOS_FUERA_DEL_HEAP = "gestor.pagosFueraDelHeap";
+    // Conexiones abiertas con la base de datos embebida
+    private static final int CONEXIONES_BASE_DATOS = 4;
+    // Minutos entre instantáneas automáticas del estado
+    private static final int MINUTOS_ENTRE_INSTANTANEAS = 10;
     // Instancia del gestor de lógica de negocio
-    private static GestorAlquileres gestor = new GestorAlquileres();
+    private static GestorAlquileres gestor;
     // Objeto Scanner para leer la entrada del usuario
     private static Scanner scanner = new Scanner(System.in);
+    // Cantidad de registros que se muestran por página en los listados extensos
+    private static final int TAMANIO_PAGINA = 50;
+    // Cantidad de filas rechazadas que se muestran en la consola al terminar una importación
+    private static final int ERRORES_A_MOSTRAR = 20;
 
     /**
      * Punto de entrada principal de la aplicación de consola.
      * @param args Argumentos de la línea de comandos (no utilizados).
      */
     public static void main(String[] args) {
-        mostrarMenuPrincipal();
+        String urlBaseDatos = System.getProperty(PROPIEDAD_URL_BASE_DATOS);
+        if (urlBaseDatos != null) {
+            ejecutarConBaseDatos(urlBaseDatos);
+            return;
+        }
+        try (GestorAlquileres gestorPersistente = abrirGestor()) {
+            gestor = gestorPersistente;
+            gestor.programarInstantaneas(MINUTOS_ENTRE_INSTANTANEAS, TimeUnit.MINUTES);
+            gestor.programarVencimientos(); // Finaliza los contratos al pasar su fecha de fin
+            mostrarMenuPrincipal();
+            gestor.tomarInstantanea(); // Compacta el diario para que el próximo inicio sea rápido
+        } catch (IOException e) {
+            System.out.println("Error: No se pudieron leer o guardar los datos en '" + DIRECTORIO_DATOS + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abre el gestor persistente sobre el directorio de datos, con el nivel frío o los pagos fuera del heap
+     * si lo indican las propiedades del sistema.
+     */
+    private static GestorAlquileres abrirGestor() throws IOException {
+        if (Boolean.getBoolean(PROPIEDAD_NIVEL_FRIO)) {
+            return GestorAlquileres.abrirConNivelFrio(DIRECTORIO_DATOS);
+        }
+        if (Boolean.getBoolean(PROPIEDAD_PAGOS_FUERA_DEL_HEAP)) {
+            return GestorAlquileres.abrir(DIRECTORIO_DATOS, new GestorAlquileres(Repositorios.enMemoriaConPagosFueraDelHeap()));
+        }
+        return GestorAlquileres.abrir(DIRECTORIO_DATOS);
+    }
+
+    /**
+     * Ejecuta la aplicación guardando los datos en una base de datos embebida en lugar del diario.
+     * @param url La URL JDBC de la base de datos.
+     */
+    private static void ejecutarConBaseDatos(String url) {
+        try (BaseDatosEmbebida baseDatos = new BaseDatosEmbebida(url, CONEXIONES_BASE_DATOS);
+             GestorAlquileres gestorBaseDatos = new GestorAlquileres(baseDatos.repositorios())) {
+            gestor = gestorBaseDatos;
+            gestor.programarVencimientos();
+            mostrarMenuPrincipal();
+        } catch (SQLException | IOException e) {
+            System.out.println("Error: No se pudo abrir o cerrar la base de datos '" + url + "': " + e.getMessage());
+        }
     }
 
     /**
@@ -48,6 +125,8 @@ public class Main {
             System.out.println("3. Gestión de Contratos de Alquiler");
             System.out.println("4. Gestión de Pagos");
             System.out.println("5. Gestión de Incidencias");
+            System.out.println("6. Importación masiva (CSV)");
+            System.out.println("7. Exportar Pagos o Incidencias (CSV / JSON Lines)");
             System.out.println("0. Salir");
             System.out.print("Seleccione una opción: ");
 
@@ -69,6 +148,12 @@ public class Main {
                 case 5:
                     menuGestionIncidencias();
                     break;
+                case 6:
+                    menuImportacion();
+                    break;
+                case 7:
+                    menuExportacion();
+                    break;
                 case 0:
                     System.out.println("Saliendo del Gestor de Alquileres. ¡Hasta luego!");
                     break;
@@ -80,6 +165,99 @@ public class Main {
         scanner.close(); // Cierra el scanner al finalizar la aplicación para liberar recursos
     }
 
+    // --- Importación masiva ---
+
+    /**
+     * Muestra el menú de importación masiva desde archivos CSV e informa el resultado.
+     * Las filas rechazadas se guardan en un reporte junto al archivo importado.
+     */
+    private static void menuImportacion() {
+        System.out.println("\n--- Importación Masiva (CSV) ---");
+        System.out.println("1. Importar Propiedades (id,direccion,tipo,metros_cuadrados,precio_mensual)");
+        System.out.println("2. Importar Inquilinos (id,nombre,apellido,telefono,dni,email)");
+        System.out.println("3. Importar Contratos (id,propiedad_id,inquilino_id,fecha_inicio,fecha_fin,valor_mensual)");
+        System.out.println("0. Volver al Menú Principal");
+        System.out.print("Seleccione una opción: ");
+        int opcion = leerEntero();
+        if (opcion < 1 || opcion > 3) {
+            if (opcion != 0) {
+                System.out.println("Opción no válida.");
+            }
+            return;
+        }
+        System.out.print("Ruta del archivo CSV (la primera línea es la cabecera): ");
+        Path archivo = Paths.get(leerLinea().trim());
+
+        ImportadorCsv importador = new ImportadorCsv(gestor);
+        try {
+            ReporteImportacion reporte = switch (opcion) {
+                case 1 -> importador.importarPropiedades(archivo);
+                case 2 -> importador.importarInquilinos(archivo);
+                default -> importador.importarContratos(archivo);
+            };
+            System.out.println("Filas importadas: " + reporte.getImportadas() + ". Filas rechazadas: " + reporte.getRechazadas() + ".");
+            if (reporte.getRechazadas() > 0) {
+                List<ReporteImportacion.ErrorFila> errores = reporte.getErrores();
+                for (int i = 0; i < Math.min(errores.size(), ERRORES_A_MOSTRAR); i++) {
+                    System.out.println("  " + errores.get(i));
+                }
+                Path archivoErrores = archivo.resolveSibling(archivo.getFileName() + ".errores.csv");
+                reporte.escribir(archivoErrores);
+                System.out.println("Reporte completo de filas rechazadas: " + archivoErrores);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: No se pudo leer el archivo '" + archivo + "': " + e.getMessage());
+        }
+    }
+
+    // --- Exportación ---
+
+    /**
+     * Solicita qué registros exportar, el formato, el archivo destino y los filtros, y exporta
+     * los pagos o las incidencias sin cargarlos todos en memoria.
+     */
+    private static void menuExportacion() {
+        System.out.println("\n--- Exportar Registros ---");
+        System.out.println("1. Exportar Pagos");
+        System.out.println("2. Exportar Incidencias");
+        System.out.println("0. Volver al Menú Principal");
+        System.out.print("Seleccione una opción: ");
+        int opcion = leerEntero();
+        if (opcion != 1 && opcion != 2) {
+            if (opcion != 0) {
+                System.out.println("Opción no válida.");
+            }
+            return;
+        }
+        System.out.print("Formato (1. CSV, 2. JSON Lines): ");
+        FormatoExportacion formato = leerEntero() == 2 ? FormatoExportacion.JSONL : FormatoExportacion.CSV;
+        System.out.print("Ruta del archivo de salida: ");
+        Path destino = Paths.get(leerLinea().trim());
+        System.out.print("Desde la fecha (DD-MM-YYYY, Enter para no limitar): ");
+        LocalDate desde = leerFechaOpcional();
+        System.out.print("Hasta la fecha (DD-MM-YYYY, Enter para no limitar): ");
+        LocalDate hasta = leerFechaOpcional();
+        System.out.print("ID del contrato (Enter para todos): ");
+        String contratoId = leerLinea().trim();
+
+        FiltroExportacion filtro;
+        try {
+            filtro = new FiltroExportacion(desde, hasta, contratoId.isEmpty() ? null : contratoId);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        ExportadorDatos exportador = new ExportadorDatos(gestor);
+        try {
+            long exportados = opcion == 1
+                    ? exportador.exportarPagos(destino, formato, filtro)
+                    : exportador.exportarIncidencias(destino, formato, filtro);
+            System.out.println("Registros exportados: " + exportados + ". Archivo: " + destino);
+        } catch (IOException e) {
+            System.out.println("Error: No se pudo escribir el archivo '" + destino + "': " + e.getMessage());
+        }
+    }
+
     // --- Métodos de utilidad para la lectura de entrada del usuario ---
 
     /**
@@ -109,9 +287,54 @@ public class Main {
         }
         double valor = scanner.nextDouble();
         scanner.nextLine(); // Consume el salto de línea pendiente
+        if (!Double.isFinite(valor)) {
+            // Scanner acepta "NaN" e "Infinity", que no son importes ni medidas válidas
+            System.out.println("Entrada inválida. Por favor, ingrese un número decimal.");
+            System.out.print("Re-ingrese el valor: ");
+            return leerDoble();
+        }
         return valor;
     }
 
+    /**
+     * Lee un importe del usuario, manejando entradas inválidas.
+     * @return El importe ingresado, en centavos.
+     */
+    private static long leerImporte() {
+        while (true) {
+            String valorStr = leerLinea().trim();
+            try {
+                return Dinero.parsear(valorStr);
+            } catch (NumberFormatException e) {
+                // Se vuelve a pedir el valor
+            }
+            System.out.println("Entrada inválida. Por favor, ingrese un importe.");
+            System.out.print("Re-ingrese el valor: ");
+        }
+    }
+
+    /**
+     * Lee un número decimal opcional; una línea vacía indica que no se ingresa valor.
+     * @return El número ingresado, o null si se dejó vacío.
+     */
+    private static Double leerDobleOpcional() {
+        while (true) {
+            String valorStr = leerLinea().trim();
+            if (valorStr.isEmpty()) {
+                return null;
+            }
+            try {
+                double valor = Double.parseDouble(valorStr);
+                if (Double.isFinite(valor)) {
+                    return valor;
+                }
+            } catch (NumberFormatException e) {
+                // Se vuelve a pedir el valor
+            }
+            System.out.print("Entrada inválida. Ingrese un número decimal o deje vacío: ");
+        }
+    }
+
     /**
      * Lee una línea completa de texto del usuario.
      * @return La cadena de texto ingresada por el usuario.
@@ -142,6 +365,52 @@ public class Main {
         return fecha;
     }
 
+    /**
+     * Lee una fecha opcional en formato DD-MM-YYYY; una línea vacía indica que no se ingresa fecha.
+     * @return La fecha ingresada, o null si se dejó vacía.
+     */
+    private static LocalDate leerFechaOpcional() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        while (true) {
+            String fechaStr = leerLinea().trim();
+            if (fechaStr.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(fechaStr, formatter);
+            } catch (DateTimeParseException e) {
+                System.out.print("Formato de fecha inválido. Use DD-MM-YYYY o deje vacío: ");
+            }
+        }
+    }
+
+    /**
+     * Pregunta al usuario si desea ver la siguiente página de un listado.
+     * @param pagina La página que se acaba de mostrar.
+     * @return true si hay más resultados y el usuario quiere verlos.
+     */
+    private static boolean continuarPaginacion(Pagina<?> pagina) {
+        if (!pagina.hayMas()) {
+            return false;
+        }
+        System.out.print("Presione Enter para ver más resultados o ingrese 0 para terminar: ");
+        return !leerLinea().trim().equals("0");
+    }
+
+    /**
+     * Muestra al usuario el resultado de una operación del gestor.
+     * @param resultado El resultado devuelto por el gestor.
+     * @param mensajeExito El mensaje a mostrar si la operación se aplicó.
+     * @param id El ID de la entidad involucrada, para detallar los errores.
+     */
+    private static void informar(Resultado resultado, String mensajeExito, String id) {
+        if (resultado.isExitoso()) {
+            System.out.println(mensajeExito);
+        } else {
+            System.out.println("Error: " + resultado.getDescripcion() + " (ID: " + id + ")");
+        }
+    }
+
     // --- Menús de Gestión por Entidad ---
 
     /**
@@ -156,6 +425,7 @@ public class Main {
             System.out.println("3. Buscar Propiedad por ID");
             System.out.println("4. Actualizar Propiedad");
             System.out.println("5. Eliminar Propiedad");
+            System.out.println("6. Buscar Propiedades por Criterios");
             System.out.println("0. Volver al Menú Principal");
             System.out.print("Seleccione una opción: ");
 
@@ -177,6 +447,9 @@ public class Main {
                 case 5:
                     eliminarPropiedad();
                     break;
+                case 6:
+                    buscarPropiedades();
+                    break;
                 case 0:
                     System.out.println("Volviendo al Menú Principal...");
                     break;
@@ -200,12 +473,14 @@ public class Main {
         System.out.print("Metros Cuadrados: ");
         double metrosCuadrados = leerDoble();
         System.out.print("Precio de Alquiler Mensual: ");
-        double precioMensual = leerDoble();
+        long precioMensualCentavos = leerImporte();
 
         // Se crea un nuevo objeto Propiedad. El ID se deja nulo para que el gestor lo genere.
         // El estado 'alquilada' se inicializa a false, asumiendo que una propiedad nueva no está alquilada.
-        Propiedad nuevaPropiedad = new Propiedad(null, direccion, tipo, metrosCuadrados, false, precioMensual);
-        gestor.agregarPropiedad(nuevaPropiedad);
+        Propiedad nuevaPropiedad = new Propiedad(null, direccion, tipo, metrosCuadrados, false, 0);
+        nuevaPropiedad.setPrecioMensualCentavos(precioMensualCentavos);
+        Resultado resultado = gestor.agregarPropiedad(nuevaPropiedad);
+        informar(resultado, "Propiedad '" + nuevaPropiedad.getDireccion() + "' agregada correctamente. ID: " + nuevaPropiedad.getId(), nuevaPropiedad.getId());
     }
 
     /**
@@ -265,23 +540,25 @@ public class Main {
             System.out.println("Propiedad actual: " + propiedadExistente.getDireccion());
 
             // Se solicitan los nuevos datos. Si se dejan vacíos, se mantienen los valores actuales.
+            // Los cambios se arman en una propiedad nueva: la registrada sólo la modifica el gestor.
             System.out.print("Nueva Dirección (" + propiedadExistente.getDireccion() + "): ");
             String nuevaDireccion = leerLinea();
-            if (!nuevaDireccion.isEmpty()) {
-                propiedadExistente.setDireccion(nuevaDireccion);
+            if (nuevaDireccion.isEmpty()) {
+                nuevaDireccion = propiedadExistente.getDireccion();
             }
 
             System.out.print("Nuevo Tipo (" + propiedadExistente.getTipo() + "): ");
             String nuevoTipo = leerLinea();
-            if (!nuevoTipo.isEmpty()) {
-                propiedadExistente.setTipo(nuevoTipo);
+            if (nuevoTipo.isEmpty()) {
+                nuevoTipo = propiedadExistente.getTipo();
             }
 
             System.out.print("Nuevos Metros Cuadrados (" + propiedadExistente.getMetrosCuadrados() + "): ");
             String m2Str = leerLinea();
+            double nuevosMetros = propiedadExistente.getMetrosCuadrados();
             if (!m2Str.isEmpty()) {
                 try {
-                    propiedadExistente.setMetrosCuadrados(Double.parseDouble(m2Str));
+                    nuevosMetros = Double.parseDouble(m2Str);
                 } catch (NumberFormatException e) {
                     System.out.println("Valor de metros cuadrados inválido, se mantiene el anterior.");
                 }
@@ -289,26 +566,29 @@ public class Main {
 
             System.out.print("Nuevo Precio Mensual (" + propiedadExistente.getPrecioMensual() + "): ");
             String precioStr = leerLinea();
+            long nuevoPrecioCentavos = propiedadExistente.getPrecioMensualCentavos();
             if (!precioStr.isEmpty()) {
                 try {
-                    propiedadExistente.setPrecioMensual(Double.parseDouble(precioStr));
+                    nuevoPrecioCentavos = Dinero.parsear(precioStr);
                 } catch (NumberFormatException e) {
                     System.out.println("Valor de precio mensual inválido, se mantiene el anterior.");
                 }
             }
 
             // Se crea un nuevo objeto Propiedad con los datos actualizados (o existentes si no se modificaron).
-            // Es importante pasar el ID y el estado 'alquilada' actual, ya que el gestor espera un objeto completo.
+            // El estado 'alquilada' no se envía: lo mantiene el gestor según los contratos de la propiedad.
             Propiedad propiedadConDatosActualizados = new Propiedad(
                     propiedadExistente.getId(),
-                    propiedadExistente.getDireccion(),
-                    propiedadExistente.getTipo(),
-                    propiedadExistente.getMetrosCuadrados(),
-                    propiedadExistente.isAlquilada(), // Se mantiene el valor actual de 'alquilada'
-                    propiedadExistente.getPrecioMensual()
+                    nuevaDireccion,
+                    nuevoTipo,
+                    nuevosMetros,
+                    propiedadExistente.isAlquilada(),
+                    0
             );
+            propiedadConDatosActualizados.setPrecioMensualCentavos(nuevoPrecioCentavos);
 
-            gestor.actualizarPropiedad(propiedadConDatosActualizados);
+            Resultado resultado = gestor.actualizarPropiedad(propiedadConDatosActualizados);
+            informar(resultado, "Propiedad '" + propiedadConDatosActualizados.getId() + "' actualizada correctamente.", propiedadConDatosActualizados.getId());
 
         } else {
             System.out.println("Propiedad con ID '" + id + "' no encontrada para actualizar.");
@@ -322,7 +602,56 @@ public class Main {
         System.out.println("\n--- Eliminar Propiedad ---");
         System.out.print("Ingrese el ID de la propiedad a eliminar: ");
         String id = leerLinea();
-        gestor.eliminarPropiedad(id);
+        Resultado resultado = gestor.eliminarPropiedad(id);
+        informar(resultado, "Propiedad '" + id + "' eliminada correctamente.", id);
+    }
+
+    /**
+     * Solicita criterios de búsqueda (todos opcionales) y lista las propiedades que los cumplen.
+     */
+    private static void buscarPropiedades() {
+        System.out.println("\n--- Buscar Propiedades por Criterios ---");
+        System.out.println("Deje vacío un criterio para no filtrar por él.");
+        System.out.print("Tipo: ");
+        String tipo = leerLinea();
+        System.out.print("Estado (A = alquilada, D = disponible): ");
+        String estadoStr = leerLinea().trim();
+        Boolean alquilada = null;
+        if (estadoStr.equalsIgnoreCase("A")) {
+            alquilada = true;
+        } else if (estadoStr.equalsIgnoreCase("D")) {
+            alquilada = false;
+        }
+        System.out.print("Metros cuadrados mínimos: ");
+        Double metrosMinimos = leerDobleOpcional();
+        System.out.print("Metros cuadrados máximos: ");
+        Double metrosMaximos = leerDobleOpcional();
+        System.out.print("Precio mensual mínimo: ");
+        Double precioMinimo = leerDobleOpcional();
+        System.out.print("Precio mensual máximo: ");
+        Double precioMaximo = leerDobleOpcional();
+
+        ConsultaPropiedades consulta;
+        try {
+            consulta = new ConsultaPropiedades(tipo, alquilada, metrosMinimos, metrosMaximos, precioMinimo, precioMaximo);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        List<Propiedad> propiedades = gestor.buscarPropiedades(consulta);
+        if (propiedades.isEmpty()) {
+            System.out.println("No hay propiedades que cumplan los criterios.");
+            return;
+        }
+        for (Propiedad p : propiedades) {
+            System.out.println("ID: " + p.getId() +
+                    ", Dirección: " + p.getDireccion() +
+                    ", Tipo: " + p.getTipo() +
+                    ", M2: " + p.getMetrosCuadrados() +
+                    ", Precio: " + p.getPrecioMensual() +
+                    ", Alquilada: " + (p.isAlquilada() ? "Sí" : "No"));
+        }
+        System.out.println(propiedades.size() + " propiedad(es) encontrada(s).");
     }
 
     // --- Menús de Gestión para Inquilinos ---
@@ -339,6 +668,8 @@ public class Main {
             System.out.println("3. Buscar Inquilino por ID");
             System.out.println("4. Actualizar Inquilino");
             System.out.println("5. Eliminar Inquilino");
+            System.out.println("6. Buscar Inquilinos por Nombre, DNI, Email o Teléfono");
+            System.out.println("7. Buscar Inquilino por DNI");
             System.out.println("0. Volver al Menú Principal");
             System.out.print("Seleccione una opción: ");
 
@@ -360,6 +691,12 @@ public class Main {
                 case 5:
                     eliminarInquilino();
                     break;
+                case 6:
+                    buscarInquilinos();
+                    break;
+                case 7:
+                    buscarInquilinoPorDni();
+                    break;
                 case 0:
                     System.out.println("Volviendo al Menú Principal...");
                     break;
@@ -384,12 +721,20 @@ public class Main {
         String telefono = leerLinea();
         System.out.print("DNI: ");
         String dni = leerLinea();
+        // Si el DNI ya está registrado no se piden más datos: se muestra el inquilino existente
+        Optional<Inquilino> existente = gestor.buscarInquilinoPorDni(dni);
+        if (existente.isPresent()) {
+            System.out.println("Ya existe un inquilino con ese DNI: ID " + existente.get().getId() + ", "
+                    + existente.get().getNombre() + " " + existente.get().getApellido() + ".");
+            return;
+        }
         System.out.print("Email: ");
         String email = leerLinea();
 
         // Se crea un nuevo objeto Inquilino. El ID se deja nulo para que el gestor lo genere.
         Inquilino nuevoInquilino = new Inquilino(null, nombre, apellido, telefono, dni, email);
-        gestor.agregarInquilino(nuevoInquilino);
+        Resultado resultado = gestor.agregarInquilino(nuevoInquilino);
+        informar(resultado, "Inquilino '" + nuevoInquilino.getNombre() + " " + nuevoInquilino.getApellido() + "' agregado correctamente. ID: " + nuevoInquilino.getId(), nuevoInquilino.getId());
     }
 
     /**
@@ -412,6 +757,29 @@ public class Main {
         }
     }
 
+    /**
+     * Solicita un texto (parte del nombre, apellido, DNI, email o teléfono) y muestra los inquilinos
+     * que más se le parecen.
+     */
+    private static void buscarInquilinos() {
+        System.out.println("\n--- Buscar Inquilinos ---");
+        System.out.print("Texto a buscar: ");
+        String texto = leerLinea();
+        List<Inquilino> inquilinos = gestor.buscarInquilinos(texto, 20);
+        if (inquilinos.isEmpty()) {
+            System.out.println("No se encontraron inquilinos.");
+            return;
+        }
+        for (Inquilino i : inquilinos) {
+            System.out.println("ID: " + i.getId() +
+                    ", Nombre: " + i.getNombre() +
+                    ", Apellido: " + i.getApellido() +
+                    ", DNI: " + i.getDni() +
+                    ", Teléfono: " + i.getTelefono() +
+                    ", Email: " + i.getEmail());
+        }
+    }
+
     /**
      * Solicita un ID de inquilino y muestra la información del inquilino encontrado.
      */
@@ -434,6 +802,28 @@ public class Main {
         }
     }
 
+    /**
+     * Solicita un DNI y muestra el inquilino que lo tiene.
+     */
+    private static void buscarInquilinoPorDni() {
+        System.out.println("\n--- Buscar Inquilino por DNI ---");
+        System.out.print("Ingrese el DNI del inquilino a buscar: ");
+        String dni = leerLinea();
+        Optional<Inquilino> inquilinoOpt = gestor.buscarInquilinoPorDni(dni);
+        if (inquilinoOpt.isPresent()) {
+            Inquilino i = inquilinoOpt.get();
+            System.out.println("Inquilino encontrado:");
+            System.out.println("ID: " + i.getId() +
+                    ", Nombre: " + i.getNombre() +
+                    ", Apellido: " + i.getApellido() +
+                    ", DNI: " + i.getDni() +
+                    ", Teléfono: " + i.getTelefono() +
+                    ", Email: " + i.getEmail());
+        } else {
+            System.out.println("Inquilino con DNI '" + dni + "' no encontrado.");
+        }
+    }
+
     /**
      * Solicita el ID de un inquilino a actualizar y luego los nuevos datos.
      * Permite mantener datos existentes si el usuario deja un campo vacío.
@@ -448,43 +838,46 @@ public class Main {
             Inquilino inquilinoExistente = inquilinoOpt.get();
             System.out.println("Inquilino actual: " + inquilinoExistente.getNombre() + " " + inquilinoExistente.getApellido());
 
+            // Los cambios se arman en un inquilino nuevo: el registrado sólo lo modifica el gestor, que
+            // rechaza un email repetido sin tocar los datos.
             System.out.print("Nuevo Nombre (" + inquilinoExistente.getNombre() + "): ");
             String nuevoNombre = leerLinea();
-            if (!nuevoNombre.isEmpty()) {
-                inquilinoExistente.setNombre(nuevoNombre);
+            if (nuevoNombre.isEmpty()) {
+                nuevoNombre = inquilinoExistente.getNombre();
             }
 
             System.out.print("Nuevo Apellido (" + inquilinoExistente.getApellido() + "): ");
             String nuevoApellido = leerLinea();
-            if (!nuevoApellido.isEmpty()) {
-                inquilinoExistente.setApellido(nuevoApellido);
+            if (nuevoApellido.isEmpty()) {
+                nuevoApellido = inquilinoExistente.getApellido();
             }
 
             // El DNI no tiene setter en el modelo Inquilino, por lo que no se pide actualización aquí.
 
             System.out.print("Nuevo Teléfono (" + inquilinoExistente.getTelefono() + "): ");
             String nuevoTelefono = leerLinea();
-            if (!nuevoTelefono.isEmpty()) {
-                inquilinoExistente.setTelefono(nuevoTelefono);
+            if (nuevoTelefono.isEmpty()) {
+                nuevoTelefono = inquilinoExistente.getTelefono();
             }
 
             System.out.print("Nuevo Email (" + inquilinoExistente.getEmail() + "): ");
             String nuevoEmail = leerLinea();
-            if (!nuevoEmail.isEmpty()) {
-                inquilinoExistente.setEmail(nuevoEmail);
+            if (nuevoEmail.isEmpty()) {
+                nuevoEmail = inquilinoExistente.getEmail();
             }
 
             // Se crea un nuevo objeto Inquilino con los datos actualizados (o existentes).
             Inquilino inquilinoConDatosActualizados = new Inquilino(
                     inquilinoExistente.getId(),
-                    inquilinoExistente.getNombre(),
-                    inquilinoExistente.getApellido(),
-                    inquilinoExistente.getTelefono(),
+                    nuevoNombre,
+                    nuevoApellido,
+                    nuevoTelefono,
                     inquilinoExistente.getDni(), // El DNI se mantiene el existente
-                    inquilinoExistente.getEmail()
+                    nuevoEmail
             );
 
-            gestor.actualizarInquilino(inquilinoConDatosActualizados);
+            Resultado resultado = gestor.actualizarInquilino(inquilinoConDatosActualizados);
+            informar(resultado, "Inquilino '" + inquilinoConDatosActualizados.getId() + "' actualizado correctamente.", inquilinoConDatosActualizados.getId());
 
         } else {
             System.out.println("Inquilino con ID '" + id + "' no encontrado para actualizar.");
@@ -498,7 +891,8 @@ public class Main {
         System.out.println("\n--- Eliminar Inquilino ---");
         System.out.print("Ingrese el ID del inquilino a eliminar: ");
         String id = leerLinea();
-        gestor.eliminarInquilino(id);
+        Resultado resultado = gestor.eliminarInquilino(id);
+        informar(resultado, "Inquilino '" + id + "' eliminado correctamente.", id);
     }
 
 
@@ -516,6 +910,9 @@ public class Main {
             System.out.println("5. Actualizar Contrato");
             System.out.println("6. Finalizar Contrato");
             System.out.println("7. Eliminar Contrato"); // Si decides mantener la eliminación en el gestor
+            System.out.println("8. Contratos por Vencer");
+            System.out.println("9. Contratos Vigentes en una Fecha");
+            System.out.println("10. Contratos en un Rango de Fechas");
             System.out.println("0. Volver al Menú Principal");
             System.out.print("Seleccione una opción: ");
 
@@ -543,6 +940,15 @@ public class Main {
                 case 7: // Si decides mantener la eliminación en el gestor
                     eliminarContrato();
                     break;
+                case 8:
+                    listarContratosPorVencer();
+                    break;
+                case 9:
+                    listarContratosVigentesEn();
+                    break;
+                case 10:
+                    listarContratosSuperpuestos();
+                    break;
                 case 0:
                     System.out.println("Volviendo al Menú Principal...");
                     break;
@@ -587,7 +993,7 @@ public class Main {
         System.out.print("Fecha de Fin del Contrato: ");
         LocalDate fechaFin = leerFecha();
         System.out.print("Valor Mensual del Alquiler: ");
-        double valorMensual = leerDoble();
+        long valorMensualCentavos = leerImporte();
 
         // Se crea un nuevo objeto ContratoAlquiler. El ID se deja nulo para que el gestor lo genere.
         // Se pasan las instancias reales de Propiedad e Inquilino.
@@ -597,11 +1003,13 @@ public class Main {
                 fechaFin,
                 propiedad, // Instancia real de la propiedad
                 inquilino, // Instancia real del inquilino
-                valorMensual,
+                0,
                 true // Un contrato recién creado se considera activo
         );
+        nuevoContrato.setValorMensualCentavos(valorMensualCentavos);
 
-        gestor.crearContrato(nuevoContrato);
+        Resultado resultado = gestor.crearContrato(nuevoContrato);
+        informar(resultado, "Contrato creado con éxito para la propiedad '" + nuevoContrato.getPropiedad().getDireccion() + "' e inquilino '" + nuevoContrato.getInquilino().getNombre() + "'. ID: " + nuevoContrato.getId(), nuevoContrato.getPropiedad().getId());
     }
 
     /**
@@ -701,10 +1109,10 @@ public class Main {
 
             System.out.print("Nuevo Valor Mensual (" + contratoExistente.getValorMensual() + "): ");
             String valorStr = leerLinea();
-            double nuevoValorMensual = contratoExistente.getValorMensual();
+            long nuevoValorMensualCentavos = contratoExistente.getValorMensualCentavos();
             if (!valorStr.isEmpty()) {
                 try {
-                    nuevoValorMensual = Double.parseDouble(valorStr);
+                    nuevoValorMensualCentavos = Dinero.parsear(valorStr);
                 } catch (NumberFormatException e) {
                     System.out.println("Valor mensual inválido, se mantiene el anterior.");
                 }
@@ -718,11 +1126,13 @@ public class Main {
                     nuevaFechaFin,
                     contratoExistente.getPropiedad(), // Las referencias a Propiedad e Inquilino NO cambian
                     contratoExistente.getInquilino(),
-                    nuevoValorMensual,
+                    0,
                     contratoExistente.isActivo() // Se mantiene el estado actual de activo
             );
+            contratoConDatosActualizados.setValorMensualCentavos(nuevoValorMensualCentavos);
 
-            gestor.actualizarContrato(contratoConDatosActualizados);
+            Resultado resultado = gestor.actualizarContrato(contratoConDatosActualizados);
+            informar(resultado, "Contrato '" + contratoConDatosActualizados.getId() + "' actualizado con éxito.", contratoConDatosActualizados.getId());
 
         } else {
             System.out.println("Contrato con ID '" + id + "' no encontrado para actualizar.");
@@ -736,7 +1146,8 @@ public class Main {
         System.out.println("\n--- Finalizar Contrato ---");
         System.out.print("Ingrese el ID del contrato a finalizar: ");
         String id = leerLinea();
-        gestor.finalizarContrato(id);
+        Resultado resultado = gestor.finalizarContrato(id);
+        informar(resultado, "Contrato '" + id + "' finalizado y propiedad liberada.", id);
     }
 
     /**
@@ -747,7 +1158,67 @@ public class Main {
         System.out.println("\n--- Eliminar Contrato ---");
         System.out.print("Ingrese el ID del contrato a eliminar: ");
         String id = leerLinea();
-        gestor.eliminarContrato(id);
+        Resultado resultado = gestor.eliminarContrato(id);
+        informar(resultado, "Contrato '" + id + "' eliminado permanentemente del sistema junto con sus pagos.", id);
+    }
+
+    /**
+     * Solicita una cantidad de días y lista los contratos activos que vencen desde hoy hasta ese plazo.
+     */
+    private static void listarContratosPorVencer() {
+        System.out.println("\n--- Contratos por Vencer ---");
+        System.out.print("Cantidad de días desde hoy: ");
+        int dias = leerEntero();
+        if (dias < 0) {
+            System.out.println("Error: La cantidad de días no puede ser negativa.");
+            return;
+        }
+        mostrarContratos(gestor.listarContratosPorVencer(LocalDate.now(), dias),
+                "No hay contratos activos que venzan en los próximos " + dias + " días.");
+    }
+
+    /**
+     * Solicita una fecha y lista los contratos cuyo período la incluye.
+     */
+    private static void listarContratosVigentesEn() {
+        System.out.println("\n--- Contratos Vigentes en una Fecha ---");
+        LocalDate fecha = leerFecha();
+        mostrarContratos(gestor.listarContratosVigentesEn(fecha), "No hay contratos vigentes el " + fecha + ".");
+    }
+
+    /**
+     * Solicita un rango de fechas y lista los contratos cuyo período se superpone con él.
+     */
+    private static void listarContratosSuperpuestos() {
+        System.out.println("\n--- Contratos en un Rango de Fechas ---");
+        System.out.print("Desde: ");
+        LocalDate desde = leerFecha();
+        System.out.print("Hasta: ");
+        LocalDate hasta = leerFecha();
+        if (hasta.isBefore(desde)) {
+            System.out.println("Error: La fecha final es anterior a la inicial.");
+            return;
+        }
+        mostrarContratos(gestor.listarContratosSuperpuestos(desde, hasta), "No hay contratos en ese rango de fechas.");
+    }
+
+    /**
+     * Muestra una lista de contratos, o un mensaje si está vacía.
+     */
+    private static void mostrarContratos(List<ContratoAlquiler> contratos, String siVacia) {
+        if (contratos.isEmpty()) {
+            System.out.println(siVacia);
+            return;
+        }
+        for (ContratoAlquiler c : contratos) {
+            System.out.println("ID: " + c.getId() +
+                    ", Propiedad: " + c.getPropiedad().getDireccion() + " (ID: " + c.getPropiedad().getId() + ")" +
+                    ", Inquilino: " + c.getInquilino().getNombre() + " " + c.getInquilino().getApellido() + " (ID: " + c.getInquilino().getId() + ")" +
+                    ", Inicio: " + c.getFechaInicio() +
+                    ", Fin: " + c.getFechaFin() +
+                    ", Valor: " + c.getValorMensual() +
+                    ", Activo: " + (c.isActivo() ? "Sí" : "No"));
+        }
     }
 
     // --- Menús de Gestión para Pagos ---
@@ -766,6 +1237,8 @@ public class Main {
             System.out.println("5. Confirmar Pago");
             System.out.println("6. Actualizar Pago");
             System.out.println("7. Eliminar Pago");
+            System.out.println("8. Resumen de Ingresos");
+            System.out.println("9. Períodos Pagados y Adeudados de un Contrato");
             System.out.println("0. Volver al Menú Principal");
             System.out.print("Seleccione una opción: ");
 
@@ -793,6 +1266,12 @@ public class Main {
                 case 7:
                     eliminarPago();
                     break;
+                case 8:
+                    resumirPagos();
+                    break;
+                case 9:
+                    listarPeriodosDeContrato();
+                    break;
                 case 0:
                     System.out.println("Volviendo al Menú Principal...");
                     break;
@@ -824,14 +1303,16 @@ public class Main {
         System.out.print("Fecha de Pago: ");
         LocalDate fechaPago = leerFecha();
         System.out.print("Monto del Pago: ");
-        double monto = leerDoble();
+        long montoCentavos = leerImporte();
         System.out.print("Periodo Correspondiente (Ej. 2024-05): ");
         String periodo = leerLinea();
 
         // Se crea un nuevo objeto Pago. El ID se deja nulo para que el gestor lo genere.
         // El estado 'confirmado' se inicializa a false por defecto para un pago recién registrado.
-        Pago nuevoPago = new Pago(null, contrato, fechaPago, monto, false, periodo);
-        gestor.registrarPago(nuevoPago);
+        Pago nuevoPago = new Pago(null, contrato, fechaPago, 0, false, periodo);
+        nuevoPago.setValorPagoCentavos(montoCentavos);
+        Resultado resultado = gestor.registrarPago(nuevoPago);
+        informar(resultado, "Pago registrado para el contrato " + nuevoPago.getContrato().getId() + " del periodo " + nuevoPago.getPeriodoCorrespondiente() + ". ID: " + nuevoPago.getId(), nuevoPago.getContrato().getId());
     }
 
     /**
@@ -839,11 +1320,14 @@ public class Main {
      */
     private static void listarPagos() {
         System.out.println("\n--- Listado de Pagos ---");
-        List<Pago> pagos = gestor.listarPagos();
-        if (pagos.isEmpty()) {
+        // Se muestran los pagos de a una página para no copiar el listado completo
+        Pagina<Pago> pagina = gestor.listarPagos(null, TAMANIO_PAGINA);
+        if (pagina.getElementos().isEmpty()) {
             System.out.println("No hay pagos registrados.");
-        } else {
-            for (Pago p : pagos) {
+            return;
+        }
+        do {
+            for (Pago p : pagina.getElementos()) {
                 System.out.println("ID: " + p.getId() +
                         ", Contrato: " + p.getContrato().getId() +
                         ", Fecha: " + p.getFechaPago() +
@@ -851,7 +1335,7 @@ public class Main {
                         ", Periodo: " + p.getPeriodoCorrespondiente() +
                         ", Confirmado: " + (p.isConfirmado() ? "Sí" : "No"));
             }
-        }
+        } while (continuarPaginacion(pagina) && (pagina = gestor.listarPagos(pagina.getCursorSiguiente(), TAMANIO_PAGINA)) != null);
     }
 
     /**
@@ -868,19 +1352,21 @@ public class Main {
             return;
         }
 
-        List<Pago> pagos = gestor.listarPagosPorContrato(contratoId);
-        if (pagos.isEmpty()) {
+        Pagina<Pago> pagina = gestor.listarPagosPorContrato(contratoId, null, TAMANIO_PAGINA);
+        if (pagina.getElementos().isEmpty()) {
             System.out.println("No hay pagos registrados para el contrato '" + contratoId + "'.");
-        } else {
-            System.out.println("Pagos para el contrato '" + contratoId + "':");
-            for (Pago p : pagos) {
+            return;
+        }
+        System.out.println("Pagos para el contrato '" + contratoId + "':");
+        do {
+            for (Pago p : pagina.getElementos()) {
                 System.out.println("  ID: " + p.getId() +
                         ", Fecha: " + p.getFechaPago() +
                         ", Monto: " + p.getValorPago() +
                         ", Periodo: " + p.getPeriodoCorrespondiente() +
                         ", Confirmado: " + (p.isConfirmado() ? "Sí" : "No"));
             }
-        }
+        } while (continuarPaginacion(pagina) && (pagina = gestor.listarPagosPorContrato(contratoId, pagina.getCursorSiguiente(), TAMANIO_PAGINA)) != null);
     }
 
     /**
@@ -912,7 +1398,8 @@ public class Main {
         System.out.println("\n--- Confirmar Pago ---");
         System.out.print("Ingrese el ID del pago a confirmar: ");
         String id = leerLinea();
-        gestor.confirmarPago(id);
+        Resultado resultado = gestor.confirmarPago(id);
+        informar(resultado, "Pago " + id + " confirmado.", id);
     }
 
     /**
@@ -943,10 +1430,10 @@ public class Main {
 
             System.out.print("Nuevo Monto (" + pagoExistente.getValorPago() + "): ");
             String montoStr = leerLinea();
-            double nuevoMonto = pagoExistente.getValorPago(); // Valor por defecto
+            long nuevoMontoCentavos = pagoExistente.getValorPagoCentavos(); // Valor por defecto
             if (!montoStr.isEmpty()) {
                 try {
-                    nuevoMonto = Double.parseDouble(montoStr);
+                    nuevoMontoCentavos = Dinero.parsear(montoStr);
                 } catch (NumberFormatException e) {
                     System.out.println("Monto inválido, se mantiene el anterior.");
                 }
@@ -964,12 +1451,14 @@ public class Main {
                     pagoExistente.getId(),
                     pagoExistente.getContrato(), // La referencia al contrato NO cambia
                     nuevaFechaPago,
-                    nuevoMonto,
+                    0,
                     pagoExistente.isConfirmado(), // Se mantiene el estado actual de confirmado
                     nuevoPeriodo
             );
+            pagoConDatosActualizados.setValorPagoCentavos(nuevoMontoCentavos);
 
-            gestor.actualizarPago(pagoConDatosActualizados);
+            Resultado resultado = gestor.actualizarPago(pagoConDatosActualizados);
+            informar(resultado, "Pago '" + pagoConDatosActualizados.getId() + "' actualizado correctamente.", pagoConDatosActualizados.getId());
 
         } else {
             System.out.println("Pago con ID '" + id + "' no encontrado para actualizar.");
@@ -983,7 +1472,46 @@ public class Main {
         System.out.println("\n--- Eliminar Pago ---");
         System.out.print("Ingrese el ID del pago a eliminar: ");
         String id = leerLinea();
-        gestor.eliminarPago(id);
+        Resultado resultado = gestor.eliminarPago(id);
+        informar(resultado, "Pago '" + id + "' eliminado correctamente.", id);
+    }
+
+    /**
+     * Solicita un rango de fechas y opcionalmente un contrato, y muestra la cantidad y el total de los
+     * pagos registrados y confirmados en ese rango.
+     */
+    private static void resumirPagos() {
+        System.out.println("\n--- Resumen de Ingresos ---");
+        System.out.print("Desde la fecha (DD-MM-YYYY, Enter para no limitar): ");
+        LocalDate desde = leerFechaOpcional();
+        System.out.print("Hasta la fecha (DD-MM-YYYY, Enter para no limitar): ");
+        LocalDate hasta = leerFechaOpcional();
+        System.out.print("ID del contrato (Enter para todos): ");
+        String contratoId = leerLinea().trim();
+        String contrato = contratoId.isEmpty() ? null : contratoId;
+
+        ResumenPagos registrados = gestor.resumirPagos(contrato, desde, hasta, false);
+        ResumenPagos confirmados = gestor.resumirPagos(contrato, desde, hasta, true);
+        System.out.println("Pagos registrados: " + registrados.getCantidad() + ", Total: " + Dinero.formatear(registrados.getTotalCentavos()));
+        System.out.println("Pagos confirmados: " + confirmados.getCantidad() + ", Total: " + Dinero.formatear(confirmados.getTotalCentavos()));
+    }
+
+    /**
+     * Muestra los meses con pagos de un contrato y los meses sin pagos hasta el mes actual.
+     */
+    private static void listarPeriodosDeContrato() {
+        System.out.println("\n--- Períodos Pagados y Adeudados ---");
+        System.out.print("Ingrese el ID del contrato: ");
+        String contratoId = leerLinea();
+
+        if (!gestor.buscarContratoPorId(contratoId).isPresent()) {
+            System.out.println("Error: Contrato con ID '" + contratoId + "' no encontrado.");
+            return;
+        }
+        List<YearMonth> pagados = gestor.listarPeriodosPagados(contratoId);
+        List<YearMonth> adeudados = gestor.listarPeriodosAdeudados(contratoId, YearMonth.now());
+        System.out.println("Períodos pagados: " + (pagados.isEmpty() ? "ninguno" : pagados));
+        System.out.println("Períodos sin pagos hasta hoy: " + (adeudados.isEmpty() ? "ninguno" : adeudados));
     }
 
     // --- Menús de Gestión para Incidencias ---
@@ -1001,6 +1529,7 @@ public class Main {
             System.out.println("4. Buscar Incidencia por ID");
             System.out.println("5. Actualizar Incidencia");
             System.out.println("6. Eliminar Incidencia");
+            System.out.println("7. Listar Incidencias por Estado");
             System.out.println("0. Volver al Menú Principal");
             System.out.print("Seleccione una opción: ");
 
@@ -1025,6 +1554,9 @@ public class Main {
                 case 6:
                     eliminarIncidencia();
                     break;
+                case 7:
+                    listarIncidenciasPorEstado();
+                    break;
                 case 0:
                     System.out.println("Volviendo al Menú Principal...");
                     break;
@@ -1058,12 +1590,14 @@ public class Main {
         System.out.print("Fecha de Reporte (DD-MM-YYYY): "); // Ajuste el mensaje para reflejar el formato de leerFecha()
         LocalDate fechaReporte = leerFecha();
         System.out.print("Costo Estimado (0 si desconocido): ");
-        double costoEstimado = leerDoble();
+        long costoEstimadoCentavos = leerImporte();
 
         // Se crea un nuevo objeto Incidencia. El ID se deja nulo para que el gestor lo genere.
         // El estado inicial es "Pendiente".
-        Incidencia nuevaIncidencia = new Incidencia(null, propiedad, descripcion, fechaReporte, "Pendiente", costoEstimado);
-        gestor.reportarIncidencia(nuevaIncidencia);
+        Incidencia nuevaIncidencia = new Incidencia(null, propiedad, descripcion, fechaReporte, EstadoIncidencia.PENDIENTE, 0);
+        nuevaIncidencia.setCostoEstimadoCentavos(costoEstimadoCentavos);
+        Resultado resultado = gestor.reportarIncidencia(nuevaIncidencia);
+        informar(resultado, "Incidencia reportada para la propiedad '" + nuevaIncidencia.getPropiedad().getDireccion() + "'. ID: " + nuevaIncidencia.getId(), nuevaIncidencia.getPropiedad().getId());
     }
 
     /**
@@ -1086,6 +1620,34 @@ public class Main {
         }
     }
 
+    /**
+     * Muestra la cantidad de incidencias de cada estado y lista las del estado elegido.
+     */
+    private static void listarIncidenciasPorEstado() {
+        System.out.println("\n--- Listar Incidencias por Estado ---");
+        gestor.contarIncidenciasPorEstado().forEach((estado, cantidad) -> System.out.println(estado + ": " + cantidad));
+        System.out.print("Estado a listar (Pendiente, En Proceso, Resuelta, Cancelada): ");
+        EstadoIncidencia estado;
+        try {
+            estado = EstadoIncidencia.desdeTexto(leerLinea());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        List<Incidencia> incidencias = gestor.listarIncidenciasPorEstado(estado);
+        if (incidencias.isEmpty()) {
+            System.out.println("No hay incidencias en estado '" + estado + "'.");
+            return;
+        }
+        for (Incidencia i : incidencias) {
+            System.out.println("ID: " + i.getId() +
+                    ", Propiedad: " + i.getPropiedad().getDireccion() + " (ID: " + i.getPropiedad().getId() + ")" +
+                    ", Descripción: " + i.getDescripcion() +
+                    ", Fecha Reporte: " + i.getFecha() +
+                    ", Costo Estimado: " + i.getCostoEstimado());
+        }
+    }
+
     /**
      * Solicita un ID de propiedad y lista todas las incidencias asociadas a esa propiedad.
      */
@@ -1152,10 +1714,12 @@ public class Main {
             System.out.println("Incidencia actual para propiedad " + incidenciaExistente.getPropiedad().getDireccion() + ":");
             System.out.println("  Descripción: " + incidenciaExistente.getDescripcion() + ", Estado: " + incidenciaExistente.getEstado());
 
+            // Los cambios se arman en una incidencia nueva: la registrada sólo la modifica el gestor, que
+            // rechaza un cambio de estado no permitido sin tocar los datos.
             System.out.print("Nueva Descripción (" + incidenciaExistente.getDescripcion() + "): ");
             String nuevaDescripcion = leerLinea();
-            if (!nuevaDescripcion.isEmpty()) {
-                incidenciaExistente.setDescripcion(nuevaDescripcion);
+            if (nuevaDescripcion.isEmpty()) {
+                nuevaDescripcion = incidenciaExistente.getDescripcion();
             }
 
             System.out.print("Nueva Fecha de Reporte (" + incidenciaExistente.getFecha() + ") (DD-MM-YYYY): ");
@@ -1168,38 +1732,44 @@ public class Main {
                     System.out.println("Formato de fecha inválido, se mantiene la anterior.");
                 }
             }
-            incidenciaExistente.setFecha(nuevaFechaReporte);
 
             System.out.print("Nuevo Estado (Pendiente, En Proceso, Resuelta, Cancelada) (" + incidenciaExistente.getEstado() + "): ");
-            String nuevoEstado = leerLinea();
-            if (!nuevoEstado.isEmpty()) {
-                incidenciaExistente.setEstado(nuevoEstado);
+            String estadoStr = leerLinea();
+            // El gestor valida el cambio contra el estado actual
+            EstadoIncidencia nuevoEstado = incidenciaExistente.getEstado();
+            if (!estadoStr.isEmpty()) {
+                try {
+                    nuevoEstado = EstadoIncidencia.desdeTexto(estadoStr);
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Estado inválido, se mantiene el anterior.");
+                }
             }
 
             System.out.print("Nuevo Costo Estimado (" + incidenciaExistente.getCostoEstimado() + "): ");
             String costoStr = leerLinea();
-            double nuevoCostoEstimado = incidenciaExistente.getCostoEstimado(); // Valor por defecto
+            long nuevoCostoCentavos = incidenciaExistente.getCostoEstimadoCentavos(); // Valor por defecto
             if (!costoStr.isEmpty()) {
                 try {
-                    nuevoCostoEstimado = Double.parseDouble(costoStr);
+                    nuevoCostoCentavos = Dinero.parsear(costoStr);
                 } catch (NumberFormatException e) {
                     System.out.println("Costo estimado inválido, se mantiene el anterior.");
                 }
             }
-            incidenciaExistente.setCostoEstimado(nuevoCostoEstimado);
 
             // Se crea un nuevo objeto Incidencia con los datos actualizados (o existentes).
             // La referencia a la propiedad no cambia.
             Incidencia incidenciaConDatosActualizados = new Incidencia(
                     incidenciaExistente.getId(),
                     incidenciaExistente.getPropiedad(),
-                    incidenciaExistente.getDescripcion(),
-                    incidenciaExistente.getFecha(),
-                    incidenciaExistente.getEstado(),
-                    incidenciaExistente.getCostoEstimado()
+                    nuevaDescripcion,
+                    nuevaFechaReporte,
+                    nuevoEstado,
+                    0
             );
+            incidenciaConDatosActualizados.setCostoEstimadoCentavos(nuevoCostoCentavos);
 
-            gestor.actualizarIncidencia(incidenciaConDatosActualizados);
+            Resultado resultado = gestor.actualizarIncidencia(incidenciaConDatosActualizados);
+            informar(resultado, "Incidencia '" + incidenciaConDatosActualizados.getId() + "' actualizada correctamente.", incidenciaConDatosActualizados.getId());
 
         } else {
             System.out.println("Incidencia con ID '" + id + "' no encontrada para actualizar.");
@@ -1213,6 +1783,7 @@ public class Main {
         System.out.println("\n--- Eliminar Incidencia ---");
         System.out.print("Ingrese el ID de la incidencia a eliminar: ");
         String id = leerLinea();
-        gestor.eliminarIncidencia(id);
+        Resultado resultado = gestor.eliminarIncidencia(id);
+        informar(resultado, "Incidencia '" + id + "' eliminada correctamente.", id);
     }
 }
\ No newline at end of file
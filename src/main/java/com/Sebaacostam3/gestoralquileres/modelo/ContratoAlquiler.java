@@ -9,7 +9,8 @@ public class ContratoAlquiler {
     private LocalDate fechaFin;
     private Propiedad propiedad;
     private Inquilino inquilino;
-    private double valorMensual;
+    // Importe en centavos (ver {@link Dinero})
+    private long valorMensualCentavos;
     private boolean activo;
 
     public ContratoAlquiler(String id, LocalDate fechaInicio, LocalDate fechaFin, Propiedad propiedad, Inquilino inquilino, double valorMensual, boolean activo) {
@@ -18,7 +19,7 @@ public class ContratoAlquiler {
         this.fechaFin = fechaFin;
         this.propiedad = propiedad;
         this.inquilino = inquilino;
-        this.valorMensual = valorMensual;
+        this.valorMensualCentavos = Dinero.centavos(valorMensual);
         this.activo = activo;
     }
 
@@ -47,11 +48,19 @@ public class ContratoAlquiler {
     }
 
     public double getValorMensual() {
-        return valorMensual;
+        return Dinero.importe(getValorMensualCentavos());
     }
 
     public void setValorMensual(double valorMensual) {
-        this.valorMensual = valorMensual;
+        setValorMensualCentavos(Dinero.centavos(valorMensual));
+    }
+
+    public long getValorMensualCentavos() {
+        return valorMensualCentavos;
+    }
+
+    public void setValorMensualCentavos(long valorMensualCentavos) {
+        this.valorMensualCentavos = valorMensualCentavos;
     }
 
     public boolean isActivo() {
@@ -78,6 +87,6 @@ public class ContratoAlquiler {
 
     @Override
     public String toString() {
-        return "ContratoAlquiler{" + "id=" + id + ", fechaInicio=" + fechaInicio + ", fechaFin=" + fechaFin + ", propiedad=" + propiedad + ", inquilino=" + inquilino + ", valorMensual=" + valorMensual + ", activo=" + activo + '}';
+        return "ContratoAlquiler{" + "id=" + id + ", fechaInicio=" + fechaInicio + ", fechaFin=" + fechaFin + ", propiedad=" + propiedad + ", inquilino=" + inquilino + ", valorMensual=" + Dinero.formatear(valorMensualCentavos) + ", activo=" + activo + '}';
     }
 }
@@ -0,0 +1,75 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importes en punto fijo. Un importe se guarda como un {@code long} con la cantidad de centavos, así que
+ * las sumas son exactas, no dependen del orden y no reservan memoria.
+ * <p>
+ * Los métodos convierten desde y hacia el {@code double} de la API anterior de las entidades y desde y
+ * hacia el texto con el que se ingresan, exportan y muestran los importes. Un {@code long} alcanza para
+ * sumar importes de hasta unos 92 billones de pesos sin desbordarse.
+ * <p>
+ * Desde {@code double} sólo se convierten importes finitos menores que 2<sup>53</sup> centavos (unos
+ * 90 billones de pesos), que son los que un {@code double} representa sin perder el centavo; con NaN,
+ * infinitos o importes mayores, {@link #centavos(double)} lanza {@link IllegalArgumentException}. Como
+ * los constructores y los setters con {@code double} de las entidades convierten con ese método, un
+ * importe así se rechaza al crear la entidad, antes de llegar al gestor. {@link #parsear(String)} no
+ * tiene ese límite: acepta cualquier importe que entre en un {@code long}.
+ */
+public final class Dinero {
+
+    public static final int CENTAVOS_POR_UNIDAD = 100;
+    private static final int DECIMALES = 2;
+    // Mayor importe representable en centavos como double sin perder el centavo
+    private static final double MAXIMO = (1L << 53) / (double) CENTAVOS_POR_UNIDAD;
+
+    private Dinero() {
+    }
+
+    /**
+     * Convierte un importe decimal a centavos, redondeando al centavo más cercano.
+     * @param importe El importe.
+     * @return La cantidad de centavos.
+     * @throws IllegalArgumentException Si el importe es NaN, infinito o de 2<sup>53</sup> centavos o más en valor
+     *         absoluto.
+     */
+    public static long centavos(double importe) {
+        if (!(Math.abs(importe) < MAXIMO)) {
+            throw new IllegalArgumentException("Importe fuera de rango: " + importe);
+        }
+        return Math.round(importe * CENTAVOS_POR_UNIDAD);
+    }
+
+    /**
+     * @param centavos Una cantidad de centavos.
+     * @return El importe decimal más cercano.
+     */
+    public static double importe(long centavos) {
+        return centavos / (double) CENTAVOS_POR_UNIDAD;
+    }
+
+    /**
+     * Lee un importe escrito en decimal (por ejemplo, "1500" o "1500.75") sin pasar por {@code double}.
+     * Los decimales después del centavo se redondean hacia el centavo más cercano.
+     * @param texto El importe, con punto como separador decimal.
+     * @return La cantidad de centavos.
+     * @throws NumberFormatException Si el texto no es un número o el importe es demasiado grande.
+     */
+    public static long parsear(String texto) {
+        try {
+            return new BigDecimal(texto.trim()).setScale(DECIMALES, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Importe fuera de rango: " + texto);
+        }
+    }
+
+    /**
+     * @param centavos Una cantidad de centavos.
+     * @return El importe con dos decimales y punto como separador, por ejemplo "1500.75".
+     */
+    public static String formatear(long centavos) {
+        return BigDecimal.valueOf(centavos, DECIMALES).toPlainString();
+    }
+}
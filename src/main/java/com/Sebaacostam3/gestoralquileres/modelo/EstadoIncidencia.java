@@ -0,0 +1,95 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+import java.util.Locale;
+
+/**
+ * Estados de una incidencia y los cambios de estado permitidos.
+ * <p>
+ * Una incidencia nace pendiente, puede pasar a en proceso y se cierra como resuelta o cancelada.
+ * Una incidencia resuelta puede reabrirse como pendiente; una cancelada ya no cambia.
+ */
+public enum EstadoIncidencia {
+    PENDIENTE("Pendiente"),
+    EN_PROCESO("En Proceso"),
+    RESUELTA("Resuelta"),
+    CANCELADA("Cancelada");
+
+    private final String nombre;
+
+    EstadoIncidencia(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * @return El nombre legible del estado, que es también el texto con el que se guarda y se exporta.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return true si la incidencia sigue abierta (ni resuelta ni cancelada).
+     */
+    public boolean estaAbierta() {
+        return this == PENDIENTE || this == EN_PROCESO;
+    }
+
+    /**
+     * Indica si una incidencia puede pasar de este estado a otro. Quedarse en el mismo estado siempre se permite.
+     * @param destino El estado nuevo.
+     * @return true si el cambio está permitido.
+     */
+    public boolean puedePasarA(EstadoIncidencia destino) {
+        if (destino == this) {
+            return true;
+        }
+        return switch (this) {
+            case PENDIENTE, EN_PROCESO -> true;
+            case RESUELTA -> destino == PENDIENTE;
+            case CANCELADA -> false;
+        };
+    }
+
+    /**
+     * Interpreta el nombre de un estado, sin distinguir mayúsculas ni separadores ("En Proceso", "en_proceso").
+     * @param texto El nombre del estado.
+     * @return El estado.
+     * @throws IllegalArgumentException Si el texto no es un estado.
+     */
+    public static EstadoIncidencia desdeTexto(String texto) {
+        EstadoIncidencia estado = buscar(texto);
+        if (estado == null) {
+            throw new IllegalArgumentException("Estado de incidencia desconocido: " + texto);
+        }
+        return estado;
+    }
+
+    /**
+     * Interpreta el estado guardado por una versión anterior, en la que era texto libre. Como entonces,
+     * cualquier texto que no sea un estado conocido (o la ausencia de estado) cuenta como pendiente.
+     * @param texto El estado guardado, o null.
+     * @return El estado.
+     */
+    public static EstadoIncidencia interpretar(String texto) {
+        EstadoIncidencia estado = buscar(texto);
+        return estado == null ? PENDIENTE : estado;
+    }
+
+    private static EstadoIncidencia buscar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String normalizado = texto.trim().replace(' ', '_').toUpperCase(Locale.ROOT);
+        for (EstadoIncidencia estado : values()) {
+            if (estado.name().equals(normalizado)) {
+                return estado;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
@@ -8,16 +8,18 @@ public class Incidencia {
     private Propiedad propiedad;
     private String descripcion;
     private LocalDate fecha;
-    private String estado;
-    private double costoEstimado;
+    private EstadoIncidencia estado;
+    // Importe en centavos (ver {@link Dinero})
+    private long costoEstimadoCentavos;
 
-    public Incidencia(String id, Propiedad propiedad, String descripcion, LocalDate fecha, String estado, double costoEstimado) {
+    public Incidencia(String id, Propiedad propiedad, String descripcion, LocalDate fecha, EstadoIncidencia estado, double costoEstimado) {
         this.id = id;
         this.propiedad = propiedad;
         this.descripcion = descripcion;
         this.fecha = fecha;
-        this.estado = estado;
-        this.costoEstimado = costoEstimado;
+        // Una incidencia sin estado se considera pendiente
+        this.estado = estado == null ? EstadoIncidencia.PENDIENTE : estado;
+        this.costoEstimadoCentavos = Dinero.centavos(costoEstimado);
     }
 
     public String getId() {
@@ -44,20 +46,32 @@ public class Incidencia {
         this.fecha = fecha;
     }
 
-    public String getEstado() {
+    public EstadoIncidencia getEstado() {
         return estado;
     }
 
-    public void setEstado(String estado) {
-        this.estado = estado;
+    /**
+     * Asigna el estado sin validar el cambio; el gestor valida las transiciones con
+     * {@link EstadoIncidencia#puedePasarA(EstadoIncidencia)}.
+     */
+    public void setEstado(EstadoIncidencia estado) {
+        this.estado = estado == null ? EstadoIncidencia.PENDIENTE : estado;
     }
 
     public double getCostoEstimado() {
-        return costoEstimado;
+        return Dinero.importe(getCostoEstimadoCentavos());
     }
 
     public void setCostoEstimado(double costoEstimado) {
-        this.costoEstimado = costoEstimado;
+        setCostoEstimadoCentavos(Dinero.centavos(costoEstimado));
+    }
+
+    public long getCostoEstimadoCentavos() {
+        return costoEstimadoCentavos;
+    }
+
+    public void setCostoEstimadoCentavos(long costoEstimadoCentavos) {
+        this.costoEstimadoCentavos = costoEstimadoCentavos;
     }
 
     public void setId(String id) {
@@ -72,7 +86,7 @@ public class Incidencia {
 
     @Override
     public String toString() {
-        return "Incidencia{" + "id=" + id + ", propiedad=" + propiedad + ", descripcion=" + descripcion + ", fecha=" + fecha + ", estado=" + estado + ", costoEstimado=" + costoEstimado + '}';
+        return "Incidencia{" + "id=" + id + ", propiedad=" + propiedad + ", descripcion=" + descripcion + ", fecha=" + fecha + ", estado=" + estado + ", costoEstimado=" + Dinero.formatear(costoEstimadoCentavos) + '}';
     }
 }
 
@@ -1,5 +1,7 @@
 package com.Sebaacostam3.gestoralquileres.modelo;
 
+import java.util.Locale;
+
 public class Inquilino {
 
     private String id;
@@ -62,6 +64,34 @@ public class Inquilino {
         return dni;
     }
 
+    /**
+     * Normaliza un DNI para compararlo: sin puntos, guiones ni espacios y en mayúsculas.
+     * @param dni El DNI tal como se ingresó, o null.
+     * @return El DNI normalizado, o null si no tiene letras ni dígitos.
+     */
+    public static String normalizarDni(String dni) {
+        if (dni == null) {
+            return null;
+        }
+        StringBuilder normalizado = new StringBuilder(dni.length());
+        for (int i = 0; i < dni.length(); i++) {
+            char c = dni.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalizado.append(Character.toUpperCase(c));
+            }
+        }
+        return normalizado.length() == 0 ? null : normalizado.toString();
+    }
+
+    /**
+     * Normaliza un email para compararlo: sin espacios en los extremos y en minúsculas.
+     * @param email El email tal como se ingresó, o null.
+     * @return El email normalizado, o null si está en blanco.
+     */
+    public static String normalizarEmail(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
         return "Inquilino{" + "id=" + id + ", nombre=" + nombre + ", apellido=" + apellido + ", telefono=" + telefono + ", dni=" + dni + ", email=" + email + '}';
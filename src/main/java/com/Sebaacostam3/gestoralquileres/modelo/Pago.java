@@ -1,23 +1,28 @@
 package com.Sebaacostam3.gestoralquileres.modelo;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 
 public class Pago {
 
     private String id;
     private ContratoAlquiler contrato;
     private LocalDate fechaPago;
-    private double valorPago;
+    // Importe en centavos (ver {@link Dinero})
+    private long valorPagoCentavos;
     private boolean confirmado;
     private String periodoCorrespondiente;
+    // Período AAAAMM ya interpretado (ver {@link Periodo}), para consultar y ordenar sin volver a leer el texto
+    private int periodo;
 
     public Pago(String id, ContratoAlquiler contrato, LocalDate fechaPago, double valorPago, boolean pagado, String periodoCorrespondiente) {
         this.id = id;
         this.contrato = contrato;
         this.fechaPago = fechaPago;
-        this.valorPago = valorPago;
+        this.valorPagoCentavos = Dinero.centavos(valorPago);
         this.confirmado = pagado;
         this.periodoCorrespondiente = periodoCorrespondiente;
+        this.periodo = Periodo.parsear(periodoCorrespondiente);
     }
 
     public String getId() {
@@ -37,11 +42,19 @@ public class Pago {
     }
 
     public double getValorPago() {
-        return valorPago;
+        return Dinero.importe(getValorPagoCentavos());
     }
 
     public void setValorPago(double valorPago) {
-        this.valorPago = valorPago;
+        setValorPagoCentavos(Dinero.centavos(valorPago));
+    }
+
+    public long getValorPagoCentavos() {
+        return valorPagoCentavos;
+    }
+
+    public void setValorPagoCentavos(long valorPagoCentavos) {
+        this.valorPagoCentavos = valorPagoCentavos;
     }
 
     public boolean isConfirmado() {
@@ -58,6 +71,26 @@ public class Pago {
 
     public void setPeriodoCorrespondiente(String periodoCorrespondiente) {
         this.periodoCorrespondiente = periodoCorrespondiente;
+        this.periodo = Periodo.parsear(periodoCorrespondiente);
+    }
+
+    /**
+     * @return El período correspondiente como código AAAAMM, o {@link Periodo#SIN_PERIODO} si no tiene
+     * o no tiene la forma AAAA-MM.
+     */
+    public int getPeriodoCodigo() {
+        return periodo;
+    }
+
+    /**
+     * @return El período correspondiente, o null si no tiene o no tiene la forma AAAA-MM.
+     */
+    public YearMonth getPeriodo() {
+        return Periodo.decodificar(getPeriodoCodigo());
+    }
+
+    public void setPeriodo(YearMonth periodo) {
+        setPeriodoCorrespondiente(periodo == null ? null : periodo.toString());
     }
 
     public void setId(String id) {
@@ -71,6 +104,6 @@ public class Pago {
 
     @Override
     public String toString() {
-        return "Pago{" + "id=" + id + ", contrato=" + contrato + ", fechaPago=" + fechaPago + ", valorPago=" + valorPago + ", pagado=" + confirmado + ", periodoCorrespondiente=" + periodoCorrespondiente + '}';
+        return "Pago{" + "id=" + id + ", contrato=" + contrato + ", fechaPago=" + fechaPago + ", valorPago=" + Dinero.formatear(valorPagoCentavos) + ", pagado=" + confirmado + ", periodoCorrespondiente=" + periodoCorrespondiente + '}';
     }
 }
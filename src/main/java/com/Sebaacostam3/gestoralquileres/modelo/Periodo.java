@@ -0,0 +1,89 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Períodos (año y mes) empaquetados en un {@code int} con la forma AAAAMM, por ejemplo 202503 para marzo
+ * de 2025. Los códigos se ordenan igual que los meses, así que un rango de períodos es un rango de enteros.
+ * <p>
+ * El período de un pago se ingresa como texto libre; sólo los textos con la forma AAAA-MM tienen código.
+ * Los demás se conservan como texto y se codifican como {@link #SIN_PERIODO}.
+ */
+public final class Periodo {
+
+    /**
+     * Código de un período ausente o que no tiene la forma AAAA-MM. Es menor que cualquier período válido.
+     */
+    public static final int SIN_PERIODO = 0;
+
+    private Periodo() {
+    }
+
+    /**
+     * @param periodo Un período.
+     * @return Su código AAAAMM.
+     * @throws IllegalArgumentException Si el año no tiene cuatro cifras.
+     */
+    public static int codificar(YearMonth periodo) {
+        if (periodo.getYear() < 1 || periodo.getYear() > 9999) {
+            throw new IllegalArgumentException("Período fuera de rango: " + periodo);
+        }
+        return periodo.getYear() * 100 + periodo.getMonthValue();
+    }
+
+    /**
+     * @param codigo Un código AAAAMM.
+     * @return El período, o null si el código es {@link #SIN_PERIODO}.
+     */
+    public static YearMonth decodificar(int codigo) {
+        return codigo == SIN_PERIODO ? null : YearMonth.of(codigo / 100, codigo % 100);
+    }
+
+    /**
+     * Lee el período de un pago. La forma habitual AAAA-MM se interpreta sin crear objetos; cualquier otra
+     * se delega en {@link YearMonth#parse(CharSequence)}.
+     * @param texto El período tal como se ingresó, o null.
+     * @return Su código AAAAMM, o {@link #SIN_PERIODO} si el texto no es un período.
+     */
+    public static int parsear(String texto) {
+        if (texto == null) {
+            return SIN_PERIODO;
+        }
+        if (texto.length() == 7 && texto.charAt(4) == '-') {
+            int anio = digitos(texto, 0, 4);
+            int mes = digitos(texto, 5, 7);
+            if (anio > 0 && mes >= 1 && mes <= 12) {
+                return anio * 100 + mes;
+            }
+        }
+        try {
+            return codificar(YearMonth.parse(texto.trim()));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return SIN_PERIODO;
+        }
+    }
+
+    /**
+     * @param codigo Un código AAAAMM válido.
+     * @return El código del mes siguiente.
+     */
+    public static int siguiente(int codigo) {
+        return codigo % 100 == 12 ? (codigo / 100 + 1) * 100 + 1 : codigo + 1;
+    }
+
+    /**
+     * @return El valor de los dígitos decimales de texto[desde, hasta), o -1 si hay otro carácter.
+     */
+    private static int digitos(String texto, int desde, int hasta) {
+        int valor = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
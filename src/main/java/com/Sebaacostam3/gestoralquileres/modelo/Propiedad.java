@@ -7,7 +7,8 @@ public class Propiedad {
     private String tipo;
     private double metrosCuadrados;
     private boolean alquilada;
-    private double precioMensual;
+    // Importe en centavos (ver {@link Dinero})
+    private long precioMensualCentavos;
 
     public Propiedad(String id, String direccion, String tipo, double metrosCuadrados, boolean alquilada, double precioMensual) {
         this.id = id;
@@ -15,7 +16,7 @@ public class Propiedad {
         this.tipo = tipo;
         this.metrosCuadrados = metrosCuadrados;
         this.alquilada = false;
-        this.precioMensual = precioMensual;
+        this.precioMensualCentavos = Dinero.centavos(precioMensual);
     }
 
     public String getId() {
@@ -27,11 +28,19 @@ public class Propiedad {
     }
 
     public double getPrecioMensual() {
-        return precioMensual;
+        return Dinero.importe(getPrecioMensualCentavos());
     }
 
     public void setPrecioMensual(double precioMensual) {
-        this.precioMensual = precioMensual;
+        setPrecioMensualCentavos(Dinero.centavos(precioMensual));
+    }
+
+    public long getPrecioMensualCentavos() {
+        return precioMensualCentavos;
+    }
+
+    public void setPrecioMensualCentavos(long precioMensualCentavos) {
+        this.precioMensualCentavos = precioMensualCentavos;
     }
 
     public boolean isAlquilada() {
@@ -68,7 +77,7 @@ public class Propiedad {
 
     @Override
     public String toString() {
-        return "Propiedad{" + "ID=" + id + ", Direccion=" + direccion + ", Tipo=" + tipo + ", metros cuadrados=" + metrosCuadrados + ", Alquilada=" + alquilada + ", Precio Mensual=" + precioMensual + '}';
+        return "Propiedad{" + "ID=" + id + ", Direccion=" + direccion + ", Tipo=" + tipo + ", metros cuadrados=" + metrosCuadrados + ", Alquilada=" + alquilada + ", Precio Mensual=" + Dinero.formatear(precioMensualCentavos) + '}';
     }
 
 
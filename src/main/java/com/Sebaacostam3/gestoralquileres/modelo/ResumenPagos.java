@@ -0,0 +1,32 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+/**
+ * Cantidad y suma de los pagos que cumplen un filtro. La suma es exacta, en centavos.
+ */
+public final class ResumenPagos {
+
+    private final long cantidad;
+    private final long totalCentavos;
+
+    public ResumenPagos(long cantidad, long totalCentavos) {
+        this.cantidad = cantidad;
+        this.totalCentavos = totalCentavos;
+    }
+
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    public double getTotal() {
+        return Dinero.importe(totalCentavos);
+    }
+
+    public long getTotalCentavos() {
+        return totalCentavos;
+    }
+
+    @Override
+    public String toString() {
+        return "ResumenPagos{" + "cantidad=" + cantidad + ", total=" + Dinero.formatear(totalCentavos) + '}';
+    }
+}
@@ -0,0 +1,115 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Archivo donde se guardan los bloques del nivel frío (contratos archivados con sus pagos).
+ * <p>
+ * Es un archivo de sólo agregado: cada bloque se escribe al final, precedido por su longitud y su
+ * CRC32C, y se lee por su posición. Los bloques que dejan de usarse no se borran; el índice de
+ * bloques vigentes lo mantiene quien usa el archivo, y para recuperar espacio se copian los vigentes
+ * a un archivo nuevo. Las lecturas pueden hacerse desde varios hilos a la vez.
+ */
+public final class ArchivoFrio implements AutoCloseable {
+
+    private static final int TAMANIO_CABECERA = 8;
+
+    private final Path ruta;
+    private final FileChannel canal;
+    private long tamanio;
+
+    private ArchivoFrio(Path ruta, FileChannel canal) throws IOException {
+        this.ruta = ruta;
+        this.canal = canal;
+        this.tamanio = canal.size();
+    }
+
+    /**
+     * Abre un archivo del nivel frío para leer sus bloques y agregar otros al final, creándolo si no existe.
+     * @param ruta El archivo.
+     * @return El archivo abierto.
+     * @throws IOException Si no se puede abrir.
+     */
+    public static ArchivoFrio abrir(Path ruta) throws IOException {
+        return new ArchivoFrio(ruta, FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Agrega un bloque al final del archivo. El bloque no es durable hasta llamar a {@link #sincronizar()}.
+     * @param datos El contenido del bloque.
+     * @return La posición del bloque, a pasar a {@link #leer(long, int)}.
+     * @throws IOException Si falla la escritura.
+     */
+    public synchronized long agregar(byte[] datos) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(datos);
+        ByteBuffer registro = ByteBuffer.allocate(TAMANIO_CABECERA + datos.length)
+                .putInt(datos.length).putInt((int) crc.getValue()).put(datos);
+        registro.flip();
+        long posicion = tamanio;
+        while (registro.hasRemaining()) {
+            canal.write(registro, posicion + registro.position());
+        }
+        tamanio += registro.limit();
+        return posicion;
+    }
+
+    /**
+     * Lee un bloque, verificando su integridad.
+     * @param posicion La posición devuelta por {@link #agregar(byte[])}.
+     * @param longitud La longitud del contenido del bloque.
+     * @return El contenido del bloque.
+     * @throws IOException Si no se puede leer o el bloque está dañado.
+     */
+    public byte[] leer(long posicion, int longitud) throws IOException {
+        ByteBuffer registro = ByteBuffer.allocate(TAMANIO_CABECERA + longitud);
+        while (registro.hasRemaining()) {
+            if (canal.read(registro, posicion + registro.position()) < 0) {
+                throw new IOException("El bloque en la posición " + posicion + " de " + ruta + " está incompleto.");
+            }
+        }
+        registro.flip();
+        int longitudGuardada = registro.getInt();
+        int crcGuardado = registro.getInt();
+        CRC32C crc = new CRC32C();
+        crc.update(registro.array(), TAMANIO_CABECERA, longitud);
+        if (longitudGuardada != longitud || crcGuardado != (int) crc.getValue()) {
+            throw new IOException("El bloque en la posición " + posicion + " de " + ruta + " está dañado.");
+        }
+        byte[] datos = new byte[longitud];
+        registro.get(datos);
+        return datos;
+    }
+
+    /**
+     * Fuerza a disco los bloques agregados.
+     * @throws IOException Si falla la sincronización.
+     */
+    public void sincronizar() throws IOException {
+        canal.force(false);
+    }
+
+    /**
+     * @return El tamaño del archivo en bytes, incluidos los bloques que ya no se usan.
+     */
+    public synchronized long tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @return Los bytes que ocupa un bloque con el contenido dado, incluida su cabecera.
+     */
+    public static int tamanioBloque(int longitud) {
+        return TAMANIO_CABECERA + longitud;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -0,0 +1,300 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Dinero;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+/**
+ * Codificación binaria de las entidades para el diario.
+ * <p>
+ * Las referencias a otras entidades (la propiedad y el inquilino de un contrato, el contrato de un pago,
+ * la propiedad de una incidencia) se guardan sólo por ID. Al leerlas se devuelven entidades "de referencia"
+ * que sólo tienen el ID cargado; el gestor las reemplaza por las instancias reales al aplicarlas.
+ * <p>
+ * Los importes se escriben como la cantidad de centavos en un {@code long} (ver {@link Dinero}). Hasta la
+ * {@linkplain #VERSION_IMPORTES_DECIMALES versión 1} se escribían como {@code double}; los archivos anotan
+ * la versión con la que se escribieron y se leen con la suya.
+ */
+public final class CodificadorEntidades {
+
+    // Versión de la codificación que se escribe
+    public static final int VERSION = 2;
+    // Versión anterior, con los importes escritos como double
+    public static final int VERSION_IMPORTES_DECIMALES = 1;
+
+    // Marca de fecha ausente; ningún LocalDate válido tiene este día epoch
+    private static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private CodificadorEntidades() {
+    }
+
+    // --- Registros del diario ---
+
+    /**
+     * Construye el registro de una operación sobre una propiedad.
+     */
+    public static byte[] registro(TipoOperacion tipo, Propiedad propiedad) {
+        Salida salida = new Salida(tipo);
+        try {
+            escribirPropiedad(salida.datos, propiedad);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.bytes();
+    }
+
+    /**
+     * Construye el registro de una operación sobre un inquilino.
+     */
+    public static byte[] registro(TipoOperacion tipo, Inquilino inquilino) {
+        Salida salida = new Salida(tipo);
+        try {
+            escribirInquilino(salida.datos, inquilino);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.bytes();
+    }
+
+    /**
+     * Construye el registro de una operación sobre un contrato.
+     */
+    public static byte[] registro(TipoOperacion tipo, ContratoAlquiler contrato) {
+        Salida salida = new Salida(tipo);
+        try {
+            escribirContrato(salida.datos, contrato);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.bytes();
+    }
+
+    /**
+     * Construye el registro de una operación sobre un pago.
+     */
+    public static byte[] registro(TipoOperacion tipo, Pago pago) {
+        Salida salida = new Salida(tipo);
+        try {
+            escribirPago(salida.datos, pago);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.bytes();
+    }
+
+    /**
+     * Construye el registro de una operación sobre una incidencia.
+     */
+    public static byte[] registro(TipoOperacion tipo, Incidencia incidencia) {
+        Salida salida = new Salida(tipo);
+        try {
+            escribirIncidencia(salida.datos, incidencia);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.bytes();
+    }
+
+    /**
+     * Construye el registro de una operación que sólo necesita el ID de la entidad (bajas, confirmaciones, etc.).
+     */
+    public static byte[] registro(TipoOperacion tipo, String id) {
+        Salida salida = new Salida(tipo);
+        try {
+            escribirTexto(salida.datos, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.bytes();
+    }
+
+    /**
+     * Lee el tipo de operación al comienzo de un registro.
+     */
+    public static TipoOperacion leerTipo(DataInput entrada) throws IOException {
+        return TipoOperacion.desdeCodigo(entrada.readUnsignedByte());
+    }
+
+    /**
+     * Buffer de salida de un registro, que empieza con el código de la operación.
+     */
+    private static final class Salida {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        private final DataOutputStream datos = new DataOutputStream(bytes);
+
+        private Salida(TipoOperacion tipo) {
+            bytes.write(tipo.getCodigo());
+        }
+
+        private byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+
+    // --- Entidades ---
+
+    public static void escribirPropiedad(DataOutput salida, Propiedad propiedad) throws IOException {
+        escribirTexto(salida, propiedad.getId());
+        escribirTexto(salida, propiedad.getDireccion());
+        escribirTexto(salida, propiedad.getTipo());
+        salida.writeDouble(propiedad.getMetrosCuadrados());
+        salida.writeBoolean(propiedad.isAlquilada());
+        salida.writeLong(propiedad.getPrecioMensualCentavos());
+    }
+
+    /**
+     * @param version La versión con la que se escribió la propiedad.
+     */
+    public static Propiedad leerPropiedad(DataInput entrada, int version) throws IOException {
+        String id = leerTexto(entrada);
+        String direccion = leerTexto(entrada);
+        String tipo = leerTexto(entrada);
+        double metrosCuadrados = entrada.readDouble();
+        boolean alquilada = entrada.readBoolean();
+        Propiedad propiedad = new Propiedad(id, direccion, tipo, metrosCuadrados, alquilada, 0);
+        propiedad.setPrecioMensualCentavos(leerImporte(entrada, version));
+        // El constructor siempre crea la propiedad libre, por lo que el estado se asigna aparte
+        propiedad.setAlquilada(alquilada);
+        return propiedad;
+    }
+
+    public static void escribirInquilino(DataOutput salida, Inquilino inquilino) throws IOException {
+        escribirTexto(salida, inquilino.getId());
+        escribirTexto(salida, inquilino.getNombre());
+        escribirTexto(salida, inquilino.getApellido());
+        escribirTexto(salida, inquilino.getTelefono());
+        escribirTexto(salida, inquilino.getDni());
+        escribirTexto(salida, inquilino.getEmail());
+    }
+
+    public static Inquilino leerInquilino(DataInput entrada) throws IOException {
+        return new Inquilino(leerTexto(entrada), leerTexto(entrada), leerTexto(entrada),
+                leerTexto(entrada), leerTexto(entrada), leerTexto(entrada));
+    }
+
+    public static void escribirContrato(DataOutput salida, ContratoAlquiler contrato) throws IOException {
+        escribirTexto(salida, contrato.getId());
+        escribirFecha(salida, contrato.getFechaInicio());
+        escribirFecha(salida, contrato.getFechaFin());
+        escribirTexto(salida, contrato.getPropiedad() == null ? null : contrato.getPropiedad().getId());
+        escribirTexto(salida, contrato.getInquilino() == null ? null : contrato.getInquilino().getId());
+        salida.writeLong(contrato.getValorMensualCentavos());
+        salida.writeBoolean(contrato.isActivo());
+    }
+
+    /**
+     * @param version La versión con la que se escribió el contrato.
+     */
+    public static ContratoAlquiler leerContrato(DataInput entrada, int version) throws IOException {
+        String id = leerTexto(entrada);
+        LocalDate fechaInicio = leerFecha(entrada);
+        LocalDate fechaFin = leerFecha(entrada);
+        Propiedad propiedad = referenciaPropiedad(leerTexto(entrada));
+        Inquilino inquilino = referenciaInquilino(leerTexto(entrada));
+        long valorMensual = leerImporte(entrada, version);
+        ContratoAlquiler contrato = new ContratoAlquiler(id, fechaInicio, fechaFin, propiedad, inquilino, 0, entrada.readBoolean());
+        contrato.setValorMensualCentavos(valorMensual);
+        return contrato;
+    }
+
+    public static void escribirPago(DataOutput salida, Pago pago) throws IOException {
+        escribirTexto(salida, pago.getId());
+        escribirTexto(salida, pago.getContrato() == null ? null : pago.getContrato().getId());
+        escribirFecha(salida, pago.getFechaPago());
+        salida.writeLong(pago.getValorPagoCentavos());
+        salida.writeBoolean(pago.isConfirmado());
+        escribirTexto(salida, pago.getPeriodoCorrespondiente());
+    }
+
+    /**
+     * @param version La versión con la que se escribió el pago.
+     */
+    public static Pago leerPago(DataInput entrada, int version) throws IOException {
+        String id = leerTexto(entrada);
+        ContratoAlquiler contrato = referenciaContrato(leerTexto(entrada));
+        LocalDate fechaPago = leerFecha(entrada);
+        long valorPago = leerImporte(entrada, version);
+        Pago pago = new Pago(id, contrato, fechaPago, 0, entrada.readBoolean(), leerTexto(entrada));
+        pago.setValorPagoCentavos(valorPago);
+        return pago;
+    }
+
+    public static void escribirIncidencia(DataOutput salida, Incidencia incidencia) throws IOException {
+        escribirTexto(salida, incidencia.getId());
+        escribirTexto(salida, incidencia.getPropiedad() == null ? null : incidencia.getPropiedad().getId());
+        escribirTexto(salida, incidencia.getDescripcion());
+        escribirFecha(salida, incidencia.getFecha());
+        escribirTexto(salida, incidencia.getEstado().getNombre());
+        salida.writeLong(incidencia.getCostoEstimadoCentavos());
+    }
+
+    /**
+     * @param version La versión con la que se escribió la incidencia.
+     */
+    public static Incidencia leerIncidencia(DataInput entrada, int version) throws IOException {
+        String id = leerTexto(entrada);
+        Propiedad propiedad = referenciaPropiedad(leerTexto(entrada));
+        Incidencia incidencia = new Incidencia(id, propiedad, leerTexto(entrada), leerFecha(entrada),
+                EstadoIncidencia.interpretar(leerTexto(entrada)), 0);
+        incidencia.setCostoEstimadoCentavos(leerImporte(entrada, version));
+        return incidencia;
+    }
+
+    // --- Referencias y tipos básicos ---
+
+    private static Propiedad referenciaPropiedad(String id) {
+        return id == null ? null : new Propiedad(id, null, null, 0, false, 0);
+    }
+
+    private static Inquilino referenciaInquilino(String id) {
+        return id == null ? null : new Inquilino(id, null, null, null, null, null);
+    }
+
+    private static ContratoAlquiler referenciaContrato(String id) {
+        return id == null ? null : new ContratoAlquiler(id, null, null, null, null, 0, false);
+    }
+
+    public static void escribirTexto(DataOutput salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    public static String leerTexto(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static void escribirFecha(DataOutput salida, LocalDate fecha) throws IOException {
+        salida.writeLong(fecha == null ? SIN_FECHA : fecha.toEpochDay());
+    }
+
+    /**
+     * Lee un importe en centavos, escrito como double en la versión 1.
+     * @throws IOException Si la versión es desconocida.
+     */
+    private static long leerImporte(DataInput entrada, int version) throws IOException {
+        return switch (version) {
+            case VERSION -> entrada.readLong();
+            case VERSION_IMPORTES_DECIMALES -> Dinero.centavos(entrada.readDouble());
+            default -> throw new IOException("Versión de codificación desconocida: " + version);
+        };
+    }
+
+    private static LocalDate leerFecha(DataInput entrada) throws IOException {
+        long dia = entrada.readLong();
+        return dia == SIN_FECHA ? null : LocalDate.ofEpochDay(dia);
+    }
+}
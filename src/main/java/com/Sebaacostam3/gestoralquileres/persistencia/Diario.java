@@ -0,0 +1,449 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de escritura anticipada (write-ahead log) de sólo agregado.
+ * <p>
+ * Cada registro se guarda como {@code [longitud][crc32c][datos]}. Las escrituras se agrupan
+ * ("group commit"): {@link #anotar} sólo copia el registro a un buffer en memoria y devuelve su
+ * número de orden, y un hilo de fondo vuelca lo acumulado al archivo con un único {@code fsync}
+ * por tanda. Mientras un {@code fsync} está en curso, los registros nuevos se acumulan para la
+ * tanda siguiente, de modo que una ráfaga de escrituras comparte pocos {@code fsync}.
+ * {@link #esperar} bloquea hasta que un registro es durable.
+ * <p>
+ * Al abrir un diario existente, un registro final incompleto o con CRC inválido (por ejemplo, por
+ * un corte durante la escritura) se descarta y el archivo se trunca en el último registro válido.
+ * <p>
+ * La cabecera de cada archivo anota la versión de {@link CodificadorEntidades} de sus registros
+ * ({@link #version(Path)}). Sólo se agregan registros a un archivo de la versión actual.
+ * <p>
+ * El diario puede continuar en un archivo nuevo con {@link #rotar}: los registros anotados antes
+ * de la rotación quedan en el archivo anterior y los siguientes en el nuevo, sin detener a quienes anotan.
+ */
+public final class Diario implements AutoCloseable {
+
+    // "GAD" seguido del dígito de la versión de la codificación: "GAD1", "GAD2"
+    private static final int MAGIA = 0x47414430;
+    private static final int TAMANIO_CABECERA = 4;
+    private static final int TAMANIO_PREFIJO = 8;
+    private static final int TAMANIO_MAXIMO_REGISTRO = 16 * 1024 * 1024;
+
+    private static final Diario DESACTIVADO = new Diario();
+
+    private final boolean activo;
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayPendientes = cerrojo.newCondition();
+    private final Condition hayDurables = cerrojo.newCondition();
+    private final Thread escritor;
+
+    // Archivo donde escribe el hilo escritor
+    private FileChannel canal;
+
+    // Protegidos por el cerrojo
+    private ByteBuffer pendientes = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer enEscritura = ByteBuffer.allocate(64 * 1024);
+    private long ultimoAnotado;
+    private long ultimoDurable;
+    private IOException falla;
+    private boolean cerrado;
+    // Rotación pendiente: posición en 'pendientes' donde empieza el archivo nuevo, o -1 si no hay
+    private int corte = -1;
+    private FileChannel canalSiguiente;
+    private long rotacionesCompletadas;
+
+    /**
+     * Constructor del diario desactivado.
+     */
+    private Diario() {
+        this.activo = false;
+        this.escritor = null;
+        this.cerrado = true;
+    }
+
+    private Diario(FileChannel canal) {
+        this.activo = true;
+        this.canal = canal;
+        this.escritor = new Thread(this::escribir, "diario-escritor");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * @return Un diario que no anota nada, usado cuando el gestor trabaja sólo en memoria.
+     */
+    public static Diario desactivado() {
+        return DESACTIVADO;
+    }
+
+    /**
+     * Recorre los registros válidos de un diario, en el orden en que fueron anotados.
+     * Si el archivo termina en un registro incompleto o dañado, se trunca en el último registro válido.
+     * @param archivo El archivo del diario; si no existe no se hace nada.
+     * @param aplicar Recibe el contenido de cada registro.
+     * @return La cantidad de registros leídos.
+     * @throws IOException Si no se puede leer el archivo o no es un diario.
+     */
+    public static long reproducir(Path archivo, Consumer<ByteBuffer> aplicar) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanio = canal.size();
+            if (tamanio == 0) {
+                return 0;
+            }
+            leerVersion(canal, archivo);
+
+            long posicion = TAMANIO_CABECERA;
+            long leidos = 0;
+            ByteBuffer prefijo = ByteBuffer.allocate(TAMANIO_PREFIJO);
+            CRC32C crc = new CRC32C();
+            while (posicion + TAMANIO_PREFIJO <= tamanio) {
+                prefijo.clear();
+                leerCompleto(canal, prefijo, posicion);
+                int longitud = prefijo.getInt(0);
+                int crcEsperado = prefijo.getInt(4);
+                if (longitud <= 0 || longitud > TAMANIO_MAXIMO_REGISTRO || posicion + TAMANIO_PREFIJO + longitud > tamanio) {
+                    break;
+                }
+                ByteBuffer datos = ByteBuffer.allocate(longitud);
+                leerCompleto(canal, datos, posicion + TAMANIO_PREFIJO);
+                crc.reset();
+                crc.update(datos.array(), 0, longitud);
+                if ((int) crc.getValue() != crcEsperado) {
+                    break;
+                }
+                datos.flip();
+                aplicar.accept(datos);
+                posicion += TAMANIO_PREFIJO + longitud;
+                leidos++;
+            }
+            if (posicion < tamanio) {
+                // Cola incompleta o dañada: se descarta para que las nuevas anotaciones queden a continuación del último registro válido
+                canal.truncate(posicion);
+                canal.force(true);
+            }
+            return leidos;
+        }
+    }
+
+    /**
+     * @param archivo El archivo del diario.
+     * @return La versión de la codificación de sus registros, o 0 si el archivo no existe o está vacío.
+     * @throws IOException Si no se puede leer el archivo o no es un diario.
+     */
+    public static int version(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return canal.size() == 0 ? 0 : leerVersion(canal, archivo);
+        }
+    }
+
+    private static int leerVersion(FileChannel canal, Path archivo) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+        leerCompleto(canal, cabecera, 0);
+        int version = cabecera.getInt(0) - MAGIA;
+        if (cabecera.position() < TAMANIO_CABECERA || version < CodificadorEntidades.VERSION_IMPORTES_DECIMALES
+                || version > CodificadorEntidades.VERSION) {
+            throw new IOException("El archivo " + archivo + " no es un diario válido.");
+        }
+        return version;
+    }
+
+    /**
+     * Abre un diario para anotar a continuación de su contenido, creándolo si no existe.
+     * Debe llamarse después de {@link #reproducir}, que descarta una posible cola dañada.
+     * @param archivo El archivo del diario.
+     * @return El diario abierto.
+     * @throws IOException Si no se puede abrir o crear el archivo, o si es de una versión anterior.
+     */
+    public static Diario abrir(Path archivo) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        return new Diario(abrirArchivo(archivo));
+    }
+
+    /**
+     * Abre un archivo de diario para agregar al final, escribiendo la cabecera si está vacío.
+     */
+    private static FileChannel abrirArchivo(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() > 0 && leerVersion(canal, archivo) != CodificadorEntidades.VERSION) {
+                throw new IOException("El diario " + archivo + " es de una versión anterior; se debe continuar en un archivo nuevo.");
+            }
+            if (canal.size() == 0) {
+                ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA).putInt(MAGIA + CodificadorEntidades.VERSION);
+                cabecera.flip();
+                while (cabecera.hasRemaining()) {
+                    canal.write(cabecera);
+                }
+                canal.force(true);
+            }
+            canal.position(canal.size());
+            return canal;
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true si el diario anota registros.
+     */
+    public boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * @return true si una escritura falló: desde entonces el diario rechaza todos los registros.
+     */
+    public boolean isFallido() {
+        cerrojo.lock();
+        try {
+            return falla != null;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Continúa el diario en un archivo nuevo. Todo lo anotado antes de la llamada queda en el archivo
+     * actual y todo lo anotado después, en el nuevo. Quienes anotan no se detienen; sólo quien rota
+     * espera a que el archivo anterior quede completo en disco y cerrado.
+     * No debe llamarse desde varios hilos a la vez.
+     * @param archivoNuevo El archivo donde continúa el diario.
+     * @throws IOException Si no se puede crear el archivo nuevo o falla la escritura del anterior.
+     */
+    public void rotar(Path archivoNuevo) throws IOException {
+        if (!activo) {
+            throw new IllegalStateException("El diario está desactivado.");
+        }
+        FileChannel nuevo = abrirArchivo(archivoNuevo);
+        cerrojo.lock();
+        try {
+            verificarEstado();
+            long objetivo = rotacionesCompletadas + 1;
+            corte = pendientes.position();
+            canalSiguiente = nuevo;
+            hayPendientes.signal();
+            while (rotacionesCompletadas < objetivo && falla == null) {
+                hayDurables.awaitUninterruptibly();
+            }
+            if (rotacionesCompletadas < objetivo) {
+                throw falla;
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Agrega un registro al diario sin esperar a que sea durable.
+     * El orden de los registros en el archivo es el orden de las llamadas.
+     * @param registro El contenido del registro.
+     * @return El número de orden del registro, a pasar a {@link #esperar}; 0 si el diario está desactivado.
+     * @throws UncheckedIOException Si una escritura anterior falló; el diario deja de aceptar registros.
+     * @throws IllegalStateException Si el diario está cerrado.
+     */
+    public long anotar(byte[] registro) {
+        if (!activo) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(registro);
+        cerrojo.lock();
+        try {
+            verificarEstado();
+            int necesario = TAMANIO_PREFIJO + registro.length;
+            if (pendientes.remaining() < necesario) {
+                pendientes = ampliar(pendientes, necesario);
+            }
+            pendientes.putInt(registro.length).putInt((int) crc.getValue()).put(registro);
+            ultimoAnotado++;
+            hayPendientes.signal();
+            return ultimoAnotado;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Espera a que el registro con el número de orden dado (y todos los anteriores) esté guardado en disco.
+     * @param numero El número devuelto por {@link #anotar}.
+     * @throws UncheckedIOException Si la escritura del registro falló.
+     */
+    public void esperar(long numero) {
+        if (!activo || numero == 0) {
+            return;
+        }
+        cerrojo.lock();
+        try {
+            boolean interrumpido = false;
+            while (ultimoDurable < numero && falla == null) {
+                try {
+                    hayDurables.await();
+                } catch (InterruptedException e) {
+                    // La durabilidad ya está comprometida con el registro anotado: se espera igual
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+            if (ultimoDurable < numero) {
+                throw new UncheckedIOException("No se pudo guardar el diario.", falla);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Bucle del hilo escritor: toma todo lo acumulado, lo escribe y hace un único fsync por tanda.
+     */
+    private void escribir() {
+        while (true) {
+            long hasta;
+            int corteTanda;
+            FileChannel canalNuevo;
+            cerrojo.lock();
+            try {
+                while (pendientes.position() == 0 && corte < 0 && !cerrado) {
+                    hayPendientes.awaitUninterruptibly();
+                }
+                if (pendientes.position() == 0 && corte < 0) {
+                    return;
+                }
+                ByteBuffer lleno = pendientes;
+                pendientes = enEscritura;
+                enEscritura = lleno;
+                hasta = ultimoAnotado;
+                corteTanda = corte;
+                canalNuevo = canalSiguiente;
+                corte = -1;
+                canalSiguiente = null;
+            } finally {
+                cerrojo.unlock();
+            }
+
+            IOException error = null;
+            try {
+                enEscritura.flip();
+                if (corteTanda >= 0) {
+                    // Lo anterior al corte completa el archivo actual; el resto va al archivo nuevo
+                    int limite = enEscritura.limit();
+                    enEscritura.limit(corteTanda);
+                    escribirTodo(enEscritura);
+                    canal.close();
+                    canal = canalNuevo;
+                    enEscritura.limit(limite);
+                }
+                escribirTodo(enEscritura);
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                enEscritura.clear();
+            }
+
+            cerrojo.lock();
+            try {
+                if (error != null) {
+                    falla = error;
+                } else {
+                    ultimoDurable = hasta;
+                    if (corteTanda >= 0) {
+                        rotacionesCompletadas++;
+                    }
+                }
+                hayDurables.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+
+    /**
+     * Escribe el contenido del buffer en el archivo actual y lo sincroniza con el disco.
+     */
+    private void escribirTodo(ByteBuffer datos) throws IOException {
+        while (datos.hasRemaining()) {
+            canal.write(datos);
+        }
+        canal.force(false);
+    }
+
+    private void verificarEstado() {
+        if (falla != null) {
+            throw new UncheckedIOException("El diario dejó de aceptar registros por un error de escritura.", falla);
+        }
+        if (cerrado) {
+            throw new IllegalStateException("El diario está cerrado.");
+        }
+    }
+
+    private static ByteBuffer ampliar(ByteBuffer actual, int necesario) {
+        int capacidad = Math.max(actual.capacity() * 2, actual.position() + necesario);
+        ByteBuffer nuevo = ByteBuffer.allocate(capacidad);
+        actual.flip();
+        nuevo.put(actual);
+        return nuevo;
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            int leidos = canal.read(destino, posicion + destino.position());
+            if (leidos < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Escribe lo pendiente, espera el último fsync y cierra el archivo.
+     * @throws IOException Si falló alguna escritura o el cierre del archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!activo) {
+            return;
+        }
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            hayPendientes.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        if (falla != null) {
+            throw falla;
+        }
+    }
+}
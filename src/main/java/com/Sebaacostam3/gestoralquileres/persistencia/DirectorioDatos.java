@@ -0,0 +1,148 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Organización en disco de los datos de un gestor persistente.
+ * <p>
+ * El diario se divide en segmentos numerados ({@code diario-000001.log}, {@code diario-000002.log}, ...).
+ * Una instantánea {@code instantanea-N.bin} contiene el estado completo hasta el comienzo del segmento N,
+ * de modo que al recuperar basta con cargarla y reproducir los segmentos desde N en adelante; los
+ * segmentos e instantáneas anteriores pueden borrarse.
+ * <p>
+ * Si el gestor usa nivel frío, los contratos archivados se guardan en {@code frio-N.dat}, donde N es el
+ * segmento en el que se creó el archivo. La instantánea indica qué archivo del nivel frío usa.
+ */
+public final class DirectorioDatos {
+
+    private static final Pattern SEGMENTO = Pattern.compile("diario-(\\d+)\\.log");
+    private static final Pattern INSTANTANEA = Pattern.compile("instantanea-(\\d+)\\.bin");
+    private static final Pattern FRIO = Pattern.compile("frio-(\\d+)\\.dat");
+
+    private final Path directorio;
+
+    /**
+     * @param directorio El directorio de datos; se crea si no existe.
+     * @throws IOException Si no se puede crear el directorio.
+     */
+    public DirectorioDatos(Path directorio) throws IOException {
+        this.directorio = Files.createDirectories(directorio);
+    }
+
+    /**
+     * @return La ruta del segmento de diario con el número dado.
+     */
+    public Path segmento(long numero) {
+        return directorio.resolve(String.format("diario-%06d.log", numero));
+    }
+
+    /**
+     * @return La ruta de la instantánea que cubre todo lo anterior al segmento dado.
+     */
+    public Path instantanea(long numeroSegmento) {
+        return directorio.resolve(String.format("instantanea-%06d.bin", numeroSegmento));
+    }
+
+    /**
+     * @return La ruta del archivo del nivel frío creado con el segmento dado.
+     */
+    public Path archivoFrio(long numeroSegmento) {
+        return directorio.resolve(String.format("frio-%06d.dat", numeroSegmento));
+    }
+
+    /**
+     * @return La ruta de las columnas del libro de pagos.
+     */
+    public Path libroPagos() {
+        return directorio.resolve("pagos.col");
+    }
+
+    /**
+     * @return La ruta del diccionario de contratos del libro de pagos.
+     */
+    public Path diccionarioLibroPagos() {
+        return directorio.resolve("pagos.dic");
+    }
+
+    /**
+     * @return Los números de los segmentos de diario existentes, en orden ascendente.
+     * @throws IOException Si no se puede leer el directorio.
+     */
+    public List<Long> segmentos() throws IOException {
+        return numeros(SEGMENTO);
+    }
+
+    /**
+     * @return El número de segmento de la instantánea más reciente, o 0 si no hay ninguna.
+     * @throws IOException Si no se puede leer el directorio.
+     */
+    public long ultimaInstantanea() throws IOException {
+        List<Long> instantaneas = numeros(INSTANTANEA);
+        return instantaneas.isEmpty() ? 0 : instantaneas.get(instantaneas.size() - 1);
+    }
+
+    /**
+     * Borra los segmentos e instantáneas que quedaron cubiertos por la instantánea del segmento dado.
+     * Los archivos que no se puedan borrar se ignoran; se volverán a intentar en la próxima compactación.
+     * @param numeroSegmento El número de segmento de la instantánea vigente.
+     * @throws IOException Si no se puede leer el directorio.
+     */
+    public void descartarAnteriores(long numeroSegmento) throws IOException {
+        descartarAnteriores(numeroSegmento, 0);
+    }
+
+    /**
+     * Borra los segmentos e instantáneas cubiertos por la instantánea del segmento dado, y los archivos
+     * del nivel frío anteriores que ya no usa.
+     * @param numeroSegmento El número de segmento de la instantánea vigente.
+     * @param archivoFrioVigente El número del archivo del nivel frío que usa esa instantánea, o 0 si no usa ninguno.
+     * @throws IOException Si no se puede leer el directorio.
+     */
+    public void descartarAnteriores(long numeroSegmento, long archivoFrioVigente) throws IOException {
+        for (long numero : numeros(FRIO)) {
+            if (numero < numeroSegmento && numero != archivoFrioVigente) {
+                borrar(archivoFrio(numero));
+            }
+        }
+        for (long numero : numeros(SEGMENTO)) {
+            if (numero < numeroSegmento) {
+                borrar(segmento(numero));
+            }
+        }
+        for (long numero : numeros(INSTANTANEA)) {
+            if (numero < numeroSegmento) {
+                borrar(instantanea(numero));
+            }
+        }
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            // Se reintenta en la próxima compactación; el archivo ya no se usa para recuperar
+        }
+    }
+
+    private List<Long> numeros(Pattern patron) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                Matcher coincidencia = patron.matcher(archivo.getFileName().toString());
+                if (coincidencia.matches()) {
+                    numeros.add(Long.parseLong(coincidencia.group(1)));
+                }
+            }
+        }
+        Collections.sort(numeros);
+        return numeros;
+    }
+}
@@ -0,0 +1,137 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantánea binaria del estado completo de un gestor.
+ * <p>
+ * El archivo empieza con una marca que incluye la versión de {@link CodificadorEntidades} con la que se
+ * escribió, sigue con una secuencia de entidades, cada una precedida por un byte con su tipo, terminada
+ * por {@link #FIN} y seguida por el CRC32C de todo lo anterior. Se escribe en un archivo temporal,
+ * se sincroniza con el disco y recién entonces se renombra a su nombre definitivo, por lo que una
+ * instantánea visible siempre está completa.
+ */
+public final class Instantanea {
+
+    public static final int FIN = 0;
+    public static final int PROPIEDAD = 1;
+    public static final int INQUILINO = 2;
+    public static final int CONTRATO = 3;
+    public static final int PAGO = 4;
+    public static final int INCIDENCIA = 5;
+    // Un ID ya entregado por el generador de un tipo de entidad, seguido del tipo y del ID
+    public static final int ID_RESERVADO = 6;
+    // Número del archivo del nivel frío en uso, seguido de sus contratos archivados
+    public static final int ARCHIVO_FRIO = 7;
+    // Un contrato archivado en el nivel frío: su ID, la posición del bloque y los IDs de sus pagos
+    // (formato anterior, que sólo se lee)
+    public static final int ARCHIVADO = 8;
+    // Un contrato archivado, seguido además del rango de fechas del contrato, el de períodos de sus pagos
+    // y, desde la versión 2, la versión de la codificación del bloque
+    public static final int ARCHIVADO_CON_RANGOS = 9;
+
+    // "GAI" seguido del dígito de la versión de la codificación: "GAI1", "GAI2"
+    private static final int MAGIA = 0x47414930;
+
+    /**
+     * Escribe las entidades de la instantánea. Cada entidad se escribe como su tipo seguido de
+     * su codificación con {@link CodificadorEntidades}.
+     */
+    public interface Volcado {
+        void volcar(DataOutput salida) throws IOException;
+    }
+
+    /**
+     * Recibe cada entidad leída de una instantánea, con la versión de la codificación de la instantánea.
+     */
+    public interface Lectura {
+        void leer(int tipo, DataInputStream entrada, int version) throws IOException;
+    }
+
+    private Instantanea() {
+    }
+
+    /**
+     * Escribe una instantánea de forma atómica.
+     * @param destino El archivo definitivo de la instantánea.
+     * @param volcado Escribe las entidades.
+     * @throws IOException Si falla la escritura.
+     */
+    public static void escribir(Path destino, Volcado volcado) throws IOException {
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32C crc = new CRC32C();
+            // El canal no se cierra al cerrar el flujo, para poder sincronizarlo antes
+            DataOutputStream salida = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(canal), 256 * 1024), crc));
+            salida.writeInt(MAGIA + CodificadorEntidades.VERSION);
+            volcado.volcar(salida);
+            salida.writeByte(FIN);
+            salida.flush();
+            ByteBuffer cola = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+            cola.flip();
+            while (cola.hasRemaining()) {
+                canal.write(cola);
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lee una instantánea, verificando primero que esté completa y sin daños.
+     * @param origen El archivo de la instantánea.
+     * @param lectura Recibe cada entidad.
+     * @throws IOException Si el archivo no se puede leer o está dañado.
+     */
+    public static void leer(Path origen, Lectura lectura) throws IOException {
+        int version = verificar(origen);
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(origen), 256 * 1024))) {
+            entrada.readInt();
+            int tipo;
+            while ((tipo = entrada.readUnsignedByte()) != FIN) {
+                lectura.leer(tipo, entrada, version);
+            }
+        }
+    }
+
+    /**
+     * Comprueba la cabecera y el CRC final de una instantánea.
+     * @return La versión de la codificación de la instantánea.
+     */
+    private static int verificar(Path origen) throws IOException {
+        long tamanio = Files.size(origen);
+        if (tamanio < 9) {
+            throw new IOException("La instantánea " + origen + " está incompleta.");
+        }
+        CRC32C crc = new CRC32C();
+        try (DataInputStream entrada = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(origen), 256 * 1024), crc))) {
+            int version = entrada.readInt() - MAGIA;
+            if (version < CodificadorEntidades.VERSION_IMPORTES_DECIMALES || version > CodificadorEntidades.VERSION) {
+                throw new IOException("El archivo " + origen + " no es una instantánea válida.");
+            }
+            entrada.skipNBytes(tamanio - 8);
+            int calculado = (int) crc.getValue();
+            if (entrada.readInt() != calculado) {
+                throw new IOException("La instantánea " + origen + " está dañada.");
+            }
+            return version;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+import com.Sebaacostam3.gestoralquileres.modelo.ResumenPagos;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Libro de pagos en columnas, mapeado en memoria, para sumar pagos sin recorrer ni decodificar entidades.
+ * <p>
+ * Cada escritura sobre un pago agrega filas con el contrato, la fecha, el valor en centavos, el período y
+ * si está confirmado. Las filas nunca se modifican: al actualizar, confirmar o eliminar un pago se agrega una
+ * fila de anulación con su estado anterior, que resta lo que la fila original sumaba, y después la fila
+ * con el estado nuevo. Así la suma de las filas que cumplen un filtro es siempre la de los pagos vigentes.
+ * <p>
+ * Las filas se agrupan en bloques de {@value #FILAS_POR_BLOQUE} filas, y dentro de cada bloque cada columna
+ * ocupa un tramo contiguo, de modo que un resumen lee sólo las columnas que filtra y suma. El contrato
+ * se guarda como un número asignado por orden de aparición en un diccionario aparte. Los resúmenes pueden
+ * hacerse desde varios hilos mientras se agregan filas; ven las filas agregadas hasta su comienzo.
+ * <p>
+ * El libro es un índice derivado del estado del gestor: no se sincroniza con cada escritura, y sólo se
+ * considera completo si la última vez se cerró correctamente. Si no, al abrirse queda vacío y el gestor
+ * vuelve a asentar los pagos existentes.
+ */
+public final class LibroPagos implements AutoCloseable {
+
+    // "GAL2": desde la versión 2 los valores son centavos; un libro anterior se vuelve a asentar
+    private static final int MAGIA = 0x47414c32;
+    private static final int TAMANIO_CABECERA = 4096;
+    private static final int POSICION_ESTADO = 4;
+    private static final int POSICION_FILAS = 8;
+    private static final int ABIERTO = 1;
+    private static final int CERRADO = 2;
+
+    private static final int FILAS_POR_BLOQUE = 1 << 16;
+    // Desplazamiento de cada columna dentro de un bloque
+    private static final int COLUMNA_CONTRATO = 0;
+    private static final int COLUMNA_FECHA = 4 * FILAS_POR_BLOQUE;
+    private static final int COLUMNA_VALOR = 8 * FILAS_POR_BLOQUE;
+    private static final int COLUMNA_PERIODO = 16 * FILAS_POR_BLOQUE;
+    private static final int COLUMNA_MARCAS = 20 * FILAS_POR_BLOQUE;
+    private static final int TAMANIO_BLOQUE = 21 * FILAS_POR_BLOQUE;
+
+    // Marcas de cada fila
+    private static final byte CONFIRMADO = 1;
+    private static final byte ANULACION = 2;
+    // Valores de las filas sin fecha o con un período que no tiene la forma AAAA-MM
+    private static final int SIN_FECHA = Integer.MIN_VALUE;
+    private static final int SIN_PERIODO = Periodo.SIN_PERIODO;
+
+    /**
+     * Un bloque de filas mapeado, con una vista por columna.
+     */
+    private static final class Bloque {
+        private final MappedByteBuffer mapa;
+        private final IntBuffer contratos;
+        private final IntBuffer fechas;
+        private final LongBuffer valores;
+        private final IntBuffer periodos;
+        private final ByteBuffer marcas;
+
+        private Bloque(MappedByteBuffer mapa) {
+            this.mapa = mapa;
+            this.contratos = columna(mapa, COLUMNA_CONTRATO, 4).asIntBuffer();
+            this.fechas = columna(mapa, COLUMNA_FECHA, 4).asIntBuffer();
+            this.valores = columna(mapa, COLUMNA_VALOR, 8).asLongBuffer();
+            this.periodos = columna(mapa, COLUMNA_PERIODO, 4).asIntBuffer();
+            this.marcas = columna(mapa, COLUMNA_MARCAS, 1);
+        }
+
+        private static ByteBuffer columna(MappedByteBuffer mapa, int desplazamiento, int ancho) {
+            return mapa.slice(desplazamiento, ancho * FILAS_POR_BLOQUE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private final FileChannel canal;
+    private final MappedByteBuffer cabecera;
+    private final FileOutputStream archivoDiccionario;
+    private final DataOutputStream diccionario;
+    // ID de contrato normalizado -> número de contrato en la columna
+    private final Map<String, Integer> contratos;
+    private final boolean completo;
+
+    // Se publican con escrituras volátiles: primero los bloques y después la cantidad de filas
+    private volatile Bloque[] bloques;
+    private volatile long filas;
+    // Se activa si no se pudo agregar una fila; el libro deja de usarse hasta reconstruirse
+    private volatile boolean danado;
+    private boolean cerrado;
+
+    private LibroPagos(FileChannel canal, MappedByteBuffer cabecera, FileOutputStream archivoDiccionario, Map<String, Integer> contratos,
+                       boolean completo, long filas) throws IOException {
+        this.canal = canal;
+        this.cabecera = cabecera;
+        this.archivoDiccionario = archivoDiccionario;
+        this.diccionario = new DataOutputStream(new BufferedOutputStream(archivoDiccionario));
+        this.contratos = contratos;
+        this.completo = completo;
+        int cantidadBloques = (int) ((filas + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE);
+        Bloque[] mapeados = new Bloque[cantidadBloques];
+        for (int i = 0; i < cantidadBloques; i++) {
+            mapeados[i] = mapear(i);
+        }
+        this.bloques = mapeados;
+        this.filas = filas;
+    }
+
+    /**
+     * Abre un libro de pagos, creándolo si no existe. Si la última vez no se cerró correctamente, o los
+     * archivos no son válidos, se vacía.
+     * @param columnas El archivo de las columnas.
+     * @param diccionario El archivo del diccionario de contratos.
+     * @return El libro abierto.
+     * @throws IOException Si no se pueden abrir o crear los archivos.
+     */
+    public static LibroPagos abrir(Path columnas, Path diccionario) throws IOException {
+        FileChannel canal = FileChannel.open(columnas, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean completo = canal.size() >= TAMANIO_CABECERA && Files.exists(diccionario);
+            MappedByteBuffer cabecera = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANIO_CABECERA);
+            cabecera.order(ByteOrder.LITTLE_ENDIAN);
+            completo = completo && cabecera.getInt(0) == MAGIA && cabecera.getInt(POSICION_ESTADO) == CERRADO;
+            long filas = completo ? cabecera.getLong(POSICION_FILAS) : 0;
+            Map<String, Integer> contratos = new HashMap<>();
+            if (completo) {
+                try {
+                    leerDiccionario(diccionario, contratos);
+                } catch (IOException e) {
+                    completo = false;
+                    filas = 0;
+                    contratos.clear();
+                }
+            }
+            if (!completo) {
+                canal.truncate(TAMANIO_CABECERA);
+                cabecera.putInt(0, MAGIA);
+                cabecera.putLong(POSICION_FILAS, 0);
+            }
+            // Hasta el próximo cierre correcto, el libro no se considera completo
+            cabecera.putInt(POSICION_ESTADO, ABIERTO);
+            cabecera.force();
+            return new LibroPagos(canal, cabecera, new FileOutputStream(diccionario.toFile(), completo), contratos, completo, filas);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private static void leerDiccionario(Path diccionario, Map<String, Integer> contratos) throws IOException {
+        try (InputStream archivo = Files.newInputStream(diccionario);
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(archivo))) {
+            while (true) {
+                String id;
+                try {
+                    id = entrada.readUTF();
+                } catch (EOFException e) {
+                    return;
+                }
+                contratos.put(id, contratos.size());
+            }
+        }
+    }
+
+    /**
+     * @return true si el libro se cerró correctamente la última vez y conserva todos los pagos; si es
+     *         false, está vacío y deben asentarse los pagos existentes con {@link #registrar(Pago)}.
+     */
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    /**
+     * Asienta el estado actual de un pago nuevo o modificado.
+     * @param pago El pago.
+     */
+    public void registrar(Pago pago) {
+        agregarFila(pago, (byte) 0);
+    }
+
+    /**
+     * Anula el estado de un pago antes de modificarlo o eliminarlo. Debe recibir el pago tal como se
+     * asentó la última vez.
+     * @param pago El pago, antes del cambio.
+     */
+    public void anular(Pago pago) {
+        agregarFila(pago, ANULACION);
+    }
+
+    private synchronized void agregarFila(Pago pago, byte marcas) {
+        if (danado || cerrado) {
+            return;
+        }
+        long fila = filas;
+        int indiceBloque = (int) (fila / FILAS_POR_BLOQUE);
+        Bloque[] actuales = bloques;
+        if (indiceBloque == actuales.length) {
+            Bloque[] ampliados = Arrays.copyOf(actuales, indiceBloque + 1);
+            try {
+                ampliados[indiceBloque] = mapear(indiceBloque);
+            } catch (IOException e) {
+                danado = true;
+                return;
+            }
+            bloques = ampliados;
+            actuales = ampliados;
+        }
+        Bloque bloque = actuales[indiceBloque];
+        int posicion = (int) (fila % FILAS_POR_BLOQUE);
+        bloque.contratos.put(posicion, numeroContrato(pago.getContrato() == null ? null : pago.getContrato().getId()));
+        bloque.fechas.put(posicion, pago.getFechaPago() == null ? SIN_FECHA : (int) pago.getFechaPago().toEpochDay());
+        bloque.valores.put(posicion, pago.getValorPagoCentavos());
+        bloque.periodos.put(posicion, pago.getPeriodoCodigo());
+        bloque.marcas.put(posicion, (byte) (marcas | (pago.isConfirmado() ? CONFIRMADO : 0)));
+        filas = fila + 1;
+    }
+
+    /**
+     * Devuelve el número de un contrato en la columna, asignándole uno nuevo si no lo tiene.
+     */
+    private int numeroContrato(String contratoId) {
+        String clave = contratoId == null ? "" : contratoId.toUpperCase(Locale.ROOT);
+        Integer numero = contratos.get(clave);
+        if (numero == null) {
+            numero = contratos.size();
+            try {
+                diccionario.writeUTF(clave);
+            } catch (IOException e) {
+                danado = true;
+            }
+            contratos.put(clave, numero);
+        }
+        return numero;
+    }
+
+    private static int codigoPeriodo(YearMonth periodo) {
+        return periodo.getYear() * 100 + periodo.getMonthValue();
+    }
+
+    /**
+     * Resume los pagos por fecha de pago.
+     * @param contratoId El contrato de los pagos, o null para todos.
+     * @param desde La fecha mínima, o null para no limitar.
+     * @param hasta La fecha máxima, o null para no limitar.
+     * @param soloConfirmados true para contar sólo los pagos confirmados.
+     * @return La cantidad y la suma de los pagos vigentes que cumplen el filtro.
+     * @throws IllegalStateException Si el libro está dañado.
+     */
+    public ResumenPagos resumir(String contratoId, LocalDate desde, LocalDate hasta, boolean soloConfirmados) {
+        return resumir(contratoId,
+                desde == null ? Integer.MIN_VALUE : (int) desde.toEpochDay(),
+                hasta == null ? Integer.MAX_VALUE : (int) hasta.toEpochDay(),
+                Integer.MIN_VALUE, Integer.MAX_VALUE, soloConfirmados);
+    }
+
+    /**
+     * Resume los pagos por período correspondiente. Los pagos con un período que no tiene la forma
+     * AAAA-MM sólo se cuentan si no se limita el período.
+     * @param contratoId El contrato de los pagos, o null para todos.
+     * @param desde El período mínimo, o null para no limitar.
+     * @param hasta El período máximo, o null para no limitar.
+     * @param soloConfirmados true para contar sólo los pagos confirmados.
+     * @return La cantidad y la suma de los pagos vigentes que cumplen el filtro.
+     * @throws IllegalStateException Si el libro está dañado.
+     */
+    public ResumenPagos resumirPorPeriodo(String contratoId, YearMonth desde, YearMonth hasta, boolean soloConfirmados) {
+        return resumir(contratoId, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                desde != null ? codigoPeriodo(desde) : hasta != null ? SIN_PERIODO + 1 : Integer.MIN_VALUE,
+                hasta == null ? Integer.MAX_VALUE : codigoPeriodo(hasta), soloConfirmados);
+    }
+
+    private ResumenPagos resumir(String contratoId, int desdeDia, int hastaDia, int desdePeriodo, int hastaPeriodo,
+                                 boolean soloConfirmados) {
+        if (danado) {
+            throw new IllegalStateException("El libro de pagos está dañado; se reconstruirá al volver a abrir el gestor.");
+        }
+        int contrato = -1;
+        if (contratoId != null) {
+            Integer numero;
+            synchronized (this) {
+                numero = contratos.get(contratoId.toUpperCase(Locale.ROOT));
+            }
+            if (numero == null) {
+                return new ResumenPagos(0, 0);
+            }
+            contrato = numero;
+        }
+        long total = filas;
+        Bloque[] mapeados = bloques;
+        long cantidad = 0;
+        long suma = 0;
+        for (int b = 0; (long) b * FILAS_POR_BLOQUE < total; b++) {
+            Bloque bloque = mapeados[b];
+            int enBloque = (int) Math.min(FILAS_POR_BLOQUE, total - (long) b * FILAS_POR_BLOQUE);
+            for (int i = 0; i < enBloque; i++) {
+                if (contrato >= 0 && bloque.contratos.get(i) != contrato) {
+                    continue;
+                }
+                int fecha = bloque.fechas.get(i);
+                int periodo = bloque.periodos.get(i);
+                if (fecha < desdeDia || fecha > hastaDia || periodo < desdePeriodo || periodo > hastaPeriodo) {
+                    continue;
+                }
+                byte marcas = bloque.marcas.get(i);
+                if (soloConfirmados && (marcas & CONFIRMADO) == 0) {
+                    continue;
+                }
+                // Una anulación resta lo que sumaba la fila anulada: la suma en centavos es exacta
+                int signo = 1 - (marcas & ANULACION);
+                cantidad += signo;
+                suma += signo * bloque.valores.get(i);
+            }
+        }
+        return new ResumenPagos(cantidad, suma);
+    }
+
+    /**
+     * @return La cantidad de filas del libro, incluidas las anulaciones.
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    private Bloque mapear(int indice) throws IOException {
+        return new Bloque(canal.map(FileChannel.MapMode.READ_WRITE,
+                TAMANIO_CABECERA + (long) indice * TAMANIO_BLOQUE, TAMANIO_BLOQUE));
+    }
+
+    /**
+     * Fuerza las filas a disco y marca el libro como completo, salvo que esté dañado.
+     * @throws IOException Si falla la escritura.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            diccionario.flush();
+            archivoDiccionario.getFD().sync();
+            diccionario.close();
+            for (Bloque bloque : bloques) {
+                bloque.mapa.force();
+            }
+            cabecera.putLong(POSICION_FILAS, filas);
+            cabecera.putInt(POSICION_ESTADO, danado ? ABIERTO : CERRADO);
+            cabecera.force();
+        } finally {
+            canal.close();
+        }
+    }
+}
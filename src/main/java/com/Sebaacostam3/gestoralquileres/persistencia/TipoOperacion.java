@@ -0,0 +1,60 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+/**
+ * Operaciones de escritura que se anotan en el diario.
+ * El código de cada operación se guarda en disco, por lo que no debe cambiar una vez asignado.
+ */
+public enum TipoOperacion {
+    AGREGAR_PROPIEDAD(1),
+    ACTUALIZAR_PROPIEDAD(2),
+    ELIMINAR_PROPIEDAD(3),
+    AGREGAR_INQUILINO(4),
+    ACTUALIZAR_INQUILINO(5),
+    ELIMINAR_INQUILINO(6),
+    CREAR_CONTRATO(7),
+    ACTUALIZAR_CONTRATO(8),
+    FINALIZAR_CONTRATO(9),
+    ELIMINAR_CONTRATO(10),
+    REGISTRAR_PAGO(11),
+    CONFIRMAR_PAGO(12),
+    ACTUALIZAR_PAGO(13),
+    ELIMINAR_PAGO(14),
+    REPORTAR_INCIDENCIA(15),
+    ACTUALIZAR_INCIDENCIA(16),
+    ELIMINAR_INCIDENCIA(17);
+
+    private static final TipoOperacion[] POR_CODIGO = new TipoOperacion[32];
+
+    static {
+        for (TipoOperacion tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final int codigo;
+
+    TipoOperacion(int codigo) {
+        this.codigo = codigo;
+    }
+
+    /**
+     * @return El código con el que la operación se guarda en disco.
+     */
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * Obtiene la operación correspondiente a un código leído de disco.
+     * @param codigo El código leído.
+     * @return La operación.
+     * @throws IllegalArgumentException Si el código no corresponde a ninguna operación.
+     */
+    public static TipoOperacion desdeCodigo(int codigo) {
+        TipoOperacion tipo = codigo >= 0 && codigo < POR_CODIGO.length ? POR_CODIGO[codigo] : null;
+        if (tipo == null) {
+            throw new IllegalArgumentException("Código de operación desconocido: " + codigo);
+        }
+        return tipo;
+    }
+}
@@ -0,0 +1,257 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Dinero;
+import com.Sebaacostam3.gestoralquileres.servicio.Repositorios;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Base de datos embebida (en el mismo proceso) donde se almacenan las entidades del gestor.
+ * <p>
+ * Se accede por JDBC, con un conjunto fijo de conexiones que se reparten entre los hilos; el driver
+ * se elige por la URL (por ejemplo, {@code jdbc:h2:./datos/gestor} para H2 en un archivo). Al abrirse
+ * crea las tablas y los índices que usan las consultas de los repositorios si todavía no existen.
+ * <p>
+ * Cada entidad se guarda en una fila con su clave normalizada (el ID en mayúsculas) como clave
+ * primaria y un número de secuencia que conserva el orden de alta. Las referencias se guardan por
+ * ID, con su clave normalizada indexada para las consultas por contrato o por propiedad. El período
+ * de los pagos se guarda además como código AAAAMM indexado, y el DNI y el email de los inquilinos,
+ * normalizados, en columnas con índices únicos. Los importes se guardan en
+ * centavos, en columnas {@code BIGINT}; las bases en las que se guardaban como {@code double} se
+ * migran al abrirse.
+ */
+public final class BaseDatosEmbebida implements AutoCloseable {
+
+    /**
+     * Operación sobre una conexión de la base de datos.
+     * @param <R> El tipo de resultado.
+     */
+    interface Operacion<R> {
+        R ejecutar(Connection conexion) throws SQLException;
+    }
+
+    private static final String[] ESQUEMA = {
+            "CREATE TABLE IF NOT EXISTS propiedad (seq BIGINT GENERATED BY DEFAULT AS IDENTITY, clave VARCHAR(255) PRIMARY KEY,"
+                    + " id VARCHAR(255) NOT NULL, direccion VARCHAR, tipo VARCHAR, metros_cuadrados DOUBLE PRECISION,"
+                    + " alquilada BOOLEAN NOT NULL, precio_mensual_centavos BIGINT)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS propiedad_seq ON propiedad (seq)",
+            // Bases creadas cuando los importes se guardaban como double
+            "ALTER TABLE propiedad ADD COLUMN IF NOT EXISTS precio_mensual_centavos BIGINT",
+            "CREATE TABLE IF NOT EXISTS inquilino (seq BIGINT GENERATED BY DEFAULT AS IDENTITY, clave VARCHAR(255) PRIMARY KEY,"
+                    + " id VARCHAR(255) NOT NULL, nombre VARCHAR, apellido VARCHAR, telefono VARCHAR, dni VARCHAR, email VARCHAR,"
+                    + " dni_normalizado VARCHAR(255), email_normalizado VARCHAR(255))",
+            "CREATE UNIQUE INDEX IF NOT EXISTS inquilino_seq ON inquilino (seq)",
+            // Bases creadas antes de las columnas normalizadas
+            "ALTER TABLE inquilino ADD COLUMN IF NOT EXISTS dni_normalizado VARCHAR(255)",
+            "ALTER TABLE inquilino ADD COLUMN IF NOT EXISTS email_normalizado VARCHAR(255)",
+            "CREATE TABLE IF NOT EXISTS contrato (seq BIGINT GENERATED BY DEFAULT AS IDENTITY, clave VARCHAR(255) PRIMARY KEY,"
+                    + " id VARCHAR(255) NOT NULL, fecha_inicio DATE, fecha_fin DATE, propiedad_id VARCHAR(255), propiedad_clave VARCHAR(255),"
+                    + " inquilino_id VARCHAR(255), inquilino_clave VARCHAR(255), valor_mensual_centavos BIGINT, activo BOOLEAN NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS contrato_seq ON contrato (seq)",
+            "ALTER TABLE contrato ADD COLUMN IF NOT EXISTS valor_mensual_centavos BIGINT",
+            "CREATE INDEX IF NOT EXISTS contrato_propiedad_activo ON contrato (propiedad_clave, activo)",
+            "CREATE INDEX IF NOT EXISTS contrato_inquilino_activo ON contrato (inquilino_clave, activo)",
+            "CREATE INDEX IF NOT EXISTS contrato_activo_seq ON contrato (activo, seq)",
+            "CREATE INDEX IF NOT EXISTS contrato_activo_fin ON contrato (activo, fecha_fin)",
+            "CREATE TABLE IF NOT EXISTS pago (seq BIGINT GENERATED BY DEFAULT AS IDENTITY, clave VARCHAR(255) PRIMARY KEY,"
+                    + " id VARCHAR(255) NOT NULL, contrato_id VARCHAR(255), contrato_clave VARCHAR(255), fecha_pago DATE,"
+                    + " valor_pago_centavos BIGINT, confirmado BOOLEAN NOT NULL, periodo_correspondiente VARCHAR, periodo INT)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS pago_seq ON pago (seq)",
+            "ALTER TABLE pago ADD COLUMN IF NOT EXISTS valor_pago_centavos BIGINT",
+            "CREATE INDEX IF NOT EXISTS pago_contrato_seq ON pago (contrato_clave, seq)",
+            // Bases creadas antes de la columna del período
+            "ALTER TABLE pago ADD COLUMN IF NOT EXISTS periodo INT",
+            "CREATE INDEX IF NOT EXISTS pago_periodo ON pago (periodo)",
+            "CREATE TABLE IF NOT EXISTS incidencia (seq BIGINT GENERATED BY DEFAULT AS IDENTITY, clave VARCHAR(255) PRIMARY KEY,"
+                    + " id VARCHAR(255) NOT NULL, propiedad_id VARCHAR(255), propiedad_clave VARCHAR(255), descripcion VARCHAR,"
+                    + " fecha DATE, estado VARCHAR, costo_estimado_centavos BIGINT, abierta BOOLEAN NOT NULL)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS incidencia_seq ON incidencia (seq)",
+            "ALTER TABLE incidencia ADD COLUMN IF NOT EXISTS costo_estimado_centavos BIGINT",
+            "CREATE INDEX IF NOT EXISTS incidencia_propiedad_abierta ON incidencia (propiedad_clave, abierta)",
+            "CREATE INDEX IF NOT EXISTS incidencia_propiedad_seq ON incidencia (propiedad_clave, seq)"
+    };
+
+    // Se crean después de completar las columnas normalizadas de las filas anteriores
+    private static final String[] INDICES_UNICOS = {
+            "CREATE UNIQUE INDEX IF NOT EXISTS inquilino_dni ON inquilino (dni_normalizado)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS inquilino_email ON inquilino (email_normalizado)"
+    };
+
+    // Columnas de importes de las bases anteriores: tabla, columna double y columna en centavos que la reemplaza
+    private static final String[][] IMPORTES_DECIMALES = {
+            {"propiedad", "precio_mensual", "precio_mensual_centavos"},
+            {"contrato", "valor_mensual", "valor_mensual_centavos"},
+            {"pago", "valor_pago", "valor_pago_centavos"},
+            {"incidencia", "costo_estimado", "costo_estimado_centavos"}
+    };
+
+    private final List<Connection> todas = new ArrayList<>();
+    private final BlockingQueue<Connection> libres;
+
+    /**
+     * Abre la base de datos y crea su esquema si no existe.
+     * @param url La URL JDBC de la base de datos.
+     * @param conexiones Cantidad de conexiones abiertas; limita cuántas operaciones se ejecutan a la vez.
+     * @throws SQLException Si no se puede abrir la base de datos o crear el esquema.
+     */
+    public BaseDatosEmbebida(String url, int conexiones) throws SQLException {
+        if (conexiones <= 0) {
+            throw new IllegalArgumentException("La cantidad de conexiones debe ser positiva: " + conexiones);
+        }
+        this.libres = new ArrayBlockingQueue<>(conexiones);
+        try {
+            for (int i = 0; i < conexiones; i++) {
+                Connection conexion = DriverManager.getConnection(url);
+                todas.add(conexion);
+                libres.add(conexion);
+            }
+            try (Statement sentencia = todas.get(0).createStatement()) {
+                for (String instruccion : ESQUEMA) {
+                    sentencia.execute(instruccion);
+                }
+                migrarImportes(todas.get(0));
+                PagosSql.completarPeriodos(todas.get(0));
+                InquilinosSql.completarNormalizados(todas.get(0));
+                for (String instruccion : INDICES_UNICOS) {
+                    sentencia.execute(instruccion);
+                }
+            }
+        } catch (SQLException e) {
+            cerrarConexiones();
+            throw e;
+        }
+    }
+
+    /**
+     * Pasa a centavos los importes de una base creada cuando se guardaban como double, con el mismo
+     * redondeo que las entidades, y elimina las columnas anteriores. Cada tabla se migra en una
+     * transacción, así que si se interrumpe se retoma al volver a abrir la base.
+     */
+    private static void migrarImportes(Connection conexion) throws SQLException {
+        for (String[] importe : IMPORTES_DECIMALES) {
+            if (!existeColumna(conexion, importe[0], importe[1])) {
+                continue;
+            }
+            conexion.setAutoCommit(false);
+            try (PreparedStatement pendientes = conexion.prepareStatement("SELECT clave, " + importe[1] + " FROM " + importe[0]
+                    + " WHERE " + importe[2] + " IS NULL AND " + importe[1] + " IS NOT NULL");
+                 PreparedStatement actualizar = conexion.prepareStatement(
+                         "UPDATE " + importe[0] + " SET " + importe[2] + " = ? WHERE clave = ?");
+                 Statement eliminar = conexion.createStatement()) {
+                try (ResultSet fila = pendientes.executeQuery()) {
+                    while (fila.next()) {
+                        actualizar.setLong(1, Dinero.centavos(fila.getDouble(2)));
+                        actualizar.setString(2, fila.getString(1));
+                        actualizar.executeUpdate();
+                    }
+                }
+                eliminar.execute("ALTER TABLE " + importe[0] + " DROP COLUMN " + importe[1]);
+                conexion.commit();
+            } catch (SQLException | RuntimeException e) {
+                conexion.rollback();
+                throw e;
+            } finally {
+                conexion.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static boolean existeColumna(Connection conexion, String tabla, String columna) throws SQLException {
+        DatabaseMetaData metadatos = conexion.getMetaData();
+        try (ResultSet fila = metadatos.getColumns(null, null, tabla.toUpperCase(Locale.ROOT), columna.toUpperCase(Locale.ROOT))) {
+            return fila.next();
+        }
+    }
+
+    /**
+     * @return Repositorios que almacenan las entidades en esta base de datos.
+     */
+    public Repositorios repositorios() {
+        return new Repositorios(new PropiedadesSql(this), new InquilinosSql(this), new ContratosSql(this),
+                new PagosSql(this), new IncidenciasSql(this));
+    }
+
+    /**
+     * Normaliza un ID para usarlo como clave de una fila, igual que los repositorios en memoria.
+     * @param id El ID tal como lo ingresa el usuario.
+     * @return La clave normalizada, o null si el ID es null.
+     */
+    static String clave(String id) {
+        return id == null ? null : id.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Ejecuta una operación con una conexión libre, en modo de confirmación automática.
+     * @throws ErrorBaseDatos Si la operación falla.
+     */
+    <R> R ejecutar(Operacion<R> operacion) {
+        Connection conexion = tomar();
+        try {
+            return operacion.ejecutar(conexion);
+        } catch (SQLException e) {
+            throw new ErrorBaseDatos("Error de base de datos: " + e.getMessage(), e);
+        } finally {
+            libres.add(conexion);
+        }
+    }
+
+    /**
+     * Ejecuta una operación dentro de una transacción, que se confirma si termina bien y se
+     * deshace si falla.
+     * @throws ErrorBaseDatos Si la operación falla.
+     */
+    <R> R enTransaccion(Operacion<R> operacion) {
+        return ejecutar(conexion -> {
+            conexion.setAutoCommit(false);
+            try {
+                R resultado = operacion.ejecutar(conexion);
+                conexion.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                conexion.rollback();
+                throw e;
+            } finally {
+                conexion.setAutoCommit(true);
+            }
+        });
+    }
+
+    private Connection tomar() {
+        try {
+            return libres.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ErrorBaseDatos("Interrumpido mientras esperaba una conexión libre.", e);
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones. Debe llamarse cuando ya no quedan operaciones en curso.
+     */
+    @Override
+    public void close() {
+        cerrarConexiones();
+    }
+
+    private void cerrarConexiones() {
+        for (Connection conexion : todas) {
+            try {
+                conexion.close();
+            } catch (SQLException e) {
+                // La conexión ya no se usa; no hay nada más que hacer con ella
+            }
+        }
+        todas.clear();
+    }
+}
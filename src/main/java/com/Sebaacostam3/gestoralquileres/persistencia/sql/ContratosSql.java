@@ -0,0 +1,84 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioContratos;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repositorio de contratos en la tabla {@code contrato}. Los conteos por propiedad e inquilino y
+ * el listado de contratos activos se resuelven con los índices sobre la clave de la referencia
+ * y el estado; los vencimientos, con el índice sobre el estado y la fecha de fin.
+ */
+class ContratosSql extends RepositorioSql<ContratoAlquiler> implements RepositorioContratos {
+
+    private static final String[] COLUMNAS = {"id", "fecha_inicio", "fecha_fin", "propiedad_id", "propiedad_clave",
+            "inquilino_id", "inquilino_clave", "valor_mensual_centavos", "activo"};
+
+    ContratosSql(BaseDatosEmbebida base) {
+        super(base, "contrato", "c", COLUMNAS, ContratoAlquiler::getId);
+    }
+
+    @Override
+    String consulta() {
+        return "SELECT c.seq AS seq, " + FilasSql.CONTRATO + " FROM contrato c" + FilasSql.UNION_CONTRATO;
+    }
+
+    @Override
+    ContratoAlquiler leer(ResultSet fila) throws SQLException {
+        return FilasSql.leerContrato(fila, null);
+    }
+
+    @Override
+    int asignar(PreparedStatement sentencia, ContratoAlquiler contrato) throws SQLException {
+        sentencia.setString(1, contrato.getId());
+        FilasSql.asignarFecha(sentencia, 2, contrato.getFechaInicio());
+        FilasSql.asignarFecha(sentencia, 3, contrato.getFechaFin());
+        int siguiente = FilasSql.asignarReferencia(sentencia, 4, contrato.getPropiedad() == null ? null : contrato.getPropiedad().getId());
+        siguiente = FilasSql.asignarReferencia(sentencia, siguiente, contrato.getInquilino() == null ? null : contrato.getInquilino().getId());
+        sentencia.setLong(siguiente, contrato.getValorMensualCentavos());
+        sentencia.setBoolean(siguiente + 1, contrato.isActivo());
+        return siguiente + 2;
+    }
+
+    @Override
+    public int contarActivosPorPropiedad(String propiedadId) {
+        return contar("SELECT COUNT(*) FROM contrato WHERE propiedad_clave = ? AND activo = TRUE",
+                BaseDatosEmbebida.clave(propiedadId));
+    }
+
+    @Override
+    public int contarActivosPorInquilino(String inquilinoId) {
+        return contar("SELECT COUNT(*) FROM contrato WHERE inquilino_clave = ? AND activo = TRUE",
+                BaseDatosEmbebida.clave(inquilinoId));
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarActivos() {
+        return listar("c.activo = TRUE");
+    }
+
+    @Override
+    public Pagina<ContratoAlquiler> paginaActivos(String cursor, int tamanio) {
+        return paginar("c.activo = TRUE", cursor, tamanio);
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarPorVencer(LocalDate desde, LocalDate hasta) {
+        List<ContratoAlquiler> contratos = listar("c.activo = TRUE AND c.fecha_fin BETWEEN ? AND ?", desde, hasta);
+        contratos.sort(Comparator.comparing(ContratoAlquiler::getFechaFin));
+        return contratos;
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarSuperpuestos(LocalDate desde, LocalDate hasta) {
+        return listar("(c.fecha_inicio IS NULL OR c.fecha_inicio <= ?) AND (c.fecha_fin IS NULL OR c.fecha_fin >= ?)",
+                hasta, desde);
+    }
+}
@@ -0,0 +1,17 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import java.sql.SQLException;
+
+/**
+ * Error de acceso a la base de datos durante una operación de un repositorio.
+ * Los repositorios no declaran excepciones verificadas, por lo que los {@link SQLException}
+ * se envuelven en esta excepción no verificada.
+ */
+public class ErrorBaseDatos extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ErrorBaseDatos(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
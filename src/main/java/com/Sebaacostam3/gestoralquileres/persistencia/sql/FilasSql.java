@@ -0,0 +1,126 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * Columnas de las consultas y lectura de las entidades desde sus filas.
+ * <p>
+ * Cada tabla se consulta con un alias fijo ({@code p} propiedad, {@code i} inquilino, {@code c} contrato,
+ * {@code g} pago, {@code n} incidencia) y sus columnas se nombran con ese prefijo, de modo que una misma
+ * fila puede traer una entidad junto con las que referencia. Si una referencia apunta a una fila que
+ * ya no existe (por ejemplo, la propiedad eliminada de un contrato finalizado), se devuelve una entidad
+ * "de referencia" que sólo tiene el ID, como al leer el diario.
+ */
+final class FilasSql {
+
+    static final String PROPIEDAD = "p.id AS p_id, p.direccion AS p_direccion, p.tipo AS p_tipo,"
+            + " p.metros_cuadrados AS p_metros_cuadrados, p.alquilada AS p_alquilada, p.precio_mensual_centavos AS p_precio_mensual_centavos";
+
+    static final String INQUILINO = "i.id AS i_id, i.nombre AS i_nombre, i.apellido AS i_apellido,"
+            + " i.telefono AS i_telefono, i.dni AS i_dni, i.email AS i_email";
+
+    static final String CONTRATO = "c.id AS c_id, c.fecha_inicio AS c_fecha_inicio, c.fecha_fin AS c_fecha_fin,"
+            + " c.propiedad_id AS c_propiedad_id, c.inquilino_id AS c_inquilino_id, c.valor_mensual_centavos AS c_valor_mensual_centavos,"
+            + " c.activo AS c_activo, " + PROPIEDAD + ", " + INQUILINO;
+
+    // Uniones de un contrato (alias c) con su propiedad y su inquilino
+    static final String UNION_CONTRATO = " LEFT JOIN propiedad p ON p.clave = c.propiedad_clave"
+            + " LEFT JOIN inquilino i ON i.clave = c.inquilino_clave";
+
+    static final String PAGO = "g.id AS g_id, g.contrato_id AS g_contrato_id, g.fecha_pago AS g_fecha_pago,"
+            + " g.valor_pago_centavos AS g_valor_pago_centavos, g.confirmado AS g_confirmado,"
+            + " g.periodo_correspondiente AS g_periodo_correspondiente, " + CONTRATO;
+
+    static final String INCIDENCIA = "n.id AS n_id, n.propiedad_id AS n_propiedad_id, n.descripcion AS n_descripcion,"
+            + " n.fecha AS n_fecha, n.estado AS n_estado, n.costo_estimado_centavos AS n_costo_estimado_centavos, " + PROPIEDAD;
+
+    private FilasSql() {
+    }
+
+    /**
+     * @param referencia El ID guardado en la fila que referencia a la propiedad.
+     */
+    static Propiedad leerPropiedad(ResultSet fila, String referencia) throws SQLException {
+        String id = fila.getString("p_id");
+        if (id == null) {
+            return referencia == null ? null : new Propiedad(referencia, null, null, 0, false, 0);
+        }
+        boolean alquilada = fila.getBoolean("p_alquilada");
+        Propiedad propiedad = new Propiedad(id, fila.getString("p_direccion"), fila.getString("p_tipo"),
+                fila.getDouble("p_metros_cuadrados"), alquilada, 0);
+        // El constructor siempre crea la propiedad libre, por lo que el estado se asigna aparte
+        propiedad.setAlquilada(alquilada);
+        propiedad.setPrecioMensualCentavos(fila.getLong("p_precio_mensual_centavos"));
+        return propiedad;
+    }
+
+    static Inquilino leerInquilino(ResultSet fila, String referencia) throws SQLException {
+        String id = fila.getString("i_id");
+        if (id == null) {
+            return referencia == null ? null : new Inquilino(referencia, null, null, null, null, null);
+        }
+        return new Inquilino(id, fila.getString("i_nombre"), fila.getString("i_apellido"),
+                fila.getString("i_telefono"), fila.getString("i_dni"), fila.getString("i_email"));
+    }
+
+    static ContratoAlquiler leerContrato(ResultSet fila, String referencia) throws SQLException {
+        String id = fila.getString("c_id");
+        if (id == null) {
+            return referencia == null ? null : new ContratoAlquiler(referencia, null, null, null, null, 0, false);
+        }
+        ContratoAlquiler contrato = new ContratoAlquiler(id, fila.getObject("c_fecha_inicio", LocalDate.class),
+                fila.getObject("c_fecha_fin", LocalDate.class),
+                leerPropiedad(fila, fila.getString("c_propiedad_id")),
+                leerInquilino(fila, fila.getString("c_inquilino_id")),
+                0, fila.getBoolean("c_activo"));
+        contrato.setValorMensualCentavos(fila.getLong("c_valor_mensual_centavos"));
+        return contrato;
+    }
+
+    static Pago leerPago(ResultSet fila) throws SQLException {
+        Pago pago = new Pago(fila.getString("g_id"), leerContrato(fila, fila.getString("g_contrato_id")),
+                fila.getObject("g_fecha_pago", LocalDate.class), 0,
+                fila.getBoolean("g_confirmado"), fila.getString("g_periodo_correspondiente"));
+        pago.setValorPagoCentavos(fila.getLong("g_valor_pago_centavos"));
+        return pago;
+    }
+
+    static Incidencia leerIncidencia(ResultSet fila) throws SQLException {
+        Incidencia incidencia = new Incidencia(fila.getString("n_id"), leerPropiedad(fila, fila.getString("n_propiedad_id")),
+                fila.getString("n_descripcion"), fila.getObject("n_fecha", LocalDate.class),
+                EstadoIncidencia.interpretar(fila.getString("n_estado")), 0);
+        incidencia.setCostoEstimadoCentavos(fila.getLong("n_costo_estimado_centavos"));
+        return incidencia;
+    }
+
+    // --- Parámetros ---
+
+    static void asignarFecha(PreparedStatement sentencia, int indice, LocalDate fecha) throws SQLException {
+        if (fecha == null) {
+            sentencia.setNull(indice, Types.DATE);
+        } else {
+            sentencia.setObject(indice, fecha);
+        }
+    }
+
+    /**
+     * Asigna el ID de una referencia y, a continuación, su clave normalizada.
+     * @return El índice del siguiente parámetro.
+     */
+    static int asignarReferencia(PreparedStatement sentencia, int indice, String id) throws SQLException {
+        sentencia.setString(indice, id);
+        sentencia.setString(indice + 1, BaseDatosEmbebida.clave(id));
+        return indice + 2;
+    }
+}
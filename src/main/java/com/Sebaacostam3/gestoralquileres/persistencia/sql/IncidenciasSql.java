@@ -0,0 +1,65 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioIncidencias;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Repositorio de incidencias en la tabla {@code incidencia}. Cada fila guarda además si la
+ * incidencia está abierta, según {@link EstadoIncidencia#estaAbierta()}, para que el
+ * conteo de incidencias pendientes de una propiedad use su índice.
+ */
+class IncidenciasSql extends RepositorioSql<Incidencia> implements RepositorioIncidencias {
+
+    private static final String[] COLUMNAS = {"id", "propiedad_id", "propiedad_clave", "descripcion", "fecha",
+            "estado", "costo_estimado_centavos", "abierta"};
+
+    IncidenciasSql(BaseDatosEmbebida base) {
+        super(base, "incidencia", "n", COLUMNAS, Incidencia::getId);
+    }
+
+    @Override
+    String consulta() {
+        return "SELECT n.seq AS seq, " + FilasSql.INCIDENCIA + " FROM incidencia n"
+                + " LEFT JOIN propiedad p ON p.clave = n.propiedad_clave";
+    }
+
+    @Override
+    Incidencia leer(ResultSet fila) throws SQLException {
+        return FilasSql.leerIncidencia(fila);
+    }
+
+    @Override
+    int asignar(PreparedStatement sentencia, Incidencia incidencia) throws SQLException {
+        sentencia.setString(1, incidencia.getId());
+        int siguiente = FilasSql.asignarReferencia(sentencia, 2, incidencia.getPropiedad() == null ? null : incidencia.getPropiedad().getId());
+        sentencia.setString(siguiente, incidencia.getDescripcion());
+        FilasSql.asignarFecha(sentencia, siguiente + 1, incidencia.getFecha());
+        sentencia.setString(siguiente + 2, incidencia.getEstado().getNombre());
+        sentencia.setLong(siguiente + 3, incidencia.getCostoEstimadoCentavos());
+        sentencia.setBoolean(siguiente + 4, incidencia.getEstado().estaAbierta());
+        return siguiente + 5;
+    }
+
+    @Override
+    public int contarAbiertasPorPropiedad(String propiedadId) {
+        return contar("SELECT COUNT(*) FROM incidencia WHERE propiedad_clave = ? AND abierta = TRUE",
+                BaseDatosEmbebida.clave(propiedadId));
+    }
+
+    @Override
+    public List<Incidencia> listarPorPropiedad(String propiedadId) {
+        return listar("n.propiedad_clave = ?", BaseDatosEmbebida.clave(propiedadId));
+    }
+
+    @Override
+    public Pagina<Incidencia> paginaPorPropiedad(String propiedadId, String cursor, int tamanio) {
+        return paginar("n.propiedad_clave = ?", cursor, tamanio, BaseDatosEmbebida.clave(propiedadId));
+    }
+}
@@ -0,0 +1,140 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.servicio.DatoUnicoRepetido;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioInquilinos;
+import com.Sebaacostam3.gestoralquileres.servicio.Resultado;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repositorio de inquilinos en la tabla {@code inquilino}.
+ * <p>
+ * El DNI y el email se guardan también normalizados ({@link Inquilino#normalizarDni(String)},
+ * {@link Inquilino#normalizarEmail(String)}) en columnas con índices únicos, así que las búsquedas
+ * por DNI y por email son consultas por índice y la base rechaza los repetidos, que se informan con
+ * {@link DatoUnicoRepetido}.
+ */
+class InquilinosSql extends RepositorioSql<Inquilino> implements RepositorioInquilinos {
+
+    private static final String[] COLUMNAS = {"id", "nombre", "apellido", "telefono", "dni", "email",
+            "dni_normalizado", "email_normalizado"};
+
+    InquilinosSql(BaseDatosEmbebida base) {
+        super(base, "inquilino", "i", COLUMNAS, Inquilino::getId);
+    }
+
+    @Override
+    String consulta() {
+        return "SELECT i.seq AS seq, " + FilasSql.INQUILINO + " FROM inquilino i";
+    }
+
+    @Override
+    Inquilino leer(ResultSet fila) throws SQLException {
+        return FilasSql.leerInquilino(fila, null);
+    }
+
+    @Override
+    int asignar(PreparedStatement sentencia, Inquilino inquilino) throws SQLException {
+        sentencia.setString(1, inquilino.getId());
+        sentencia.setString(2, inquilino.getNombre());
+        sentencia.setString(3, inquilino.getApellido());
+        sentencia.setString(4, inquilino.getTelefono());
+        sentencia.setString(5, inquilino.getDni());
+        sentencia.setString(6, inquilino.getEmail());
+        sentencia.setString(7, Inquilino.normalizarDni(inquilino.getDni()));
+        sentencia.setString(8, Inquilino.normalizarEmail(inquilino.getEmail()));
+        return 9;
+    }
+
+    @Override
+    DatoUnicoRepetido datoUnicoRepetido(Connection conexion, Inquilino inquilino) throws SQLException {
+        String clave = BaseDatosEmbebida.clave(inquilino.getId());
+        if (usadoPorOtro(conexion, "dni_normalizado", Inquilino.normalizarDni(inquilino.getDni()), clave)) {
+            return new DatoUnicoRepetido(Resultado.DNI_DUPLICADO, "Otro inquilino ya tiene el DNI " + inquilino.getDni());
+        }
+        if (usadoPorOtro(conexion, "email_normalizado", Inquilino.normalizarEmail(inquilino.getEmail()), clave)) {
+            return new DatoUnicoRepetido(Resultado.EMAIL_DUPLICADO, "Otro inquilino ya tiene el email " + inquilino.getEmail());
+        }
+        return null;
+    }
+
+    private static boolean usadoPorOtro(Connection conexion, String columna, String valor, String clave) throws SQLException {
+        if (valor == null) {
+            return false;
+        }
+        try (PreparedStatement sentencia = conexion.prepareStatement(
+                "SELECT 1 FROM inquilino WHERE " + columna + " = ? AND clave <> ?")) {
+            sentencia.setString(1, valor);
+            sentencia.setString(2, clave);
+            try (ResultSet fila = sentencia.executeQuery()) {
+                return fila.next();
+            }
+        }
+    }
+
+    @Override
+    public Inquilino buscarPorDni(String dni) {
+        String buscado = Inquilino.normalizarDni(dni);
+        return buscado == null ? null : primero(listar("i.dni_normalizado = ?", buscado));
+    }
+
+    @Override
+    public Inquilino buscarPorEmail(String email) {
+        String buscado = Inquilino.normalizarEmail(email);
+        return buscado == null ? null : primero(listar("i.email_normalizado = ?", buscado));
+    }
+
+    private static Inquilino primero(List<Inquilino> encontrados) {
+        return encontrados.isEmpty() ? null : encontrados.get(0);
+    }
+
+    /**
+     * Completa las columnas normalizadas de las filas escritas antes de que existieran. Si por datos
+     * anteriores a la regla de unicidad varios inquilinos comparten DNI o email, sólo el primero en orden
+     * de alta recibe el valor normalizado, que es el que devuelven las búsquedas, y los índices únicos
+     * pueden crearse igual.
+     * @param conexion Una conexión en modo de confirmación automática.
+     */
+    static void completarNormalizados(Connection conexion) throws SQLException {
+        Set<String> dnis = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        try (PreparedStatement usados = conexion.prepareStatement(
+                "SELECT dni_normalizado, email_normalizado FROM inquilino WHERE dni_normalizado IS NOT NULL OR email_normalizado IS NOT NULL");
+             ResultSet fila = usados.executeQuery()) {
+            while (fila.next()) {
+                dnis.add(fila.getString(1));
+                emails.add(fila.getString(2));
+            }
+        }
+        try (PreparedStatement pendientes = conexion.prepareStatement("SELECT clave, dni, email, dni_normalizado, email_normalizado"
+                + " FROM inquilino WHERE (dni IS NOT NULL AND dni_normalizado IS NULL) OR (email IS NOT NULL AND email_normalizado IS NULL)"
+                + " ORDER BY seq");
+             PreparedStatement actualizar = conexion.prepareStatement(
+                     "UPDATE inquilino SET dni_normalizado = ?, email_normalizado = ? WHERE clave = ?");
+             ResultSet fila = pendientes.executeQuery()) {
+            while (fila.next()) {
+                actualizar.setString(1, completar(fila.getString("dni_normalizado"), Inquilino.normalizarDni(fila.getString("dni")), dnis));
+                actualizar.setString(2, completar(fila.getString("email_normalizado"), Inquilino.normalizarEmail(fila.getString("email")), emails));
+                actualizar.setString(3, fila.getString("clave"));
+                actualizar.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * @return El valor normalizado que ya tenía la fila, o el calculado si ningún inquilino anterior lo usa.
+     */
+    private static String completar(String guardado, String normalizado, Set<String> usados) {
+        if (guardado != null) {
+            return guardado;
+        }
+        return normalizado != null && usados.add(normalizado) ? normalizado : null;
+    }
+}
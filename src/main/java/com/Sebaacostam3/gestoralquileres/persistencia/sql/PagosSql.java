@@ -0,0 +1,111 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioPagos;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Repositorio de pagos en la tabla {@code pago}. Cada pago se lee junto con su contrato, y el
+ * contrato con su propiedad y su inquilino, en una sola consulta. Las consultas por contrato usan
+ * el índice sobre la clave del contrato y la secuencia, y las consultas por período, el índice sobre
+ * el código AAAAMM del período ({@link Pago#getPeriodoCodigo()}), que se guarda junto al texto.
+ */
+class PagosSql extends RepositorioSql<Pago> implements RepositorioPagos {
+
+    private static final String[] COLUMNAS = {"id", "contrato_id", "contrato_clave", "fecha_pago", "valor_pago_centavos",
+            "confirmado", "periodo_correspondiente", "periodo"};
+
+    PagosSql(BaseDatosEmbebida base) {
+        super(base, "pago", "g", COLUMNAS, Pago::getId);
+    }
+
+    @Override
+    String consulta() {
+        return "SELECT g.seq AS seq, " + FilasSql.PAGO + " FROM pago g"
+                + " LEFT JOIN contrato c ON c.clave = g.contrato_clave" + FilasSql.UNION_CONTRATO;
+    }
+
+    @Override
+    Pago leer(ResultSet fila) throws SQLException {
+        return FilasSql.leerPago(fila);
+    }
+
+    @Override
+    int asignar(PreparedStatement sentencia, Pago pago) throws SQLException {
+        sentencia.setString(1, pago.getId());
+        int siguiente = FilasSql.asignarReferencia(sentencia, 2, pago.getContrato() == null ? null : pago.getContrato().getId());
+        FilasSql.asignarFecha(sentencia, siguiente, pago.getFechaPago());
+        sentencia.setLong(siguiente + 1, pago.getValorPagoCentavos());
+        sentencia.setBoolean(siguiente + 2, pago.isConfirmado());
+        sentencia.setString(siguiente + 3, pago.getPeriodoCorrespondiente());
+        sentencia.setInt(siguiente + 4, pago.getPeriodoCodigo());
+        return siguiente + 5;
+    }
+
+    @Override
+    public List<Pago> listarPorContrato(String contratoId) {
+        return listar("g.contrato_clave = ?", BaseDatosEmbebida.clave(contratoId));
+    }
+
+    @Override
+    public Pagina<Pago> paginaPorContrato(String contratoId, String cursor, int tamanio) {
+        return paginar("g.contrato_clave = ?", cursor, tamanio, BaseDatosEmbebida.clave(contratoId));
+    }
+
+    @Override
+    public int eliminarPorContrato(String contratoId) {
+        return base.ejecutar(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement("DELETE FROM pago WHERE contrato_clave = ?")) {
+                sentencia.setString(1, BaseDatosEmbebida.clave(contratoId));
+                return sentencia.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public List<Pago> listarPorPeriodo(YearMonth desde, YearMonth hasta) {
+        return listar("g.periodo BETWEEN ? AND ?", codigoDesde(desde), codigoHasta(hasta));
+    }
+
+    @Override
+    public List<Pago> listarPorContratoYPeriodo(String contratoId, YearMonth desde, YearMonth hasta) {
+        return listar("g.contrato_clave = ? AND g.periodo BETWEEN ? AND ?", BaseDatosEmbebida.clave(contratoId),
+                codigoDesde(desde), codigoHasta(hasta));
+    }
+
+    /**
+     * @return El código del período mínimo de un rango; sin límite, el del primer período válido.
+     */
+    private static int codigoDesde(YearMonth desde) {
+        return desde == null ? Periodo.SIN_PERIODO + 1 : Periodo.codificar(desde);
+    }
+
+    private static int codigoHasta(YearMonth hasta) {
+        return hasta == null ? Integer.MAX_VALUE : Periodo.codificar(hasta);
+    }
+
+    /**
+     * Completa el código del período de las filas escritas antes de que existiera la columna.
+     * @param conexion Una conexión en modo de confirmación automática.
+     */
+    static void completarPeriodos(Connection conexion) throws SQLException {
+        try (PreparedStatement pendientes = conexion.prepareStatement(
+                "SELECT clave, periodo_correspondiente FROM pago WHERE periodo IS NULL");
+             PreparedStatement actualizar = conexion.prepareStatement("UPDATE pago SET periodo = ? WHERE clave = ?");
+             ResultSet fila = pendientes.executeQuery()) {
+            while (fila.next()) {
+                actualizar.setInt(1, Periodo.parsear(fila.getString("periodo_correspondiente")));
+                actualizar.setString(2, fila.getString("clave"));
+                actualizar.executeUpdate();
+            }
+        }
+    }
+}
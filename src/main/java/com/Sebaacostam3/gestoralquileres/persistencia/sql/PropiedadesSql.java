@@ -0,0 +1,41 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioPropiedades;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Repositorio de propiedades en la tabla {@code propiedad}.
+ */
+class PropiedadesSql extends RepositorioSql<Propiedad> implements RepositorioPropiedades {
+
+    private static final String[] COLUMNAS = {"id", "direccion", "tipo", "metros_cuadrados", "alquilada", "precio_mensual_centavos"};
+
+    PropiedadesSql(BaseDatosEmbebida base) {
+        super(base, "propiedad", "p", COLUMNAS, Propiedad::getId);
+    }
+
+    @Override
+    String consulta() {
+        return "SELECT p.seq AS seq, " + FilasSql.PROPIEDAD + " FROM propiedad p";
+    }
+
+    @Override
+    Propiedad leer(ResultSet fila) throws SQLException {
+        return FilasSql.leerPropiedad(fila, null);
+    }
+
+    @Override
+    int asignar(PreparedStatement sentencia, Propiedad propiedad) throws SQLException {
+        sentencia.setString(1, propiedad.getId());
+        sentencia.setString(2, propiedad.getDireccion());
+        sentencia.setString(3, propiedad.getTipo());
+        sentencia.setDouble(4, propiedad.getMetrosCuadrados());
+        sentencia.setBoolean(5, propiedad.isAlquilada());
+        sentencia.setLong(6, propiedad.getPrecioMensualCentavos());
+        return 7;
+    }
+}
@@ -0,0 +1,373 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.servicio.DatoUnicoRepetido;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import com.Sebaacostam3.gestoralquileres.servicio.Repositorio;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Base de los repositorios que guardan una entidad por fila en la base de datos embebida.
+ * <p>
+ * Cada llamada es una transacción propia; la exclusión mutua entre escrituras de la misma entidad
+ * la sigue dando el gestor con sus bloqueos. Las consultas devuelven entidades nuevas en cada
+ * llamada, por lo que los cambios sobre ellas se hacen persistentes con {@link #guardar(Object)}.
+ * Las páginas se recorren por el número de secuencia de la fila, que sigue el orden de alta; el
+ * cursor es ese número en base 36.
+ * @param <T> El tipo de entidad.
+ */
+abstract class RepositorioSql<T> implements Repositorio<T> {
+
+    // Filas insertadas por lote en las altas masivas
+    private static final int TAMANIO_LOTE = 500;
+
+    final BaseDatosEmbebida base;
+    private final String tabla;
+    private final String alias;
+    private final Function<T, String> obtenerId;
+    private final String insertar;
+    private final String actualizar;
+
+    /**
+     * @param tabla El nombre de la tabla.
+     * @param alias El alias de la tabla en {@link #consulta()}.
+     * @param columnas Las columnas que se escriben, salvo la clave, en el orden de {@link #asignar}.
+     * @param obtenerId Devuelve el ID de una entidad.
+     */
+    RepositorioSql(BaseDatosEmbebida base, String tabla, String alias, String[] columnas, Function<T, String> obtenerId) {
+        this.base = base;
+        this.tabla = tabla;
+        this.alias = alias;
+        this.obtenerId = obtenerId;
+        this.insertar = "INSERT INTO " + tabla + " (" + String.join(", ", columnas) + ", clave) VALUES ("
+                + "?, ".repeat(columnas.length) + "?)";
+        this.actualizar = "UPDATE " + tabla + " SET " + String.join(" = ?, ", columnas) + " = ? WHERE clave = ?";
+    }
+
+    /**
+     * @return La consulta de la entidad y sus referencias, sin condiciones, que incluye la secuencia
+     * de la fila con la etiqueta {@code seq}.
+     */
+    abstract String consulta();
+
+    abstract T leer(ResultSet fila) throws SQLException;
+
+    /**
+     * Asigna los valores de las columnas de la entidad, en orden, a partir del primer parámetro.
+     * @return El índice del siguiente parámetro.
+     */
+    abstract int asignar(PreparedStatement sentencia, T entidad) throws SQLException;
+
+    /**
+     * Averigua si una violación de integridad al escribir una entidad se debe a que otra fila ya tiene
+     * alguno de sus datos únicos, fuera de la clave. Por defecto las tablas no tienen otros datos únicos.
+     * @return El conflicto a lanzar, o null si no es un dato único repetido.
+     */
+    DatoUnicoRepetido datoUnicoRepetido(Connection conexion, T entidad) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public T obtener(String id) {
+        if (id == null) {
+            return null;
+        }
+        return base.ejecutar(conexion -> obtener(conexion, id));
+    }
+
+    private T obtener(Connection conexion, String id) throws SQLException {
+        List<T> encontradas = listar(conexion, alias + ".clave = ?", BaseDatosEmbebida.clave(id));
+        return encontradas.isEmpty() ? null : encontradas.get(0);
+    }
+
+    @Override
+    public boolean agregar(T entidad) {
+        return base.ejecutar(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(insertar)) {
+                completar(sentencia, entidad);
+                sentencia.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                // Sólo es un ID repetido si ya hay una fila con la clave; cualquier otra violación es un error
+                if (esViolacionIntegridad(e)) {
+                    if (existe(conexion, BaseDatosEmbebida.clave(obtenerId.apply(entidad)))) {
+                        return false;
+                    }
+                    lanzarSiHayDatoUnicoRepetido(conexion, entidad);
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Agrega las entidades en una sola transacción, insertándolas por lotes. Si otra escritura
+     * agrega a la vez alguno de los IDs o de los datos únicos y el lote falla, se deshace y se
+     * reintenta de a una, omitiendo las repetidas; si falla por otro motivo, se deshace y no se
+     * agrega ninguna.
+     */
+    @Override
+    public List<T> agregarTodas(List<T> entidades) {
+        List<T> nuevas = new ArrayList<>(entidades.size());
+        try {
+            return base.enTransaccion(conexion -> {
+                nuevas.clear();
+                Set<String> vistas = new HashSet<>();
+                try (PreparedStatement existe = conexion.prepareStatement("SELECT 1 FROM " + tabla + " WHERE clave = ?")) {
+                    for (T entidad : entidades) {
+                        String clave = BaseDatosEmbebida.clave(obtenerId.apply(entidad));
+                        if (!vistas.add(clave)) {
+                            continue;
+                        }
+                        existe.setString(1, clave);
+                        try (ResultSet fila = existe.executeQuery()) {
+                            if (!fila.next()) {
+                                nuevas.add(entidad);
+                            }
+                        }
+                    }
+                }
+                try (PreparedStatement sentencia = conexion.prepareStatement(insertar)) {
+                    int enLote = 0;
+                    for (T entidad : nuevas) {
+                        completar(sentencia, entidad);
+                        sentencia.addBatch();
+                        if (++enLote == TAMANIO_LOTE) {
+                            sentencia.executeBatch();
+                            enLote = 0;
+                        }
+                    }
+                    if (enLote > 0) {
+                        sentencia.executeBatch();
+                    }
+                }
+                return nuevas;
+            });
+        } catch (ErrorBaseDatos e) {
+            if (e.getCause() instanceof SQLException causa && esViolacionIntegridad(causa)
+                    && base.ejecutar(conexion -> algunaRepetida(conexion, nuevas))) {
+                return agregarDeAUna(entidades);
+            }
+            throw e;
+        }
+    }
+
+    private List<T> agregarDeAUna(List<T> entidades) {
+        List<T> agregadas = new ArrayList<>(entidades.size());
+        for (T entidad : entidades) {
+            try {
+                if (agregar(entidad)) {
+                    agregadas.add(entidad);
+                }
+            } catch (DatoUnicoRepetido e) {
+                // Se omite igual que un ID repetido
+            }
+        }
+        return agregadas;
+    }
+
+    /**
+     * @return true si alguna de las entidades ya tiene una fila con su clave o con alguno de sus datos únicos.
+     */
+    private boolean algunaRepetida(Connection conexion, List<T> entidades) throws SQLException {
+        for (T entidad : entidades) {
+            if (existe(conexion, BaseDatosEmbebida.clave(obtenerId.apply(entidad))) || datoUnicoRepetido(conexion, entidad) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void lanzarSiHayDatoUnicoRepetido(Connection conexion, T entidad) throws SQLException {
+        DatoUnicoRepetido repetido = datoUnicoRepetido(conexion, entidad);
+        if (repetido != null) {
+            throw repetido;
+        }
+    }
+
+    private boolean existe(Connection conexion, String clave) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement("SELECT 1 FROM " + tabla + " WHERE clave = ?")) {
+            sentencia.setString(1, clave);
+            try (ResultSet fila = sentencia.executeQuery()) {
+                return fila.next();
+            }
+        }
+    }
+
+    @Override
+    public void guardar(T entidad) {
+        base.ejecutar(conexion -> {
+            try {
+                try (PreparedStatement sentencia = conexion.prepareStatement(actualizar)) {
+                    completar(sentencia, entidad);
+                    if (sentencia.executeUpdate() > 0) {
+                        return null;
+                    }
+                }
+                try (PreparedStatement sentencia = conexion.prepareStatement(insertar)) {
+                    completar(sentencia, entidad);
+                    sentencia.executeUpdate();
+                }
+                return null;
+            } catch (SQLException e) {
+                if (esViolacionIntegridad(e)) {
+                    lanzarSiHayDatoUnicoRepetido(conexion, entidad);
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public T eliminar(String id) {
+        if (id == null) {
+            return null;
+        }
+        return base.enTransaccion(conexion -> {
+            T eliminada = obtener(conexion, id);
+            if (eliminada != null) {
+                try (PreparedStatement sentencia = conexion.prepareStatement("DELETE FROM " + tabla + " WHERE clave = ?")) {
+                    sentencia.setString(1, BaseDatosEmbebida.clave(id));
+                    sentencia.executeUpdate();
+                }
+            }
+            return eliminada;
+        });
+    }
+
+    @Override
+    public Collection<T> valores() {
+        return Collections.unmodifiableList(listar(null));
+    }
+
+    @Override
+    public Pagina<T> pagina(String cursor, int tamanio) {
+        return paginar(null, cursor, tamanio);
+    }
+
+    @Override
+    public int tamanio() {
+        return contar("SELECT COUNT(*) FROM " + tabla);
+    }
+
+    // --- Consultas para las subclases ---
+
+    /**
+     * Lista las entidades que cumplen una condición, en orden de alta.
+     * @param condicion La condición sobre las columnas con el alias de la tabla, o null para todas.
+     * @param parametros Los valores de los parámetros de la condición.
+     */
+    List<T> listar(String condicion, Object... parametros) {
+        return base.ejecutar(conexion -> listar(conexion, condicion, parametros));
+    }
+
+    private List<T> listar(Connection conexion, String condicion, Object... parametros) throws SQLException {
+        String sql = consulta() + (condicion == null ? "" : " WHERE " + condicion) + " ORDER BY " + alias + ".seq";
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            asignarParametros(sentencia, 1, parametros);
+            List<T> resultado = new ArrayList<>();
+            try (ResultSet fila = sentencia.executeQuery()) {
+                while (fila.next()) {
+                    resultado.add(leer(fila));
+                }
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Devuelve una página de las entidades que cumplen una condición, en orden de alta.
+     * @param condicion La condición sobre las columnas con el alias de la tabla, o null para todas.
+     * @throws IllegalArgumentException Si el cursor no es válido o el tamaño no es positivo.
+     */
+    Pagina<T> paginar(String condicion, String cursor, int tamanio, Object... parametros) {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamanio);
+        }
+        long desde = decodificarCursor(cursor);
+        String sql = consulta() + " WHERE " + alias + ".seq > ?" + (condicion == null ? "" : " AND " + condicion)
+                + " ORDER BY " + alias + ".seq";
+        return base.ejecutar(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+                sentencia.setLong(1, desde);
+                asignarParametros(sentencia, 2, parametros);
+                // Una fila de más indica si hay otra página
+                sentencia.setMaxRows(tamanio + 1);
+                List<T> elementos = new ArrayList<>(tamanio);
+                long ultima = desde;
+                boolean hayMas = false;
+                try (ResultSet fila = sentencia.executeQuery()) {
+                    while (fila.next()) {
+                        if (elementos.size() == tamanio) {
+                            hayMas = true;
+                            break;
+                        }
+                        elementos.add(leer(fila));
+                        ultima = fila.getLong("seq");
+                    }
+                }
+                return new Pagina<>(Collections.unmodifiableList(elementos), hayMas ? Long.toString(ultima, Character.MAX_RADIX) : null);
+            }
+        });
+    }
+
+    /**
+     * Ejecuta una consulta de conteo con parámetros.
+     */
+    int contar(String sql, Object... parametros) {
+        return base.ejecutar(conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+                asignarParametros(sentencia, 1, parametros);
+                try (ResultSet fila = sentencia.executeQuery()) {
+                    fila.next();
+                    return fila.getInt(1);
+                }
+            }
+        });
+    }
+
+    private void completar(PreparedStatement sentencia, T entidad) throws SQLException {
+        int siguiente = asignar(sentencia, entidad);
+        sentencia.setString(siguiente, BaseDatosEmbebida.clave(obtenerId.apply(entidad)));
+    }
+
+    private static void asignarParametros(PreparedStatement sentencia, int desde, Object... parametros) throws SQLException {
+        for (int i = 0; i < parametros.length; i++) {
+            sentencia.setObject(desde + i, parametros[i]);
+        }
+    }
+
+    private static long decodificarCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * @return true si la excepción es una violación de una restricción de integridad, como la clave primaria
+     *         o un índice único. Quien llame averigua cuál fue.
+     */
+    private static boolean esViolacionIntegridad(SQLException e) {
+        if (e instanceof BatchUpdateException && e.getNextException() != null) {
+            return esViolacionIntegridad(e.getNextException());
+        }
+        return e instanceof SQLIntegrityConstraintViolationException || (e.getSQLState() != null && e.getSQLState().startsWith("23"));
+    }
+}
@@ -0,0 +1,411 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Almacenamiento en memoria de una entidad indexado por su ID.
+ * Las claves se normalizan a mayúsculas, de modo que la búsqueda sigue siendo
+ * insensible a mayúsculas/minúsculas pero se resuelve con una tabla hash en O(1).
+ * <p>
+ * Cada entidad recibe al agregarse una clave interna entera que la identifica mientras esté
+ * almacenada. El ID externo se traduce a esa clave una sola vez, al entrar; las entidades se guardan
+ * en una {@link TablaPorClave} y los índices secundarios de los repositorios relacionan claves enteras
+ * en lugar de IDs. Las claves de las bajas se reutilizan en las altas siguientes, después de retirarlas
+ * de los índices secundarios ({@link #desindexar(int, Object)}), así que las claves, y con ellas los
+ * recorridos y los mapas de bits de los índices, dependen de la mayor cantidad de entidades almacenadas
+ * a la vez y no de las altas acumuladas.
+ * <p>
+ * Es seguro para hilos: las búsquedas no bloquean y los listados recorren una vista
+ * débilmente consistente ordenada por clave, que es el orden de los listados del repositorio. Mientras
+ * no hay bajas es el orden de inserción; una alta posterior a una baja ocupa el lugar de la entidad
+ * eliminada. Como una clave puede reutilizarse entre que se lee (del índice de IDs o de un índice
+ * secundario) y que se lee la entidad, {@link #obtener(String)} comprueba el ID de la entidad leída y
+ * los repositorios vuelven a comprobar el criterio de la consulta al resolver sus claves
+ * ({@link #enClaves(int[], Predicate)}).
+ * <p>
+ * Es la base de los repositorios en memoria, que lo extienden con sus índices secundarios.
+ * @param <T> El tipo de entidad almacenada.
+ */
+class AlmacenIndexado<T> implements Repositorio<T> {
+
+    /**
+     * Valor devuelto por {@link #claveDe(String)} cuando no hay una entidad con el ID dado.
+     */
+    static final int SIN_CLAVE = -1;
+
+    // ID normalizado -> clave interna
+    private final ConcurrentHashMap<String, Integer> indice = new ConcurrentHashMap<>();
+    private final TablaPorClave<T> entidades = new TablaPorClave<>();
+    // Próxima clave nueva a asignar; todas las claves asignadas son menores
+    private volatile int proximaClave;
+    // Claves liberadas por las bajas, que se asignan antes que las nuevas (protegidas por cerrojoClaves)
+    private final Object cerrojoClaves = new Object();
+    private int[] libres = new int[16];
+    private int cantidadLibres;
+    private final Function<T, String> obtenerId;
+
+    /**
+     * @param obtenerId Función que extrae el ID de una entidad.
+     */
+    AlmacenIndexado(Function<T, String> obtenerId) {
+        this.obtenerId = obtenerId;
+    }
+
+    /**
+     * Normaliza un ID para usarlo como clave del índice.
+     * @param id El ID tal como lo ingresa el usuario.
+     * @return La clave normalizada, o null si el ID es null.
+     */
+    static String normalizar(String id) {
+        return id == null ? null : id.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Busca una entidad por su ID.
+     * <p>
+     * Entre la lectura de la clave y la de la entidad, la entidad pudo eliminarse y su clave pasar a
+     * otra alta; por eso se comprueba el ID de la entidad leída. Si no coincide, la entidad buscada no
+     * estaba almacenada en algún momento de la búsqueda, y se informa como inexistente.
+     * @param id El ID a buscar (no distingue mayúsculas/minúsculas).
+     * @return La entidad encontrada, o null si no existe.
+     */
+    @Override
+    public T obtener(String id) {
+        int clave = claveDe(id);
+        if (clave == SIN_CLAVE) {
+            return null;
+        }
+        T entidad = entidades.obtener(clave);
+        return entidad != null && mismoId(obtenerId.apply(entidad), id) ? entidad : null;
+    }
+
+    /**
+     * Traduce un ID externo a la clave interna de la entidad almacenada.
+     * @param id El ID (no distingue mayúsculas/minúsculas).
+     * @return La clave, o {@link #SIN_CLAVE} si no hay una entidad con ese ID.
+     */
+    int claveDe(String id) {
+        Integer clave = id == null ? null : indice.get(normalizar(id));
+        return clave == null ? SIN_CLAVE : clave;
+    }
+
+    /**
+     * @param clave Una clave interna.
+     * @return La entidad almacenada con esa clave, o null si fue eliminada. Si la clave se leyó de un
+     *         índice, pudo reutilizarse desde entonces: quien llame comprueba el criterio del índice.
+     */
+    T enClave(int clave) {
+        return entidades.obtener(clave);
+    }
+
+    /**
+     * Agrega una entidad usando su propio ID como clave, de forma atómica.
+     * @param entidad La entidad a agregar.
+     * @return true si se agregó, false si ya existía una entidad con ese ID.
+     */
+    @Override
+    public boolean agregar(T entidad) {
+        return insertar(entidad) != SIN_CLAVE;
+    }
+
+    /**
+     * Agrega una entidad como {@link #agregar(Object)}, devolviendo la clave asignada.
+     * La entidad se publica antes que su ID, así que una búsqueda que encuentra el ID siempre encuentra la entidad.
+     * @param entidad La entidad a agregar.
+     * @return La clave de la entidad, o {@link #SIN_CLAVE} si ya existía una entidad con ese ID.
+     */
+    int insertar(T entidad) {
+        int clave = reservarClave();
+        entidades.fijar(clave, entidad);
+        if (indice.putIfAbsent(normalizar(obtenerId.apply(entidad)), clave) != null) {
+            entidades.fijar(clave, null);
+            liberarClave(clave);
+            return SIN_CLAVE;
+        }
+        return clave;
+    }
+
+    /**
+     * @return Una clave liberada por una baja, o si no hay ninguna, la próxima clave nueva.
+     * @throws IllegalStateException Si se agotaron las claves enteras.
+     */
+    private int reservarClave() {
+        synchronized (cerrojoClaves) {
+            if (cantidadLibres > 0) {
+                return libres[--cantidadLibres];
+            }
+            if (proximaClave == Integer.MAX_VALUE) {
+                throw new IllegalStateException("No quedan claves internas disponibles");
+            }
+            return proximaClave++;
+        }
+    }
+
+    private void liberarClave(int clave) {
+        synchronized (cerrojoClaves) {
+            if (cantidadLibres == libres.length) {
+                libres = Arrays.copyOf(libres, cantidadLibres * 2);
+            }
+            libres[cantidadLibres++] = clave;
+        }
+    }
+
+    /**
+     * Agrega una entidad o reemplaza la que tenga su mismo ID, conservando su clave y por lo tanto su
+     * posición en los listados. Si la entidad ya es la instancia almacenada, no hay nada que reemplazar.
+     * No es atómica respecto de otras escrituras sobre el mismo ID, que el gestor serializa con sus bloqueos.
+     * @param entidad La entidad a guardar.
+     */
+    @Override
+    public void guardar(T entidad) {
+        int clave = claveDe(obtenerId.apply(entidad));
+        if (clave == SIN_CLAVE) {
+            agregar(entidad);
+        } else if (entidades.obtener(clave) != entidad) {
+            entidades.fijar(clave, entidad);
+        }
+    }
+
+    /**
+     * Elimina la entidad con el ID dado, la retira de los índices secundarios y deja su clave libre
+     * para una alta posterior.
+     * @param id El ID de la entidad a eliminar.
+     * @return La entidad eliminada, o null si no existía.
+     */
+    @Override
+    public T eliminar(String id) {
+        Integer clave = id == null ? null : indice.remove(normalizar(id));
+        if (clave == null) {
+            return null;
+        }
+        T entidad = entidades.obtener(clave);
+        entidades.fijar(clave, null);
+        desindexar(clave, entidad);
+        liberarClave(clave);
+        return entidad;
+    }
+
+    /**
+     * Retira una entidad eliminada de los índices secundarios. Se llama antes de liberar su clave,
+     * así que ninguna alta puede reutilizarla mientras el índice todavía la tiene.
+     * @param clave La clave que tenía la entidad.
+     * @param entidad La entidad eliminada.
+     */
+    void desindexar(int clave, T entidad) {
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de las entidades almacenadas, en orden de clave.
+     * La vista es débilmente consistente: puede reflejar o no los cambios concurrentes.
+     * @return Las entidades almacenadas.
+     */
+    @Override
+    public Collection<T> valores() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Recorrido(0);
+            }
+
+            @Override
+            public int size() {
+                return indice.size();
+            }
+        };
+    }
+
+    /**
+     * Recorre las entidades en orden de clave, desde una clave dada, saltando las eliminadas.
+     */
+    private final class Recorrido implements Iterator<T> {
+        private int clave;
+        private T proxima;
+
+        private Recorrido(int desde) {
+            this.clave = desde;
+            avanzar();
+        }
+
+        private void avanzar() {
+            proxima = null;
+            int limite = proximaClave;
+            while (proxima == null && clave < limite) {
+                proxima = entidades.obtener(clave++);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proxima != null;
+        }
+
+        @Override
+        public T next() {
+            if (proxima == null) {
+                throw new NoSuchElementException();
+            }
+            T actual = proxima;
+            avanzar();
+            return actual;
+        }
+    }
+
+    @Override
+    public Pagina<T> pagina(String cursor, int tamanio) {
+        return pagina(cursor, tamanio, entidad -> true);
+    }
+
+    /**
+     * Devuelve una página de entidades en orden de clave, empezando después del cursor dado.
+     * Sólo se recorren las entidades necesarias para completar la página; no se copia el almacén.
+     * @param cursor El cursor devuelto por la página anterior, o null para empezar desde el principio.
+     * @param tamanio La cantidad máxima de entidades por página.
+     * @param filtro Condición que deben cumplir las entidades incluidas.
+     * @return La página solicitada.
+     * @throws IllegalArgumentException Si el tamaño no es positivo o el cursor no es válido.
+     */
+    Pagina<T> pagina(String cursor, int tamanio, Predicate<T> filtro) {
+        validarTamanio(tamanio);
+        int limite = proximaClave;
+        List<T> elementos = new ArrayList<>(Math.min(tamanio, 64));
+        int ultimaClave = 0;
+        for (int clave = primeraClave(cursor); clave < limite; clave++) {
+            T entidad = entidades.obtener(clave);
+            if (entidad == null || !filtro.test(entidad)) {
+                continue;
+            }
+            if (elementos.size() == tamanio) {
+                // Existe al menos un elemento más: la página siguiente empieza después del último devuelto
+                return new Pagina<>(elementos, Integer.toString(ultimaClave, Character.MAX_RADIX));
+            }
+            elementos.add(entidad);
+            ultimaClave = clave;
+        }
+        return new Pagina<>(elementos, null);
+    }
+
+    /**
+     * Devuelve una página de las entidades con las claves dadas, que vienen de un índice secundario.
+     * @param claves Las claves, en orden creciente.
+     * @param cursor El cursor devuelto por la página anterior, o null para empezar desde el principio.
+     * @param tamanio La cantidad máxima de entidades por página.
+     * @param filtro El criterio del índice, que se vuelve a comprobar por si una clave se reutilizó.
+     * @return La página solicitada.
+     * @throws IllegalArgumentException Si el tamaño no es positivo o el cursor no es válido.
+     */
+    Pagina<T> pagina(int[] claves, String cursor, int tamanio, Predicate<T> filtro) {
+        validarTamanio(tamanio);
+        int posicion = Arrays.binarySearch(claves, primeraClave(cursor));
+        List<T> elementos = new ArrayList<>(Math.min(tamanio, 64));
+        int ultimaClave = 0;
+        for (int i = posicion < 0 ? -posicion - 1 : posicion; i < claves.length; i++) {
+            T entidad = entidades.obtener(claves[i]);
+            if (entidad == null || !filtro.test(entidad)) {
+                continue;
+            }
+            if (elementos.size() == tamanio) {
+                return new Pagina<>(elementos, Integer.toString(ultimaClave, Character.MAX_RADIX));
+            }
+            elementos.add(entidad);
+            ultimaClave = claves[i];
+        }
+        return new Pagina<>(elementos, null);
+    }
+
+    /**
+     * @param claves Claves de un índice secundario.
+     * @return Las entidades con esas claves que siguen almacenadas, en el mismo orden.
+     */
+    List<T> enClaves(int[] claves) {
+        return enClaves(claves, entidad -> true);
+    }
+
+    /**
+     * @param claves Claves de un índice secundario.
+     * @param filtro El criterio del índice, que se vuelve a comprobar por si una clave se reutilizó.
+     * @return Las entidades con esas claves que siguen almacenadas y cumplen el filtro, en el mismo orden.
+     */
+    List<T> enClaves(int[] claves, Predicate<T> filtro) {
+        List<T> resultado = new ArrayList<>(claves.length);
+        for (int clave : claves) {
+            T entidad = entidades.obtener(clave);
+            if (entidad != null && filtro.test(entidad)) {
+                resultado.add(entidad);
+            }
+        }
+        return resultado;
+    }
+
+    private static void validarTamanio(int tamanio) {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamanio);
+        }
+    }
+
+    /**
+     * Suma una variación al contador asociado a una clave, descartando la entrada cuando llega a cero.
+     * Lo usan los índices secundarios de los repositorios en memoria.
+     * @param contadores El mapa de contadores a modificar.
+     * @param id El ID (sin normalizar) de la entidad contada.
+     * @param variacion La cantidad a sumar (puede ser negativa).
+     */
+    static void ajustarContador(Map<String, Integer> contadores, String id, int variacion) {
+        contadores.merge(normalizar(id), variacion, (actual, delta) -> actual + delta == 0 ? null : actual + delta);
+    }
+
+    /**
+     * @return true si los dos IDs son iguales sin distinguir mayúsculas/minúsculas.
+     */
+    static boolean mismoId(String id, String otro) {
+        return id != null && otro != null && normalizar(id).equals(normalizar(otro));
+    }
+
+    /**
+     * Devuelve el valor de un contador, o 0 si la clave no tiene entradas.
+     */
+    static int leerContador(Map<String, Integer> contadores, String id) {
+        return id == null ? 0 : contadores.getOrDefault(normalizar(id), 0);
+    }
+
+    /**
+     * Decodifica un cursor de paginación: la página empieza en la clave siguiente a la del cursor.
+     */
+    private static int primeraClave(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            long ultima = Long.parseLong(cursor, Character.MAX_RADIX);
+            return ultima >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, ultima + 1);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor, e);
+        }
+    }
+
+    /**
+     * @return La cantidad de entidades almacenadas.
+     */
+    @Override
+    public int tamanio() {
+        return indice.size();
+    }
+
+    /**
+     * @return true si el almacén no contiene entidades.
+     */
+    @Override
+    public boolean estaVacio() {
+        return indice.isEmpty();
+    }
+}
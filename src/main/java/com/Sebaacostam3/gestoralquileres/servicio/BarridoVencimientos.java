@@ -0,0 +1,158 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+/**
+ * Finaliza automáticamente los contratos activos cuya fecha de fin ya pasó.
+ * <p>
+ * Los contratos activos esperan en una {@link ColaVencimientos} ordenada por fecha de fin, y el barrido
+ * programa una sola revisión, para el comienzo del día siguiente al próximo vencimiento: no recorre los
+ * contratos periódicamente. Cada revisión saca de la cola los contratos vencidos, los entrega al gestor
+ * para que los finalice y vuelve a programarse para el siguiente. El gestor avisa cada alta, cambio de
+ * fecha de fin, finalización y baja; si un aviso adelanta el próximo vencimiento, la revisión se
+ * reprograma.
+ * <p>
+ * Un contrato que el gestor no pudo finalizar (por ejemplo, porque falló el diario) ya salió de la cola,
+ * así que se reintenta aparte, con esperas que se duplican desde {@link #REINTENTO_INICIAL} hasta
+ * {@link #REINTENTO_MAXIMO}, hasta que el gestor lo finalice o informe que ya no corresponde finalizarlo.
+ * <p>
+ * Es seguro para hilos. Los contratos vencidos se finalizan fuera de la sincronización del barrido, así
+ * que el gestor puede avisar cambios bajo sus propios bloqueos sin riesgo de bloqueo mutuo.
+ */
+final class BarridoVencimientos {
+
+    // Una fecha de fin desde el último día representable no llega a vencer
+    private static final long SIN_VENCIMIENTO = LocalDate.MAX.toEpochDay();
+    /** Espera antes del primer reintento de un contrato que no se pudo finalizar. */
+    static final Duration REINTENTO_INICIAL = Duration.ofSeconds(5);
+    /** Espera máxima entre reintentos. */
+    static final Duration REINTENTO_MAXIMO = Duration.ofHours(1);
+
+    private final ColaVencimientos cola = new ColaVencimientos();
+    private final ScheduledExecutorService programador;
+    private final Clock reloj;
+    // Finaliza un contrato si sigue activo y vencido el día indicado; false si hay que reintentarlo
+    private final BiPredicate<String, LocalDate> vencer;
+    // Revisión programada y el vencimiento para el que se programó; null y Long.MAX_VALUE si no hay
+    private ScheduledFuture<?> revision;
+    private long diaProgramado = Long.MAX_VALUE;
+
+    /**
+     * @param programador El hilo donde se ejecutan las revisiones.
+     * @param reloj El reloj que define el día actual y su zona horaria.
+     * @param vencer Finaliza un contrato si sigue activo con fecha de fin anterior al día indicado; devuelve
+     *               false si no lo pudo finalizar y hay que reintentarlo.
+     */
+    BarridoVencimientos(ScheduledExecutorService programador, Clock reloj, BiPredicate<String, LocalDate> vencer) {
+        this.programador = programador;
+        this.reloj = reloj;
+        this.vencer = vencer;
+    }
+
+    /**
+     * Sincroniza la cola con el estado de un contrato: los activos con fecha de fin se programan (o se
+     * mueven, si cambió su fecha) y los demás se quitan.
+     */
+    synchronized void programar(ContratoAlquiler contrato) {
+        if (contrato.isActivo() && contrato.getFechaFin() != null) {
+            cola.programar(contrato.getId(), contrato.getFechaFin().toEpochDay());
+        } else {
+            cola.quitar(contrato.getId());
+        }
+        reprogramar();
+    }
+
+    /**
+     * Quita de la cola un contrato eliminado.
+     */
+    synchronized void quitar(String id) {
+        cola.quitar(id);
+        reprogramar();
+    }
+
+    /**
+     * Programa la revisión para el próximo vencimiento de la cola, si no está ya programada para él.
+     * Una revisión para un vencimiento posterior que ya no es el primero se adelanta; una para uno
+     * anterior que salió de la cola se deja correr, y al terminar se programa la siguiente. Después de
+     * cerrado el gestor el programador rechaza las revisiones: los avisos sólo actualizan la cola.
+     */
+    private void reprogramar() {
+        long proximo = cola.proximo();
+        if (proximo >= diaProgramado || proximo >= SIN_VENCIMIENTO) {
+            return;
+        }
+        if (revision != null) {
+            revision.cancel(false);
+            revision = null;
+            diaProgramado = Long.MAX_VALUE;
+        }
+        // Un contrato vence al terminar su último día
+        Duration espera = Duration.between(reloj.instant(), LocalDate.ofEpochDay(proximo + 1).atStartOfDay(reloj.getZone()));
+        try {
+            // La conversión satura en vez de desbordarse con fechas muy lejanas
+            revision = programador.schedule(this::revisar, Math.max(0, TimeUnit.MILLISECONDS.convert(espera)), TimeUnit.MILLISECONDS);
+            diaProgramado = proximo;
+        } catch (RejectedExecutionException e) {
+            // El gestor se cerró; el contrato queda en la cola y no hay más revisiones
+        }
+    }
+
+    private void revisar() {
+        LocalDate hoy = LocalDate.now(reloj);
+        List<String> vencidos;
+        synchronized (this) {
+            // Desde aquí, los avisos que adelanten el próximo vencimiento programan otra revisión
+            revision = null;
+            diaProgramado = Long.MAX_VALUE;
+            vencidos = cola.extraerAnteriores(hoy.toEpochDay());
+        }
+        for (String id : vencidos) {
+            // Un contrato que no se pudo finalizar no detiene a los demás ni la próxima revisión
+            if (!intentar(id, hoy)) {
+                reintentar(id, REINTENTO_INICIAL);
+            }
+        }
+        synchronized (this) {
+            reprogramar();
+        }
+    }
+
+    /**
+     * @return true si el gestor finalizó el contrato o ya no corresponde finalizarlo.
+     */
+    private boolean intentar(String id, LocalDate hoy) {
+        try {
+            return vencer.test(id, hoy);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Programa otro intento de finalizar un contrato vencido, y si vuelve a fallar, el siguiente con el
+     * doble de espera. Un contrato que mientras tanto se prorrogó, se finalizó o se eliminó no se
+     * finaliza: el gestor lo comprueba bajo su bloqueo y el intento cuenta como resuelto.
+     */
+    private void reintentar(String id, Duration espera) {
+        try {
+            programador.schedule(() -> {
+                if (!intentar(id, LocalDate.now(reloj))) {
+                    Duration siguiente = espera.multipliedBy(2);
+                    reintentar(id, siguiente.compareTo(REINTENTO_MAXIMO) > 0 ? REINTENTO_MAXIMO : siguiente);
+                }
+            }, espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // El gestor se está cerrando; el contrato se finaliza al programar los vencimientos otra vez
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fijo de cerrojos ("franjas") repartidos por el hash del ID de cada entidad.
+ * Dos operaciones sólo compiten si tocan entidades que caen en la misma franja, lo que
+ * permite que escrituras sobre entidades distintas avancen en paralelo.
+ * <p>
+ * Cuando una operación necesita varias entidades, las franjas se adquieren siempre en
+ * orden ascendente para evitar interbloqueos.
+ */
+final class BloqueoEstriado {
+
+    /**
+     * Bloqueo adquirido sobre una o más franjas. Se libera al cerrarlo.
+     */
+    interface Bloqueo extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final ReentrantLock[] franjas;
+    private final int mascara;
+
+    /**
+     * @param cantidadMinima Cantidad mínima de franjas; se redondea a la siguiente potencia de dos.
+     */
+    BloqueoEstriado(int cantidadMinima) {
+        int cantidad = Integer.highestOneBit(Math.max(1, cantidadMinima - 1)) << 1;
+        this.franjas = new ReentrantLock[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.mascara = cantidad - 1;
+    }
+
+    /**
+     * Calcula la franja que corresponde a un ID (insensible a mayúsculas/minúsculas).
+     */
+    private int franja(String id) {
+        int h = AlmacenIndexado.normalizar(id).hashCode();
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    /**
+     * Adquiere las franjas correspondientes a los IDs dados. Los IDs nulos se ignoran.
+     * @param ids Los IDs de las entidades que la operación va a modificar o validar.
+     * @return El bloqueo adquirido, a liberar con try-with-resources.
+     */
+    Bloqueo bloquear(String... ids) {
+        int[] indices = new int[ids.length];
+        int cantidad = 0;
+        for (String id : ids) {
+            if (id != null) {
+                indices[cantidad++] = franja(id);
+            }
+        }
+        Arrays.sort(indices, 0, cantidad);
+        // Se descartan franjas repetidas para no adquirir dos veces el mismo cerrojo
+        int unicas = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (unicas == 0 || indices[unicas - 1] != indices[i]) {
+                indices[unicas++] = indices[i];
+            }
+        }
+        for (int i = 0; i < unicas; i++) {
+            franjas[indices[i]].lock();
+        }
+        final int adquiridas = unicas;
+        return () -> {
+            for (int i = adquiridas - 1; i >= 0; i--) {
+                franjas[indices[i]].unlock();
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de claves internas sin repetir, en orden creciente, guardado en un arreglo de enteros.
+ * Las altas reciben casi siempre claves nuevas, crecientes, así que agregar suele ser anexar al final;
+ * sólo las claves reutilizadas de bajas anteriores se insertan en el medio.
+ * No es seguro para hilos: lo usan índices que ya sincronizan sus operaciones.
+ */
+final class ClavesOrdenadas {
+
+    private int[] valores = new int[4];
+    private int tamanio;
+
+    /**
+     * @param clave La clave a agregar; si ya está, no se modifica el conjunto.
+     */
+    void agregar(int clave) {
+        int posicion = Arrays.binarySearch(valores, 0, tamanio, clave);
+        if (posicion >= 0) {
+            return;
+        }
+        posicion = -posicion - 1;
+        if (tamanio == valores.length) {
+            valores = Arrays.copyOf(valores, tamanio * 2);
+        }
+        System.arraycopy(valores, posicion, valores, posicion + 1, tamanio - posicion);
+        valores[posicion] = clave;
+        tamanio++;
+    }
+
+    /**
+     * @param clave La clave a quitar.
+     * @return true si estaba en el conjunto.
+     */
+    boolean quitar(int clave) {
+        int posicion = Arrays.binarySearch(valores, 0, tamanio, clave);
+        if (posicion < 0) {
+            return false;
+        }
+        System.arraycopy(valores, posicion + 1, valores, posicion, tamanio - posicion - 1);
+        tamanio--;
+        return true;
+    }
+
+    int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * @param posicion Una posición entre 0 y {@link #tamanio()} - 1.
+     * @return La clave en esa posición del orden creciente.
+     */
+    int clave(int posicion) {
+        return valores[posicion];
+    }
+
+    /**
+     * Copia las claves en un arreglo.
+     * @param destino El arreglo de destino.
+     * @param desde La posición del destino donde se copia la primera clave.
+     */
+    void copiar(int[] destino, int desde) {
+        System.arraycopy(valores, 0, destino, desde, tamanio);
+    }
+
+    /**
+     * @return Una copia de las claves, en orden creciente.
+     */
+    int[] aArreglo() {
+        return Arrays.copyOf(valores, tamanio);
+    }
+}
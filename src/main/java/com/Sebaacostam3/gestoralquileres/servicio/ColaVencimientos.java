@@ -0,0 +1,145 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cola de prioridad de contratos por fecha de fin: un montículo binario de mínimos con la posición de
+ * cada contrato, de modo que el próximo vencimiento se lee en O(1) y programar, mover o quitar un
+ * contrato cuesta O(log n) sin dejar entradas obsoletas en la cola.
+ * <p>
+ * Cada contrato está a lo sumo una vez, identificado por su ID normalizado, que es el que devuelve la
+ * cola; las fechas son días epoch.
+ * No es segura para hilos: la usa {@link BarridoVencimientos}, que sincroniza sus operaciones.
+ */
+final class ColaVencimientos {
+
+    private long[] dias = new long[16];
+    // IDs normalizados
+    private String[] ids = new String[16];
+    private int tamanio;
+    // ID normalizado -> posición en el montículo
+    private final Map<String, Integer> posiciones = new HashMap<>();
+
+    /**
+     * Agrega un contrato a la cola o mueve su vencimiento si ya estaba.
+     * @param id El ID del contrato.
+     * @param dia La fecha de fin del contrato, como día epoch.
+     */
+    void programar(String id, long dia) {
+        String clave = AlmacenIndexado.normalizar(id);
+        Integer posicion = posiciones.get(clave);
+        if (posicion != null) {
+            long anterior = dias[posicion];
+            dias[posicion] = dia;
+            if (dia < anterior) {
+                subir(posicion);
+            } else {
+                bajar(posicion);
+            }
+            return;
+        }
+        if (tamanio == dias.length) {
+            dias = Arrays.copyOf(dias, tamanio * 2);
+            ids = Arrays.copyOf(ids, tamanio * 2);
+        }
+        dias[tamanio] = dia;
+        ids[tamanio] = clave;
+        posiciones.put(clave, tamanio);
+        subir(tamanio++);
+    }
+
+    /**
+     * Quita un contrato de la cola, si estaba.
+     * @param id El ID del contrato.
+     */
+    void quitar(String id) {
+        Integer posicion = posiciones.get(AlmacenIndexado.normalizar(id));
+        if (posicion != null) {
+            quitarEn(posicion);
+        }
+    }
+
+    /**
+     * @return El próximo vencimiento como día epoch, o {@link Long#MAX_VALUE} si la cola está vacía.
+     */
+    long proximo() {
+        return tamanio == 0 ? Long.MAX_VALUE : dias[0];
+    }
+
+    /**
+     * Saca de la cola los contratos que vencen antes de un día.
+     * @param dia El día, como día epoch.
+     * @return Los IDs normalizados de los contratos con fecha de fin anterior al día, de la más antigua a la
+     *         más reciente.
+     */
+    List<String> extraerAnteriores(long dia) {
+        List<String> vencidos = new ArrayList<>();
+        while (tamanio > 0 && dias[0] < dia) {
+            vencidos.add(ids[0]);
+            quitarEn(0);
+        }
+        return vencidos;
+    }
+
+    private void quitarEn(int posicion) {
+        posiciones.remove(ids[posicion]);
+        int ultima = --tamanio;
+        if (posicion != ultima) {
+            mover(ultima, posicion);
+            if (posicion > 0 && dias[posicion] < dias[(posicion - 1) / 2]) {
+                subir(posicion);
+            } else {
+                bajar(posicion);
+            }
+        }
+        ids[ultima] = null;
+    }
+
+    private void subir(int posicion) {
+        long dia = dias[posicion];
+        String id = ids[posicion];
+        while (posicion > 0) {
+            int padre = (posicion - 1) / 2;
+            if (dias[padre] <= dia) {
+                break;
+            }
+            mover(padre, posicion);
+            posicion = padre;
+        }
+        ubicar(posicion, dia, id);
+    }
+
+    private void bajar(int posicion) {
+        long dia = dias[posicion];
+        String id = ids[posicion];
+        while (true) {
+            int hijo = 2 * posicion + 1;
+            if (hijo >= tamanio) {
+                break;
+            }
+            if (hijo + 1 < tamanio && dias[hijo + 1] < dias[hijo]) {
+                hijo++;
+            }
+            if (dias[hijo] >= dia) {
+                break;
+            }
+            mover(hijo, posicion);
+            posicion = hijo;
+        }
+        ubicar(posicion, dia, id);
+    }
+
+    private void mover(int desde, int hacia) {
+        ubicar(hacia, dias[desde], ids[desde]);
+    }
+
+    private void ubicar(int posicion, long dia, String id) {
+        dias[posicion] = dia;
+        ids[posicion] = id;
+        posiciones.put(id, posicion);
+    }
+}
@@ -0,0 +1,135 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Dinero;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.util.Locale;
+
+/**
+ * Criterios de una búsqueda de propiedades. Los criterios nulos no filtran; los rangos incluyen sus límites.
+ * <p>
+ * El tipo se compara sin distinguir mayúsculas ni espacios al principio o al final, así que
+ * "departamento" encuentra las propiedades de tipo "Departamento".
+ */
+public final class ConsultaPropiedades {
+
+    private static final ConsultaPropiedades TODAS = new ConsultaPropiedades(null, null, null, null, null, null);
+
+    private final String tipo;
+    private final Boolean alquilada;
+    private final Double metrosMinimos;
+    private final Double metrosMaximos;
+    private final Long precioMinimoCentavos;
+    private final Long precioMaximoCentavos;
+
+    /**
+     * @param tipo El tipo de propiedad, o null (o en blanco) para todos.
+     * @param alquilada true para las alquiladas, false para las disponibles, o null para ambas.
+     * @param metrosMinimos La superficie mínima en metros cuadrados, o null para no limitarla.
+     * @param metrosMaximos La superficie máxima en metros cuadrados, o null para no limitarla.
+     * @param precioMinimo El precio mensual mínimo, o null para no limitarlo.
+     * @param precioMaximo El precio mensual máximo, o null para no limitarlo.
+     * @throws IllegalArgumentException Si algún límite no es un número finito, algún límite de precio está fuera
+     *         del rango de {@link Dinero#centavos(double)} o algún rango está invertido.
+     */
+    public ConsultaPropiedades(String tipo, Boolean alquilada, Double metrosMinimos, Double metrosMaximos,
+                               Double precioMinimo, Double precioMaximo) {
+        validarRango("superficie", metrosMinimos, metrosMaximos);
+        validarRango("precio", precioMinimo, precioMaximo);
+        this.tipo = normalizarTipo(tipo);
+        this.alquilada = alquilada;
+        // Sin signo en el cero, para que -0.0 y 0.0 sean el mismo límite en el índice
+        this.metrosMinimos = metrosMinimos == null ? null : metrosMinimos + 0.0;
+        this.metrosMaximos = metrosMaximos == null ? null : metrosMaximos + 0.0;
+        this.precioMinimoCentavos = precioMinimo == null ? null : Dinero.centavos(precioMinimo);
+        this.precioMaximoCentavos = precioMaximo == null ? null : Dinero.centavos(precioMaximo);
+    }
+
+    private static void validarRango(String nombre, Double minimo, Double maximo) {
+        if ((minimo != null && !Double.isFinite(minimo)) || (maximo != null && !Double.isFinite(maximo))) {
+            throw new IllegalArgumentException("Los límites de " + nombre + " deben ser números finitos.");
+        }
+        if (minimo != null && maximo != null && maximo < minimo) {
+            throw new IllegalArgumentException("El límite máximo de " + nombre + " es menor que el mínimo.");
+        }
+    }
+
+    /**
+     * @return Una consulta que incluye todas las propiedades.
+     */
+    public static ConsultaPropiedades todas() {
+        return TODAS;
+    }
+
+    /**
+     * @return El tipo buscado, normalizado (sin espacios en los extremos y en minúsculas), o null.
+     */
+    public String getTipo() {
+        return tipo;
+    }
+
+    public Boolean getAlquilada() {
+        return alquilada;
+    }
+
+    public Double getMetrosMinimos() {
+        return metrosMinimos;
+    }
+
+    public Double getMetrosMaximos() {
+        return metrosMaximos;
+    }
+
+    public Long getPrecioMinimoCentavos() {
+        return precioMinimoCentavos;
+    }
+
+    public Long getPrecioMaximoCentavos() {
+        return precioMaximoCentavos;
+    }
+
+    /**
+     * @return true si la consulta no tiene ningún criterio.
+     */
+    public boolean sinCriterios() {
+        return tipo == null && alquilada == null && !filtraMetros() && !filtraPrecio();
+    }
+
+    boolean filtraMetros() {
+        return metrosMinimos != null || metrosMaximos != null;
+    }
+
+    boolean filtraPrecio() {
+        return precioMinimoCentavos != null || precioMaximoCentavos != null;
+    }
+
+    /**
+     * Indica si una propiedad cumple todos los criterios. Una superficie que no es un número
+     * (NaN) queda fuera de cualquier rango de superficie.
+     * @param propiedad La propiedad.
+     * @return true si la propiedad debe estar en el resultado.
+     */
+    boolean incluye(Propiedad propiedad) {
+        if (tipo != null && !tipo.equals(normalizarTipo(propiedad.getTipo()))) {
+            return false;
+        }
+        if (alquilada != null && alquilada != propiedad.isAlquilada()) {
+            return false;
+        }
+        double metros = propiedad.getMetrosCuadrados();
+        if ((metrosMinimos != null && !(metros >= metrosMinimos)) || (metrosMaximos != null && !(metros <= metrosMaximos))) {
+            return false;
+        }
+        long precio = propiedad.getPrecioMensualCentavos();
+        return (precioMinimoCentavos == null || precio >= precioMinimoCentavos)
+                && (precioMaximoCentavos == null || precio <= precioMaximoCentavos);
+    }
+
+    /**
+     * @param tipo Un tipo de propiedad, o null.
+     * @return El tipo sin espacios en los extremos y en minúsculas, o null si es null o está en blanco.
+     */
+    static String normalizarTipo(String tipo) {
+        return tipo == null || tipo.isBlank() ? null : tipo.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,116 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio de contratos en memoria.
+ * Mantiene contadores de contratos activos por propiedad y por inquilino, de modo que las reglas
+ * de eliminación se resuelven en O(1) sin recorrer los contratos, y un índice de fechas
+ * ({@link IndiceContratos}) para las consultas de vencimientos y de períodos.
+ */
+class ContratosEnMemoria extends AlmacenIndexado<ContratoAlquiler> implements RepositorioContratos {
+
+    // Contadores inversos de contratos activos (claves normalizadas)
+    private final Map<String, Integer> activosPorPropiedad = new ConcurrentHashMap<>();
+    private final Map<String, Integer> activosPorInquilino = new ConcurrentHashMap<>();
+    // IDs normalizados de los contratos contados como activos, para conocer su estado previo al guardarlos
+    private final Set<String> activos = ConcurrentHashMap.newKeySet();
+    private final IndiceContratos porFechas = new IndiceContratos();
+
+    ContratosEnMemoria() {
+        super(ContratoAlquiler::getId);
+    }
+
+    @Override
+    public boolean agregar(ContratoAlquiler contrato) {
+        int clave = insertar(contrato);
+        if (clave == SIN_CLAVE) {
+            return false;
+        }
+        contar(contrato, contrato.isActivo());
+        porFechas.indexar(clave, contrato);
+        return true;
+    }
+
+    @Override
+    public void guardar(ContratoAlquiler contrato) {
+        int clave = claveDe(contrato.getId());
+        if (clave == SIN_CLAVE) {
+            agregar(contrato);
+            return;
+        }
+        super.guardar(contrato);
+        contar(contrato, contrato.isActivo());
+        porFechas.indexar(clave, contrato);
+    }
+
+    @Override
+    void desindexar(int clave, ContratoAlquiler contrato) {
+        contar(contrato, false);
+        porFechas.quitar(clave);
+    }
+
+    /**
+     * Sincroniza los contadores con el estado del contrato. La propiedad y el inquilino de un
+     * contrato no cambian, así que basta con saber si ya estaba contado.
+     */
+    private void contar(ContratoAlquiler contrato, boolean activo) {
+        String clave = normalizar(contrato.getId());
+        int variacion;
+        if (activo && activos.add(clave)) {
+            variacion = 1;
+        } else if (!activo && activos.remove(clave)) {
+            variacion = -1;
+        } else {
+            return;
+        }
+        ajustarContador(activosPorPropiedad, contrato.getPropiedad().getId(), variacion);
+        ajustarContador(activosPorInquilino, contrato.getInquilino().getId(), variacion);
+    }
+
+    @Override
+    public int contarActivosPorPropiedad(String propiedadId) {
+        return leerContador(activosPorPropiedad, propiedadId);
+    }
+
+    @Override
+    public int contarActivosPorInquilino(String inquilinoId) {
+        return leerContador(activosPorInquilino, inquilinoId);
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarActivos() {
+        List<ContratoAlquiler> resultado = new ArrayList<>();
+        for (ContratoAlquiler contrato : valores()) {
+            if (contrato.isActivo()) {
+                resultado.add(contrato);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public Pagina<ContratoAlquiler> paginaActivos(String cursor, int tamanio) {
+        return pagina(cursor, tamanio, ContratoAlquiler::isActivo);
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarPorVencer(LocalDate desde, LocalDate hasta) {
+        return enClaves(porFechas.porVencer(desde, hasta), contrato -> contrato.isActivo()
+                && contrato.getFechaFin() != null && !contrato.getFechaFin().isBefore(desde) && !contrato.getFechaFin().isAfter(hasta));
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarSuperpuestos(LocalDate desde, LocalDate hasta) {
+        return enClaves(porFechas.superpuestos(desde, hasta), contrato ->
+                (contrato.getFechaInicio() == null || !contrato.getFechaInicio().isAfter(hasta))
+                        && (contrato.getFechaFin() == null || !contrato.getFechaFin().isBefore(desde)));
+    }
+}
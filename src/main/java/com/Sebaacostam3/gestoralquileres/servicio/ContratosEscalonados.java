@@ -0,0 +1,103 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio de contratos en dos niveles: los contratos en memoria y los archivados en el {@link NivelFrio}.
+ * <p>
+ * Las búsquedas por ID consultan primero la memoria y después el nivel frío. Los listados, la paginación,
+ * el tamaño, los contadores y los contratos por vencer sólo cubren los contratos en memoria: los archivados
+ * están todos inactivos, así que no cambian las reglas de negocio. Los contratos superpuestos con un rango
+ * de fechas incluyen también los archivados, que se leen del nivel frío sólo si su rango de fechas se
+ * superpone y van al final del listado. Guardar o eliminar un contrato archivado lo reincorpora antes a memoria.
+ */
+class ContratosEscalonados implements RepositorioContratos {
+
+    private final ContratosEnMemoria enMemoria;
+    private final NivelFrio frio;
+
+    ContratosEscalonados(ContratosEnMemoria enMemoria, NivelFrio frio) {
+        this.enMemoria = enMemoria;
+        this.frio = frio;
+    }
+
+    @Override
+    public ContratoAlquiler obtener(String id) {
+        ContratoAlquiler contrato = enMemoria.obtener(id);
+        return contrato != null ? contrato : frio.contrato(id);
+    }
+
+    @Override
+    public boolean agregar(ContratoAlquiler contrato) {
+        return !frio.contieneContrato(contrato.getId()) && enMemoria.agregar(contrato);
+    }
+
+    @Override
+    public void guardar(ContratoAlquiler contrato) {
+        // Los pagos reincorporados quedan enlazados a la instancia que se guarda
+        frio.reincorporar(contrato.getId(), contrato);
+        enMemoria.guardar(contrato);
+    }
+
+    @Override
+    public ContratoAlquiler eliminar(String id) {
+        frio.reincorporar(id, null);
+        return enMemoria.eliminar(id);
+    }
+
+    @Override
+    public Collection<ContratoAlquiler> valores() {
+        return enMemoria.valores();
+    }
+
+    @Override
+    public Pagina<ContratoAlquiler> pagina(String cursor, int tamanio) {
+        return enMemoria.pagina(cursor, tamanio);
+    }
+
+    @Override
+    public int tamanio() {
+        return enMemoria.tamanio();
+    }
+
+    @Override
+    public boolean estaVacio() {
+        return enMemoria.estaVacio() && frio.cantidadContratos() == 0;
+    }
+
+    @Override
+    public int contarActivosPorPropiedad(String propiedadId) {
+        return enMemoria.contarActivosPorPropiedad(propiedadId);
+    }
+
+    @Override
+    public int contarActivosPorInquilino(String inquilinoId) {
+        return enMemoria.contarActivosPorInquilino(inquilinoId);
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarActivos() {
+        return enMemoria.listarActivos();
+    }
+
+    @Override
+    public Pagina<ContratoAlquiler> paginaActivos(String cursor, int tamanio) {
+        return enMemoria.paginaActivos(cursor, tamanio);
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarPorVencer(LocalDate desde, LocalDate hasta) {
+        // Sólo lista contratos activos, y los archivados están todos inactivos
+        return enMemoria.listarPorVencer(desde, hasta);
+    }
+
+    @Override
+    public List<ContratoAlquiler> listarSuperpuestos(LocalDate desde, LocalDate hasta) {
+        return NivelFrio.agregarArchivadas(enMemoria.listarSuperpuestos(desde, hasta),
+                frio.contratosSuperpuestos(desde, hasta), ContratoAlquiler::getId);
+    }
+}
@@ -0,0 +1,29 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+/**
+ * Un repositorio rechazó una entidad porque otra ya tiene uno de sus datos únicos, como el DNI o el
+ * email de un inquilino. El gestor verifica esos datos antes de escribir, así que sólo ocurre con
+ * repositorios que otro proceso también modifica, como una base de datos compartida.
+ */
+public class DatoUnicoRepetido extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Resultado resultado;
+
+    /**
+     * @param resultado El resultado que informa el dato repetido, por ejemplo DNI_DUPLICADO.
+     * @param mensaje Una descripción del conflicto.
+     */
+    public DatoUnicoRepetido(Resultado resultado, String mensaje) {
+        super(mensaje);
+        this.resultado = resultado;
+    }
+
+    /**
+     * @return El resultado que informa el dato repetido.
+     */
+    public Resultado getResultado() {
+        return resultado;
+    }
+}
@@ -0,0 +1,333 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Dinero;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Exportación de pagos e incidencias a CSV o JSON Lines, con memoria acotada.
+ * <p>
+ * Los registros se recorren de a páginas de {@value #TAMANIO_PAGINA} con los listados paginados del
+ * gestor, sin copiar el listado completo, y cada fila se codifica directamente en un buffer fijo que
+ * se vuelca al canal de salida cuando se llena. Así, la memoria usada no depende de la cantidad de
+ * registros exportados. Los registros se exportan en el orden de los listados del gestor; si el filtro indica un contrato,
+ * sólo se recorren los pagos de ese contrato (o las incidencias de su propiedad). Con el nivel frío, los
+ * pagos de los contratos archivados, que los listados generales no incluyen, se exportan al final,
+ * contrato por contrato.
+ * <p>
+ * La exportación no detiene a las escrituras: un registro agregado o modificado mientras se exporta
+ * puede aparecer o no en el resultado. Si una instantánea archiva un contrato, o una escritura lo
+ * reincorpora, mientras se exporta, sus pagos pueden faltar o repetirse.
+ */
+public final class ExportadorDatos {
+
+    /** Cantidad de registros que se leen del gestor por vez. */
+    public static final int TAMANIO_PAGINA = 1000;
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final DateTimeFormatter FORMATO_FECHA_CSV = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final GestorAlquileres gestor;
+
+    /**
+     * @param gestor El gestor cuyos registros se exportan.
+     */
+    public ExportadorDatos(GestorAlquileres gestor) {
+        this.gestor = gestor;
+    }
+
+    /**
+     * Exporta los pagos a un archivo, que se reemplaza si existe.
+     * @param destino El archivo a escribir.
+     * @param formato El formato de salida.
+     * @param filtro Los pagos a incluir, según su fecha de pago y su contrato.
+     * @return La cantidad de pagos exportados.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public long exportarPagos(Path destino, FormatoExportacion formato, FiltroExportacion filtro) throws IOException {
+        try (FileChannel canal = abrir(destino)) {
+            return exportarPagos(canal, formato, filtro);
+        }
+    }
+
+    /**
+     * Exporta los pagos a un canal, que queda abierto al terminar.
+     * @param canal El canal donde se escriben los datos.
+     * @param formato El formato de salida.
+     * @param filtro Los pagos a incluir, según su fecha de pago y su contrato.
+     * @return La cantidad de pagos exportados.
+     * @throws IOException Si falla la escritura.
+     */
+    public long exportarPagos(WritableByteChannel canal, FormatoExportacion formato, FiltroExportacion filtro) throws IOException {
+        SalidaTexto salida = new SalidaTexto(canal);
+        if (formato == FormatoExportacion.CSV) {
+            salida.linea().append("id,contrato_id,propiedad_id,inquilino_id,fecha_pago,valor_pago,confirmado,periodo_correspondiente");
+            salida.terminarLinea();
+        }
+        long exportados;
+        if (filtro.getContratoId() != null) {
+            exportados = exportarPagos(salida, formato, filtro, filtro.getContratoId());
+        } else {
+            exportados = exportarPagos(salida, formato, filtro, null);
+            for (String contratoId : gestor.listarIdsContratosArchivados()) {
+                exportados += exportarPagos(salida, formato, filtro, contratoId);
+            }
+        }
+        salida.terminar();
+        return exportados;
+    }
+
+    /**
+     * Recorre de a páginas los pagos de un contrato, o los de todos los contratos en memoria si no se indica
+     * ninguno, y escribe los que incluye el filtro.
+     */
+    private long exportarPagos(SalidaTexto salida, FormatoExportacion formato, FiltroExportacion filtro, String contratoId) throws IOException {
+        long exportados = 0;
+        String cursor = null;
+        do {
+            Pagina<Pago> pagina = contratoId == null
+                    ? gestor.listarPagos(cursor, TAMANIO_PAGINA)
+                    : gestor.listarPagosPorContrato(contratoId, cursor, TAMANIO_PAGINA);
+            for (Pago pago : pagina.getElementos()) {
+                if (filtro.incluye(pago.getFechaPago())) {
+                    escribirPago(salida, formato, pago);
+                    exportados++;
+                }
+            }
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null);
+        return exportados;
+    }
+
+    /**
+     * Exporta las incidencias a un archivo, que se reemplaza si existe.
+     * @param destino El archivo a escribir.
+     * @param formato El formato de salida.
+     * @param filtro Las incidencias a incluir, según su fecha y la propiedad del contrato indicado.
+     * @return La cantidad de incidencias exportadas.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public long exportarIncidencias(Path destino, FormatoExportacion formato, FiltroExportacion filtro) throws IOException {
+        try (FileChannel canal = abrir(destino)) {
+            return exportarIncidencias(canal, formato, filtro);
+        }
+    }
+
+    /**
+     * Exporta las incidencias a un canal, que queda abierto al terminar.
+     * @param canal El canal donde se escriben los datos.
+     * @param formato El formato de salida.
+     * @param filtro Las incidencias a incluir, según su fecha y la propiedad del contrato indicado.
+     * @return La cantidad de incidencias exportadas.
+     * @throws IOException Si falla la escritura.
+     */
+    public long exportarIncidencias(WritableByteChannel canal, FormatoExportacion formato, FiltroExportacion filtro) throws IOException {
+        SalidaTexto salida = new SalidaTexto(canal);
+        if (formato == FormatoExportacion.CSV) {
+            salida.linea().append("id,propiedad_id,descripcion,fecha,estado,costo_estimado");
+            salida.terminarLinea();
+        }
+        String propiedadId = null;
+        if (filtro.getContratoId() != null) {
+            Optional<ContratoAlquiler> contrato = gestor.buscarContratoPorId(filtro.getContratoId());
+            if (contrato.isEmpty() || contrato.get().getPropiedad() == null) {
+                salida.terminar();
+                return 0;
+            }
+            propiedadId = contrato.get().getPropiedad().getId();
+        }
+        long exportadas = 0;
+        String cursor = null;
+        do {
+            Pagina<Incidencia> pagina = propiedadId == null
+                    ? gestor.listarIncidencias(cursor, TAMANIO_PAGINA)
+                    : gestor.listarIncidenciasPorPropiedad(propiedadId, cursor, TAMANIO_PAGINA);
+            for (Incidencia incidencia : pagina.getElementos()) {
+                if (filtro.incluye(incidencia.getFecha())) {
+                    escribirIncidencia(salida, formato, incidencia);
+                    exportadas++;
+                }
+            }
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null);
+        salida.terminar();
+        return exportadas;
+    }
+
+    private static FileChannel abrir(Path destino) throws IOException {
+        return FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // --- Filas ---
+
+    private static void escribirPago(SalidaTexto salida, FormatoExportacion formato, Pago pago) throws IOException {
+        ContratoAlquiler contrato = pago.getContrato();
+        String contratoId = contrato == null ? null : contrato.getId();
+        String propiedadId = contrato == null || contrato.getPropiedad() == null ? null : contrato.getPropiedad().getId();
+        String inquilinoId = contrato == null || contrato.getInquilino() == null ? null : contrato.getInquilino().getId();
+        StringBuilder linea = salida.linea();
+        if (formato == FormatoExportacion.CSV) {
+            linea.append(FormatoCsv.escapar(pago.getId())).append(',')
+                    .append(FormatoCsv.escapar(contratoId)).append(',')
+                    .append(FormatoCsv.escapar(propiedadId)).append(',')
+                    .append(FormatoCsv.escapar(inquilinoId)).append(',')
+                    .append(fechaCsv(pago.getFechaPago())).append(',')
+                    .append(Dinero.formatear(pago.getValorPagoCentavos())).append(',')
+                    .append(pago.isConfirmado()).append(',')
+                    .append(FormatoCsv.escapar(pago.getPeriodoCorrespondiente()));
+        } else {
+            linea.append('{');
+            textoJson(linea, "id", pago.getId()).append(',');
+            textoJson(linea, "contratoId", contratoId).append(',');
+            textoJson(linea, "propiedadId", propiedadId).append(',');
+            textoJson(linea, "inquilinoId", inquilinoId).append(',');
+            textoJson(linea, "fechaPago", pago.getFechaPago() == null ? null : pago.getFechaPago().toString()).append(',');
+            linea.append("\"valorPago\":").append(Dinero.formatear(pago.getValorPagoCentavos())).append(',');
+            linea.append("\"confirmado\":").append(pago.isConfirmado()).append(',');
+            textoJson(linea, "periodoCorrespondiente", pago.getPeriodoCorrespondiente()).append('}');
+        }
+        salida.terminarLinea();
+    }
+
+    private static void escribirIncidencia(SalidaTexto salida, FormatoExportacion formato, Incidencia incidencia) throws IOException {
+        String propiedadId = incidencia.getPropiedad() == null ? null : incidencia.getPropiedad().getId();
+        StringBuilder linea = salida.linea();
+        if (formato == FormatoExportacion.CSV) {
+            linea.append(FormatoCsv.escapar(incidencia.getId())).append(',')
+                    .append(FormatoCsv.escapar(propiedadId)).append(',')
+                    .append(FormatoCsv.escapar(incidencia.getDescripcion())).append(',')
+                    .append(fechaCsv(incidencia.getFecha())).append(',')
+                    .append(FormatoCsv.escapar(incidencia.getEstado().getNombre())).append(',')
+                    .append(Dinero.formatear(incidencia.getCostoEstimadoCentavos()));
+        } else {
+            linea.append('{');
+            textoJson(linea, "id", incidencia.getId()).append(',');
+            textoJson(linea, "propiedadId", propiedadId).append(',');
+            textoJson(linea, "descripcion", incidencia.getDescripcion()).append(',');
+            textoJson(linea, "fecha", incidencia.getFecha() == null ? null : incidencia.getFecha().toString()).append(',');
+            textoJson(linea, "estado", incidencia.getEstado().getNombre()).append(',');
+            linea.append("\"costoEstimado\":").append(Dinero.formatear(incidencia.getCostoEstimadoCentavos())).append('}');
+        }
+        salida.terminarLinea();
+    }
+
+    private static String fechaCsv(LocalDate fecha) {
+        return fecha == null ? "" : FORMATO_FECHA_CSV.format(fecha);
+    }
+
+
+    /**
+     * Agrega un par nombre/valor de texto a un objeto JSON; null se escribe como {@code null}.
+     */
+    private static StringBuilder textoJson(StringBuilder linea, String nombre, String valor) {
+        linea.append('"').append(nombre).append("\":");
+        if (valor == null) {
+            return linea.append("null");
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> linea.append("\\\"");
+                case '\\' -> linea.append("\\\\");
+                case '\n' -> linea.append("\\n");
+                case '\r' -> linea.append("\\r");
+                case '\t' -> linea.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        linea.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        linea.append(c);
+                    }
+                }
+            }
+        }
+        return linea.append('"');
+    }
+
+    /**
+     * Salida de texto UTF-8 por líneas sobre un canal, con un buffer de tamaño fijo.
+     * Cada línea se arma en un {@link StringBuilder} reutilizado y se codifica directamente en el buffer.
+     */
+    private static final class SalidaTexto {
+        private final WritableByteChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final StringBuilder linea = new StringBuilder(256);
+
+        private SalidaTexto(WritableByteChannel canal) {
+            this.canal = canal;
+        }
+
+        /**
+         * @return La línea en preparación, vacía después de cada {@link #terminarLinea()}.
+         */
+        private StringBuilder linea() {
+            return linea;
+        }
+
+        /**
+         * Codifica la línea en preparación, con su salto de línea, y la deja vacía.
+         */
+        private void terminarLinea() throws IOException {
+            linea.append('\n');
+            CharBuffer caracteres = CharBuffer.wrap(linea);
+            CoderResult resultado;
+            while ((resultado = codificador.encode(caracteres, buffer, false)).isOverflow()) {
+                vaciar();
+            }
+            if (resultado.isError()) {
+                resultado.throwException();
+            }
+            linea.setLength(0);
+        }
+
+        /**
+         * Termina la codificación como exige {@link CharsetEncoder}: avisa el fin de la entrada, vuelca lo
+         * que el codificador tenga pendiente y escribe en el canal todo lo que queda en el buffer.
+         */
+        private void terminar() throws IOException {
+            CharBuffer vacio = CharBuffer.allocate(0);
+            CoderResult resultado;
+            while ((resultado = codificador.encode(vacio, buffer, true)).isOverflow()) {
+                vaciar();
+            }
+            if (resultado.isError()) {
+                resultado.throwException();
+            }
+            while ((resultado = codificador.flush(buffer)).isOverflow()) {
+                vaciar();
+            }
+            vaciar();
+        }
+
+        /**
+         * Escribe en el canal todo lo que queda en el buffer.
+         */
+        private void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
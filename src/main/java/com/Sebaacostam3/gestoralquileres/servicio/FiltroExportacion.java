@@ -0,0 +1,63 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.time.LocalDate;
+
+/**
+ * Criterios para elegir los registros de una exportación. Los criterios nulos no filtran.
+ */
+public final class FiltroExportacion {
+
+    private static final FiltroExportacion TODOS = new FiltroExportacion(null, null, null);
+
+    private final LocalDate desde;
+    private final LocalDate hasta;
+    private final String contratoId;
+
+    /**
+     * @param desde La primera fecha incluida, o null para no limitar el comienzo.
+     * @param hasta La última fecha incluida, o null para no limitar el final.
+     * @param contratoId El contrato cuyos registros se exportan, o null para todos. Para las
+     *                   incidencias, se exportan las de la propiedad del contrato.
+     * @throws IllegalArgumentException Si el rango de fechas está invertido.
+     */
+    public FiltroExportacion(LocalDate desde, LocalDate hasta, String contratoId) {
+        if (desde != null && hasta != null && hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha final del filtro es anterior a la inicial.");
+        }
+        this.desde = desde;
+        this.hasta = hasta;
+        this.contratoId = contratoId;
+    }
+
+    /**
+     * @return Un filtro que incluye todos los registros.
+     */
+    public static FiltroExportacion todos() {
+        return TODOS;
+    }
+
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    public String getContratoId() {
+        return contratoId;
+    }
+
+    /**
+     * Indica si una fecha cae dentro del rango del filtro. Si el filtro tiene rango, los
+     * registros sin fecha quedan fuera.
+     * @param fecha La fecha del registro.
+     * @return true si el registro debe exportarse según su fecha.
+     */
+    boolean incluye(LocalDate fecha) {
+        if (desde == null && hasta == null) {
+            return true;
+        }
+        return fecha != null && (desde == null || !fecha.isBefore(desde)) && (hasta == null || !fecha.isAfter(hasta));
+    }
+}
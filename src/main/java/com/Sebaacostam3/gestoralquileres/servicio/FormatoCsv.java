@@ -0,0 +1,70 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura de campos CSV: separados por comas, con comillas dobles opcionales para los
+ * campos que contienen comas o comillas (que se duplican dentro del campo). Cada registro ocupa una línea.
+ */
+final class FormatoCsv {
+
+    static final char SEPARADOR = ',';
+
+    private FormatoCsv() {
+    }
+
+    /**
+     * Separa una línea en sus campos, sin los espacios de los extremos.
+     * @param linea La línea a separar.
+     * @return Los campos de la línea.
+     * @throws IllegalArgumentException Si un campo entre comillas no se cierra.
+     */
+    static String[] separar(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == SEPARADOR) {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Hay un campo entre comillas sin cerrar.");
+        }
+        campos.add(campo.toString().trim());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Prepara un valor para escribirlo como campo, agregando comillas sólo si hace falta.
+     * @param valor El valor a escribir; null se escribe como campo vacío.
+     * @return El campo listo para escribir.
+     */
+    static String escapar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        boolean requiereComillas = false;
+        for (int i = 0; i < valor.length() && !requiereComillas; i++) {
+            char c = valor.charAt(i);
+            requiereComillas = c == SEPARADOR || c == '"' || c == '\n' || c == '\r';
+        }
+        return requiereComillas ? '"' + valor.replace("\"", "\"\"") + '"' : valor;
+    }
+}
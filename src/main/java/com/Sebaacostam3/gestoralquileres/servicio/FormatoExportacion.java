@@ -0,0 +1,11 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+/**
+ * Formato de los archivos generados por {@link ExportadorDatos}.
+ */
+public enum FormatoExportacion {
+    /** Valores separados por comas, con una línea de cabecera. Las fechas usan el formato DD-MM-YYYY. */
+    CSV,
+    /** Un objeto JSON por línea ("JSON Lines"). Las fechas usan el formato ISO (YYYY-MM-DD). */
+    JSONL
+}
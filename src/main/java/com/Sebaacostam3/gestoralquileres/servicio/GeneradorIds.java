@@ -0,0 +1,22 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+/**
+ * Estrategia de generación de IDs para las entidades que se registran sin ID.
+ * Las implementaciones deben ser seguras para hilos, ya que el gestor las invoca
+ * desde escrituras concurrentes.
+ */
+public interface GeneradorIds {
+
+    /**
+     * Genera el siguiente ID disponible.
+     * @return Un ID que no fue devuelto antes por este generador.
+     */
+    String siguiente();
+
+    /**
+     * Informa al generador de un ID registrado por otra vía (por ejemplo, ingresado por el usuario),
+     * para que no vuelva a generarlo más adelante.
+     * @param id El ID ya registrado.
+     */
+    void observar(String id);
+}
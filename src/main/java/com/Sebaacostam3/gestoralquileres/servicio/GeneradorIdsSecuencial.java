@@ -0,0 +1,96 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de IDs con un prefijo legible seguido de un número secuencial de ancho fijo,
+ * por ejemplo "PRP00000001".
+ * <p>
+ * El número se obtiene con un incremento atómico, sin bloqueos, y se rellena con ceros a mano
+ * en lugar de usar String.format. Mientras el número quepa en el ancho configurado, el orden
+ * lexicográfico de los IDs coincide con el orden de creación.
+ */
+public class GeneradorIdsSecuencial implements GeneradorIds {
+
+    /** Ancho por defecto de la parte numérica: mantiene el orden hasta 99.999.999 entidades. */
+    public static final int ANCHO_POR_DEFECTO = 8;
+
+    private final String prefijo;
+    private final int ancho;
+    private final AtomicLong siguienteNumero = new AtomicLong(1);
+
+    /**
+     * Crea un generador con el ancho numérico por defecto.
+     * @param prefijo El prefijo de los IDs (por ejemplo "PRP").
+     */
+    public GeneradorIdsSecuencial(String prefijo) {
+        this(prefijo, ANCHO_POR_DEFECTO);
+    }
+
+    /**
+     * @param prefijo El prefijo de los IDs (por ejemplo "PRP").
+     * @param ancho Cantidad mínima de dígitos de la parte numérica.
+     */
+    public GeneradorIdsSecuencial(String prefijo, int ancho) {
+        this.prefijo = prefijo;
+        this.ancho = ancho;
+    }
+
+    @Override
+    public String siguiente() {
+        return formatear(siguienteNumero.getAndIncrement());
+    }
+
+    /**
+     * {@inheritDoc}
+     * Sólo se consideran los IDs con el prefijo de este generador y una parte numérica de a lo sumo el
+     * ancho configurado: un número más ancho haría que los IDs siguientes dejaran de ordenarse como se crearon.
+     */
+    @Override
+    public void observar(String id) {
+        long numero = extraerNumero(id);
+        if (numero >= 0) {
+            siguienteNumero.accumulateAndGet(numero + 1, Math::max);
+        }
+    }
+
+    /**
+     * Compone el ID a partir del número, rellenando con ceros hasta el ancho configurado.
+     */
+    private String formatear(long numero) {
+        int digitos = 1;
+        for (long resto = numero / 10; resto > 0; resto /= 10) {
+            digitos++;
+        }
+        int largoNumero = Math.max(ancho, digitos);
+        char[] caracteres = new char[prefijo.length() + largoNumero];
+        prefijo.getChars(0, prefijo.length(), caracteres, 0);
+        int posicion = caracteres.length;
+        long resto = numero;
+        for (int i = 0; i < largoNumero; i++) {
+            caracteres[--posicion] = (char) ('0' + (resto % 10));
+            resto /= 10;
+        }
+        return new String(caracteres);
+    }
+
+    /**
+     * Extrae la parte numérica de un ID con el prefijo de este generador.
+     * @return El número, o -1 si el ID no sigue el formato de este generador o su número es más ancho que el configurado.
+     */
+    private long extraerNumero(String id) {
+        if (id == null || id.length() <= prefijo.length() || id.length() - prefijo.length() > Math.min(ancho, 18)
+                || !id.regionMatches(true, 0, prefijo, 0, prefijo.length())) {
+            return -1;
+        }
+        long numero = 0;
+        for (int i = prefijo.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+}
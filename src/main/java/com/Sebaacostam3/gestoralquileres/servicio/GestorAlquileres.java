@@ -5,41 +5,655 @@ import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
 import com.Sebaacostam3.gestoralquileres.modelo.Pago;
 import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
 import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
-
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+import com.Sebaacostam3.gestoralquileres.modelo.ResumenPagos;
+import com.Sebaacostam3.gestoralquileres.persistencia.CodificadorEntidades;
+import com.Sebaacostam3.gestoralquileres.persistencia.Diario;
+import com.Sebaacostam3.gestoralquileres.persistencia.DirectorioDatos;
+import com.Sebaacostam3.gestoralquileres.persistencia.Instantanea;
+import com.Sebaacostam3.gestoralquileres.persistencia.LibroPagos;
+import com.Sebaacostam3.gestoralquileres.persistencia.TipoOperacion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 /**
  * Clase de servicio que gestiona las operaciones de negocio para propiedades,
  * inquilinos, contratos, pagos e incidencias.
- * Actualmente, los datos se almacenan en memoria.
+ * El gestor aplica las reglas de negocio y delega el almacenamiento en un repositorio por entidad
+ * ({@link Repositorios}). Por defecto los datos se almacenan en memoria, indexados por ID para que
+ * las búsquedas, altas y bajas no dependan de la cantidad de registros.
+ * <p>
+ * La clase es segura para hilos. Las lecturas (búsquedas y listados) no bloquean.
+ * Las escrituras bloquean únicamente las franjas de las entidades que tocan, por lo que
+ * dos operaciones sobre entidades distintas (por ejemplo, registrar pagos de dos contratos
+ * diferentes) pueden ejecutarse en paralelo. Las reglas que cruzan entidades, como marcar
+ * una propiedad como alquilada al crear un contrato, se validan y aplican bajo el bloqueo
+ * de todas las entidades involucradas.
+ * <p>
+ * Las operaciones de escritura devuelven un {@link Resultado} en lugar de escribir en la consola;
+ * los eventos de diagnóstico se envían a un {@link RegistroEventos} asíncrono, desactivado por defecto.
+ * <p>
+ * Los listados devuelven las entidades en el orden de los listados de su repositorio ({@link Repositorio}):
+ * el de alta mientras no haya bajas. Con los repositorios en memoria, una alta posterior a una baja puede
+ * ocupar el lugar de la entidad eliminada.
+ * <p>
+ * Un gestor creado con {@link #abrir(Path)} anota cada escritura validada en un {@link Diario} y espera a
+ * que sea durable antes de aplicarla, así que nunca expone ni pierde un cambio que no esté en disco; si el
+ * diario falla, la escritura no se aplica y el gestor queda de solo lectura. Al abrirse reconstruye su
+ * estado a partir de la última {@link Instantanea} y del diario posterior a ella. Las instantáneas ({@link #tomarInstantanea()}) se toman sin detener a
+ * las escrituras y permiten descartar el diario que ya cubren. Los gestores creados con los
+ * constructores trabajan sólo en memoria.
+ * <p>
+ * Un gestor abierto con {@link #abrirConNivelFrio(Path)} además archiva en disco, al tomar cada instantánea,
+ * los contratos inactivos con sus pagos, y sólo mantiene en memoria los contratos vigentes. Los archivados
+ * se siguen encontrando por ID y al listar los pagos de su contrato, pero no en los listados generales.
+ * <p>
+ * Un gestor persistente también mantiene un {@link LibroPagos} en columnas, con el que
+ * {@link #resumirPagos(String, LocalDate, LocalDate, boolean)} suma los pagos sin recorrer las entidades.
  */
-public class GestorAlquileres {
-    // Listas internas que simulan el almacenamiento de datos en memoria
-    private List<Propiedad> propiedades;
-    private List<Inquilino> inquilinos;
-    private List<ContratoAlquiler> contratos;
-    private List<Pago> pagos;
-    private List<Incidencia> incidencias;
-
-    // Contadores para generar IDs únicos para cada entidad
-    private int nextPropiedadId = 1;
-    private int nextInquilinoId = 1;
-    private int nextContratoAlquilerId = 1;
-    private int nextPagoId = 1;
-    private int nextIncidenciaId = 1;
+public class GestorAlquileres implements AutoCloseable {
+    // Repositorios donde se almacenan las entidades (por defecto, en memoria e indexados por ID)
+    private final Repositorios repositorios;
+    private final RepositorioPropiedades propiedades;
+    private final RepositorioInquilinos inquilinos;
+    private final RepositorioContratos contratos;
+    private final RepositorioPagos pagos;
+    private final RepositorioIncidencias incidencias;
+    // Nivel frío donde se archivan los contratos inactivos; null si los repositorios no lo usan
+    private final NivelFrio nivelFrio;
+
+    // Bloqueos por franjas para serializar las escrituras sobre una misma entidad
+    private final BloqueoEstriado bloqueos;
+
+    // Generadores de IDs únicos para cada entidad
+    private final GeneradorIds generadorPropiedadId;
+    private final GeneradorIds generadorInquilinoId;
+    private final GeneradorIds generadorContratoId;
+    private final GeneradorIds generadorPagoId;
+    private final GeneradorIds generadorIncidenciaId;
+
+    // Destino asíncrono de los eventos de diagnóstico
+    private final RegistroEventos registro;
+
+    // Diario donde se anotan las escrituras; desactivado si el gestor trabaja sólo en memoria
+    private Diario diario;
+    // Directorio de datos y número del segmento de diario en uso; null y 0 si el gestor trabaja sólo en memoria
+    private DirectorioDatos directorio;
+    private long segmentoActual;
+    // Libro de pagos en columnas para los resúmenes; null si el gestor trabaja sólo en memoria
+    private LibroPagos libroPagos;
+    // Hilo de las tareas de fondo (instantáneas periódicas y vencimientos), creado al programar la primera
+    private ScheduledExecutorService programador;
+    private boolean instantaneasProgramadas;
+    // Barrido que finaliza los contratos vencidos; null si no se programó
+    private volatile BarridoVencimientos vencimientos;
 
     /**
-     * Constructor que inicializa todas las listas de almacenamiento.
+     * Constructor que inicializa todos los almacenes en memoria, con un nivel de
+     * concurrencia proporcional a la cantidad de procesadores disponibles.
      */
     public GestorAlquileres() {
-        this.propiedades = new ArrayList<>();
-        this.inquilinos = new ArrayList<>();
-        this.contratos = new ArrayList<>();
-        this.pagos = new ArrayList<>();
-        this.incidencias = new ArrayList<>();
+        this(Runtime.getRuntime().availableProcessors() * 16);
+    }
+
+    /**
+     * Constructor que inicializa todos los almacenes en memoria.
+     * @param nivelConcurrencia Cantidad de franjas de bloqueo para las escrituras. Un valor mayor
+     *                          reduce la probabilidad de que dos entidades distintas compartan franja.
+     */
+    public GestorAlquileres(int nivelConcurrencia) {
+        this(nivelConcurrencia, GeneradorIdsSecuencial::new);
+    }
+
+    /**
+     * Constructor que inicializa todos los almacenes en memoria con una estrategia de IDs propia.
+     * @param nivelConcurrencia Cantidad de franjas de bloqueo para las escrituras.
+     * @param fabricaGeneradores Crea el generador de IDs de cada entidad a partir de su prefijo
+     *                           ("PRP", "INQ", "CON", "PAG" o "INC").
+     */
+    public GestorAlquileres(int nivelConcurrencia, Function<String, GeneradorIds> fabricaGeneradores) {
+        this(nivelConcurrencia, fabricaGeneradores, RegistroEventos.desactivado());
+    }
+
+    /**
+     * Constructor que inicializa todos los almacenes en memoria con una estrategia de IDs y un registro de eventos propios.
+     * @param nivelConcurrencia Cantidad de franjas de bloqueo para las escrituras.
+     * @param fabricaGeneradores Crea el generador de IDs de cada entidad a partir de su prefijo.
+     * @param registro Registro donde se envían los eventos de diagnóstico de cada operación.
+     */
+    public GestorAlquileres(int nivelConcurrencia, Function<String, GeneradorIds> fabricaGeneradores, RegistroEventos registro) {
+        this(Repositorios.enMemoria(), nivelConcurrencia, fabricaGeneradores, registro);
+    }
+
+    /**
+     * Constructor que trabaja sobre los repositorios dados, que pueden contener datos previos,
+     * con la configuración por defecto.
+     * @param repositorios Los repositorios de cada entidad.
+     */
+    public GestorAlquileres(Repositorios repositorios) {
+        this(repositorios, Runtime.getRuntime().availableProcessors() * 16, GeneradorIdsSecuencial::new, RegistroEventos.desactivado());
+    }
+
+    /**
+     * Constructor que trabaja sobre los repositorios dados, que pueden contener datos previos.
+     * Los generadores de IDs se ajustan para no repetir ninguno de los IDs existentes.
+     * @param repositorios Los repositorios de cada entidad.
+     * @param nivelConcurrencia Cantidad de franjas de bloqueo para las escrituras.
+     * @param fabricaGeneradores Crea el generador de IDs de cada entidad a partir de su prefijo.
+     * @param registro Registro donde se envían los eventos de diagnóstico de cada operación.
+     */
+    public GestorAlquileres(Repositorios repositorios, int nivelConcurrencia, Function<String, GeneradorIds> fabricaGeneradores,
+                            RegistroEventos registro) {
+        this.repositorios = repositorios;
+        this.propiedades = repositorios.getPropiedades();
+        this.inquilinos = repositorios.getInquilinos();
+        this.contratos = repositorios.getContratos();
+        this.pagos = repositorios.getPagos();
+        this.incidencias = repositorios.getIncidencias();
+        this.nivelFrio = repositorios.getNivelFrio();
+        this.bloqueos = new BloqueoEstriado(nivelConcurrencia);
+        this.generadorPropiedadId = fabricaGeneradores.apply("PRP");
+        this.generadorInquilinoId = fabricaGeneradores.apply("INQ");
+        this.generadorContratoId = fabricaGeneradores.apply("CON");
+        this.generadorPagoId = fabricaGeneradores.apply("PAG");
+        this.generadorIncidenciaId = fabricaGeneradores.apply("INC");
+        this.registro = registro;
+        this.diario = Diario.desactivado();
+        observarIdsExistentes();
+    }
+
+    /**
+     * Abre un gestor persistente sobre el directorio de datos dado, reconstruyendo su estado a partir
+     * de la última instantánea y de los segmentos del diario posteriores a ella. Si el directorio no
+     * existe, se crea vacío.
+     * @param directorioDatos El directorio donde se guardan el diario y las instantáneas.
+     * @return El gestor con el estado recuperado.
+     * @throws IOException Si no se pueden leer o crear los datos.
+     */
+    public static GestorAlquileres abrir(Path directorioDatos) throws IOException {
+        return abrir(directorioDatos, new GestorAlquileres());
+    }
+
+    /**
+     * Abre un gestor persistente con nivel frío: al tomar cada instantánea, los contratos inactivos y sus
+     * pagos se archivan en disco y dejan de ocupar memoria.
+     * @param directorioDatos El directorio donde se guardan el diario, las instantáneas y el nivel frío.
+     * @return El gestor con el estado recuperado.
+     * @throws IOException Si no se pueden leer o crear los datos.
+     */
+    public static GestorAlquileres abrirConNivelFrio(Path directorioDatos) throws IOException {
+        return abrir(directorioDatos, new GestorAlquileres(Repositorios.enMemoriaConNivelFrio()));
+    }
+
+    /**
+     * Abre un gestor persistente usando un gestor vacío ya configurado (nivel de concurrencia,
+     * generadores de IDs y registro de eventos).
+     * @param directorioDatos El directorio donde se guardan el diario y las instantáneas.
+     * @param gestor Un gestor recién creado, sin datos.
+     * @return El mismo gestor, con el estado recuperado y el diario activo.
+     * @throws IOException Si no se pueden leer o crear los datos.
+     * @throws IllegalArgumentException Si el gestor ya tiene datos o ya tiene un diario.
+     */
+    public static GestorAlquileres abrir(Path directorioDatos, GestorAlquileres gestor) throws IOException {
+        if (gestor.diario.isActivo() || !gestor.repositorios.isEnMemoria() || !gestor.repositorios.estanVacios()) {
+            throw new IllegalArgumentException("El gestor a recuperar debe estar vacío, sin diario y con los repositorios en memoria.");
+        }
+        DirectorioDatos directorio = new DirectorioDatos(directorioDatos);
+        if (gestor.nivelFrio != null) {
+            gestor.nivelFrio.usarDirectorio(directorio);
+        }
+        RecuperacionEstado recuperacion = new RecuperacionEstado(gestor.repositorios, (tipo, id) -> gestor.generador(tipo).observar(id));
+        long instantanea = directorio.ultimaInstantanea();
+        if (instantanea > 0) {
+            Instantanea.leer(directorio.instantanea(instantanea), recuperacion::cargar);
+        }
+        long ultimoSegmento = Math.max(instantanea, 1);
+        for (long segmento : directorio.segmentos()) {
+            if (segmento >= instantanea) {
+                int version = Diario.version(directorio.segmento(segmento));
+                Diario.reproducir(directorio.segmento(segmento), registro -> recuperacion.rehacer(registro, version));
+                ultimoSegmento = Math.max(ultimoSegmento, segmento);
+            }
+        }
+        int versionUltimo = Diario.version(directorio.segmento(ultimoSegmento));
+        if (versionUltimo != 0 && versionUltimo != CodificadorEntidades.VERSION) {
+            // Un segmento de una versión anterior no admite registros nuevos: se continúa en el siguiente
+            ultimoSegmento++;
+        }
+        recuperacion.enlazarReferencias();
+        gestor.observarIdsExistentes();
+        gestor.directorio = directorio;
+        gestor.segmentoActual = ultimoSegmento;
+        gestor.diario = Diario.abrir(directorio.segmento(ultimoSegmento));
+        directorio.descartarAnteriores(instantanea, gestor.numeroArchivoFrio());
+        gestor.libroPagos = gestor.abrirLibroPagos(directorio);
+        return gestor;
+    }
+
+    /**
+     * Abre el libro de pagos del directorio de datos. Si no se cerró correctamente, se vuelven a asentar
+     * los pagos recuperados, incluidos los archivados en el nivel frío.
+     */
+    private LibroPagos abrirLibroPagos(DirectorioDatos directorio) throws IOException {
+        LibroPagos libro = LibroPagos.abrir(directorio.libroPagos(), directorio.diccionarioLibroPagos());
+        if (!libro.isCompleto()) {
+            for (Pago pago : pagos.valores()) {
+                libro.registrar(pago);
+            }
+            if (nivelFrio != null) {
+                for (NivelFrio.Entrada archivado : nivelFrio.entradas()) {
+                    for (Pago pago : nivelFrio.pagos(archivado.getId())) {
+                        libro.registrar(pago);
+                    }
+                }
+            }
+        }
+        return libro;
+    }
+
+    /**
+     * Hace que los generadores de IDs queden por encima de todos los IDs existentes en los repositorios.
+     * Se llama antes de publicar el gestor, con un solo hilo.
+     */
+    private void observarIdsExistentes() {
+        for (Propiedad propiedad : propiedades.valores()) {
+            generadorPropiedadId.observar(propiedad.getId());
+        }
+        for (Inquilino inquilino : inquilinos.valores()) {
+            generadorInquilinoId.observar(inquilino.getId());
+        }
+        for (ContratoAlquiler contrato : contratos.valores()) {
+            generadorContratoId.observar(contrato.getId());
+        }
+        for (Pago pago : pagos.valores()) {
+            generadorPagoId.observar(pago.getId());
+        }
+        for (Incidencia incidencia : incidencias.valores()) {
+            generadorIncidenciaId.observar(incidencia.getId());
+        }
+        if (nivelFrio != null) {
+            for (NivelFrio.Entrada archivado : nivelFrio.entradas()) {
+                generadorContratoId.observar(archivado.getId());
+                for (String pago : archivado.getPagos()) {
+                    generadorPagoId.observar(pago);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return El número del archivo del nivel frío en uso, o 0 si no hay ninguno.
+     */
+    private long numeroArchivoFrio() {
+        return nivelFrio == null ? 0 : nivelFrio.getNumeroArchivo();
+    }
+
+    /**
+     * Devuelve el generador de IDs de un tipo de entidad de la instantánea.
+     * @param tipo Una de las constantes de entidad de {@link Instantanea}.
+     */
+    private GeneradorIds generador(int tipo) {
+        return switch (tipo) {
+            case Instantanea.PROPIEDAD -> generadorPropiedadId;
+            case Instantanea.INQUILINO -> generadorInquilinoId;
+            case Instantanea.CONTRATO -> generadorContratoId;
+            case Instantanea.PAGO -> generadorPagoId;
+            case Instantanea.INCIDENCIA -> generadorIncidenciaId;
+            default -> throw new IllegalArgumentException("Tipo de entidad desconocido: " + tipo);
+        };
+    }
+
+    /**
+     * Guarda una instantánea del estado actual y compacta el diario.
+     * <p>
+     * Primero se pasa a un segmento de diario nuevo; luego se recorren los almacenes escribiendo cada
+     * entidad bajo el bloqueo de su franja, sin detener al resto de las escrituras. Las escrituras que
+     * ocurran mientras tanto quedan en el segmento nuevo, que al recuperar se aplica sobre la instantánea.
+     * Una vez que la instantánea está en disco se borran los segmentos e instantáneas anteriores.
+     * <p>
+     * Con nivel frío, antes de pasar al segmento nuevo se archivan los contratos inactivos y se sincroniza
+     * el archivo del nivel frío, de modo que la instantánea sólo referencia bloques ya en disco.
+     * @throws IOException Si no se pudo escribir la instantánea o abrir el segmento nuevo.
+     * @throws IllegalStateException Si el gestor no se abrió con {@link #abrir(Path)}.
+     */
+    public void tomarInstantanea() throws IOException {
+        if (directorio == null) {
+            throw new IllegalStateException("El gestor trabaja sólo en memoria.");
+        }
+        synchronized (directorio) {
+            long segmento = segmentoActual + 1;
+            if (nivelFrio != null) {
+                nivelFrio.prepararArchivo(segmento);
+                archivarContratosInactivos();
+                nivelFrio.sincronizar();
+            }
+            diario.rotar(directorio.segmento(segmento));
+            segmentoActual = segmento;
+            Instantanea.escribir(directorio.instantanea(segmento), this::volcarEstado);
+            directorio.descartarAnteriores(segmento, numeroArchivoFrio());
+        }
+    }
+
+    /**
+     * Mueve al nivel frío los contratos inactivos que están en memoria, con sus pagos. Cada contrato se
+     * archiva bajo su bloqueo; los que se modifican o eliminan mientras tanto se omiten.
+     */
+    private void archivarContratosInactivos() throws IOException {
+        for (ContratoAlquiler contrato : contratos.valores()) {
+            if (contrato.isActivo()) {
+                continue;
+            }
+            try (BloqueoEstriado.Bloqueo _ = bloquearContrato(contrato)) {
+                if (contratos.obtener(contrato.getId()) != contrato || contrato.isActivo()) {
+                    continue;
+                }
+                nivelFrio.archivar(contrato, pagos.listarPorContrato(contrato.getId()));
+            }
+        }
+    }
+
+    /**
+     * Programa una instantánea periódica en un hilo de fondo, que se detiene al cerrar el gestor.
+     * Si una instantánea falla, se informa al registro de eventos y se reintenta en el siguiente período.
+     * @param periodo El tiempo entre instantáneas.
+     * @param unidad La unidad del período.
+     * @throws IllegalStateException Si el gestor trabaja sólo en memoria o ya tiene instantáneas programadas.
+     */
+    public synchronized void programarInstantaneas(long periodo, TimeUnit unidad) {
+        if (directorio == null) {
+            throw new IllegalStateException("El gestor trabaja sólo en memoria.");
+        }
+        if (instantaneasProgramadas) {
+            throw new IllegalStateException("Las instantáneas ya están programadas.");
+        }
+        programador().scheduleWithFixedDelay(() -> {
+            try {
+                tomarInstantanea();
+            } catch (IOException | UncheckedIOException e) {
+                informar("tomarInstantanea", Resultado.ERROR_PERSISTENCIA, null);
+            }
+        }, periodo, periodo, unidad);
+        instantaneasProgramadas = true;
+    }
+
+    /**
+     * Finaliza automáticamente, en un hilo de fondo, los contratos activos cuya fecha de fin ya pasó, con
+     * el reloj del sistema. Ver {@link #programarVencimientos(Clock)}.
+     * @throws IllegalStateException Si los vencimientos ya están programados.
+     */
+    public void programarVencimientos() {
+        programarVencimientos(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Finaliza automáticamente, en un hilo de fondo, los contratos activos cuya fecha de fin ya pasó, como
+     * {@link #finalizarContrato(String)}: un contrato vence al terminar el día de su fecha de fin. Los
+     * contratos activos esperan en una cola ordenada por fecha de fin y el hilo sólo despierta cuando vence
+     * el próximo; crear, actualizar, finalizar o eliminar un contrato mantiene la cola al día. Los contratos
+     * ya vencidos al programarlo se finalizan enseguida, y los que no se pueden finalizar se reintentan con
+     * esperas crecientes. Comparte el hilo de las instantáneas y se detiene al cerrar el gestor.
+     * @param reloj El reloj que define el día actual y su zona horaria.
+     * @throws IllegalStateException Si los vencimientos ya están programados.
+     */
+    public synchronized void programarVencimientos(Clock reloj) {
+        if (vencimientos != null) {
+            throw new IllegalStateException("Los vencimientos ya están programados.");
+        }
+        BarridoVencimientos barrido = new BarridoVencimientos(programador(), reloj, this::vencerContrato);
+        // Se publica antes de cargar los activos: un contrato creado mientras tanto se avisa o se lista
+        vencimientos = barrido;
+        for (ContratoAlquiler contrato : contratos.listarActivos()) {
+            barrido.programar(contrato);
+        }
+    }
+
+    /**
+     * @return El hilo de las tareas de fondo, creándolo si todavía no existe. Debe llamarse sincronizado.
+     */
+    private ScheduledExecutorService programador() {
+        if (programador == null) {
+            programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "gestor-alquileres-programador");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        return programador;
+    }
+
+    /**
+     * Escribe todas las entidades en la instantánea, en orden de dependencia. Antes se reserva un ID
+     * nuevo de cada generador, posterior a todos los entregados hasta ahora, para que al recuperar no
+     * se repitan los IDs de entidades eliminadas que ya no figuran en la instantánea.
+     * <p>
+     * El índice del nivel frío se escribe antes que los contratos en memoria: un contrato reincorporado
+     * mientras se escribe la instantánea queda así en el índice, en memoria, o en ambos, pero nunca falta.
+     */
+    private void volcarEstado(DataOutput salida) throws IOException {
+        for (int tipo = Instantanea.PROPIEDAD; tipo <= Instantanea.INCIDENCIA; tipo++) {
+            salida.writeByte(Instantanea.ID_RESERVADO);
+            salida.writeByte(tipo);
+            CodificadorEntidades.escribirTexto(salida, generador(tipo).siguiente());
+        }
+        ByteArrayOutputStream entidad = new ByteArrayOutputStream(256);
+        DataOutputStream codificada = new DataOutputStream(entidad);
+        if (numeroArchivoFrio() > 0) {
+            volcarNivelFrio(salida, entidad, codificada);
+        }
+        volcarAlmacen(salida, entidad, propiedades, Propiedad::getId, Propiedad::getId, p -> {
+            codificada.writeByte(Instantanea.PROPIEDAD);
+            CodificadorEntidades.escribirPropiedad(codificada, p);
+        });
+        volcarAlmacen(salida, entidad, inquilinos, Inquilino::getId, Inquilino::getId, i -> {
+            codificada.writeByte(Instantanea.INQUILINO);
+            CodificadorEntidades.escribirInquilino(codificada, i);
+        });
+        volcarAlmacen(salida, entidad, contratos, ContratoAlquiler::getId, ContratoAlquiler::getId, c -> {
+            codificada.writeByte(Instantanea.CONTRATO);
+            CodificadorEntidades.escribirContrato(codificada, c);
+        });
+        volcarAlmacen(salida, entidad, pagos, Pago::getId, p -> p.getContrato().getId(), p -> {
+            codificada.writeByte(Instantanea.PAGO);
+            CodificadorEntidades.escribirPago(codificada, p);
+        });
+        volcarAlmacen(salida, entidad, incidencias, Incidencia::getId, Incidencia::getId, i -> {
+            codificada.writeByte(Instantanea.INCIDENCIA);
+            CodificadorEntidades.escribirIncidencia(codificada, i);
+        });
+    }
+
+    /**
+     * Escribe el número del archivo del nivel frío y el índice de sus contratos archivados. Cada entrada
+     * se codifica bajo la franja de su contrato, y se omite si el contrato se reincorporó.
+     */
+    private void volcarNivelFrio(DataOutput salida, ByteArrayOutputStream entidad, DataOutputStream codificada) throws IOException {
+        salida.writeByte(Instantanea.ARCHIVO_FRIO);
+        salida.writeLong(nivelFrio.getNumeroArchivo());
+        for (NivelFrio.Entrada archivado : nivelFrio.entradas()) {
+            entidad.reset();
+            try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(archivado.getId())) {
+                if (nivelFrio.entrada(archivado.getId()) != archivado) {
+                    continue;
+                }
+                codificada.writeByte(Instantanea.ARCHIVADO_CON_RANGOS);
+                archivado.escribir(codificada);
+            }
+            salida.write(entidad.toByteArray());
+        }
+    }
+
+    /**
+     * Codificación de una entidad en el búfer de la instantánea.
+     */
+    private interface Codificacion<T> {
+        void codificar(T entidad) throws IOException;
+    }
+
+    /**
+     * Escribe las entidades vigentes de un repositorio. Cada entidad se codifica bajo la franja que protege
+     * sus escrituras, para no leerla a medio modificar, y se copia a la salida después de liberarla.
+     * @param id Devuelve el ID de la entidad.
+     * @param franja Devuelve el ID cuya franja protege a la entidad.
+     */
+    private <T> void volcarAlmacen(DataOutput salida, ByteArrayOutputStream entidad, Repositorio<T> repositorio,
+                                   Function<T, String> id, Function<T, String> franja, Codificacion<T> codificacion) throws IOException {
+        for (T valor : repositorio.valores()) {
+            entidad.reset();
+            try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(franja.apply(valor))) {
+                // Los repositorios en memoria devuelven las instancias almacenadas (o copias iguales a ellas): si
+                // cambió, fue eliminada o reemplazada. Se escribe la leída bajo la franja, que es la vigente
+                T vigente = repositorio.obtener(id.apply(valor));
+                if (!valor.equals(vigente)) {
+                    continue;
+                }
+                codificacion.codificar(vigente);
+            }
+            salida.write(entidad.toByteArray());
+        }
+    }
+
+    /**
+     * Detiene las instantáneas y los vencimientos programados y cierra el diario, esperando a que todas
+     * las escrituras anotadas estén en disco, el libro de pagos y el archivo del nivel frío. Si el gestor
+     * trabaja sólo en memoria, sólo detiene los vencimientos.
+     * @throws IOException Si falló alguna escritura del diario.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (programador != null) {
+                programador.shutdownNow();
+            }
+        }
+        diario.close();
+        if (libroPagos != null) {
+            libroPagos.close();
+        }
+        if (nivelFrio != null) {
+            nivelFrio.close();
+        }
+    }
+
+    /**
+     * Envía el resultado de una operación al registro de eventos y lo devuelve.
+     * @param operacion El nombre de la operación.
+     * @param resultado El resultado obtenido.
+     * @param id El ID de la entidad involucrada.
+     * @return El mismo resultado, para poder devolverlo directamente.
+     */
+    private Resultado informar(String operacion, Resultado resultado, String id) {
+        registro.registrar(operacion, resultado, id);
+        return resultado;
+    }
+
+    /**
+     * Informa el resultado de cada elemento de un lote.
+     * @param operacion El nombre de la operación.
+     * @param ids Los IDs de las entidades del lote.
+     * @param resultados El resultado de cada entidad, en el mismo orden.
+     * @return Los resultados, como lista de solo lectura.
+     */
+    private List<Resultado> informarLote(String operacion, String[] ids, Resultado[] resultados) {
+        for (int i = 0; i < resultados.length; i++) {
+            informar(operacion, resultados[i], ids[i]);
+        }
+        return List.of(resultados);
+    }
+
+    /**
+     * @return true si el diario del gestor falló: desde entonces todas las escrituras devuelven
+     *         ERROR_PERSISTENCIA sin modificar nada, y sólo se puede consultar. Un gestor que trabaja
+     *         sólo en memoria nunca queda en este estado.
+     */
+    public boolean isSoloLectura() {
+        return diario.isActivo() && diario.isFallido();
+    }
+
+    // --- Escritura en el diario (bajo el bloqueo de la escritura, antes de aplicarla en los repositorios) ---
+
+    /**
+     * Anota los registros de una escritura en el diario y espera a que sean durables. Se llama bajo el
+     * bloqueo de la escritura, después de validarla y antes de aplicarla: los demás hilos nunca ven un
+     * cambio que no esté en disco, y si el diario falla no queda nada aplicado. Mientras se espera, las
+     * escrituras de otras franjas se suman a la misma tanda del diario.
+     * <p>
+     * Después de la primera falla el diario rechaza todos los registros, así que el gestor queda de solo
+     * lectura ({@link #isSoloLectura()}).
+     * @return true si los registros son durables, o si el gestor trabaja sólo en memoria; false si el diario falló.
+     */
+    private boolean escribirEnDiario(byte[]... registros) {
+        if (!diario.isActivo() || registros.length == 0) {
+            return true;
+        }
+        try {
+            long anotacion = 0;
+            for (byte[] registro : registros) {
+                anotacion = diario.anotar(registro);
+            }
+            diario.esperar(anotacion);
+            return true;
+        } catch (UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    private boolean registrar(TipoOperacion tipo, Propiedad propiedad) {
+        return !diario.isActivo() || escribirEnDiario(CodificadorEntidades.registro(tipo, propiedad));
+    }
+
+    private boolean registrar(TipoOperacion tipo, Inquilino inquilino) {
+        return !diario.isActivo() || escribirEnDiario(CodificadorEntidades.registro(tipo, inquilino));
+    }
+
+    private boolean registrar(TipoOperacion tipo, ContratoAlquiler contrato) {
+        return !diario.isActivo() || escribirEnDiario(CodificadorEntidades.registro(tipo, contrato));
+    }
+
+    private boolean registrar(TipoOperacion tipo, Pago pago) {
+        return !diario.isActivo() || escribirEnDiario(CodificadorEntidades.registro(tipo, pago));
+    }
+
+    private boolean registrar(TipoOperacion tipo, Incidencia incidencia) {
+        return !diario.isActivo() || escribirEnDiario(CodificadorEntidades.registro(tipo, incidencia));
+    }
+
+    private boolean registrar(TipoOperacion tipo, String id) {
+        return !diario.isActivo() || escribirEnDiario(CodificadorEntidades.registro(tipo, id));
+    }
+
+    // --- Asientos en el libro de pagos (bajo el bloqueo del contrato del pago) ---
+
+    private void asentarPago(Pago pago) {
+        if (libroPagos != null) {
+            libroPagos.registrar(pago);
+        }
+    }
+
+    private void anularPago(Pago pago) {
+        if (libroPagos != null) {
+            libroPagos.anular(pago);
+        }
     }
 
     // --- Métodos de Gestión (CRUD y lógica de negocio) ---
@@ -47,31 +661,87 @@ public class GestorAlquileres {
     // ----- Propiedad -----
 
     /**
-     * Genera un ID único para una nueva propiedad en formato "PRPXXX".
+     * Genera un ID único para una nueva propiedad con el prefijo "PRP" (por defecto, "PRP" seguido de un número de ancho fijo).
      * @return El ID generado.
      */
     private String generarSiguientePropiedadId() {
-        return String.format("PRP%03d", nextPropiedadId++);
+        return generadorPropiedadId.siguiente();
     }
 
     /**
      * Agrega una nueva propiedad al sistema. Si la propiedad no tiene ID, le asigna uno.
      * Realiza validación de ID duplicado.
      * @param propiedad El objeto Propiedad a agregar.
+     * @return EXITO, ID_DUPLICADO si ya existe una propiedad con ese ID, o ERROR_PERSISTENCIA si no se pudo
+     *         guardar en el diario (la propiedad no se agrega).
      */
-    public void agregarPropiedad(Propiedad propiedad) {
+    public Resultado agregarPropiedad(Propiedad propiedad) {
         // Asigna un ID si la propiedad es nueva o no tiene uno asignado
         if (propiedad.getId() == null || propiedad.getId().trim().isEmpty()) {
             propiedad.setId(generarSiguientePropiedadId());
+        } else {
+            generadorPropiedadId.observar(propiedad.getId()); // Evita que el generador repita un ID ingresado manualmente
         }
 
-        // Verifica si el ID ya existe para evitar duplicados
-        if (buscarPropiedadPorId(propiedad.getId()).isPresent()) {
-            System.out.println("Error: La propiedad con el ID " + propiedad.getId() + " ya existe.");
-            return;
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(propiedad.getId())) {
+            // Toda alta bloquea la franja de su ID, así que nadie puede agregar el mismo ID hasta insertarla
+            if (propiedades.obtener(propiedad.getId()) != null) {
+                return informar("agregarPropiedad", Resultado.ID_DUPLICADO, propiedad.getId());
+            }
+            if (!registrar(TipoOperacion.AGREGAR_PROPIEDAD, propiedad)) {
+                return informar("agregarPropiedad", Resultado.ERROR_PERSISTENCIA, propiedad.getId());
+            }
+            this.propiedades.agregar(propiedad);
+        }
+        return informar("agregarPropiedad", Resultado.EXITO, propiedad.getId());
+    }
+
+    /**
+     * Agrega un lote de propiedades nuevas con una sola inserción en el repositorio y una sola espera del diario.
+     * Las propiedades sin ID reciben uno; las que repiten un ID existente, o de otra propiedad del lote, se omiten.
+     * Las franjas de todas las propiedades se bloquean juntas durante el lote.
+     * @param lote Las propiedades a agregar.
+     * @return El resultado de cada propiedad, en el mismo orden: EXITO, ID_DUPLICADO, o ERROR_PERSISTENCIA
+     *         si no se pudo guardar el lote en el diario (no se agrega ninguna).
+     */
+    public List<Resultado> agregarPropiedades(List<Propiedad> lote) {
+        String[] ids = new String[lote.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Propiedad propiedad = lote.get(i);
+            if (propiedad.getId() == null || propiedad.getId().trim().isEmpty()) {
+                propiedad.setId(generarSiguientePropiedadId());
+            } else {
+                generadorPropiedadId.observar(propiedad.getId());
+            }
+            ids[i] = propiedad.getId();
+        }
+        Resultado[] resultados = new Resultado[ids.length];
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(ids)) {
+            // Se descartan antes de anotar los que repiten un ID, contra el repositorio y contra el lote
+            List<Propiedad> validas = new ArrayList<>(lote.size());
+            List<byte[]> registros = new ArrayList<>();
+            Set<String> idsDelLote = new HashSet<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (propiedades.obtener(ids[i]) != null || !idsDelLote.add(AlmacenIndexado.normalizar(ids[i]))) {
+                    resultados[i] = Resultado.ID_DUPLICADO;
+                    continue;
+                }
+                validas.add(lote.get(i));
+                if (diario.isActivo()) {
+                    registros.add(CodificadorEntidades.registro(TipoOperacion.AGREGAR_PROPIEDAD, lote.get(i)));
+                }
+            }
+            Resultado aplicado = escribirEnDiario(registros.toArray(new byte[0][])) ? Resultado.EXITO : Resultado.ERROR_PERSISTENCIA;
+            if (aplicado.isExitoso()) {
+                propiedades.agregarTodas(validas);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (resultados[i] == null) {
+                    resultados[i] = aplicado;
+                }
+            }
         }
-        this.propiedades.add(propiedad);
-        System.out.println("Propiedad '" + propiedad.getDireccion() + "' agregada correctamente.");
+        return informarLote("agregarPropiedades", ids, resultados);
     }
 
     /**
@@ -79,7 +749,35 @@ public class GestorAlquileres {
      * @return Una copia de la lista de propiedades para evitar modificaciones externas.
      */
     public List<Propiedad> listarPropiedades() {
-        return new ArrayList<>(this.propiedades);
+        return new ArrayList<>(this.propiedades.valores());
+    }
+
+    /**
+     * Devuelve una página de propiedades, en el orden de los listados, sin copiar el listado completo.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de propiedades por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<Propiedad> listarPropiedades(String cursor, int tamanio) {
+        return propiedades.pagina(cursor, tamanio);
+    }
+
+    /**
+     * Busca propiedades por tipo, estado de alquiler, superficie y precio mensual.
+     * @param consulta Los criterios de la búsqueda, o null para todas las propiedades.
+     * @return Las propiedades que cumplen todos los criterios, en el orden de los listados.
+     */
+    public List<Propiedad> buscarPropiedades(ConsultaPropiedades consulta) {
+        return propiedades.buscar(consulta == null ? ConsultaPropiedades.todas() : consulta);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de las propiedades, sin copiarlas.
+     * La vista refleja el estado actual del gestor y es segura de recorrer mientras otros hilos escriben.
+     * @return Las propiedades registradas, en el orden de los listados.
+     */
+    public Collection<Propiedad> vistaPropiedades() {
+        return propiedades.valores();
     }
 
     /**
@@ -88,96 +786,236 @@ public class GestorAlquileres {
      * @return Un Optional que contiene la Propiedad si se encuentra, o un Optional vacío si no.
      */
     public Optional<Propiedad> buscarPropiedadPorId(String id) {
-        for (Propiedad p : propiedades) {
-            if (p.getId().equalsIgnoreCase(id)) {
-                return Optional.of(p);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(propiedades.obtener(id));
     }
 
     /**
-     * Actualiza la información de una propiedad existente.
+     * Actualiza la información de una propiedad existente. Si está alquilada no se toma de la propiedad
+     * recibida: lo determinan sus contratos, al crearse, finalizarse o eliminarse.
      * @param propiedad El objeto Propiedad con los datos actualizados (el ID debe existir).
-     * @return true si la propiedad fue actualizada, false si no se encontró.
+     * @return EXITO, NO_ENCONTRADO si la propiedad no existe, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean actualizarPropiedad(Propiedad propiedad) {
-        Optional<Propiedad> propiedadEncontrada = buscarPropiedadPorId(propiedad.getId());
-        if (propiedadEncontrada.isPresent()) {
+    public Resultado actualizarPropiedad(Propiedad propiedad) {
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(propiedad.getId())) {
+            Optional<Propiedad> propiedadEncontrada = buscarPropiedadPorId(propiedad.getId());
+            if (!propiedadEncontrada.isPresent()) {
+                return informar("actualizarPropiedad", Resultado.NO_ENCONTRADO, propiedad.getId());
+            }
             Propiedad propiedadActualizada = propiedadEncontrada.get();
+            // El diario recibe el estado final antes de modificar la instancia almacenada
+            Propiedad estadoFinal = new Propiedad(propiedadActualizada.getId(), propiedad.getDireccion(), propiedad.getTipo(),
+                    propiedad.getMetrosCuadrados(), false, 0);
+            estadoFinal.setAlquilada(propiedadActualizada.isAlquilada());
+            estadoFinal.setPrecioMensualCentavos(propiedad.getPrecioMensualCentavos());
+            if (!registrar(TipoOperacion.ACTUALIZAR_PROPIEDAD, estadoFinal)) {
+                return informar("actualizarPropiedad", Resultado.ERROR_PERSISTENCIA, propiedad.getId());
+            }
             propiedadActualizada.setDireccion(propiedad.getDireccion());
             propiedadActualizada.setTipo(propiedad.getTipo());
             propiedadActualizada.setMetrosCuadrados(propiedad.getMetrosCuadrados());
-            propiedadActualizada.setAlquilada(propiedad.isAlquilada());
-            propiedadActualizada.setPrecioMensual(propiedad.getPrecioMensual());
-
-            System.out.println("Propiedad '" + propiedadActualizada.getId() + "' actualizada correctamente.");
-            return true;
+            propiedadActualizada.setPrecioMensualCentavos(propiedad.getPrecioMensualCentavos());
+            propiedades.guardar(propiedadActualizada);
         }
-        System.out.println("Error: No se encontró la propiedad con el ID " + propiedad.getId() + ".");
-        return false;
+        return informar("actualizarPropiedad", Resultado.EXITO, propiedad.getId());
     }
 
     /**
      * Elimina una propiedad del sistema, aplicando reglas de negocio.
      * Una propiedad no puede ser eliminada si tiene contratos vigentes o incidencias pendientes.
      * @param id El ID de la propiedad a eliminar.
-     * @return true si la propiedad fue eliminada, false si no se encontró o no se pudo eliminar por reglas de negocio.
+     * @return EXITO, NO_ENCONTRADO, la regla que impidió eliminarla (CONTRATO_VIGENTE o INCIDENCIAS_PENDIENTES),
+     *         o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean eliminarPropiedad(String id) {
-        Optional<Propiedad> propiedadEncontrada = buscarPropiedadPorId(id);
-        if (propiedadEncontrada.isPresent()) {
+    public Resultado eliminarPropiedad(String id) {
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(id)) {
+            Optional<Propiedad> propiedadEncontrada = buscarPropiedadPorId(id);
+            if (!propiedadEncontrada.isPresent()) {
+                return informar("eliminarPropiedad", Resultado.NO_ENCONTRADO, id);
+            }
             Propiedad propiedad = propiedadEncontrada.get();
             // Regla de negocio: No se puede eliminar una propiedad si tiene un contrato vigente.
-            for (ContratoAlquiler contrato : contratos) {
-                if (contrato.getPropiedad().getId().equals(id) && contrato.isActivo()) {
-                    System.out.println("Error: No se puede eliminar la propiedad con el ID " + id + " porque tiene un contrato vigente.");
-                    return false;
-                }
+            if (contratos.contarActivosPorPropiedad(id) > 0) {
+                return informar("eliminarPropiedad", Resultado.CONTRATO_VIGENTE, id);
             }
             // Regla de negocio: No se puede eliminar una propiedad si tiene incidencias pendientes.
-            for (Incidencia incidencia : incidencias) {
-                if (incidencia.getPropiedad().getId().equals(id) && !incidencia.getEstado().equalsIgnoreCase("Resuelta") && !incidencia.getEstado().equalsIgnoreCase("Cancelada")) {
-                    System.out.println("Error: No se puede eliminar la propiedad con el ID " + id + " porque tiene incidencias pendientes.");
-                    return false;
-                }
+            if (incidencias.contarAbiertasPorPropiedad(id) > 0) {
+                return informar("eliminarPropiedad", Resultado.INCIDENCIAS_PENDIENTES, id);
             }
-            propiedades.remove(propiedad);
-            System.out.println("Propiedad '" + id + "' eliminada correctamente.");
-            return true;
+            if (!registrar(TipoOperacion.ELIMINAR_PROPIEDAD, propiedad.getId())) {
+                return informar("eliminarPropiedad", Resultado.ERROR_PERSISTENCIA, id);
+            }
+            propiedades.eliminar(propiedad.getId());
         }
-        System.out.println("Error: No se encontró la propiedad con el ID " + id + ".");
-        return false;
+        return informar("eliminarPropiedad", Resultado.EXITO, id);
     }
 
     // ----- Inquilino -----
 
     /**
-     * Genera un ID único para un nuevo inquilino en formato "INQXXX".
+     * Genera un ID único para un nuevo inquilino con el prefijo "INQ" (por defecto, "INQ" seguido de un número de ancho fijo).
      * @return El ID generado.
      */
     private String generarSiguienteInquilinoId() {
-        return String.format("INQ%03d", nextInquilinoId++);
+        return generadorInquilinoId.siguiente();
     }
 
     /**
      * Agrega un nuevo inquilino al sistema. Si el inquilino no tiene ID, le asigna uno.
-     * Realiza validación de ID duplicado.
+     * Realiza validación de ID duplicado, y de DNI y email repetidos con los índices del repositorio.
      * @param inquilino El objeto Inquilino a agregar.
+     * @return EXITO, ID_DUPLICADO si ya existe un inquilino con ese ID, DNI_DUPLICADO o EMAIL_DUPLICADO
+     *         si otro inquilino ya tiene ese DNI o ese email, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public void agregarInquilino(Inquilino inquilino) {
+    public Resultado agregarInquilino(Inquilino inquilino) {
         // Asigna un ID si el inquilino es nuevo o no tiene uno asignado
         if (inquilino.getId() == null || inquilino.getId().trim().isEmpty()) {
             inquilino.setId(generarSiguienteInquilinoId());
+        } else {
+            generadorInquilinoId.observar(inquilino.getId()); // Evita que el generador repita un ID ingresado manualmente
+        }
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(inquilino.getId(), bloqueoDni(inquilino), bloqueoEmail(inquilino))) {
+            // Toda alta bloquea la franja de su ID, así que nadie puede agregar el mismo ID hasta insertarlo
+            if (inquilinos.obtener(inquilino.getId()) != null) {
+                return informar("agregarInquilino", Resultado.ID_DUPLICADO, inquilino.getId());
+            }
+            Resultado repetido = verificarDatosUnicos(inquilino);
+            if (repetido != null) {
+                return informar("agregarInquilino", repetido, inquilino.getId());
+            }
+            if (!registrar(TipoOperacion.AGREGAR_INQUILINO, inquilino)) {
+                return informar("agregarInquilino", Resultado.ERROR_PERSISTENCIA, inquilino.getId());
+            }
+            try {
+                // Un repositorio compartido con otro proceso puede haber recibido el mismo dato a la vez
+                if (!inquilinos.agregar(inquilino)) {
+                    return informar("agregarInquilino", Resultado.ID_DUPLICADO, inquilino.getId());
+                }
+            } catch (DatoUnicoRepetido e) {
+                return informar("agregarInquilino", e.getResultado(), inquilino.getId());
+            }
+        }
+        return informar("agregarInquilino", Resultado.EXITO, inquilino.getId());
+    }
+
+    /**
+     * Agrega un lote de inquilinos nuevos con una sola inserción en el repositorio y una sola espera del diario.
+     * Los inquilinos sin ID reciben uno; los que repiten un ID, un DNI o un email existente, o de otro
+     * inquilino anterior del lote, se omiten.
+     * @param lote Los inquilinos a agregar.
+     * @return El resultado de cada inquilino, en el mismo orden: EXITO, ID_DUPLICADO, DNI_DUPLICADO, EMAIL_DUPLICADO,
+     *         o ERROR_PERSISTENCIA si no se pudo guardar el lote en el diario (no se agrega ninguno).
+     */
+    public List<Resultado> agregarInquilinos(List<Inquilino> lote) {
+        String[] ids = new String[lote.size()];
+        String[] bloqueados = new String[lote.size() * 3];
+        for (int i = 0; i < ids.length; i++) {
+            Inquilino inquilino = lote.get(i);
+            if (inquilino.getId() == null || inquilino.getId().trim().isEmpty()) {
+                inquilino.setId(generarSiguienteInquilinoId());
+            } else {
+                generadorInquilinoId.observar(inquilino.getId());
+            }
+            ids[i] = inquilino.getId();
+            bloqueados[i * 3] = inquilino.getId();
+            bloqueados[i * 3 + 1] = bloqueoDni(inquilino);
+            bloqueados[i * 3 + 2] = bloqueoEmail(inquilino);
         }
-        // Verifica si el ID ya existe para evitar duplicados
-        if (buscarInquilinoPorId(inquilino.getId()).isPresent()) {
-            System.out.println("Error: El inquilino con el ID " + inquilino.getId() + " ya existe.");
-            return;
+        Resultado[] resultados = new Resultado[ids.length];
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(bloqueados)) {
+            // Se descartan antes de anotar los que repiten datos únicos, contra el repositorio y contra el lote
+            List<Inquilino> validos = new ArrayList<>(lote.size());
+            List<byte[]> registros = new ArrayList<>();
+            Set<String> idsDelLote = new HashSet<>();
+            Set<String> dnisDelLote = new HashSet<>();
+            Set<String> emailsDelLote = new HashSet<>();
+            for (int i = 0; i < ids.length; i++) {
+                Inquilino inquilino = lote.get(i);
+                String dni = Inquilino.normalizarDni(inquilino.getDni());
+                String email = Inquilino.normalizarEmail(inquilino.getEmail());
+                if (inquilinos.obtener(ids[i]) != null || idsDelLote.contains(AlmacenIndexado.normalizar(ids[i]))) {
+                    resultados[i] = Resultado.ID_DUPLICADO;
+                } else if (dni != null && dnisDelLote.contains(dni)) {
+                    resultados[i] = Resultado.DNI_DUPLICADO;
+                } else if (email != null && emailsDelLote.contains(email)) {
+                    resultados[i] = Resultado.EMAIL_DUPLICADO;
+                } else {
+                    resultados[i] = verificarDatosUnicos(inquilino);
+                }
+                if (resultados[i] == null) {
+                    validos.add(inquilino);
+                    if (diario.isActivo()) {
+                        registros.add(CodificadorEntidades.registro(TipoOperacion.AGREGAR_INQUILINO, inquilino));
+                    }
+                    idsDelLote.add(AlmacenIndexado.normalizar(ids[i]));
+                    if (dni != null) {
+                        dnisDelLote.add(dni);
+                    }
+                    if (email != null) {
+                        emailsDelLote.add(email);
+                    }
+                }
+            }
+            Resultado aplicado = escribirEnDiario(registros.toArray(new byte[0][])) ? Resultado.EXITO : Resultado.ERROR_PERSISTENCIA;
+            Set<Inquilino> agregados = null;
+            if (aplicado.isExitoso()) {
+                List<Inquilino> insertados = inquilinos.agregarTodas(validos);
+                if (insertados.size() < validos.size()) {
+                    agregados = new HashSet<>(insertados);
+                }
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (resultados[i] == null) {
+                    resultados[i] = agregados == null || agregados.contains(lote.get(i)) ? aplicado : causaDeOmision(lote.get(i));
+                }
+            }
         }
+        return informarLote("agregarInquilinos", ids, resultados);
+    }
 
-        inquilinos.add(inquilino);
-        System.out.println("Inquilino '" + inquilino.getNombre() + " " + inquilino.getApellido() + "' agregado correctamente. ID: " + inquilino.getId());
+    /**
+     * Verifica que ningún otro inquilino tenga el DNI o el email de uno que se agrega o se modifica.
+     * Los índices del repositorio hacen de cada verificación una búsqueda por hash. Debe llamarse con
+     * los bloqueos de {@link #bloqueoDni(Inquilino)} y {@link #bloqueoEmail(Inquilino)} adquiridos.
+     * @return DNI_DUPLICADO, EMAIL_DUPLICADO, o null si ambos están libres.
+     */
+    private Resultado verificarDatosUnicos(Inquilino inquilino) {
+        Inquilino mismoDni = inquilinos.buscarPorDni(inquilino.getDni());
+        if (mismoDni != null && !esMismoInquilino(mismoDni, inquilino)) {
+            return Resultado.DNI_DUPLICADO;
+        }
+        Inquilino mismoEmail = inquilinos.buscarPorEmail(inquilino.getEmail());
+        if (mismoEmail != null && !esMismoInquilino(mismoEmail, inquilino)) {
+            return Resultado.EMAIL_DUPLICADO;
+        }
+        return null;
+    }
+
+    /**
+     * Averigua por qué el repositorio omitió un inquilino de un lote ya verificado: otro proceso
+     * escribió a la vez su ID, su DNI o su email.
+     */
+    private Resultado causaDeOmision(Inquilino inquilino) {
+        Resultado repetido = verificarDatosUnicos(inquilino);
+        return repetido != null ? repetido : Resultado.ID_DUPLICADO;
+    }
+
+    private static boolean esMismoInquilino(Inquilino registrado, Inquilino inquilino) {
+        return AlmacenIndexado.normalizar(registrado.getId()).equals(AlmacenIndexado.normalizar(inquilino.getId()));
+    }
+
+    /**
+     * Nombres con los que se bloquean el DNI y el email de un inquilino, para que dos operaciones que
+     * usan el mismo valor no lo verifiquen a la vez. Comparten las franjas de los IDs.
+     * @return El nombre a bloquear, o null si el inquilino no tiene ese dato.
+     */
+    private static String bloqueoDni(Inquilino inquilino) {
+        String dni = Inquilino.normalizarDni(inquilino.getDni());
+        return dni == null ? null : "dni:" + dni;
+    }
+
+    private static String bloqueoEmail(Inquilino inquilino) {
+        String email = Inquilino.normalizarEmail(inquilino.getEmail());
+        return email == null ? null : "email:" + email;
     }
 
     /**
@@ -185,7 +1023,26 @@ public class GestorAlquileres {
      * @return Una copia de la lista de inquilinos para evitar modificaciones externas.
      */
     public List<Inquilino> listarInquilinos() {
-        return new ArrayList<>(this.inquilinos);
+        return new ArrayList<>(this.inquilinos.valores());
+    }
+
+    /**
+     * Devuelve una página de inquilinos, en el orden de los listados, sin copiar el listado completo.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de inquilinos por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<Inquilino> listarInquilinos(String cursor, int tamanio) {
+        return inquilinos.pagina(cursor, tamanio);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de los inquilinos, sin copiarlos.
+     * La vista refleja el estado actual del gestor y es segura de recorrer mientras otros hilos escriben.
+     * @return Los inquilinos registrados, en el orden de los listados.
+     */
+    public Collection<Inquilino> vistaInquilinos() {
+        return inquilinos.valores();
     }
 
     /**
@@ -194,68 +1051,104 @@ public class GestorAlquileres {
      * @return Un Optional que contiene el Inquilino si se encuentra, o un Optional vacío si no.
      */
     public Optional<Inquilino> buscarInquilinoPorId(String id) {
-        for (Inquilino i : inquilinos) {
-            if (i.getId().equalsIgnoreCase(id)) {
-                return Optional.of(i);
-            }
+        return Optional.ofNullable(inquilinos.obtener(id));
+    }
+
+    /**
+     * Busca inquilinos por parte de su nombre, apellido, DNI, email o teléfono. Cada palabra del texto
+     * se busca como comienzo de una palabra de los datos (y un número, en cualquier parte del DNI o del
+     * teléfono), y se toleran errores de tipeo en las palabras de cuatro o más letras.
+     * @param texto El texto buscado, por ejemplo "juan per" o "30.123".
+     * @param limite La cantidad máxima de inquilinos a devolver.
+     * @return Los inquilinos encontrados, del que más coincide al que menos.
+     * @throws IllegalArgumentException Si el límite no es positivo.
+     */
+    public List<Inquilino> buscarInquilinos(String texto, int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite de resultados debe ser positivo: " + limite);
         }
-        return Optional.empty();
+        return inquilinos.buscarPorTexto(texto, limite);
     }
 
     /**
-     * Actualiza la información de un inquilino existente.
+     * Busca un inquilino por su DNI, sin distinguir puntos, guiones ni espacios.
+     * @param dni El DNI a buscar.
+     * @return Un Optional que contiene el Inquilino si se encuentra, o un Optional vacío si no.
+     */
+    public Optional<Inquilino> buscarInquilinoPorDni(String dni) {
+        return Optional.ofNullable(inquilinos.buscarPorDni(dni));
+    }
+
+    /**
+     * Actualiza la información de un inquilino existente. El DNI no se modifica.
      * @param inquilino El objeto Inquilino con los datos actualizados (el ID debe existir).
-     * @return true si el inquilino fue actualizado, false si no se encontró.
+     * @return EXITO, NO_ENCONTRADO si el inquilino no existe, EMAIL_DUPLICADO si otro inquilino ya tiene el email
+     *         nuevo, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean actualizarInquilino(Inquilino inquilino) {
-        Optional<Inquilino> inquilinoEncontrado = buscarInquilinoPorId(inquilino.getId());
-        if (inquilinoEncontrado.isPresent()) {
+    public Resultado actualizarInquilino(Inquilino inquilino) {
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(inquilino.getId(), bloqueoEmail(inquilino))) {
+            Optional<Inquilino> inquilinoEncontrado = buscarInquilinoPorId(inquilino.getId());
+            if (!inquilinoEncontrado.isPresent()) {
+                return informar("actualizarInquilino", Resultado.NO_ENCONTRADO, inquilino.getId());
+            }
+            Inquilino mismoEmail = inquilinos.buscarPorEmail(inquilino.getEmail());
+            if (mismoEmail != null && !esMismoInquilino(mismoEmail, inquilino)) {
+                return informar("actualizarInquilino", Resultado.EMAIL_DUPLICADO, inquilino.getId());
+            }
             Inquilino inquilinoActualizado = inquilinoEncontrado.get();
+            // El diario recibe el estado final antes de modificar la instancia almacenada
+            Inquilino estadoFinal = new Inquilino(inquilinoActualizado.getId(), inquilino.getNombre(), inquilino.getApellido(),
+                    inquilino.getTelefono(), inquilinoActualizado.getDni(), inquilino.getEmail());
+            if (!registrar(TipoOperacion.ACTUALIZAR_INQUILINO, estadoFinal)) {
+                return informar("actualizarInquilino", Resultado.ERROR_PERSISTENCIA, inquilino.getId());
+            }
             inquilinoActualizado.setNombre(inquilino.getNombre());
             inquilinoActualizado.setApellido(inquilino.getApellido());
             inquilinoActualizado.setTelefono(inquilino.getTelefono());
             inquilinoActualizado.setEmail(inquilino.getEmail());
-
-            System.out.println("Inquilino '" + inquilinoActualizado.getId() + "' actualizado correctamente.");
-            return true;
+            try {
+                inquilinos.guardar(inquilinoActualizado);
+            } catch (DatoUnicoRepetido e) {
+                return informar("actualizarInquilino", e.getResultado(), inquilino.getId());
+            }
         }
-        System.out.println("Error: No se encontró el inquilino con el ID " + inquilino.getId() + ".");
-        return false;
+        return informar("actualizarInquilino", Resultado.EXITO, inquilino.getId());
     }
 
     /**
      * Elimina un inquilino del sistema, aplicando reglas de negocio.
      * Un inquilino no puede ser eliminado si tiene contratos vigentes.
      * @param id El ID del inquilino a eliminar.
-     * @return true si el inquilino fue eliminado, false si no se encontró o no se pudo eliminar por reglas de negocio.
+     * @return EXITO, NO_ENCONTRADO, CONTRATO_VIGENTE si tiene un contrato vigente, o ERROR_PERSISTENCIA si no se
+     *         pudo guardar en el diario.
      */
-    public boolean eliminarInquilino(String id) {
-        Optional<Inquilino> inquilinoEncontrado = buscarInquilinoPorId(id);
-        if (inquilinoEncontrado.isPresent()) {
+    public Resultado eliminarInquilino(String id) {
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(id)) {
+            Optional<Inquilino> inquilinoEncontrado = buscarInquilinoPorId(id);
+            if (!inquilinoEncontrado.isPresent()) {
+                return informar("eliminarInquilino", Resultado.NO_ENCONTRADO, id);
+            }
             Inquilino inquilino = inquilinoEncontrado.get();
             // Regla de negocio: No se puede eliminar un inquilino si tiene un contrato vigente.
-            for (ContratoAlquiler contrato : contratos) {
-                if (contrato.getInquilino().getId().equals(id) && contrato.isActivo()) {
-                    System.out.println("Error: No se puede eliminar el inquilino con el ID " + id + " porque tiene un contrato vigente.");
-                    return false;
-                }
+            if (contratos.contarActivosPorInquilino(id) > 0) {
+                return informar("eliminarInquilino", Resultado.CONTRATO_VIGENTE, id);
+            }
+            if (!registrar(TipoOperacion.ELIMINAR_INQUILINO, inquilino.getId())) {
+                return informar("eliminarInquilino", Resultado.ERROR_PERSISTENCIA, id);
             }
-            inquilinos.remove(inquilino);
-            System.out.println("Inquilino '" + id + "' eliminado correctamente.");
-            return true;
+            inquilinos.eliminar(inquilino.getId());
         }
-        System.out.println("Error: No se encontró el inquilino con el ID " + id + ".");
-        return false;
+        return informar("eliminarInquilino", Resultado.EXITO, id);
     }
 
     // ----- ContratoAlquiler -----
 
     /**
-     * Genera un ID único para un nuevo contrato en formato "CONXXX".
+     * Genera un ID único para un nuevo contrato con el prefijo "CON" (por defecto, "CON" seguido de un número de ancho fijo).
      * @return El ID generado.
      */
     private String generarSiguienteContratoId() {
-        return String.format("CON%03d", nextContratoAlquilerId++);
+        return generadorContratoId.siguiente();
     }
 
     /**
@@ -264,65 +1157,153 @@ public class GestorAlquileres {
      * @return Un Optional que contiene el ContratoAlquiler si se encuentra, o un Optional vacío si no.
      */
     public Optional<ContratoAlquiler> buscarContratoPorId(String id) {
-        for (ContratoAlquiler c : contratos) {
-            if (c.getId().equalsIgnoreCase(id)) {
-                return Optional.of(c);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(contratos.obtener(id));
     }
 
     /**
      * Crea un nuevo contrato de alquiler, aplicando diversas validaciones y reglas de negocio.
+     * La comprobación y el marcado de la propiedad como alquilada se realizan bajo el bloqueo
+     * de la propiedad y del inquilino, de modo que dos contratos simultáneos no pueden
+     * alquilar la misma propiedad.
      * @param nuevoContrato El objeto ContratoAlquiler a crear, con referencias a Propiedad e Inquilino.
+     * @return EXITO, o el motivo por el que no se creó (REFERENCIA_INVALIDA, REFERENCIA_INEXISTENTE,
+     *         PROPIEDAD_ALQUILADA, ID_DUPLICADO o ERROR_PERSISTENCIA).
      */
-    public void crearContrato(ContratoAlquiler nuevoContrato) {
+    public Resultado crearContrato(ContratoAlquiler nuevoContrato) {
         // Validar que el contrato referencia a una Propiedad y un Inquilino con IDs válidos
         if (nuevoContrato.getPropiedad() == null || nuevoContrato.getPropiedad().getId() == null ||
                 nuevoContrato.getInquilino() == null || nuevoContrato.getInquilino().getId() == null) {
-            System.out.println("Error: El contrato debe referenciar una Propiedad y un Inquilino válidos.");
-            return;
+            return informar("crearContrato", Resultado.REFERENCIA_INVALIDA, nuevoContrato.getId());
         }
 
-        // 1. Validar que la propiedad y el inquilino existen en el gestor
-        Optional<Propiedad> propiedadEncontrada = buscarPropiedadPorId(nuevoContrato.getPropiedad().getId());
-        Optional<Inquilino> inquilinoEncontrado = buscarInquilinoPorId(nuevoContrato.getInquilino().getId());
-        if (!propiedadEncontrada.isPresent() || !inquilinoEncontrado.isPresent()) {
-            System.out.println("Error: No se encontró la propiedad o el inquilino con el ID " + nuevoContrato.getPropiedad().getId() + " o " + nuevoContrato.getInquilino().getId() + ".");
-            return;
+        // Asignar el ID al contrato si no lo tiene, antes de bloquear, para bloquear también su franja
+        if (nuevoContrato.getId() == null || nuevoContrato.getId().trim().isEmpty()) {
+            nuevoContrato.setId(generarSiguienteContratoId());
+        } else {
+            generadorContratoId.observar(nuevoContrato.getId()); // Evita que el generador repita un ID ingresado manualmente
         }
 
-        Propiedad propiedadReal = propiedadEncontrada.get();
-        Inquilino inquilinoReal = inquilinoEncontrado.get();
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(nuevoContrato.getId(), nuevoContrato.getPropiedad().getId(),
+                nuevoContrato.getInquilino().getId())) {
+            // 1. Validar que la propiedad y el inquilino existen en el gestor
+            Optional<Propiedad> propiedadEncontrada = buscarPropiedadPorId(nuevoContrato.getPropiedad().getId());
+            Optional<Inquilino> inquilinoEncontrado = buscarInquilinoPorId(nuevoContrato.getInquilino().getId());
+            if (!propiedadEncontrada.isPresent() || !inquilinoEncontrado.isPresent()) {
+                return informar("crearContrato", Resultado.REFERENCIA_INEXISTENTE, nuevoContrato.getId());
+            }
 
-        // 2. Regla de negocio: No se puede crear un contrato si la propiedad ya está alquilada.
-        if (propiedadReal.isAlquilada()) {
-            System.out.println("Error: No se puede crear un contrato para la propiedad con ID " + nuevoContrato.getPropiedad().getId() + " porque ya está alquilada.");
-            return;
-        }
+            Propiedad propiedadReal = propiedadEncontrada.get();
+            Inquilino inquilinoReal = inquilinoEncontrado.get();
 
-        // 3. Asignar el ID al contrato si no lo tiene, o verificar que el ID proporcionado no exista
-        if (nuevoContrato.getId() == null || nuevoContrato.getId().trim().isEmpty()) {
-            nuevoContrato.setId(generarSiguienteContratoId());
-        } else {
-            if (buscarContratoPorId(nuevoContrato.getId()).isPresent()) {
-                System.out.println("Error: El contrato con el ID " + nuevoContrato.getId() + " ya existe.");
-                return;
+            // 2. Regla de negocio: No se puede crear un contrato si la propiedad ya está alquilada.
+            if (propiedadReal.isAlquilada()) {
+                return informar("crearContrato", Resultado.PROPIEDAD_ALQUILADA, propiedadReal.getId());
+            }
+
+            // 3. Validar que el ID no exista; toda alta bloquea la franja de su ID, así que nadie puede agregarlo hasta insertarlo
+            if (contratos.obtener(nuevoContrato.getId()) != null) {
+                return informar("crearContrato", Resultado.ID_DUPLICADO, nuevoContrato.getId());
+            }
+
+            // 4. Establecer las referencias reales de Propiedad e Inquilino en el nuevoContrato
+            // Esto asegura que el contrato apunte a los objetos gestionados por GestorAlquileres.
+            nuevoContrato.setPropiedad(propiedadReal);
+            nuevoContrato.setInquilino(inquilinoReal);
+            nuevoContrato.setActivo(true); // Un contrato nuevo se crea como activo.
+
+            // 5. Guardar el contrato en el diario antes de aplicarlo
+            if (!registrar(TipoOperacion.CREAR_CONTRATO, nuevoContrato)) {
+                return informar("crearContrato", Resultado.ERROR_PERSISTENCIA, nuevoContrato.getId());
             }
+
+            // 6. Añadir el contrato al repositorio (que lo cuenta como vigente) y marcar la propiedad como alquilada
+            this.contratos.agregar(nuevoContrato);
+            propiedadReal.setAlquilada(true);
+            propiedades.guardar(propiedadReal);
+            avisarVencimiento(nuevoContrato);
         }
+        return informar("crearContrato", Resultado.EXITO, nuevoContrato.getId());
+    }
 
-        // 4. Establecer las referencias reales de Propiedad e Inquilino en el nuevoContrato
-        // Esto asegura que el contrato apunte a los objetos gestionados por GestorAlquileres.
-        nuevoContrato.setPropiedad(propiedadReal);
-        nuevoContrato.setInquilino(inquilinoReal);
-        nuevoContrato.setActivo(true); // Un contrato nuevo se crea como activo.
+    /**
+     * Crea un lote de contratos con las mismas validaciones que {@link #crearContrato(ContratoAlquiler)},
+     * bloqueando juntos los contratos, las propiedades y los inquilinos de todo el lote. Los contratos válidos
+     * se anotan en el diario con una sola espera y luego se insertan de una vez. Dentro del lote, una propiedad
+     * sólo puede alquilarse una vez: los contratos siguientes sobre la misma propiedad se rechazan como si ya
+     * estuviera alquilada.
+     * @param lote Los contratos a crear, con referencias a Propiedad e Inquilino.
+     * @return El resultado de cada contrato, en el mismo orden; ERROR_PERSISTENCIA para los válidos si no se
+     *         pudo guardar el lote en el diario (no se crea ninguno).
+     */
+    public List<Resultado> crearContratos(List<ContratoAlquiler> lote) {
+        Resultado[] resultados = new Resultado[lote.size()];
+        String[] ids = new String[resultados.length];
+        List<String> bloqueados = new ArrayList<>(lote.size() * 3);
+        for (int i = 0; i < resultados.length; i++) {
+            ContratoAlquiler contrato = lote.get(i);
+            if (contrato.getPropiedad() == null || contrato.getPropiedad().getId() == null ||
+                    contrato.getInquilino() == null || contrato.getInquilino().getId() == null) {
+                resultados[i] = Resultado.REFERENCIA_INVALIDA;
+            } else {
+                // Los IDs se asignan antes de bloquear, para bloquear también sus franjas
+                if (contrato.getId() == null || contrato.getId().trim().isEmpty()) {
+                    contrato.setId(generarSiguienteContratoId());
+                } else {
+                    generadorContratoId.observar(contrato.getId());
+                }
+                bloqueados.add(contrato.getId());
+                bloqueados.add(contrato.getPropiedad().getId());
+                bloqueados.add(contrato.getInquilino().getId());
+            }
+            ids[i] = contrato.getId();
+        }
 
-        // 5. Marcar la propiedad como alquilada
-        propiedadReal.setAlquilada(true);
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(bloqueados.toArray(new String[0]))) {
+            List<ContratoAlquiler> validos = new ArrayList<>(resultados.length);
+            List<byte[]> registros = new ArrayList<>();
+            Set<String> propiedadesDelLote = new HashSet<>();
+            Set<String> idsDelLote = new HashSet<>();
+            for (int i = 0; i < resultados.length; i++) {
+                if (resultados[i] != null) {
+                    continue;
+                }
+                ContratoAlquiler contrato = lote.get(i);
+                Propiedad propiedadReal = propiedades.obtener(contrato.getPropiedad().getId());
+                Inquilino inquilinoReal = inquilinos.obtener(contrato.getInquilino().getId());
+                if (propiedadReal == null || inquilinoReal == null) {
+                    resultados[i] = Resultado.REFERENCIA_INEXISTENTE;
+                } else if (propiedadReal.isAlquilada() || propiedadesDelLote.contains(AlmacenIndexado.normalizar(propiedadReal.getId()))) {
+                    resultados[i] = Resultado.PROPIEDAD_ALQUILADA;
+                } else if (!idsDelLote.add(AlmacenIndexado.normalizar(contrato.getId())) || contratos.obtener(contrato.getId()) != null) {
+                    resultados[i] = Resultado.ID_DUPLICADO;
+                } else {
+                    contrato.setPropiedad(propiedadReal);
+                    contrato.setInquilino(inquilinoReal);
+                    contrato.setActivo(true);
+                    propiedadesDelLote.add(AlmacenIndexado.normalizar(propiedadReal.getId()));
+                    validos.add(contrato);
+                    if (diario.isActivo()) {
+                        registros.add(CodificadorEntidades.registro(TipoOperacion.CREAR_CONTRATO, contrato));
+                    }
+                }
+            }
 
-        // 6. Añadir el contrato a la lista
-        this.contratos.add(nuevoContrato);
-        System.out.println("Contrato creado con exito para la propiedad '" + propiedadReal.getDireccion() + "' e inquilino '" + inquilinoReal.getNombre() + "'. ID: " + nuevoContrato.getId());
+            Resultado aplicado = escribirEnDiario(registros.toArray(new byte[0][])) ? Resultado.EXITO : Resultado.ERROR_PERSISTENCIA;
+            if (aplicado.isExitoso()) {
+                contratos.agregarTodas(validos);
+                for (ContratoAlquiler contrato : validos) {
+                    contrato.getPropiedad().setAlquilada(true);
+                    propiedades.guardar(contrato.getPropiedad());
+                    avisarVencimiento(contrato);
+                }
+            }
+            for (int i = 0; i < resultados.length; i++) {
+                if (resultados[i] == null) {
+                    resultados[i] = aplicado;
+                }
+            }
+        }
+        return informarLote("crearContratos", ids, resultados);
     }
 
     /**
@@ -330,7 +1311,26 @@ public class GestorAlquileres {
      * @return Una copia de la lista de todos los contratos.
      */
     public List<ContratoAlquiler> listarContratos() {
-        return new ArrayList<>(this.contratos);
+        return new ArrayList<>(this.contratos.valores());
+    }
+
+    /**
+     * Devuelve una página de contratos, en el orden de los listados, sin copiar el listado completo.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de contratos por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<ContratoAlquiler> listarContratos(String cursor, int tamanio) {
+        return contratos.pagina(cursor, tamanio);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de los contratos, sin copiarlos.
+     * La vista refleja el estado actual del gestor y es segura de recorrer mientras otros hilos escriben.
+     * @return Los contratos registrados, en el orden de los listados.
+     */
+    public Collection<ContratoAlquiler> vistaContratos() {
+        return contratos.valores();
     }
 
     /**
@@ -338,13 +1338,61 @@ public class GestorAlquileres {
      * @return Una lista de contratos activos.
      */
     public List<ContratoAlquiler> listarContratosActivos() {
-        List<ContratoAlquiler> activos = new ArrayList<>();
-        for (ContratoAlquiler c : contratos) {
-            if (c.isActivo()) {
-                activos.add(c);
-            }
+        return contratos.listarActivos();
+    }
+
+    /**
+     * Devuelve una página de los contratos activos, sin construir la lista completa.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de contratos por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<ContratoAlquiler> listarContratosActivos(String cursor, int tamanio) {
+        return contratos.paginaActivos(cursor, tamanio);
+    }
+
+    /**
+     * Lista los contratos activos que vencen en los próximos días, con el índice de fechas del repositorio.
+     * @param desde El primer día a considerar, normalmente hoy.
+     * @param dias La cantidad de días siguientes a considerar; con 0, sólo los que vencen en {@code desde}.
+     * @return Los contratos activos con fecha de fin entre {@code desde} y {@code desde + dias} inclusive,
+     *         ordenados por fecha de fin.
+     * @throws IllegalArgumentException Si la fecha es nula o la cantidad de días es negativa.
+     */
+    public List<ContratoAlquiler> listarContratosPorVencer(LocalDate desde, int dias) {
+        if (desde == null || dias < 0) {
+            throw new IllegalArgumentException("Se requiere una fecha y una cantidad de días no negativa: " + dias);
+        }
+        return contratos.listarPorVencer(desde, desde.plusDays(dias));
+    }
+
+    /**
+     * Lista los contratos cuyo período, de la fecha de inicio a la de fin, incluye un día. Se consideran
+     * las fechas del contrato y no su estado, así que también incluye los contratos ya finalizados.
+     * @param fecha El día.
+     * @return Los contratos vigentes ese día, en el orden de los listados; con nivel frío, los archivados van al final.
+     * @throws IllegalArgumentException Si la fecha es nula.
+     */
+    public List<ContratoAlquiler> listarContratosVigentesEn(LocalDate fecha) {
+        if (fecha == null) {
+            throw new IllegalArgumentException("Se requiere una fecha.");
+        }
+        return contratos.listarSuperpuestos(fecha, fecha);
+    }
+
+    /**
+     * Lista los contratos cuyo período tiene al menos un día en común con un rango de fechas, activos o no.
+     * @param desde El primer día del rango.
+     * @param hasta El último día del rango.
+     * @return Los contratos que se superponen con el rango, en el orden de los listados; con nivel frío, los
+     *         archivados van al final.
+     * @throws IllegalArgumentException Si alguna fecha es nula o el rango está invertido.
+     */
+    public List<ContratoAlquiler> listarContratosSuperpuestos(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new IllegalArgumentException("El rango de fechas no es válido: " + desde + " a " + hasta);
         }
-        return activos;
+        return contratos.listarSuperpuestos(desde, hasta);
     }
 
     /**
@@ -352,46 +1400,175 @@ public class GestorAlquileres {
      * Solo permite actualizar ciertos campos como fecha de finalización y valor mensual.
      * El estado 'activo' se maneja con el método finalizarContrato.
      * @param contratoActualizado El objeto ContratoAlquiler con los datos a actualizar.
-     * @return true si el contrato fue actualizado, false en caso de no encontrarlo.
+     * @return EXITO, NO_ENCONTRADO si el contrato no existe, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean actualizarContrato(ContratoAlquiler contratoActualizado) {
-        Optional<ContratoAlquiler> contratoEncontrado = buscarContratoPorId(contratoActualizado.getId());
-        if (contratoEncontrado.isPresent()) {
+    public Resultado actualizarContrato(ContratoAlquiler contratoActualizado) {
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(contratoActualizado.getId())) {
+            Optional<ContratoAlquiler> contratoEncontrado = buscarContratoPorId(contratoActualizado.getId());
+            if (!contratoEncontrado.isPresent()) {
+                return informar("actualizarContrato", Resultado.NO_ENCONTRADO, contratoActualizado.getId());
+            }
             ContratoAlquiler contratoExistente = contratoEncontrado.get();
+            // El diario recibe el estado final antes de modificar la instancia almacenada
+            ContratoAlquiler estadoFinal = new ContratoAlquiler(contratoExistente.getId(), contratoExistente.getFechaInicio(),
+                    contratoActualizado.getFechaFin(), contratoExistente.getPropiedad(), contratoExistente.getInquilino(), 0,
+                    contratoExistente.isActivo());
+            estadoFinal.setValorMensualCentavos(contratoActualizado.getValorMensualCentavos());
+            if (!registrar(TipoOperacion.ACTUALIZAR_CONTRATO, estadoFinal)) {
+                return informar("actualizarContrato", Resultado.ERROR_PERSISTENCIA, contratoActualizado.getId());
+            }
             contratoExistente.setFechaFin(contratoActualizado.getFechaFin());
-            contratoExistente.setValorMensual(contratoActualizado.getValorMensual());
-            System.out.println("Contrato '"+ contratoActualizado.getId() + "' actualizado con éxito.");
-            return true;
+            contratoExistente.setValorMensualCentavos(contratoActualizado.getValorMensualCentavos());
+            contratos.guardar(contratoExistente);
+            // Si cambió la fecha de fin, el barrido mueve el contrato en su cola
+            avisarVencimiento(contratoExistente);
+        }
+        return informar("actualizarContrato", Resultado.EXITO, contratoActualizado.getId());
+    }
+
+    /**
+     * Bloquea un contrato junto con su propiedad y su inquilino.
+     * Como la propiedad y el inquilino sólo se conocen después de buscar el contrato, quien llame
+     * debe verificar bajo el bloqueo que el contrato siga registrado.
+     */
+    private BloqueoEstriado.Bloqueo bloquearContrato(ContratoAlquiler contrato) {
+        return bloqueos.bloquear(contrato.getId(), contrato.getPropiedad().getId(), contrato.getInquilino().getId());
+    }
+
+    /**
+     * Bloquea el contrato registrado con el ID dado, junto con su propiedad y su inquilino.
+     * Mientras dure el bloqueo, el contrato no puede eliminarse, así que quien llame lo vuelve a buscar
+     * bajo el bloqueo y obtiene el mismo.
+     * @return El bloqueo, o null si no hay un contrato con ese ID.
+     */
+    private BloqueoEstriado.Bloqueo bloquearContrato(String id) {
+        return bloquearRegistrada(contratos, id, this::bloquearContrato, (actual, bloqueado) ->
+                mismoId(actual.getPropiedad(), bloqueado.getPropiedad()) && mismoId(actual.getInquilino(), bloqueado.getInquilino()));
+    }
+
+    /**
+     * Busca una entidad y adquiere el bloqueo que la protege, que depende de sus referencias y por eso
+     * sólo se conoce después de buscarla. Bajo el bloqueo se vuelve a buscar: si mientras tanto se eliminó
+     * y se creó de nuevo con el mismo ID pero otras referencias, el bloqueo adquirido no la protege y se
+     * repite con las referencias actuales.
+     * @param repositorio El repositorio de la entidad.
+     * @param id El ID de la entidad.
+     * @param bloquear Adquiere el bloqueo de una entidad según sus referencias.
+     * @param mismasReferencias Indica si la entidad actual tiene las mismas referencias que la bloqueada.
+     * @return El bloqueo, o null si no hay una entidad con ese ID.
+     */
+    private static <T> BloqueoEstriado.Bloqueo bloquearRegistrada(Repositorio<T> repositorio, String id,
+            Function<T, BloqueoEstriado.Bloqueo> bloquear, BiPredicate<T, T> mismasReferencias) {
+        T entidad = repositorio.obtener(id);
+        while (entidad != null) {
+            BloqueoEstriado.Bloqueo bloqueo = bloquear.apply(entidad);
+            T actual;
+            try {
+                actual = repositorio.obtener(id);
+            } catch (RuntimeException e) {
+                bloqueo.close();
+                throw e;
+            }
+            if (actual != null && mismasReferencias.test(actual, entidad)) {
+                return bloqueo;
+            }
+            bloqueo.close();
+            entidad = actual;
         }
-        System.out.println("Error: No se encontró el contrato con ID " + contratoActualizado.getId() + ".");
-        return false;
+        return null;
+    }
+
+    private static boolean mismoId(Propiedad a, Propiedad b) {
+        return AlmacenIndexado.normalizar(a.getId()).equals(AlmacenIndexado.normalizar(b.getId()));
+    }
+
+    private static boolean mismoId(Inquilino a, Inquilino b) {
+        return AlmacenIndexado.normalizar(a.getId()).equals(AlmacenIndexado.normalizar(b.getId()));
+    }
+
+    private static boolean mismoId(ContratoAlquiler a, ContratoAlquiler b) {
+        return AlmacenIndexado.normalizar(a.getId()).equals(AlmacenIndexado.normalizar(b.getId()));
     }
 
     /**
      * Finaliza un contrato de alquiler, marcándolo como inactivo y liberando la propiedad asociada.
      * @param contratoId El ID del contrato a finalizar.
-     * @return true si fue finalizado, false si no se encuentra o ya estaba inactivo.
+     * @return EXITO, NO_ENCONTRADO, CONTRATO_INACTIVO si ya estaba inactivo, o ERROR_PERSISTENCIA si no se pudo
+     *         guardar en el diario.
+     */
+    public Resultado finalizarContrato(String contratoId){
+        return finalizar("finalizarContrato", contratoId, null);
+    }
+
+    /**
+     * Finaliza un contrato que sacó de la cola el barrido de vencimientos. Los errores se informan al
+     * registro de eventos en lugar de propagarse.
+     * @param hoy El día de la revisión; el contrato se finaliza sólo si su fecha de fin es anterior.
+     * @return false si la finalización no se pudo guardar y el barrido debe reintentarla. Un gestor de solo
+     *         lectura ya no puede guardarla, así que no se reintenta: el contrato se finaliza cuando se
+     *         vuelvan a programar los vencimientos al abrir los datos otra vez.
+     */
+    private boolean vencerContrato(String contratoId, LocalDate hoy) {
+        try {
+            return finalizar("vencerContrato", contratoId, hoy) != Resultado.ERROR_PERSISTENCIA || isSoloLectura();
+        } catch (RuntimeException e) {
+            informar("vencerContrato", Resultado.ERROR_PERSISTENCIA, contratoId);
+            return isSoloLectura();
+        }
+    }
+
+    /**
+     * @param vencidoAntesDe Si no es null, el contrato sólo se finaliza si su fecha de fin es anterior a
+     *                       este día; se comprueba bajo el bloqueo porque pudo prorrogarse mientras tanto.
+     * @return EXITO, NO_ENCONTRADO, CONTRATO_INACTIVO, CONTRATO_VIGENTE si todavía no venció, o ERROR_PERSISTENCIA.
      */
-    public boolean finalizarContrato(String contratoId){
-        Optional<ContratoAlquiler> contratoEncontrado = buscarContratoPorId(contratoId);
-        if (contratoEncontrado.isPresent()) {
-            ContratoAlquiler contrato = contratoEncontrado.get();
+    private Resultado finalizar(String operacion, String contratoId, LocalDate vencidoAntesDe) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearContrato(contratoId)) {
+            ContratoAlquiler contrato = bloqueo == null ? null : contratos.obtener(contratoId);
+            if (contrato == null) {
+                return informar(operacion, Resultado.NO_ENCONTRADO, contratoId);
+            }
             if (!contrato.isActivo()) {
-                System.out.println("Error: El contrato " + contratoId + " ya está inactivo.");
-                return false;
+                return informar(operacion, Resultado.CONTRATO_INACTIVO, contratoId);
+            }
+            if (vencidoAntesDe != null && (contrato.getFechaFin() == null || !contrato.getFechaFin().isBefore(vencidoAntesDe))) {
+                return informar(operacion, Resultado.CONTRATO_VIGENTE, contratoId);
             }
 
+            // Al reproducirlo, el registro sólo necesita el ID del contrato y de su propiedad
+            if (!registrar(TipoOperacion.FINALIZAR_CONTRATO, contrato)) {
+                return informar(operacion, Resultado.ERROR_PERSISTENCIA, contratoId);
+            }
             contrato.setActivo(false);
-            contrato.getPropiedad().setAlquilada(false);
-            System.out.println("Contrato '" + contratoId + "' finalizado y propiedad '" + contrato.getPropiedad().getDireccion() + "' liberada.");
+            contratos.guardar(contrato);
+            liberarPropiedad(contrato);
+            avisarVencimiento(contrato);
 
             // Nota de diseño: En un sistema real con persistencia de pagos, los contratos no se eliminarían,
             // solo se inactivarían para mantener el historial de pagos.
-            System.out.println("Contrato '" + contratoId + "' inactivo.");
-            return true;
         }
-        System.out.println("Error: No se encontró el contrato con el ID " + contratoId + ".");
-        return false;
+        return informar(operacion, Resultado.EXITO, contratoId);
+    }
+
+    /**
+     * Avisa al barrido de vencimientos, si está programado, que un contrato se creó, cambió de fecha de
+     * fin o dejó de estar activo. Debe llamarse con el bloqueo del contrato adquirido.
+     */
+    private void avisarVencimiento(ContratoAlquiler contrato) {
+        BarridoVencimientos barrido = vencimientos;
+        if (barrido != null) {
+            barrido.programar(contrato);
+        }
+    }
+
+    /**
+     * Marca como libre la propiedad de un contrato que deja de estar vigente.
+     * Debe llamarse con el bloqueo del contrato adquirido.
+     */
+    private void liberarPropiedad(ContratoAlquiler contrato) {
+        Propiedad propiedad = contrato.getPropiedad();
+        propiedad.setAlquilada(false);
+        propiedades.guardar(propiedad);
     }
 
     /**
@@ -401,45 +1578,51 @@ public class GestorAlquileres {
      * para mantener la integridad referencial.
      *
      * @param id El ID del contrato a eliminar.
-     * @return true si el contrato fue eliminado, false si no se encontró o no se pudo eliminar.
+     * @return EXITO, NO_ENCONTRADO si el contrato no existe, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean eliminarContrato(String id) {
-        Optional<ContratoAlquiler> contratoEncontrado = buscarContratoPorId(id);
-        if (contratoEncontrado.isPresent()) {
-            ContratoAlquiler contrato = contratoEncontrado.get();
-
-            // Antes de eliminar el contrato, eliminar todos los pagos asociados para mantener la integridad
-            // Se hace una copia de la lista para evitar ConcurrentModificationException al modificar la lista original.
-            List<Pago> pagosAEliminar = new ArrayList<>(listarPagosPorContrato(id));
-            for (Pago pago : pagosAEliminar) {
-                eliminarPago(pago.getId());
+    public Resultado eliminarContrato(String id) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearContrato(id)) {
+            ContratoAlquiler contrato = bloqueo == null ? null : contratos.obtener(id);
+            if (contrato == null) {
+                return informar("eliminarContrato", Resultado.NO_ENCONTRADO, id);
+            }
+            // Basta con anotar la baja del contrato: al reproducirla se eliminan también sus pagos.
+            // Se anota el contrato completo para poder liberar su propiedad aunque el contrato no figure en la instantánea.
+            if (!registrar(TipoOperacion.ELIMINAR_CONTRATO, contrato)) {
+                return informar("eliminarContrato", Resultado.ERROR_PERSISTENCIA, id);
+            }
+            // Antes de eliminar el contrato, eliminar todos los pagos asociados para mantener la integridad.
+            if (libroPagos != null) {
+                for (Pago pago : pagos.listarPorContrato(contrato.getId())) {
+                    libroPagos.anular(pago);
+                }
             }
-            System.out.println("Se han eliminado los pagos asociados al contrato '" + id + "'.");
+            pagos.eliminarPorContrato(contrato.getId());
 
             // Si el contrato estaba activo, liberar la propiedad
             if (contrato.isActivo()) {
-                contrato.getPropiedad().setAlquilada(false);
-                System.out.println("Propiedad '" + contrato.getPropiedad().getDireccion() + "' liberada al eliminar el contrato.");
+                liberarPropiedad(contrato);
             }
 
-            // Finalmente, elimina el contrato de la lista
-            contratos.remove(contrato);
-            System.out.println("Contrato '" + id + "' eliminado permanentemente del sistema.");
-            return true;
+            // Finalmente, elimina el contrato del repositorio
+            contratos.eliminar(contrato.getId());
+            BarridoVencimientos barrido = vencimientos;
+            if (barrido != null) {
+                barrido.quitar(contrato.getId());
+            }
         }
-        System.out.println("Error: No se encontró el contrato con el ID " + id + " para eliminar.");
-        return false;
+        return informar("eliminarContrato", Resultado.EXITO, id);
     }
 
 
     // ----- Pago -----
 
     /**
-     * Genera un ID único para un nuevo pago en formato "PAGXXX".
+     * Genera un ID único para un nuevo pago con el prefijo "PAG" (por defecto, "PAG" seguido de un número de ancho fijo).
      * @return El ID generado.
      */
     private String generarSiguientePagoId() {
-        return String.format("PAG%03d", nextPagoId++);
+        return generadorPagoId.siguiente();
     }
 
     /**
@@ -447,7 +1630,26 @@ public class GestorAlquileres {
      * @return Una copia de la lista de todos los pagos.
      */
     public List<Pago> listarPagos() {
-        return new ArrayList<>(this.pagos);
+        return new ArrayList<>(this.pagos.valores());
+    }
+
+    /**
+     * Devuelve una página de pagos, en el orden de los listados, sin copiar el listado completo.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de pagos por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<Pago> listarPagos(String cursor, int tamanio) {
+        return pagos.pagina(cursor, tamanio);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de los pagos, sin copiarlos.
+     * La vista refleja el estado actual del gestor y es segura de recorrer mientras otros hilos escriben.
+     * @return Los pagos registrados, en el orden de los listados.
+     */
+    public Collection<Pago> vistaPagos() {
+        return pagos.valores();
     }
 
     /**
@@ -456,51 +1658,55 @@ public class GestorAlquileres {
      * @return Un Optional que contiene el Pago si se encuentra, o un Optional vacío si no.
      */
     public Optional<Pago> buscarPagoPorId(String id) {
-        for (Pago p : pagos) {
-            if (p.getId().equalsIgnoreCase(id)) {
-                return Optional.of(p);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(pagos.obtener(id));
     }
 
     /**
      * Registra un nuevo pago en el sistema.
+     * Sólo bloquea el contrato del pago y el ID del pago, por lo que pagos de contratos distintos no compiten entre sí.
      * @param nuevoPago El pago a registrar (debe referenciar un contrato existente por ID).
+     * @return EXITO, o el motivo por el que no se registró (REFERENCIA_INVALIDA, REFERENCIA_INEXISTENTE, ID_DUPLICADO
+     *         o ERROR_PERSISTENCIA).
      */
-    public void registrarPago(Pago nuevoPago) {
+    public Resultado registrarPago(Pago nuevoPago) {
         // Validar que el pago referencia a un contrato con ID válido
         if (nuevoPago.getContrato() == null || nuevoPago.getContrato().getId() == null) {
-            System.out.println("Error: El nuevo pago debe referenciar un Contrato de Alquiler válido (con ID).");
-            return;
-        }
-
-        // 1. Validar que el contrato exista
-        Optional<ContratoAlquiler> contratoEncontrado = buscarContratoPorId(nuevoPago.getContrato().getId());
-        if (!contratoEncontrado.isPresent()) {
-            System.out.println("Error: El contrato con ID " + nuevoPago.getContrato().getId() + " no existe.");
-            return;
+            return informar("registrarPago", Resultado.REFERENCIA_INVALIDA, nuevoPago.getId());
         }
 
-        ContratoAlquiler contratoReal = contratoEncontrado.get();
-
-        // 2. Asignar el ID al pago si no lo tiene, o verificar que el ID proporcionado no exista
+        // Asignar el ID al pago si no lo tiene, antes de bloquear, para bloquear también su franja
         if (nuevoPago.getId() == null || nuevoPago.getId().trim().isEmpty()) {
             nuevoPago.setId(generarSiguientePagoId());
         } else {
-            if (buscarPagoPorId(nuevoPago.getId()).isPresent()) {
-                System.out.println("Error: El pago con ID " + nuevoPago.getId() + " ya existe.");
-                return;
-            }
+            generadorPagoId.observar(nuevoPago.getId()); // Evita que el generador repita un ID ingresado manualmente
         }
 
-        // 3. Establecer la referencia real al Contrato en el nuevoPago
-        nuevoPago.setContrato(contratoReal);
-        nuevoPago.setConfirmado(false); // Por defecto, un pago nuevo no está confirmado.
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(nuevoPago.getContrato().getId(), nuevoPago.getId())) {
+            // 1. Validar que el contrato exista
+            Optional<ContratoAlquiler> contratoEncontrado = buscarContratoPorId(nuevoPago.getContrato().getId());
+            if (!contratoEncontrado.isPresent()) {
+                return informar("registrarPago", Resultado.REFERENCIA_INEXISTENTE, nuevoPago.getContrato().getId());
+            }
+
+            ContratoAlquiler contratoReal = contratoEncontrado.get();
+
+            // 2. Validar que el ID no exista; toda alta bloquea la franja de su ID, así que nadie puede agregarlo hasta insertarlo
+            if (pagos.obtener(nuevoPago.getId()) != null) {
+                return informar("registrarPago", Resultado.ID_DUPLICADO, nuevoPago.getId());
+            }
+
+            // 3. Establecer la referencia real al Contrato en el nuevoPago
+            nuevoPago.setContrato(contratoReal);
+            nuevoPago.setConfirmado(false); // Por defecto, un pago nuevo no está confirmado.
 
-        // Añadir el pago a la lista.
-        this.pagos.add(nuevoPago);
-        System.out.println("Pago registrado para el contrato " + contratoReal.getId() + " del periodo " + nuevoPago.getPeriodoCorrespondiente() + ". ID: " + nuevoPago.getId());
+            if (!registrar(TipoOperacion.REGISTRAR_PAGO, nuevoPago)) {
+                return informar("registrarPago", Resultado.ERROR_PERSISTENCIA, nuevoPago.getId());
+            }
+            // Añadir el pago al repositorio, que también lo indexa por contrato.
+            this.pagos.agregar(nuevoPago);
+            asentarPago(nuevoPago);
+        }
+        return informar("registrarPago", Resultado.EXITO, nuevoPago.getId());
     }
 
     /**
@@ -509,35 +1715,203 @@ public class GestorAlquileres {
      * @return Una lista de pagos de ese contrato.
      */
     public List<Pago> listarPagosPorContrato(String contratoId) {
-        List<Pago> pagosDelContrato = new ArrayList<>();
-        for (Pago p : pagos) {
-            if (p.getContrato() != null && p.getContrato().getId().equalsIgnoreCase(contratoId)) {
-                pagosDelContrato.add(p);
+        if (contratoId == null) {
+            return new ArrayList<>();
+        }
+        return pagos.listarPorContrato(contratoId);
+    }
+
+    /**
+     * Devuelve una página de los pagos de un contrato, recorriendo sólo los pagos de ese contrato.
+     * @param contratoId El ID del contrato cuyos pagos se desean listar.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de pagos por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<Pago> listarPagosPorContrato(String contratoId, String cursor, int tamanio) {
+        return pagos.paginaPorContrato(contratoId, cursor, tamanio);
+    }
+
+    /**
+     * Lista los IDs de los contratos archivados en el nivel frío, cuyos pagos no aparecen en
+     * {@link #listarPagos(String, int)}; se obtienen con {@link #listarPagosPorContrato(String, String, int)}.
+     * @return Los IDs de los contratos archivados, o una lista vacía si el gestor no usa el nivel frío.
+     */
+    public List<String> listarIdsContratosArchivados() {
+        List<String> ids = new ArrayList<>();
+        if (nivelFrio != null) {
+            for (NivelFrio.Entrada archivado : nivelFrio.entradas()) {
+                ids.add(archivado.getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lista los pagos de un rango de períodos correspondientes (AAAA-MM), usando el índice por período.
+     * Los pagos con un período en otro formato no se incluyen.
+     * @param desde El período mínimo, o null para no limitar.
+     * @param hasta El período máximo, o null para no limitar.
+     * @return Los pagos, en el orden de los listados; con nivel frío, los de contratos archivados van al final.
+     */
+    public List<Pago> listarPagosPorPeriodo(YearMonth desde, YearMonth hasta) {
+        return pagos.listarPorPeriodo(desde, hasta);
+    }
+
+    /**
+     * Lista los pagos de un contrato en un rango de períodos correspondientes (AAAA-MM).
+     * @param contratoId El ID del contrato.
+     * @param desde El período mínimo, o null para no limitar.
+     * @param hasta El período máximo, o null para no limitar.
+     * @return Los pagos, en el orden de los listados.
+     */
+    public List<Pago> listarPagosPorContratoYPeriodo(String contratoId, YearMonth desde, YearMonth hasta) {
+        if (contratoId == null) {
+            return new ArrayList<>();
+        }
+        return pagos.listarPorContratoYPeriodo(contratoId, desde, hasta);
+    }
+
+    /**
+     * @param contratoId El ID del contrato.
+     * @return Los períodos con al menos un pago registrado del contrato, en orden cronológico.
+     */
+    public List<YearMonth> listarPeriodosPagados(String contratoId) {
+        if (contratoId == null) {
+            return new ArrayList<>();
+        }
+        return pagos.listarPeriodosPagados(contratoId);
+    }
+
+    /**
+     * Detecta los meses de un contrato que no tienen ningún pago registrado, desde el mes de inicio del
+     * contrato hasta su mes de fin o hasta el período indicado, lo que ocurra primero. Recorre los períodos
+     * pagados, ya ordenados, en paralelo con los meses del contrato.
+     * @param contratoId El ID del contrato.
+     * @param hasta El último período a revisar, o null para revisar hasta el fin del contrato.
+     * @return Los períodos sin pagos, en orden cronológico; vacía si el contrato no existe.
+     */
+    public List<YearMonth> listarPeriodosAdeudados(String contratoId, YearMonth hasta) {
+        List<YearMonth> adeudados = new ArrayList<>();
+        ContratoAlquiler contrato = contratoId == null ? null : contratos.obtener(contratoId);
+        if (contrato == null || contrato.getFechaInicio() == null) {
+            return adeudados;
+        }
+        YearMonth ultimo = contrato.getFechaFin() == null ? hasta : YearMonth.from(contrato.getFechaFin());
+        if (ultimo == null) {
+            return adeudados;
+        }
+        if (hasta != null && hasta.isBefore(ultimo)) {
+            ultimo = hasta;
+        }
+        int fin = Periodo.codificar(ultimo);
+        List<YearMonth> pagados = pagos.listarPeriodosPagados(contratoId);
+        int siguientePagado = 0;
+        for (int mes = Periodo.codificar(YearMonth.from(contrato.getFechaInicio())); mes <= fin; mes = Periodo.siguiente(mes)) {
+            while (siguientePagado < pagados.size() && Periodo.codificar(pagados.get(siguientePagado)) < mes) {
+                siguientePagado++;
+            }
+            if (siguientePagado == pagados.size() || Periodo.codificar(pagados.get(siguientePagado)) != mes) {
+                adeudados.add(Periodo.decodificar(mes));
+            }
+        }
+        return adeudados;
+    }
+
+    /**
+     * Suma los pagos por fecha de pago. En un gestor persistente se resuelve con el libro de pagos, que
+     * incluye los pagos archivados; en memoria, recorriendo los pagos.
+     * @param contratoId El contrato de los pagos, o null para todos.
+     * @param desde La fecha de pago mínima, o null para no limitar.
+     * @param hasta La fecha de pago máxima, o null para no limitar.
+     * @param soloConfirmados true para sumar sólo los pagos confirmados.
+     * @return La cantidad y la suma de los pagos.
+     */
+    public ResumenPagos resumirPagos(String contratoId, LocalDate desde, LocalDate hasta, boolean soloConfirmados) {
+        if (libroPagos != null) {
+            return libroPagos.resumir(contratoId, desde, hasta, soloConfirmados);
+        }
+        long cantidad = 0;
+        long total = 0;
+        for (Pago pago : contratoId == null ? pagos.valores() : pagos.listarPorContrato(contratoId)) {
+            LocalDate fecha = pago.getFechaPago();
+            if ((soloConfirmados && !pago.isConfirmado())
+                    || ((desde != null || hasta != null) && fecha == null)
+                    || (desde != null && fecha.isBefore(desde)) || (hasta != null && fecha.isAfter(hasta))) {
+                continue;
+            }
+            cantidad++;
+            total += pago.getValorPagoCentavos();
+        }
+        return new ResumenPagos(cantidad, total);
+    }
+
+    /**
+     * Suma los pagos por período correspondiente (AAAA-MM). Los pagos con un período en otro formato
+     * sólo se incluyen si no se limita el período.
+     * @param contratoId El contrato de los pagos, o null para todos.
+     * @param desde El período mínimo, o null para no limitar.
+     * @param hasta El período máximo, o null para no limitar.
+     * @param soloConfirmados true para sumar sólo los pagos confirmados.
+     * @return La cantidad y la suma de los pagos.
+     */
+    public ResumenPagos resumirPagosPorPeriodo(String contratoId, YearMonth desde, YearMonth hasta, boolean soloConfirmados) {
+        if (libroPagos != null) {
+            return libroPagos.resumirPorPeriodo(contratoId, desde, hasta, soloConfirmados);
+        }
+        long cantidad = 0;
+        long total = 0;
+        for (Pago pago : contratoId == null ? pagos.valores() : pagos.listarPorContrato(contratoId)) {
+            if (soloConfirmados && !pago.isConfirmado()) {
+                continue;
             }
+            if (desde != null || hasta != null) {
+                YearMonth periodo = pago.getPeriodo();
+                if (periodo == null || (desde != null && periodo.isBefore(desde)) || (hasta != null && periodo.isAfter(hasta))) {
+                    continue;
+                }
+            }
+            cantidad++;
+            total += pago.getValorPagoCentavos();
         }
-        return pagosDelContrato;
+        return new ResumenPagos(cantidad, total);
+    }
+
+    /**
+     * Bloquea el contrato del pago registrado con el ID dado. Todas las escrituras sobre pagos se
+     * serializan por contrato, que es también la franja que protege el índice de pagos por contrato.
+     * Mientras dure el bloqueo, el pago no puede eliminarse ni pasar a otro contrato.
+     * @return El bloqueo, o null si no hay un pago con ese ID.
+     */
+    private BloqueoEstriado.Bloqueo bloquearPago(String id) {
+        return bloquearRegistrada(pagos, id, pago -> bloqueos.bloquear(pago.getContrato().getId()),
+                (actual, bloqueado) -> mismoId(actual.getContrato(), bloqueado.getContrato()));
     }
 
     /**
      * Marca un pago como confirmado (recibido y procesado).
      * @param pagoId El ID del pago a confirmar.
-     * @return true si el pago fue confirmado, false si no se encontró o ya estaba confirmado.
-     */
-    public boolean confirmarPago(String pagoId) {
-        Optional<Pago> pagoEncontrado = buscarPagoPorId(pagoId);
-        if (pagoEncontrado.isPresent()) {
-            Pago pago = pagoEncontrado.get();
-            if (!pago.isConfirmado()) {
-                pago.setConfirmado(true);
-                System.out.println("Pago " + pago.getId() + " confirmado.");
-                return true;
-            } else {
-                System.out.println("El pago con ID " + pagoId + " ya estaba confirmado.");
-                return false;
+     * @return EXITO, NO_ENCONTRADO, PAGO_YA_CONFIRMADO si ya estaba confirmado, o ERROR_PERSISTENCIA si no se pudo
+     *         guardar en el diario.
+     */
+    public Resultado confirmarPago(String pagoId) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearPago(pagoId)) {
+            Pago pago = bloqueo == null ? null : pagos.obtener(pagoId);
+            if (pago == null) {
+                return informar("confirmarPago", Resultado.NO_ENCONTRADO, pagoId);
             }
+            if (pago.isConfirmado()) {
+                return informar("confirmarPago", Resultado.PAGO_YA_CONFIRMADO, pagoId);
+            }
+            if (!registrar(TipoOperacion.CONFIRMAR_PAGO, pago.getId())) {
+                return informar("confirmarPago", Resultado.ERROR_PERSISTENCIA, pagoId);
+            }
+            anularPago(pago);
+            pago.setConfirmado(true);
+            pagos.guardar(pago);
+            asentarPago(pago);
         }
-        System.out.println("Error: Pago con ID " + pagoId + " no encontrado para confirmar.");
-        return false;
+        return informar("confirmarPago", Resultado.EXITO, pagoId);
     }
 
     /**
@@ -545,21 +1919,30 @@ public class GestorAlquileres {
      * Permite actualizar fechaPago, monto y periodoCorrespondiente.
      * El estado de confirmado se maneja con el método confirmarPago.
      * @param pagoActualizado El objeto Pago con los datos actualizados.
-     * @return true si el pago fue actualizado, false si no se encontró.
+     * @return EXITO, NO_ENCONTRADO si el pago no existe, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean actualizarPago(Pago pagoActualizado) {
-        Optional<Pago> pagoEncontrado = buscarPagoPorId(pagoActualizado.getId());
-        if (pagoEncontrado.isPresent()) {
-            Pago pagoExistente = pagoEncontrado.get();
+    public Resultado actualizarPago(Pago pagoActualizado) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearPago(pagoActualizado.getId())) {
+            Pago pagoExistente = bloqueo == null ? null : pagos.obtener(pagoActualizado.getId());
+            if (pagoExistente == null) {
+                return informar("actualizarPago", Resultado.NO_ENCONTRADO, pagoActualizado.getId());
+            }
+            // El diario recibe el estado final antes de modificar el pago almacenado
+            Pago estadoFinal = new Pago(pagoExistente.getId(), pagoExistente.getContrato(), pagoActualizado.getFechaPago(), 0,
+                    pagoExistente.isConfirmado(), pagoActualizado.getPeriodoCorrespondiente());
+            estadoFinal.setValorPagoCentavos(pagoActualizado.getValorPagoCentavos());
+            if (!registrar(TipoOperacion.ACTUALIZAR_PAGO, estadoFinal)) {
+                return informar("actualizarPago", Resultado.ERROR_PERSISTENCIA, pagoActualizado.getId());
+            }
+            anularPago(pagoExistente);
             pagoExistente.setFechaPago(pagoActualizado.getFechaPago());
-            pagoExistente.setValorPago(pagoActualizado.getValorPago());
+            pagoExistente.setValorPagoCentavos(pagoActualizado.getValorPagoCentavos());
             pagoExistente.setPeriodoCorrespondiente(pagoActualizado.getPeriodoCorrespondiente());
-
-            System.out.println("Pago '" + pagoActualizado.getId() + "' actualizado correctamente.");
-            return true;
+            // El contrato de un pago no se modifica aquí, por lo que el índice por contrato sigue siendo válido.
+            pagos.guardar(pagoExistente);
+            asentarPago(pagoExistente);
         }
-        System.out.println("Error: No se encontró el pago con el ID " + pagoActualizado.getId() + " para actualizar.");
-        return false;
+        return informar("actualizarPago", Resultado.EXITO, pagoActualizado.getId());
     }
 
     /**
@@ -567,28 +1950,32 @@ public class GestorAlquileres {
      * Nota: En sistemas reales, los pagos raramente se eliminan de forma definitiva;
      * en su lugar, se "anulan" o "reversan" para mantener un registro de auditoría.
      * @param id El ID del pago a eliminar.
-     * @return true si el pago fue eliminado, false si no se encontró.
+     * @return EXITO, NO_ENCONTRADO si el pago no existe, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean eliminarPago(String id) {
-        Optional<Pago> pagoEncontrado = buscarPagoPorId(id);
-        if (pagoEncontrado.isPresent()) {
-            pagos.remove(pagoEncontrado.get());
-            System.out.println("Pago '" + id + "' eliminado correctamente.");
-            return true;
+    public Resultado eliminarPago(String id) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearPago(id)) {
+            Pago pago = bloqueo == null ? null : pagos.obtener(id);
+            if (pago == null) {
+                return informar("eliminarPago", Resultado.NO_ENCONTRADO, id);
+            }
+            if (!registrar(TipoOperacion.ELIMINAR_PAGO, pago.getId())) {
+                return informar("eliminarPago", Resultado.ERROR_PERSISTENCIA, id);
+            }
+            pagos.eliminar(pago.getId());
+            anularPago(pago);
         }
-        System.out.println("Error: No se encontró el pago con el ID " + id + " para eliminar.");
-        return false;
+        return informar("eliminarPago", Resultado.EXITO, id);
     }
 
 
     // ----- Incidencia -----
 
     /**
-     * Genera un ID único para una nueva incidencia en formato "INCXXX".
+     * Genera un ID único para una nueva incidencia con el prefijo "INC" (por defecto, "INC" seguido de un número de ancho fijo).
      * @return El ID generado.
      */
     public String generarSiguienteIncidenciaId() {
-        return String.format("INC%03d", nextIncidenciaId++);
+        return generadorIncidenciaId.siguiente();
     }
 
 
@@ -598,51 +1985,55 @@ public class GestorAlquileres {
      * @return Un Optional que contiene la Incidencia si se encuentra, o un Optional vacío si no.
      */
     public Optional<Incidencia> buscarIncidenciaPorId(String id) {
-        for (Incidencia i : incidencias) {
-            if (i.getId().equalsIgnoreCase(id)) {
-                return Optional.of(i);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(incidencias.obtener(id));
     }
 
     /**
      * Reporta una nueva incidencia para una propiedad.
+     * Se bloquea la propiedad para que la regla de eliminación de propiedades con
+     * incidencias pendientes no pueda intercalarse con el alta.
      * @param nuevaIncidencia El objeto Incidencia a reportar (debe referenciar una propiedad existente por ID).
+     * @return EXITO, o el motivo por el que no se reportó (REFERENCIA_INVALIDA, REFERENCIA_INEXISTENTE, ID_DUPLICADO
+     *         o ERROR_PERSISTENCIA).
      */
-    public void reportarIncidencia(Incidencia nuevaIncidencia) {
+    public Resultado reportarIncidencia(Incidencia nuevaIncidencia) {
         // Validar que la incidencia referencia una propiedad con ID válido
         if (nuevaIncidencia.getPropiedad() == null || nuevaIncidencia.getPropiedad().getId() == null) {
-            System.out.println("Error: La incidencia debe referenciar una Propiedad válida (con ID).");
-            return;
-        }
-
-        // 1. Validar que la propiedad exista
-        Optional<Propiedad> propOpt = buscarPropiedadPorId(nuevaIncidencia.getPropiedad().getId());
-        if (!propOpt.isPresent()) {
-            System.out.println("Error: La propiedad con ID " + nuevaIncidencia.getPropiedad().getId() + " no existe.");
-            return;
+            return informar("reportarIncidencia", Resultado.REFERENCIA_INVALIDA, nuevaIncidencia.getId());
         }
 
-        Propiedad propiedadReal = propOpt.get(); // Obtener la instancia real de la propiedad
-
-        // 2. Asignar el ID a la incidencia si no lo tiene, o verificar que el ID proporcionado no exista
+        // Asignar el ID a la incidencia si no lo tiene, antes de bloquear, para bloquear también su franja
         if (nuevaIncidencia.getId() == null || nuevaIncidencia.getId().trim().isEmpty()) {
             nuevaIncidencia.setId(generarSiguienteIncidenciaId());
         } else {
-            if (buscarIncidenciaPorId(nuevaIncidencia.getId()).isPresent()) {
-                System.out.println("Error: Ya existe una incidencia con el ID " + nuevaIncidencia.getId() + ".");
-                return;
-            }
+            generadorIncidenciaId.observar(nuevaIncidencia.getId()); // Evita que el generador repita un ID ingresado manualmente
         }
 
-        // 3. Establecer la referencia real a la Propiedad en la nuevaIncidencia
-        nuevaIncidencia.setPropiedad(propiedadReal);
-        nuevaIncidencia.setEstado("Pendiente"); // Estado inicial por defecto para una nueva incidencia.
+        try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(nuevaIncidencia.getId(), nuevaIncidencia.getPropiedad().getId())) {
+            // 1. Validar que la propiedad exista
+            Optional<Propiedad> propOpt = buscarPropiedadPorId(nuevaIncidencia.getPropiedad().getId());
+            if (!propOpt.isPresent()) {
+                return informar("reportarIncidencia", Resultado.REFERENCIA_INEXISTENTE, nuevaIncidencia.getPropiedad().getId());
+            }
+
+            Propiedad propiedadReal = propOpt.get(); // Obtener la instancia real de la propiedad
+
+            // 2. Validar que el ID no exista; toda alta bloquea la franja de su ID, así que nadie puede agregarlo hasta insertarla
+            if (incidencias.obtener(nuevaIncidencia.getId()) != null) {
+                return informar("reportarIncidencia", Resultado.ID_DUPLICADO, nuevaIncidencia.getId());
+            }
+
+            // 3. Establecer la referencia real a la Propiedad en la nuevaIncidencia
+            nuevaIncidencia.setPropiedad(propiedadReal);
+            nuevaIncidencia.setEstado(EstadoIncidencia.PENDIENTE); // Estado inicial para una nueva incidencia.
 
-        // 4. Añadir la incidencia a la lista
-        this.incidencias.add(nuevaIncidencia);
-        System.out.println("Incidencia reportada para la propiedad '" + propiedadReal.getDireccion() + "'. ID: " + nuevaIncidencia.getId());
+            if (!registrar(TipoOperacion.REPORTAR_INCIDENCIA, nuevaIncidencia)) {
+                return informar("reportarIncidencia", Resultado.ERROR_PERSISTENCIA, nuevaIncidencia.getId());
+            }
+            // 4. Añadir la incidencia al repositorio, que la cuenta como abierta
+            this.incidencias.agregar(nuevaIncidencia);
+        }
+        return informar("reportarIncidencia", Resultado.EXITO, nuevaIncidencia.getId());
     }
 
     /**
@@ -650,7 +2041,26 @@ public class GestorAlquileres {
      * @return Una copia de la lista de todas las incidencias.
      */
     public List<Incidencia> listarIncidencias() {
-        return new ArrayList<>(this.incidencias);
+        return new ArrayList<>(this.incidencias.valores());
+    }
+
+    /**
+     * Devuelve una página de incidencias, en el orden de los listados, sin copiar el listado completo.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de incidencias por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<Incidencia> listarIncidencias(String cursor, int tamanio) {
+        return incidencias.pagina(cursor, tamanio);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura de las incidencias, sin copiarlas.
+     * La vista refleja el estado actual del gestor y es segura de recorrer mientras otros hilos escriben.
+     * @return Las incidencias registradas, en el orden de los listados.
+     */
+    public Collection<Incidencia> vistaIncidencias() {
+        return incidencias.valores();
     }
 
     /**
@@ -659,51 +2069,139 @@ public class GestorAlquileres {
      * @return Una lista de incidencias de esa propiedad.
      */
     public List<Incidencia> listarIncidenciasPorPropiedad(String propiedadId) {
-        List<Incidencia> incidenciasDePropiedad = new ArrayList<>();
-        for (Incidencia i : incidencias) {
-            if (i.getPropiedad() != null && i.getPropiedad().getId().equalsIgnoreCase(propiedadId)) {
-                incidenciasDePropiedad.add(i);
-            }
-        }
-        return incidenciasDePropiedad;
+        return incidencias.listarPorPropiedad(propiedadId);
+    }
+
+    /**
+     * Devuelve una página de las incidencias de una propiedad, sin construir la lista completa.
+     * @param propiedadId El ID de la propiedad cuyas incidencias se desean listar.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de incidencias por página.
+     * @return La página solicitada, con el cursor para pedir la siguiente.
+     */
+    public Pagina<Incidencia> listarIncidenciasPorPropiedad(String propiedadId, String cursor, int tamanio) {
+        return incidencias.paginaPorPropiedad(propiedadId, cursor, tamanio);
+    }
+
+    /**
+     * Bloquea la incidencia registrada con el ID dado junto con su propiedad, cuyo contador de
+     * incidencias abiertas puede cambiar. Mientras dure el bloqueo, la incidencia no puede eliminarse.
+     * @return El bloqueo, o null si no hay una incidencia con ese ID.
+     */
+    private BloqueoEstriado.Bloqueo bloquearIncidencia(String id) {
+        return bloquearRegistrada(incidencias, id,
+                incidencia -> bloqueos.bloquear(incidencia.getId(), incidencia.getPropiedad().getId()),
+                (actual, bloqueada) -> mismoId(actual.getPropiedad(), bloqueada.getPropiedad()));
     }
 
     /**
      * Actualiza la información de una incidencia existente.
-     * Permite actualizar descripción, fechaReporte, estado y costoEstimado.
+     * Permite actualizar descripción, fechaReporte, estado y costoEstimado. El cambio de estado se
+     * valida con {@link EstadoIncidencia#puedePasarA(EstadoIncidencia)}.
      * @param incidenciaActualizada El objeto Incidencia con los datos actualizados.
-     * @return true si la incidencia fue actualizada, false si no se encontró.
+     * @return EXITO, NO_ENCONTRADO si la incidencia no existe, TRANSICION_INVALIDA si el estado actual
+     *         no puede pasar al nuevo, o ERROR_PERSISTENCIA si no se pudo guardar en el diario (en esos
+     *         casos no se modifica ningún dato).
      */
-    public boolean actualizarIncidencia(Incidencia incidenciaActualizada) {
-        Optional<Incidencia> incidenciaEncontrada = buscarIncidenciaPorId(incidenciaActualizada.getId());
-        if (incidenciaEncontrada.isPresent()) {
-            Incidencia incidenciaExistente = incidenciaEncontrada.get();
+    public Resultado actualizarIncidencia(Incidencia incidenciaActualizada) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearIncidencia(incidenciaActualizada.getId())) {
+            Incidencia incidenciaExistente = bloqueo == null ? null : incidencias.obtener(incidenciaActualizada.getId());
+            if (incidenciaExistente == null) {
+                return informar("actualizarIncidencia", Resultado.NO_ENCONTRADO, incidenciaActualizada.getId());
+            }
+            if (!incidenciaExistente.getEstado().puedePasarA(incidenciaActualizada.getEstado())) {
+                return informar("actualizarIncidencia", Resultado.TRANSICION_INVALIDA, incidenciaActualizada.getId());
+            }
+            // El diario recibe el estado final antes de modificar la incidencia almacenada
+            Incidencia estadoFinal = new Incidencia(incidenciaExistente.getId(), incidenciaExistente.getPropiedad(),
+                    incidenciaActualizada.getDescripcion(), incidenciaActualizada.getFecha(), incidenciaActualizada.getEstado(), 0);
+            estadoFinal.setCostoEstimadoCentavos(incidenciaActualizada.getCostoEstimadoCentavos());
+            if (!registrar(TipoOperacion.ACTUALIZAR_INCIDENCIA, estadoFinal)) {
+                return informar("actualizarIncidencia", Resultado.ERROR_PERSISTENCIA, incidenciaActualizada.getId());
+            }
             incidenciaExistente.setDescripcion(incidenciaActualizada.getDescripcion());
             incidenciaExistente.setFecha(incidenciaActualizada.getFecha());
             incidenciaExistente.setEstado(incidenciaActualizada.getEstado());
-            incidenciaExistente.setCostoEstimado(incidenciaActualizada.getCostoEstimado());
+            incidenciaExistente.setCostoEstimadoCentavos(incidenciaActualizada.getCostoEstimadoCentavos());
+            incidencias.guardar(incidenciaExistente);
+        }
+        return informar("actualizarIncidencia", Resultado.EXITO, incidenciaActualizada.getId());
+    }
 
-            System.out.println("Incidencia '" + incidenciaActualizada.getId() + "' actualizada correctamente.");
-            return true;
+    /**
+     * Cambia el estado de una incidencia, validando la transición.
+     * @param id El ID de la incidencia.
+     * @param nuevoEstado El estado nuevo.
+     * @return EXITO, NO_ENCONTRADO, TRANSICION_INVALIDA si el estado actual no puede pasar al nuevo, o
+     *         ERROR_PERSISTENCIA si no se pudo guardar en el diario.
+     */
+    public Resultado cambiarEstadoIncidencia(String id, EstadoIncidencia nuevoEstado) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearIncidencia(id)) {
+            Incidencia incidencia = bloqueo == null ? null : incidencias.obtener(id);
+            if (incidencia == null) {
+                return informar("cambiarEstadoIncidencia", Resultado.NO_ENCONTRADO, id);
+            }
+            if (!incidencia.getEstado().puedePasarA(nuevoEstado)) {
+                return informar("cambiarEstadoIncidencia", Resultado.TRANSICION_INVALIDA, id);
+            }
+            // Se registra como una actualización completa, que el diario ya sabe reproducir
+            Incidencia estadoFinal = new Incidencia(incidencia.getId(), incidencia.getPropiedad(), incidencia.getDescripcion(),
+                    incidencia.getFecha(), nuevoEstado, 0);
+            estadoFinal.setCostoEstimadoCentavos(incidencia.getCostoEstimadoCentavos());
+            if (!registrar(TipoOperacion.ACTUALIZAR_INCIDENCIA, estadoFinal)) {
+                return informar("cambiarEstadoIncidencia", Resultado.ERROR_PERSISTENCIA, id);
+            }
+            incidencia.setEstado(nuevoEstado);
+            incidencias.guardar(incidencia);
         }
-        System.out.println("Error: No se encontró la incidencia con el ID " + incidenciaActualizada.getId() + " para actualizar.");
-        return false;
+        return informar("cambiarEstadoIncidencia", Resultado.EXITO, id);
+    }
+
+    /**
+     * Lista las incidencias en un estado, usando el índice por estado del repositorio.
+     * @param estado El estado buscado.
+     * @return Las incidencias en ese estado, en el orden de los listados.
+     */
+    public List<Incidencia> listarIncidenciasPorEstado(EstadoIncidencia estado) {
+        if (estado == null) {
+            return new ArrayList<>();
+        }
+        return incidencias.listarPorEstado(estado);
+    }
+
+    /**
+     * @return La cantidad de incidencias en cada estado.
+     */
+    public Map<EstadoIncidencia, Integer> contarIncidenciasPorEstado() {
+        return incidencias.contarPorEstado();
+    }
+
+    /**
+     * Lista las incidencias abiertas (pendientes o en proceso) de una propiedad.
+     * @param propiedadId El ID de la propiedad.
+     * @return Las incidencias abiertas, en el orden de los listados.
+     */
+    public List<Incidencia> listarIncidenciasAbiertasPorPropiedad(String propiedadId) {
+        return incidencias.listarAbiertasPorPropiedad(propiedadId);
     }
 
     /**
      * Elimina una incidencia del sistema.
      * @param id El ID de la incidencia a eliminar.
-     * @return true si la incidencia fue eliminada, false si no se encontró.
+     * @return EXITO, NO_ENCONTRADO si la incidencia no existe, o ERROR_PERSISTENCIA si no se pudo guardar en el diario.
      */
-    public boolean eliminarIncidencia(String id) {
-        Optional<Incidencia> incidenciaEncontrada = buscarIncidenciaPorId(id);
-        if (incidenciaEncontrada.isPresent()) {
-            incidencias.remove(incidenciaEncontrada.get());
-            System.out.println("Incidencia '" + id + "' eliminada correctamente.");
-            return true;
+    public Resultado eliminarIncidencia(String id) {
+        try (BloqueoEstriado.Bloqueo bloqueo = bloquearIncidencia(id)) {
+            Incidencia incidencia = bloqueo == null ? null : incidencias.obtener(id);
+            if (incidencia == null) {
+                return informar("eliminarIncidencia", Resultado.NO_ENCONTRADO, id);
+            }
+            if (!registrar(TipoOperacion.ELIMINAR_INCIDENCIA, incidencia.getId())) {
+                return informar("eliminarIncidencia", Resultado.ERROR_PERSISTENCIA, id);
+            }
+            incidencias.eliminar(incidencia.getId());
         }
-        System.out.println("Error: No se encontró la incidencia con el ID " + id + " para eliminar.");
-        return false;
+        return informar("eliminarIncidencia", Resultado.EXITO, id);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,321 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Dinero;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Importación masiva de propiedades, inquilinos y contratos desde archivos CSV.
+ * <p>
+ * El archivo se lee como flujo, en bloques de {@value #TAMANIO_LOTE} filas. Cada bloque se interpreta y
+ * valida en un hilo de trabajo mientras se siguen leyendo los siguientes, y los bloques se confirman en
+ * el gestor en el orden del archivo, cada uno con una sola operación por lote
+ * ({@link GestorAlquileres#agregarPropiedades(List)}, {@link GestorAlquileres#agregarInquilinos(List)},
+ * {@link GestorAlquileres#crearContratos(List)}). Esas operaciones aplican las mismas reglas que las altas
+ * individuales: IDs duplicados, referencias inexistentes y propiedades ya alquiladas. Sólo hay unos pocos
+ * bloques en memoria a la vez, sin importar el tamaño del archivo.
+ * <p>
+ * Todos los archivos tienen una línea de cabecera, que se ignora, y una fila por línea; las líneas en
+ * blanco se saltean. Las columnas son:
+ * <ul>
+ *     <li>Propiedades: {@code id,direccion,tipo,metros_cuadrados,precio_mensual}</li>
+ *     <li>Inquilinos: {@code id,nombre,apellido,telefono,dni,email}</li>
+ *     <li>Contratos: {@code id,propiedad_id,inquilino_id,fecha_inicio,fecha_fin,valor_mensual}</li>
+ * </ul>
+ * El ID puede dejarse vacío para que lo genere el gestor. Las fechas usan el formato DD-MM-YYYY, igual
+ * que la consola, y los números usan punto decimal. Los contratos referencian a propiedades e inquilinos
+ * ya registrados, por ejemplo importados antes.
+ */
+public final class ImportadorCsv {
+
+    /** Cantidad de filas que se interpretan y se confirman juntas. */
+    public static final int TAMANIO_LOTE = 500;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final GestorAlquileres gestor;
+    private final int hilos;
+
+    /**
+     * Crea un importador que usa un hilo de trabajo por procesador.
+     * @param gestor El gestor donde se registran las filas importadas.
+     */
+    public ImportadorCsv(GestorAlquileres gestor) {
+        this(gestor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param gestor El gestor donde se registran las filas importadas.
+     * @param hilos Cantidad de hilos que interpretan y validan las filas.
+     */
+    public ImportadorCsv(GestorAlquileres gestor, int hilos) {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser positiva: " + hilos);
+        }
+        this.gestor = gestor;
+        this.hilos = hilos;
+    }
+
+    /**
+     * Importa propiedades. Se crean libres; quedan alquiladas al importar sus contratos.
+     * @param archivo El archivo CSV.
+     * @return El reporte de la importación.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public ReporteImportacion importarPropiedades(Path archivo) throws IOException {
+        return importar(archivo, ImportadorCsv::leerPropiedad, Propiedad::getId, gestor::agregarPropiedades);
+    }
+
+    /**
+     * Importa inquilinos.
+     * @param archivo El archivo CSV.
+     * @return El reporte de la importación.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public ReporteImportacion importarInquilinos(Path archivo) throws IOException {
+        return importar(archivo, ImportadorCsv::leerInquilino, Inquilino::getId, gestor::agregarInquilinos);
+    }
+
+    /**
+     * Importa contratos, que se crean activos y marcan su propiedad como alquilada.
+     * @param archivo El archivo CSV.
+     * @return El reporte de la importación.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public ReporteImportacion importarContratos(Path archivo) throws IOException {
+        return importar(archivo, ImportadorCsv::leerContrato, ContratoAlquiler::getId, gestor::crearContratos);
+    }
+
+    /**
+     * Bloque de filas del archivo, con la entidad interpretada o el error de cada una.
+     */
+    private static final class Bloque<T> {
+        private final long[] lineas;
+        private final String[] textos;
+        private final List<T> entidades = new ArrayList<>();
+        private final List<String> errores = new ArrayList<>();
+
+        private Bloque(long[] lineas, String[] textos) {
+            this.lineas = lineas;
+            this.textos = textos;
+        }
+    }
+
+    private <T> ReporteImportacion importar(Path archivo, Function<String[], T> interpretar, Function<T, String> obtenerId,
+                                            Function<List<T>, List<Resultado>> confirmar) throws IOException {
+        ReporteImportacion reporte = new ReporteImportacion();
+        ExecutorService trabajo = Executors.newFixedThreadPool(hilos);
+        // Bloques enviados a interpretar, en el orden del archivo; se limita su cantidad para no leer todo de antemano
+        Deque<Future<Bloque<T>>> enCurso = new ArrayDeque<>();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            lector.readLine(); // Cabecera
+            long numeroLinea = 1;
+            long[] lineas = new long[TAMANIO_LOTE];
+            String[] textos = new String[TAMANIO_LOTE];
+            int cantidad = 0;
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                if (linea.isBlank()) {
+                    continue;
+                }
+                lineas[cantidad] = numeroLinea;
+                textos[cantidad++] = linea;
+                if (cantidad == TAMANIO_LOTE) {
+                    Bloque<T> bloque = new Bloque<>(lineas, textos);
+                    enCurso.addLast(trabajo.submit(() -> interpretar(bloque, interpretar)));
+                    lineas = new long[TAMANIO_LOTE];
+                    textos = new String[TAMANIO_LOTE];
+                    cantidad = 0;
+                    while (enCurso.size() > hilos * 2) {
+                        confirmar(esperar(enCurso.removeFirst()), obtenerId, confirmar, reporte);
+                    }
+                }
+            }
+            if (cantidad > 0) {
+                Bloque<T> bloque = new Bloque<>(Arrays.copyOf(lineas, cantidad), Arrays.copyOf(textos, cantidad));
+                enCurso.addLast(trabajo.submit(() -> interpretar(bloque, interpretar)));
+            }
+            while (!enCurso.isEmpty()) {
+                confirmar(esperar(enCurso.removeFirst()), obtenerId, confirmar, reporte);
+            }
+        } finally {
+            trabajo.shutdownNow();
+        }
+        return reporte;
+    }
+
+    /**
+     * Interpreta las filas de un bloque. Se ejecuta en un hilo de trabajo.
+     */
+    private static <T> Bloque<T> interpretar(Bloque<T> bloque, Function<String[], T> interpretar) {
+        for (String texto : bloque.textos) {
+            try {
+                bloque.entidades.add(interpretar.apply(FormatoCsv.separar(texto)));
+                bloque.errores.add(null);
+            } catch (IllegalArgumentException | DateTimeException e) {
+                bloque.entidades.add(null);
+                bloque.errores.add(e.getMessage());
+            }
+        }
+        return bloque;
+    }
+
+    /**
+     * Confirma en el gestor las filas válidas de un bloque y agrega al reporte el resultado de cada fila.
+     */
+    private static <T> void confirmar(Bloque<T> bloque, Function<T, String> obtenerId,
+                                      Function<List<T>, List<Resultado>> confirmar, ReporteImportacion reporte) {
+        List<T> validas = new ArrayList<>(bloque.entidades.size());
+        for (T entidad : bloque.entidades) {
+            if (entidad != null) {
+                validas.add(entidad);
+            }
+        }
+        List<Resultado> resultados = validas.isEmpty() ? List.of() : confirmar.apply(validas);
+        int siguiente = 0;
+        for (int i = 0; i < bloque.lineas.length; i++) {
+            T entidad = bloque.entidades.get(i);
+            if (entidad == null) {
+                reporte.agregarError(bloque.lineas[i], idDeTexto(bloque.textos[i]), bloque.errores.get(i));
+                continue;
+            }
+            Resultado resultado = resultados.get(siguiente++);
+            if (resultado.isExitoso()) {
+                reporte.contarImportada();
+            } else {
+                reporte.agregarError(bloque.lineas[i], obtenerId.apply(entidad), resultado.getDescripcion());
+            }
+        }
+    }
+
+    private static <T> Bloque<T> esperar(Future<Bloque<T>> bloque) throws IOException {
+        try {
+            return bloque.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importación interrumpida.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Lee el ID de una fila que no se pudo interpretar, para identificarla en el reporte.
+     */
+    private static String idDeTexto(String texto) {
+        int separador = texto.indexOf(FormatoCsv.SEPARADOR);
+        String id = (separador < 0 ? texto : texto.substring(0, separador)).replace("\"", "").trim();
+        return id.isEmpty() ? null : id;
+    }
+
+    // --- Interpretación de filas (lanzan IllegalArgumentException con el motivo si la fila no es válida) ---
+
+    private static Propiedad leerPropiedad(String[] campos) {
+        verificarColumnas(campos, 5);
+        Propiedad propiedad = new Propiedad(opcional(campos[0]), requerido(campos[1], "direccion"),
+                requerido(campos[2], "tipo"), numero(campos[3], "metros_cuadrados"), false, 0);
+        propiedad.setPrecioMensualCentavos(importe(campos[4], "precio_mensual"));
+        return propiedad;
+    }
+
+    private static Inquilino leerInquilino(String[] campos) {
+        verificarColumnas(campos, 6);
+        return new Inquilino(opcional(campos[0]), requerido(campos[1], "nombre"), requerido(campos[2], "apellido"),
+                opcional(campos[3]), requerido(campos[4], "dni"), opcional(campos[5]));
+    }
+
+    private static ContratoAlquiler leerContrato(String[] campos) {
+        verificarColumnas(campos, 6);
+        // Las referencias se cargan sólo con su ID; el gestor las resuelve con sus índices al confirmar el lote
+        Propiedad propiedad = new Propiedad(requerido(campos[1], "propiedad_id"), null, null, 0, false, 0);
+        Inquilino inquilino = new Inquilino(requerido(campos[2], "inquilino_id"), null, null, null, null, null);
+        LocalDate fechaInicio = fecha(campos[3], "fecha_inicio");
+        LocalDate fechaFin = fecha(campos[4], "fecha_fin");
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("La fecha de fin es anterior a la de inicio.");
+        }
+        ContratoAlquiler contrato = new ContratoAlquiler(opcional(campos[0]), fechaInicio, fechaFin, propiedad,
+                inquilino, 0, true);
+        contrato.setValorMensualCentavos(importe(campos[5], "valor_mensual"));
+        return contrato;
+    }
+
+    private static void verificarColumnas(String[] campos, int esperadas) {
+        if (campos.length != esperadas) {
+            throw new IllegalArgumentException("Se esperaban " + esperadas + " columnas y hay " + campos.length + ".");
+        }
+    }
+
+    private static String opcional(String campo) {
+        return campo.isEmpty() ? null : campo;
+    }
+
+    private static String requerido(String campo, String columna) {
+        if (campo.isEmpty()) {
+            throw new IllegalArgumentException("Falta el valor de '" + columna + "'.");
+        }
+        return campo;
+    }
+
+    private static double numero(String campo, String columna) {
+        double valor;
+        try {
+            valor = Double.parseDouble(requerido(campo, columna));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + columna + "' no es un número válido: " + campo);
+        }
+        if (valor < 0 || Double.isNaN(valor) || Double.isInfinite(valor)) {
+            throw new IllegalArgumentException("'" + columna + "' debe ser un número no negativo: " + campo);
+        }
+        return valor;
+    }
+
+    /**
+     * Lee un importe en centavos directamente del texto, sin redondeos intermedios en {@code double}.
+     */
+    private static long importe(String campo, String columna) {
+        long centavos;
+        try {
+            centavos = Dinero.parsear(requerido(campo, columna));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + columna + "' no es un importe válido: " + campo);
+        }
+        if (centavos < 0) {
+            throw new IllegalArgumentException("'" + columna + "' debe ser un importe no negativo: " + campo);
+        }
+        return centavos;
+    }
+
+    private static LocalDate fecha(String campo, String columna) {
+        try {
+            return LocalDate.parse(requerido(campo, columna), FORMATO_FECHA);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("'" + columna + "' no es una fecha válida (DD-MM-YYYY): " + campo);
+        }
+    }
+}
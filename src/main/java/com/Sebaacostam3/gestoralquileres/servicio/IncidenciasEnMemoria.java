@@ -0,0 +1,141 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repositorio de incidencias en memoria.
+ * Mantiene un contador de incidencias abiertas por propiedad para la regla de eliminación de propiedades,
+ * un índice secundario con las claves internas de las incidencias de cada propiedad para listarlas sin
+ * recorrer todas, y un índice por estado con las claves de las incidencias de cada estado. La propiedad
+ * de una incidencia no cambia una vez reportada.
+ */
+class IncidenciasEnMemoria extends AlmacenIndexado<Incidencia> implements RepositorioIncidencias {
+
+    // Contador inverso de incidencias abiertas por propiedad (claves normalizadas)
+    private final Map<String, Integer> abiertasPorPropiedad = new ConcurrentHashMap<>();
+    // Índice secundario: ID de propiedad -> claves de las incidencias de esa propiedad
+    private final ListasPorClave porPropiedad = new ListasPorClave();
+    // Índice por estado: estado -> claves de las incidencias en ese estado (cada grupo se sincroniza sobre sí mismo)
+    private final EnumMap<EstadoIncidencia, ClavesOrdenadas> porEstado = new EnumMap<>(EstadoIncidencia.class);
+    // Estado con el que está indexada cada clave, para conocer el estado previo al guardar una incidencia
+    private final TablaPorClave<EstadoIncidencia> estadoDeClave = new TablaPorClave<>();
+    // Franjas de bloqueo por clave, que serializan los cambios de estado de una misma clave
+    private final Object[] franjas = new Object[64];
+
+    IncidenciasEnMemoria() {
+        super(Incidencia::getId);
+        for (EstadoIncidencia estado : EstadoIncidencia.values()) {
+            porEstado.put(estado, new ClavesOrdenadas());
+        }
+        for (int i = 0; i < franjas.length; i++) {
+            franjas[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean agregar(Incidencia incidencia) {
+        int clave = insertar(incidencia);
+        if (clave == SIN_CLAVE) {
+            return false;
+        }
+        porPropiedad.agregar(incidencia.getPropiedad().getId(), clave);
+        indexarEstado(clave, incidencia, incidencia.getEstado());
+        return true;
+    }
+
+    @Override
+    public void guardar(Incidencia incidencia) {
+        int clave = claveDe(incidencia.getId());
+        if (clave == SIN_CLAVE) {
+            agregar(incidencia);
+            return;
+        }
+        super.guardar(incidencia);
+        indexarEstado(clave, incidencia, incidencia.getEstado());
+    }
+
+    @Override
+    void desindexar(int clave, Incidencia incidencia) {
+        porPropiedad.quitar(incidencia.getPropiedad().getId(), clave);
+        indexarEstado(clave, incidencia, null);
+    }
+
+    /**
+     * Mueve la clave de una incidencia al grupo de su estado actual y sincroniza el contador de
+     * incidencias abiertas de su propiedad. Sólo se bloquean la franja de la clave y, de a uno, los dos
+     * grupos que cambian, así que los cambios de incidencias distintas no se esperan entre sí.
+     * @param estado El estado actual, o null si la incidencia se eliminó.
+     */
+    private void indexarEstado(int clave, Incidencia incidencia, EstadoIncidencia estado) {
+        EstadoIncidencia anterior;
+        synchronized (franjas[clave & (franjas.length - 1)]) {
+            anterior = estadoDeClave.obtener(clave);
+            if (anterior == estado) {
+                return;
+            }
+            if (estado != null) {
+                ClavesOrdenadas grupo = porEstado.get(estado);
+                synchronized (grupo) {
+                    grupo.agregar(clave);
+                }
+            }
+            if (anterior != null) {
+                ClavesOrdenadas grupo = porEstado.get(anterior);
+                synchronized (grupo) {
+                    grupo.quitar(clave);
+                }
+            }
+            estadoDeClave.fijar(clave, estado);
+        }
+        boolean estabaAbierta = anterior != null && anterior.estaAbierta();
+        boolean estaAbierta = estado != null && estado.estaAbierta();
+        if (estabaAbierta != estaAbierta) {
+            ajustarContador(abiertasPorPropiedad, incidencia.getPropiedad().getId(), estaAbierta ? 1 : -1);
+        }
+    }
+
+    @Override
+    public int contarAbiertasPorPropiedad(String propiedadId) {
+        return leerContador(abiertasPorPropiedad, propiedadId);
+    }
+
+    @Override
+    public List<Incidencia> listarPorPropiedad(String propiedadId) {
+        return enClaves(porPropiedad.claves(propiedadId), incidencia -> mismoId(incidencia.getPropiedad().getId(), propiedadId));
+    }
+
+    @Override
+    public Pagina<Incidencia> paginaPorPropiedad(String propiedadId, String cursor, int tamanio) {
+        return pagina(porPropiedad.claves(propiedadId), cursor, tamanio,
+                incidencia -> mismoId(incidencia.getPropiedad().getId(), propiedadId));
+    }
+
+    @Override
+    public List<Incidencia> listarPorEstado(EstadoIncidencia estado) {
+        ClavesOrdenadas grupo = porEstado.get(estado);
+        int[] claves;
+        synchronized (grupo) {
+            claves = grupo.aArreglo();
+        }
+        return enClaves(claves, incidencia -> incidencia.getEstado() == estado);
+    }
+
+    @Override
+    public Map<EstadoIncidencia, Integer> contarPorEstado() {
+        Map<EstadoIncidencia, Integer> cantidades = new EnumMap<>(EstadoIncidencia.class);
+        // Cada grupo se cuenta por separado: una incidencia que cambia de estado durante el conteo puede
+        // contarse en los dos, como en cualquier lectura débilmente consistente
+        for (Map.Entry<EstadoIncidencia, ClavesOrdenadas> grupo : porEstado.entrySet()) {
+            synchronized (grupo.getValue()) {
+                cantidades.put(grupo.getKey(), grupo.getValue().tamanio());
+            }
+        }
+        return cantidades;
+    }
+}
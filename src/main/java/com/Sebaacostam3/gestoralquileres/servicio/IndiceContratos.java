@@ -0,0 +1,69 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * Índice de contratos por fechas, para las consultas de vencimientos y de períodos.
+ * <p>
+ * El período de cada contrato, de la fecha de inicio a la de fin, está en un árbol de intervalos
+ * ({@link IndiceIntervalos}) que encuentra los que se superponen con un rango o incluyen un día. Las fechas
+ * de fin de los contratos activos están además en un índice ordenado ({@link IndiceRango}), que devuelve los
+ * que vencen en un rango ya ordenados por fecha. Un contrato sin fecha de inicio se toma como vigente desde
+ * siempre, y uno sin fecha de fin, como vigente para siempre y sin vencimiento.
+ * <p>
+ * El gestor modifica los contratos en el lugar (al cambiar la fecha de fin o al finalizarlos), así que los
+ * índices recuerdan con qué fechas indexaron cada clave para retirar las entradas anteriores al guardarlos.
+ * Es seguro para hilos: todas las operaciones se sincronizan y las consultas devuelven copias.
+ */
+final class IndiceContratos {
+
+    private final IndiceIntervalos porPeriodo = new IndiceIntervalos();
+    // Fecha de fin (día epoch) de los contratos activos que la tienen
+    private final IndiceRango porVencimiento = new IndiceRango();
+
+    /**
+     * Indexa un contrato con sus fechas y su estado actuales.
+     * @param clave La clave interna del contrato.
+     */
+    synchronized void indexar(int clave, ContratoAlquiler contrato) {
+        porPeriodo.indexar(clave, dia(contrato.getFechaInicio(), Long.MIN_VALUE), dia(contrato.getFechaFin(), Long.MAX_VALUE));
+        if (contrato.isActivo() && contrato.getFechaFin() != null) {
+            porVencimiento.indexar(clave, contrato.getFechaFin().toEpochDay());
+        } else {
+            porVencimiento.quitar(clave);
+        }
+    }
+
+    /**
+     * Retira un contrato del índice.
+     * @param clave La clave interna del contrato.
+     */
+    synchronized void quitar(int clave) {
+        porPeriodo.quitar(clave);
+        porVencimiento.quitar(clave);
+    }
+
+    /**
+     * @return Las claves de los contratos activos con fecha de fin en [desde, hasta], ordenadas por fecha
+     *         de fin y, a igual fecha, en orden de clave.
+     */
+    synchronized int[] porVencer(LocalDate desde, LocalDate hasta) {
+        return porVencimiento.claves(desde.toEpochDay(), hasta.toEpochDay());
+    }
+
+    /**
+     * @return Las claves de los contratos cuyo período tiene algún día en [desde, hasta], en orden de clave.
+     */
+    synchronized int[] superpuestos(LocalDate desde, LocalDate hasta) {
+        BitSet claves = new BitSet();
+        porPeriodo.marcarSuperpuestos(desde.toEpochDay(), hasta.toEpochDay(), claves);
+        return claves.stream().toArray();
+    }
+
+    private static long dia(LocalDate fecha, long siFalta) {
+        return fecha == null ? siFalta : fecha.toEpochDay();
+    }
+}
@@ -0,0 +1,191 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Árbol de intervalos [inicio, fin] de claves internas, para buscar los que se superponen con un rango.
+ * <p>
+ * Es un árbol binario de búsqueda ordenado por (inicio, clave) y equilibrado como treap: cada clave es su
+ * propio nodo y tiene una prioridad fija derivada de la clave, así que insertar y quitar cuestan un tiempo
+ * logarítmico esperado sin reequilibrar explícitamente. Cada nodo guarda además el mayor fin de su
+ * subárbol; una búsqueda descarta los subárboles cuyo mayor fin queda antes del rango y los nodos que
+ * empiezan después de él, así que su costo es logarítmico más el de recorrer los intervalos encontrados.
+ * <p>
+ * Los nodos son posiciones de arreglos paralelos indexados por la clave, sin objetos por intervalo.
+ * Recuerda el intervalo con el que indexó cada clave para poder retirarla.
+ * No es seguro para hilos: lo usan índices que ya sincronizan sus operaciones.
+ */
+final class IndiceIntervalos {
+
+    private static final int NINGUNO = -1;
+
+    private long[] inicio = new long[16];
+    private long[] fin = new long[16];
+    // Mayor fin del subárbol de cada nodo
+    private long[] mayorFin = new long[16];
+    private int[] izquierdo = new int[16];
+    private int[] derecho = new int[16];
+    private final BitSet indexadas = new BitSet();
+    private int raiz = NINGUNO;
+
+    /**
+     * Indexa una clave con su intervalo actual, retirando el anterior si cambió.
+     */
+    void indexar(int clave, long desde, long hasta) {
+        if (indexadas.get(clave)) {
+            if (inicio[clave] == desde && fin[clave] == hasta) {
+                return;
+            }
+            raiz = quitar(raiz, clave);
+        } else if (clave >= inicio.length) {
+            int capacidad = Math.max(clave + 1, inicio.length * 2);
+            inicio = Arrays.copyOf(inicio, capacidad);
+            fin = Arrays.copyOf(fin, capacidad);
+            mayorFin = Arrays.copyOf(mayorFin, capacidad);
+            izquierdo = Arrays.copyOf(izquierdo, capacidad);
+            derecho = Arrays.copyOf(derecho, capacidad);
+        }
+        inicio[clave] = desde;
+        fin[clave] = hasta;
+        izquierdo[clave] = NINGUNO;
+        derecho[clave] = NINGUNO;
+        mayorFin[clave] = hasta;
+        raiz = insertar(raiz, clave);
+        indexadas.set(clave);
+    }
+
+    /**
+     * Retira una clave del índice, si estaba.
+     */
+    void quitar(int clave) {
+        if (indexadas.get(clave)) {
+            raiz = quitar(raiz, clave);
+            indexadas.clear(clave);
+        }
+    }
+
+    /**
+     * Marca en un conjunto las claves cuyo intervalo tiene algún punto en común con [desde, hasta].
+     */
+    void marcarSuperpuestos(long desde, long hasta, BitSet destino) {
+        if (desde <= hasta) {
+            marcar(raiz, desde, hasta, destino);
+        }
+    }
+
+    private void marcar(int nodo, long desde, long hasta, BitSet destino) {
+        // Las claves de la izquierda empiezan antes que el nodo; las de la derecha, después
+        while (nodo != NINGUNO && mayorFin[nodo] >= desde) {
+            marcar(izquierdo[nodo], desde, hasta, destino);
+            if (inicio[nodo] > hasta) {
+                return;
+            }
+            if (fin[nodo] >= desde) {
+                destino.set(nodo);
+            }
+            nodo = derecho[nodo];
+        }
+    }
+
+    private int insertar(int nodo, int clave) {
+        if (nodo == NINGUNO) {
+            return clave;
+        }
+        if (anterior(clave, nodo)) {
+            izquierdo[nodo] = insertar(izquierdo[nodo], clave);
+            if (prioridad(izquierdo[nodo]) > prioridad(nodo)) {
+                return rotarDerecha(nodo);
+            }
+        } else {
+            derecho[nodo] = insertar(derecho[nodo], clave);
+            if (prioridad(derecho[nodo]) > prioridad(nodo)) {
+                return rotarIzquierda(nodo);
+            }
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    private int quitar(int nodo, int clave) {
+        if (nodo == clave) {
+            return unir(izquierdo[nodo], derecho[nodo]);
+        }
+        if (anterior(clave, nodo)) {
+            izquierdo[nodo] = quitar(izquierdo[nodo], clave);
+        } else {
+            derecho[nodo] = quitar(derecho[nodo], clave);
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    /**
+     * Une dos subárboles en los que todas las claves del primero van antes que las del segundo.
+     */
+    private int unir(int primero, int segundo) {
+        if (primero == NINGUNO) {
+            return segundo;
+        }
+        if (segundo == NINGUNO) {
+            return primero;
+        }
+        if (prioridad(primero) > prioridad(segundo)) {
+            derecho[primero] = unir(derecho[primero], segundo);
+            actualizar(primero);
+            return primero;
+        }
+        izquierdo[segundo] = unir(primero, izquierdo[segundo]);
+        actualizar(segundo);
+        return segundo;
+    }
+
+    private int rotarDerecha(int nodo) {
+        int hijo = izquierdo[nodo];
+        izquierdo[nodo] = derecho[hijo];
+        derecho[hijo] = nodo;
+        actualizar(nodo);
+        actualizar(hijo);
+        return hijo;
+    }
+
+    private int rotarIzquierda(int nodo) {
+        int hijo = derecho[nodo];
+        derecho[nodo] = izquierdo[hijo];
+        izquierdo[hijo] = nodo;
+        actualizar(nodo);
+        actualizar(hijo);
+        return hijo;
+    }
+
+    private void actualizar(int nodo) {
+        long mayor = fin[nodo];
+        if (izquierdo[nodo] != NINGUNO) {
+            mayor = Math.max(mayor, mayorFin[izquierdo[nodo]]);
+        }
+        if (derecho[nodo] != NINGUNO) {
+            mayor = Math.max(mayor, mayorFin[derecho[nodo]]);
+        }
+        mayorFin[nodo] = mayor;
+    }
+
+    /**
+     * @return true si la clave a va antes que la clave b en el orden (inicio, clave).
+     */
+    private boolean anterior(int a, int b) {
+        return inicio[a] < inicio[b] || (inicio[a] == inicio[b] && a < b);
+    }
+
+    /**
+     * @return Una prioridad pseudoaleatoria pero fija para la clave, que mantiene el árbol equilibrado
+     *         aunque las claves y los inicios lleguen en orden.
+     */
+    private static int prioridad(int clave) {
+        int mezcla = clave * 0x9E3779B9;
+        mezcla ^= mezcla >>> 16;
+        mezcla *= 0x85EBCA6B;
+        mezcla ^= mezcla >>> 13;
+        mezcla *= 0xC2B2AE35;
+        return mezcla ^ (mezcla >>> 16);
+    }
+}
@@ -0,0 +1,145 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índice de pagos por período correspondiente, sobre los códigos AAAAMM de {@link Periodo}.
+ * <p>
+ * Guarda el período de cada clave interna en un arreglo de enteros, y un mapa ordenado por período con
+ * las claves de los pagos de cada período, así que los pagos de un rango de períodos son un rango del
+ * mapa. Las consultas de un contrato parten de las claves de sus pagos (el índice por contrato del
+ * repositorio) y sólo leen sus períodos, sin comparar textos.
+ * <p>
+ * El gestor modifica los pagos en el lugar, así que el índice recuerda con qué período indexó cada clave
+ * para poder retirar la entrada anterior. Los pagos sin período AAAA-MM no entran en el mapa.
+ * Es seguro para hilos: todas las operaciones se sincronizan y las consultas devuelven copias.
+ */
+final class IndicePeriodos {
+
+    // Período -> claves de los pagos de ese período
+    private final TreeMap<Integer, ClavesOrdenadas> porPeriodo = new TreeMap<>();
+    // Clave -> período con el que está indexada, o SIN_PERIODO
+    private int[] periodoDeClave = new int[1024];
+
+    /**
+     * Indexa un pago con su período actual, retirando la entrada anterior si el período cambió.
+     * @param clave La clave interna del pago.
+     * @param periodo El código AAAAMM del período, o {@link Periodo#SIN_PERIODO}.
+     */
+    synchronized void indexar(int clave, int periodo) {
+        if (clave >= periodoDeClave.length) {
+            periodoDeClave = Arrays.copyOf(periodoDeClave, Math.max(clave + 1, periodoDeClave.length * 2));
+        }
+        int anterior = periodoDeClave[clave];
+        if (anterior == periodo) {
+            return;
+        }
+        if (anterior != Periodo.SIN_PERIODO) {
+            ClavesOrdenadas claves = porPeriodo.get(anterior);
+            if (claves.quitar(clave) && claves.tamanio() == 0) {
+                porPeriodo.remove(anterior);
+            }
+        }
+        if (periodo != Periodo.SIN_PERIODO) {
+            porPeriodo.computeIfAbsent(periodo, p -> new ClavesOrdenadas()).agregar(clave);
+        }
+        periodoDeClave[clave] = periodo;
+    }
+
+    /**
+     * Retira un pago del índice.
+     * @param clave La clave interna del pago.
+     */
+    synchronized void quitar(int clave) {
+        if (clave < periodoDeClave.length) {
+            indexar(clave, Periodo.SIN_PERIODO);
+        }
+    }
+
+    /**
+     * @param desde El período mínimo (AAAAMM), inclusive.
+     * @param hasta El período máximo (AAAAMM), inclusive.
+     * @return Las claves de los pagos de esos períodos, en orden creciente.
+     */
+    synchronized int[] claves(int desde, int hasta) {
+        if (desde > hasta) {
+            return new int[0];
+        }
+        Map<Integer, ClavesOrdenadas> rango = porPeriodo.subMap(desde, true, hasta, true);
+        int total = 0;
+        for (ClavesOrdenadas claves : rango.values()) {
+            total += claves.tamanio();
+        }
+        int[] resultado = new int[total];
+        int posicion = 0;
+        for (ClavesOrdenadas claves : rango.values()) {
+            claves.copiar(resultado, posicion);
+            posicion += claves.tamanio();
+        }
+        // Cada período ya está ordenado; al unir varios se restablece el orden de clave
+        if (rango.size() > 1) {
+            Arrays.sort(resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * @param claves Claves de pagos, por ejemplo las de un contrato.
+     * @param desde El período mínimo (AAAAMM), inclusive.
+     * @param hasta El período máximo (AAAAMM), inclusive.
+     * @return Las claves cuyo período está en el rango, en el mismo orden.
+     */
+    synchronized int[] filtrar(int[] claves, int desde, int hasta) {
+        int[] resultado = new int[claves.length];
+        int cantidad = 0;
+        for (int clave : claves) {
+            int periodo = clave < periodoDeClave.length ? periodoDeClave[clave] : Periodo.SIN_PERIODO;
+            if (periodo != Periodo.SIN_PERIODO && periodo >= desde && periodo <= hasta) {
+                resultado[cantidad++] = clave;
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+
+    /**
+     * @param claves Claves de pagos, por ejemplo las de un contrato.
+     * @return Los períodos (AAAAMM) de esas claves, sin repetir y en orden creciente.
+     */
+    synchronized int[] periodos(int[] claves) {
+        int[] resultado = new int[claves.length];
+        int cantidad = 0;
+        for (int clave : claves) {
+            int periodo = clave < periodoDeClave.length ? periodoDeClave[clave] : Periodo.SIN_PERIODO;
+            if (periodo != Periodo.SIN_PERIODO) {
+                resultado[cantidad++] = periodo;
+            }
+        }
+        Arrays.sort(resultado, 0, cantidad);
+        int distintos = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (distintos == 0 || resultado[distintos - 1] != resultado[i]) {
+                resultado[distintos++] = resultado[i];
+            }
+        }
+        return Arrays.copyOf(resultado, distintos);
+    }
+
+    /**
+     * @return El código del período mínimo de un rango; sin límite, el menor período válido.
+     */
+    static int codigoDesde(YearMonth desde) {
+        return desde == null ? Periodo.SIN_PERIODO + 1 : Periodo.codificar(desde);
+    }
+
+    /**
+     * @return El código del período máximo de un rango; sin límite, {@link Integer#MAX_VALUE}.
+     */
+    static int codigoHasta(YearMonth hasta) {
+        return hasta == null ? Integer.MAX_VALUE : Periodo.codificar(hasta);
+    }
+}
@@ -0,0 +1,137 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice de propiedades para búsquedas por varios criterios ({@link ConsultaPropiedades}).
+ * <p>
+ * Los criterios de igualdad (tipo y si está alquilada) son mapas de bits sobre las claves internas; los
+ * de rango (superficie y precio) son índices ordenados ({@link IndiceRango}) que cuentan las claves de un
+ * rango con dos búsquedas binarias. Cada consulta cuenta cuántas claves deja pasar cada criterio, arma
+ * los candidatos con el más selectivo, los cruza con los mapas de bits de los demás criterios de
+ * igualdad y descarta los que no cumplen los demás rangos mirando el valor indexado de cada candidato.
+ * <p>
+ * El gestor modifica las propiedades en el lugar (también al alquilarlas o liberarlas), así que el índice
+ * recuerda con qué valores indexó cada clave para retirar las entradas anteriores al guardarlas.
+ * Es seguro para hilos: todas las operaciones se sincronizan y las consultas devuelven copias.
+ */
+final class IndicePropiedades {
+
+    private static final BitSet VACIO = new BitSet();
+
+    // Tipo normalizado -> claves de las propiedades de ese tipo
+    private final Map<String, BitSet> porTipo = new HashMap<>();
+    private final BitSet alquiladas = new BitSet();
+    private final BitSet disponibles = new BitSet();
+    private final IndiceRango porMetros = new IndiceRango();
+    private final IndiceRango porPrecio = new IndiceRango();
+    // Clave -> tipo normalizado con el que está indexada
+    private String[] tipoDeClave = new String[1024];
+
+    /**
+     * Indexa una propiedad con sus valores actuales, retirando las entradas anteriores que cambiaron.
+     * @param clave La clave interna de la propiedad.
+     */
+    synchronized void indexar(int clave, Propiedad propiedad) {
+        if (clave >= tipoDeClave.length) {
+            tipoDeClave = Arrays.copyOf(tipoDeClave, Math.max(clave + 1, tipoDeClave.length * 2));
+        }
+        String tipo = ConsultaPropiedades.normalizarTipo(propiedad.getTipo());
+        String anterior = tipoDeClave[clave];
+        if (anterior != null && !anterior.equals(tipo)) {
+            quitarTipo(anterior, clave);
+        }
+        if (tipo != null) {
+            porTipo.computeIfAbsent(tipo, t -> new BitSet()).set(clave);
+        }
+        tipoDeClave[clave] = tipo;
+        alquiladas.set(clave, propiedad.isAlquilada());
+        disponibles.set(clave, !propiedad.isAlquilada());
+        porMetros.indexar(clave, IndiceRango.ordenable(propiedad.getMetrosCuadrados()));
+        porPrecio.indexar(clave, propiedad.getPrecioMensualCentavos());
+    }
+
+    /**
+     * Retira una propiedad del índice.
+     * @param clave La clave interna de la propiedad.
+     */
+    synchronized void quitar(int clave) {
+        if (clave < tipoDeClave.length && tipoDeClave[clave] != null) {
+            quitarTipo(tipoDeClave[clave], clave);
+            tipoDeClave[clave] = null;
+        }
+        alquiladas.clear(clave);
+        disponibles.clear(clave);
+        porMetros.quitar(clave);
+        porPrecio.quitar(clave);
+    }
+
+    private void quitarTipo(String tipo, int clave) {
+        BitSet claves = porTipo.get(tipo);
+        claves.clear(clave);
+        if (claves.isEmpty()) {
+            porTipo.remove(tipo);
+        }
+    }
+
+    /**
+     * @param consulta Los criterios de la búsqueda; debe tener al menos uno.
+     * @return Las claves de las propiedades que cumplen los criterios, en orden creciente.
+     */
+    synchronized int[] buscar(ConsultaPropiedades consulta) {
+        BitSet tipo = consulta.getTipo() == null ? null : porTipo.getOrDefault(consulta.getTipo(), VACIO);
+        BitSet estado = consulta.getAlquilada() == null ? null : consulta.getAlquilada() ? alquiladas : disponibles;
+        long metrosDesde = IndiceRango.ordenable(consulta.getMetrosMinimos() == null ? Double.NEGATIVE_INFINITY : consulta.getMetrosMinimos());
+        long metrosHasta = IndiceRango.ordenable(consulta.getMetrosMaximos() == null ? Double.POSITIVE_INFINITY : consulta.getMetrosMaximos());
+        long precioDesde = consulta.getPrecioMinimoCentavos() == null ? Long.MIN_VALUE : consulta.getPrecioMinimoCentavos();
+        long precioHasta = consulta.getPrecioMaximoCentavos() == null ? Long.MAX_VALUE : consulta.getPrecioMaximoCentavos();
+        boolean filtraMetros = consulta.filtraMetros();
+        boolean filtraPrecio = consulta.filtraPrecio();
+
+        // Se elige el criterio que deja pasar menos claves
+        int porTipoCantidad = tipo == null ? Integer.MAX_VALUE : tipo.cardinality();
+        int porEstadoCantidad = estado == null ? Integer.MAX_VALUE : estado.cardinality();
+        int porMetrosCantidad = filtraMetros ? porMetros.contar(metrosDesde, metrosHasta) : Integer.MAX_VALUE;
+        int porPrecioCantidad = filtraPrecio ? porPrecio.contar(precioDesde, precioHasta) : Integer.MAX_VALUE;
+        int menor = Math.min(Math.min(porTipoCantidad, porEstadoCantidad), Math.min(porMetrosCantidad, porPrecioCantidad));
+        if (menor == 0) {
+            return new int[0];
+        }
+
+        BitSet candidatos;
+        if (menor == porTipoCantidad) {
+            candidatos = (BitSet) tipo.clone();
+        } else if (menor == porEstadoCantidad) {
+            candidatos = (BitSet) estado.clone();
+        } else if (menor == porMetrosCantidad) {
+            candidatos = new BitSet();
+            porMetros.marcar(metrosDesde, metrosHasta, candidatos);
+            filtraMetros = false;
+        } else {
+            candidatos = new BitSet();
+            porPrecio.marcar(precioDesde, precioHasta, candidatos);
+            filtraPrecio = false;
+        }
+        if (tipo != null) {
+            candidatos.and(tipo);
+        }
+        if (estado != null) {
+            candidatos.and(estado);
+        }
+
+        int[] resultado = new int[candidatos.cardinality()];
+        int cantidad = 0;
+        for (int clave = candidatos.nextSetBit(0); clave >= 0; clave = candidatos.nextSetBit(clave + 1)) {
+            if ((!filtraMetros || porMetros.contiene(clave, metrosDesde, metrosHasta))
+                    && (!filtraPrecio || porPrecio.contiene(clave, precioDesde, precioHasta))) {
+                resultado[cantidad++] = clave;
+            }
+        }
+        return Arrays.copyOf(resultado, cantidad);
+    }
+}
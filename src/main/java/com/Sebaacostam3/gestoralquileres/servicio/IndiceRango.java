@@ -0,0 +1,231 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Índice ordenado de claves internas por un valor {@code long}, para consultas por rango.
+ * <p>
+ * Guarda los pares (valor, clave) ordenados en bloques de hasta {@value #CAPACIDAD} pares; cada bloque
+ * tiene arreglos paralelos de valores y claves, y todos sus pares son menores que los del bloque
+ * siguiente. Insertar o quitar desplaza sólo el resto de un bloque, y un bloque lleno se parte en dos.
+ * Contar las claves de un rango son dos búsquedas binarias más la suma de los tamaños de los bloques
+ * intermedios, y recorrerlas es leer tramos contiguos.
+ * Recuerda el valor con el que indexó cada clave para poder retirar la entrada anterior.
+ * No es seguro para hilos: lo usan índices que ya sincronizan sus operaciones.
+ */
+final class IndiceRango {
+
+    private static final int CAPACIDAD = 512;
+
+    private final List<Bloque> bloques = new ArrayList<>();
+    // Clave -> valor con el que está indexada, si la clave está en indexadas
+    private long[] valorDeClave = new long[16];
+    private final BitSet indexadas = new BitSet();
+
+    /**
+     * Un tramo ordenado de pares (valor, clave).
+     */
+    private static final class Bloque {
+        final long[] valores = new long[CAPACIDAD];
+        final int[] claves = new int[CAPACIDAD];
+        int tamanio;
+
+        /**
+         * @return La primera posición cuyo par (valor, clave) no es menor que el indicado.
+         */
+        int posicion(long valor, int clave) {
+            int bajo = 0;
+            int alto = tamanio;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (valores[medio] < valor || (valores[medio] == valor && claves[medio] < clave)) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        boolean menorQue(long valor, int clave) {
+            long ultimo = valores[tamanio - 1];
+            return ultimo < valor || (ultimo == valor && claves[tamanio - 1] < clave);
+        }
+    }
+
+    /**
+     * Indexa una clave con su valor actual, retirando la entrada anterior si el valor cambió.
+     */
+    void indexar(int clave, long valor) {
+        if (indexadas.get(clave)) {
+            if (valorDeClave[clave] == valor) {
+                return;
+            }
+            quitarEntrada(valorDeClave[clave], clave);
+        }
+        insertarEntrada(valor, clave);
+        if (clave >= valorDeClave.length) {
+            valorDeClave = Arrays.copyOf(valorDeClave, Math.max(clave + 1, valorDeClave.length * 2));
+        }
+        valorDeClave[clave] = valor;
+        indexadas.set(clave);
+    }
+
+    /**
+     * Retira una clave del índice, si estaba.
+     */
+    void quitar(int clave) {
+        if (indexadas.get(clave)) {
+            quitarEntrada(valorDeClave[clave], clave);
+            indexadas.clear(clave);
+        }
+    }
+
+    private void insertarEntrada(long valor, int clave) {
+        if (bloques.isEmpty()) {
+            // Ningún bloque queda vacío: el primero nace con su primer par
+            Bloque primero = new Bloque();
+            primero.valores[0] = valor;
+            primero.claves[0] = clave;
+            primero.tamanio = 1;
+            bloques.add(primero);
+            return;
+        }
+        // El último bloque recibe también los pares mayores que todos
+        int numero = Math.min(bloque(valor, clave), bloques.size() - 1);
+        Bloque bloque = bloques.get(numero);
+        if (bloque.tamanio == CAPACIDAD) {
+            Bloque mitad = new Bloque();
+            mitad.tamanio = CAPACIDAD / 2;
+            System.arraycopy(bloque.valores, CAPACIDAD / 2, mitad.valores, 0, mitad.tamanio);
+            System.arraycopy(bloque.claves, CAPACIDAD / 2, mitad.claves, 0, mitad.tamanio);
+            bloque.tamanio = CAPACIDAD / 2;
+            bloques.add(numero + 1, mitad);
+            if (bloque.menorQue(valor, clave)) {
+                bloque = mitad;
+            }
+        }
+        int posicion = bloque.posicion(valor, clave);
+        System.arraycopy(bloque.valores, posicion, bloque.valores, posicion + 1, bloque.tamanio - posicion);
+        System.arraycopy(bloque.claves, posicion, bloque.claves, posicion + 1, bloque.tamanio - posicion);
+        bloque.valores[posicion] = valor;
+        bloque.claves[posicion] = clave;
+        bloque.tamanio++;
+    }
+
+    private void quitarEntrada(long valor, int clave) {
+        int numero = bloque(valor, clave);
+        Bloque bloque = bloques.get(numero);
+        int posicion = bloque.posicion(valor, clave);
+        System.arraycopy(bloque.valores, posicion + 1, bloque.valores, posicion, bloque.tamanio - posicion - 1);
+        System.arraycopy(bloque.claves, posicion + 1, bloque.claves, posicion, bloque.tamanio - posicion - 1);
+        if (--bloque.tamanio == 0) {
+            bloques.remove(numero);
+        }
+    }
+
+    /**
+     * @return El primer bloque cuyo último par no es menor que el indicado, o la cantidad de bloques si
+     *         todos son menores.
+     */
+    private int bloque(long valor, int clave) {
+        int bajo = 0;
+        int alto = bloques.size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (bloques.get(medio).menorQue(valor, clave)) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * @return La cantidad de claves con valor en [desde, hasta].
+     */
+    int contar(long desde, long hasta) {
+        if (desde > hasta) {
+            return 0;
+        }
+        int primero = bloque(desde, Integer.MIN_VALUE);
+        int ultimo = bloque(hasta, Integer.MAX_VALUE);
+        if (primero == bloques.size()) {
+            return 0;
+        }
+        int inicio = bloques.get(primero).posicion(desde, Integer.MIN_VALUE);
+        int fin = ultimo == bloques.size() ? 0 : bloques.get(ultimo).posicion(hasta, Integer.MAX_VALUE);
+        if (primero == ultimo) {
+            return fin - inicio;
+        }
+        int cantidad = bloques.get(primero).tamanio - inicio + fin;
+        for (int i = primero + 1; i < ultimo; i++) {
+            cantidad += bloques.get(i).tamanio;
+        }
+        return cantidad;
+    }
+
+    /**
+     * Marca en un conjunto las claves con valor en [desde, hasta].
+     */
+    void marcar(long desde, long hasta, BitSet destino) {
+        if (desde > hasta) {
+            return;
+        }
+        int primero = bloque(desde, Integer.MIN_VALUE);
+        int ultimo = bloque(hasta, Integer.MAX_VALUE);
+        for (int i = primero; i < bloques.size() && i <= ultimo; i++) {
+            Bloque bloque = bloques.get(i);
+            int inicio = i == primero ? bloque.posicion(desde, Integer.MIN_VALUE) : 0;
+            int fin = i == ultimo ? bloque.posicion(hasta, Integer.MAX_VALUE) : bloque.tamanio;
+            for (int j = inicio; j < fin; j++) {
+                destino.set(bloque.claves[j]);
+            }
+        }
+    }
+
+    /**
+     * @return Las claves con valor en [desde, hasta], ordenadas por valor y, a igual valor, por clave.
+     */
+    int[] claves(long desde, long hasta) {
+        int[] resultado = new int[contar(desde, hasta)];
+        if (resultado.length == 0) {
+            return resultado;
+        }
+        int primero = bloque(desde, Integer.MIN_VALUE);
+        int cantidad = 0;
+        for (int i = primero; cantidad < resultado.length; i++) {
+            Bloque bloque = bloques.get(i);
+            int inicio = i == primero ? bloque.posicion(desde, Integer.MIN_VALUE) : 0;
+            int tramo = Math.min(bloque.tamanio - inicio, resultado.length - cantidad);
+            System.arraycopy(bloque.claves, inicio, resultado, cantidad, tramo);
+            cantidad += tramo;
+        }
+        return resultado;
+    }
+
+    /**
+     * @return true si la clave está indexada con un valor en [desde, hasta].
+     */
+    boolean contiene(int clave, long desde, long hasta) {
+        if (!indexadas.get(clave)) {
+            return false;
+        }
+        long valor = valorDeClave[clave];
+        return valor >= desde && valor <= hasta;
+    }
+
+    /**
+     * Convierte un {@code double} en un {@code long} que se ordena igual, para indexar medidas. Los NaN
+     * quedan por encima del infinito positivo, fuera de cualquier rango entre números.
+     */
+    static long ordenable(double valor) {
+        // Sumar 0.0 convierte -0.0 en 0.0
+        long bits = Double.doubleToLongBits(valor + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
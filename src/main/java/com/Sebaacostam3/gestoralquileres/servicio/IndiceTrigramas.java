@@ -0,0 +1,172 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.Arrays;
+
+/**
+ * Índice invertido de trigramas ({@link Trigramas}): para cada trigrama, las claves internas de los
+ * inquilinos cuyos datos lo contienen.
+ * <p>
+ * Una búsqueda recorre sólo las listas de sus trigramas y acumula el puntaje de cada clave en un arreglo
+ * de contadores que se reutiliza entre búsquedas, así que su costo depende de cuántos inquilinos
+ * comparten trigramas con el texto buscado y no del total de inquilinos. Las listas se ubican con una
+ * tabla de direccionamiento abierto sobre los códigos {@code long} de los trigramas, sin cajas; un
+ * trigrama que se queda sin claves conserva su lista vacía, porque los trigramas distintos son pocos.
+ * <p>
+ * El gestor modifica los inquilinos en el lugar, así que el índice recuerda los trigramas con que indexó
+ * cada clave para retirar los que ya no están al guardarlo.
+ * Es seguro para hilos: todas las operaciones se sincronizan y las consultas devuelven copias.
+ */
+final class IndiceTrigramas {
+
+    private static final long[] SIN_TRIGRAMAS = new long[0];
+
+    // Tabla trigrama -> claves de los inquilinos que lo contienen; una casilla sin lista está libre
+    private long[] trigramas = new long[1 << 12];
+    private ClavesOrdenadas[] listas = new ClavesOrdenadas[1 << 12];
+    private int ocupadas;
+    // Clave -> trigramas con los que está indexada, ordenados
+    private long[][] trigramasDeClave = new long[1024][];
+    // Puntaje acumulado por clave durante una búsqueda; vuelve a cero al terminarla
+    private int[] puntajes = new int[1024];
+    private int[] tocadas = new int[1024];
+
+    /**
+     * Indexa una clave con sus trigramas actuales, retirando los que dejó de tener.
+     * @param clave La clave interna del inquilino.
+     * @param nuevos Los trigramas de sus datos, ordenados y sin repetir.
+     */
+    synchronized void indexar(int clave, long[] nuevos) {
+        if (clave >= trigramasDeClave.length) {
+            trigramasDeClave = Arrays.copyOf(trigramasDeClave, Math.max(clave + 1, trigramasDeClave.length * 2));
+        }
+        long[] anteriores = trigramasDeClave[clave] == null ? SIN_TRIGRAMAS : trigramasDeClave[clave];
+        for (long trigrama : anteriores) {
+            if (Arrays.binarySearch(nuevos, trigrama) < 0) {
+                listas[casilla(trigrama)].quitar(clave);
+            }
+        }
+        for (long trigrama : nuevos) {
+            if (Arrays.binarySearch(anteriores, trigrama) < 0) {
+                lista(trigrama).agregar(clave);
+            }
+        }
+        trigramasDeClave[clave] = nuevos.length == 0 ? null : nuevos;
+    }
+
+    /**
+     * Retira un inquilino del índice.
+     * @param clave La clave interna del inquilino.
+     */
+    synchronized void quitar(int clave) {
+        if (clave < trigramasDeClave.length && trigramasDeClave[clave] != null) {
+            indexar(clave, SIN_TRIGRAMAS);
+        }
+    }
+
+    /**
+     * @param consulta Los trigramas buscados.
+     * @param limite La cantidad máxima de resultados.
+     * @return Las claves de los inquilinos que alcanzan el mínimo de coincidencias, de mayor a menor
+     *         puntaje y, a igual puntaje, en orden de clave.
+     */
+    synchronized int[] buscar(Trigramas.Consulta consulta, int limite) {
+        if (consulta.estaVacia()) {
+            return new int[0];
+        }
+        if (puntajes.length < trigramasDeClave.length) {
+            puntajes = new int[trigramasDeClave.length];
+        }
+        int cantidadTocadas = 0;
+        for (long trigrama : consulta.getObligatorios()) {
+            ClavesOrdenadas claves = listas[casilla(trigrama)];
+            if (claves == null) {
+                continue;
+            }
+            for (int i = 0; i < claves.tamanio(); i++) {
+                int clave = claves.clave(i);
+                if (puntajes[clave] == 0) {
+                    if (cantidadTocadas == tocadas.length) {
+                        tocadas = Arrays.copyOf(tocadas, cantidadTocadas * 2);
+                    }
+                    tocadas[cantidadTocadas++] = clave;
+                }
+                puntajes[clave] += Trigramas.Consulta.PESO_OBLIGATORIO;
+            }
+        }
+        // Los trigramas opcionales sólo suman a las claves que ya coincidieron con algún obligatorio
+        for (long trigrama : consulta.getOpcionales()) {
+            ClavesOrdenadas claves = listas[casilla(trigrama)];
+            if (claves == null) {
+                continue;
+            }
+            for (int i = 0; i < claves.tamanio(); i++) {
+                int clave = claves.clave(i);
+                if (puntajes[clave] != 0) {
+                    puntajes[clave]++;
+                }
+            }
+        }
+
+        // Cada candidato se empaqueta con su puntaje invertido para ordenar con un solo arreglo de long
+        int minimo = consulta.getMinimo() * Trigramas.Consulta.PESO_OBLIGATORIO;
+        long[] candidatos = new long[cantidadTocadas];
+        int cantidad = 0;
+        for (int i = 0; i < cantidadTocadas; i++) {
+            int clave = tocadas[i];
+            if (puntajes[clave] >= minimo) {
+                candidatos[cantidad++] = ((long) (Integer.MAX_VALUE - puntajes[clave]) << 32) | clave;
+            }
+            puntajes[clave] = 0;
+        }
+        Arrays.sort(candidatos, 0, cantidad);
+        int[] resultado = new int[Math.min(cantidad, limite)];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = (int) candidatos[i];
+        }
+        return resultado;
+    }
+
+    /**
+     * @return La casilla del trigrama en la tabla, o la casilla libre donde iría.
+     */
+    private int casilla(long trigrama) {
+        int mascara = trigramas.length - 1;
+        long mezcla = trigrama * 0x9E3779B97F4A7C15L;
+        int posicion = (int) (mezcla ^ (mezcla >>> 32)) & mascara;
+        while (listas[posicion] != null && trigramas[posicion] != trigrama) {
+            posicion = (posicion + 1) & mascara;
+        }
+        return posicion;
+    }
+
+    /**
+     * @return La lista de claves del trigrama, creándola si no existe.
+     */
+    private ClavesOrdenadas lista(long trigrama) {
+        int posicion = casilla(trigrama);
+        if (listas[posicion] == null) {
+            if ((ocupadas + 1) * 2 > listas.length) {
+                ampliar();
+                posicion = casilla(trigrama);
+            }
+            trigramas[posicion] = trigrama;
+            listas[posicion] = new ClavesOrdenadas();
+            ocupadas++;
+        }
+        return listas[posicion];
+    }
+
+    private void ampliar() {
+        long[] anterioresTrigramas = trigramas;
+        ClavesOrdenadas[] anterioresListas = listas;
+        trigramas = new long[anterioresTrigramas.length * 2];
+        listas = new ClavesOrdenadas[anterioresListas.length * 2];
+        for (int i = 0; i < anterioresListas.length; i++) {
+            if (anterioresListas[i] != null) {
+                int posicion = casilla(anterioresTrigramas[i]);
+                trigramas[posicion] = anterioresTrigramas[i];
+                listas[posicion] = anterioresListas[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Repositorio de inquilinos en memoria.
+ * Mantiene un índice invertido de trigramas de sus datos ({@link IndiceTrigramas}) para buscarlos por
+ * texto sin recorrer todos, y dos índices hash por DNI y por email normalizados con los que el gestor
+ * comprueba que no se repitan. Todos se actualizan en cada alta, cada {@link #guardar(Inquilino)} y
+ * cada baja.
+ */
+class InquilinosEnMemoria extends AlmacenIndexado<Inquilino> implements RepositorioInquilinos {
+
+    private final IndiceTrigramas porTrigrama = new IndiceTrigramas();
+    // DNI y email normalizados -> claves de los inquilinos; sólo hay más de una con datos anteriores a la regla
+    private final ListasPorClave porDni = new ListasPorClave();
+    private final ListasPorClave porEmail = new ListasPorClave();
+    // Valores con los que está indexada cada clave, porque el gestor modifica los inquilinos en el lugar
+    private final TablaPorClave<String> dniDeClave = new TablaPorClave<>();
+    private final TablaPorClave<String> emailDeClave = new TablaPorClave<>();
+
+    InquilinosEnMemoria() {
+        super(Inquilino::getId);
+    }
+
+    @Override
+    public boolean agregar(Inquilino inquilino) {
+        int clave = insertar(inquilino);
+        if (clave == SIN_CLAVE) {
+            return false;
+        }
+        indexar(clave, inquilino);
+        return true;
+    }
+
+    @Override
+    public void guardar(Inquilino inquilino) {
+        int clave = claveDe(inquilino.getId());
+        if (clave == SIN_CLAVE) {
+            agregar(inquilino);
+            return;
+        }
+        super.guardar(inquilino);
+        indexar(clave, inquilino);
+    }
+
+    @Override
+    void desindexar(int clave, Inquilino inquilino) {
+        porTrigrama.quitar(clave);
+        reindexar(porDni, dniDeClave, clave, null);
+        reindexar(porEmail, emailDeClave, clave, null);
+    }
+
+    private void indexar(int clave, Inquilino inquilino) {
+        porTrigrama.indexar(clave, Trigramas.deInquilino(inquilino));
+        reindexar(porDni, dniDeClave, clave, Inquilino.normalizarDni(inquilino.getDni()));
+        reindexar(porEmail, emailDeClave, clave, Inquilino.normalizarEmail(inquilino.getEmail()));
+    }
+
+    /**
+     * Mueve una clave de la lista de su valor anterior a la de su valor actual.
+     * @param valor El valor normalizado actual, o null si no tiene o se eliminó.
+     */
+    private static void reindexar(ListasPorClave indice, TablaPorClave<String> valores, int clave, String valor) {
+        String anterior = valores.obtener(clave);
+        if (Objects.equals(anterior, valor)) {
+            return;
+        }
+        if (anterior != null) {
+            indice.quitar(anterior, clave);
+        }
+        if (valor != null) {
+            indice.agregar(valor, clave);
+        }
+        valores.fijar(clave, valor);
+    }
+
+    @Override
+    public List<Inquilino> buscarPorTexto(String texto, int limite) {
+        return enClaves(porTrigrama.buscar(Trigramas.deBusqueda(texto), limite));
+    }
+
+    @Override
+    public Inquilino buscarPorDni(String dni) {
+        String normalizado = Inquilino.normalizarDni(dni);
+        return primero(porDni, normalizado, inquilino -> normalizado.equals(Inquilino.normalizarDni(inquilino.getDni())));
+    }
+
+    @Override
+    public Inquilino buscarPorEmail(String email) {
+        String normalizado = Inquilino.normalizarEmail(email);
+        return primero(porEmail, normalizado, inquilino -> normalizado.equals(Inquilino.normalizarEmail(inquilino.getEmail())));
+    }
+
+    private Inquilino primero(ListasPorClave indice, String valor, Predicate<Inquilino> coincide) {
+        if (valor == null) {
+            return null;
+        }
+        for (int clave : indice.claves(valor)) {
+            Inquilino inquilino = enClave(clave);
+            if (inquilino != null && coincide.test(inquilino)) {
+                return inquilino;
+            }
+        }
+        return null;
+    }
+}
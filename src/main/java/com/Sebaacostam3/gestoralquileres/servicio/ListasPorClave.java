@@ -0,0 +1,84 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundario de una relación: para cada ID externo de la entidad referenciada (por ejemplo,
+ * un contrato), las claves internas de las entidades que la referencian (sus pagos), en orden creciente.
+ * <p>
+ * Cada ID externo se normaliza y se asocia a una lista de claves ({@link ClavesOrdenadas}), un arreglo de
+ * enteros sin cajas ni entradas por elemento. Las listas que quedan vacías se descartan.
+ * Es seguro para hilos sin un bloqueo común: las altas y bajas de un mismo ID se serializan en el mapa
+ * concurrente y cada lista se sincroniza sobre sí misma, así que las operaciones sobre IDs distintos no
+ * se esperan entre sí. Las consultas devuelven copias.
+ */
+final class ListasPorClave {
+
+    private static final int[] VACIA = new int[0];
+
+    // ID externo normalizado -> claves de las entidades que lo referencian
+    private final ConcurrentHashMap<String, ClavesOrdenadas> listas = new ConcurrentHashMap<>();
+
+    /**
+     * Agrega una clave a la lista de un ID.
+     * @param id El ID externo de la entidad referenciada.
+     * @param clave La clave interna de la entidad que la referencia.
+     */
+    void agregar(String id, int clave) {
+        if (id == null) {
+            return;
+        }
+        listas.compute(AlmacenIndexado.normalizar(id), (normalizado, claves) -> {
+            ClavesOrdenadas lista = claves == null ? new ClavesOrdenadas() : claves;
+            synchronized (lista) {
+                lista.agregar(clave);
+            }
+            return lista;
+        });
+    }
+
+    /**
+     * Quita una clave de la lista de un ID, descartando la lista si queda vacía.
+     * @param id El ID externo de la entidad referenciada.
+     * @param clave La clave interna a quitar.
+     */
+    void quitar(String id, int clave) {
+        if (id == null) {
+            return;
+        }
+        listas.computeIfPresent(AlmacenIndexado.normalizar(id), (normalizado, lista) -> {
+            synchronized (lista) {
+                lista.quitar(clave);
+                return lista.tamanio() == 0 ? null : lista;
+            }
+        });
+    }
+
+    /**
+     * @param id El ID externo de la entidad referenciada.
+     * @return Una copia de las claves de su lista, en orden creciente.
+     */
+    int[] claves(String id) {
+        ClavesOrdenadas lista = id == null ? null : listas.get(AlmacenIndexado.normalizar(id));
+        return copiar(lista);
+    }
+
+    /**
+     * Quita la lista completa de un ID.
+     * @param id El ID externo de la entidad referenciada.
+     * @return Las claves que tenía, en orden creciente.
+     */
+    int[] quitarTodas(String id) {
+        ClavesOrdenadas lista = id == null ? null : listas.remove(AlmacenIndexado.normalizar(id));
+        return copiar(lista);
+    }
+
+    private static int[] copiar(ClavesOrdenadas lista) {
+        if (lista == null) {
+            return VACIA;
+        }
+        synchronized (lista) {
+            return lista.aArreglo();
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.persistencia.ArchivoFrio;
+import com.Sebaacostam3.gestoralquileres.persistencia.CodificadorEntidades;
+import com.Sebaacostam3.gestoralquileres.persistencia.DirectorioDatos;
+import com.Sebaacostam3.gestoralquileres.persistencia.Instantanea;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Nivel frío de los repositorios en memoria: contratos inactivos archivados en disco junto con sus pagos.
+ * <p>
+ * Cada contrato archivado se guarda como un bloque de un {@link ArchivoFrio} con el contrato y todos sus
+ * pagos. En memoria sólo queda un índice compacto: la posición del bloque y los IDs de los pagos, para
+ * que las búsquedas por ID sigan resolviéndose sin leer el disco. El contrato y sus pagos se decodifican
+ * cuando se consultan, y cada consulta devuelve instancias nuevas.
+ * <p>
+ * Los contratos se archivan al tomar una instantánea ({@link GestorAlquileres#tomarInstantanea()}), y el
+ * índice se guarda en la propia instantánea. Así el archivo no necesita registros de baja: un bloque que
+ * la instantánea vigente no referencia simplemente no existe, y se descarta al compactar. Cualquier
+ * escritura sobre un contrato archivado o sus pagos lo {@linkplain #reincorporar(String, ContratoAlquiler)
+ * reincorpora} primero al nivel en memoria, de modo que las escrituras sólo operan sobre entidades en memoria.
+ * <p>
+ * El índice admite lecturas concurrentes. Las escrituras sobre un contrato (archivarlo, reincorporarlo)
+ * deben hacerse con el bloqueo de ese contrato tomado.
+ */
+final class NivelFrio implements AutoCloseable {
+
+    // Se compacta cuando el archivo supera este tamaño y más de la mitad son bloques sin uso
+    private static final long TAMANIO_MINIMO_COMPACTACION = 64L * 1024 * 1024;
+
+    /**
+     * Entrada del índice de un contrato archivado. Además de la posición del bloque guarda el rango de
+     * fechas del contrato y el de los períodos de sus pagos, para que las consultas por fecha y por
+     * período lean sólo los bloques que pueden cumplirlas.
+     */
+    static final class Entrada {
+        private final String id;
+        private final long posicion;
+        private final int longitud;
+        private final String[] pagos;
+        // Días (época) de inicio y de fin del contrato; sin fecha, el extremo queda abierto
+        private final long primerDia;
+        private final long ultimoDia;
+        // Códigos de período mínimo y máximo de los pagos; sin pagos con período, el rango queda vacío
+        private final int primerPeriodo;
+        private final int ultimoPeriodo;
+        // Versión de la codificación del bloque
+        private final int version;
+
+        private Entrada(String id, long posicion, int longitud, String[] pagos,
+                        long primerDia, long ultimoDia, int primerPeriodo, int ultimoPeriodo, int version) {
+            this.id = id;
+            this.posicion = posicion;
+            this.longitud = longitud;
+            this.pagos = pagos;
+            this.primerDia = primerDia;
+            this.ultimoDia = ultimoDia;
+            this.primerPeriodo = primerPeriodo;
+            this.ultimoPeriodo = ultimoPeriodo;
+            this.version = version;
+        }
+
+        /**
+         * @return La misma entrada con el bloque en otra posición.
+         */
+        private Entrada enPosicion(long nuevaPosicion) {
+            return new Entrada(id, nuevaPosicion, longitud, pagos, primerDia, ultimoDia, primerPeriodo, ultimoPeriodo, version);
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String[] getPagos() {
+            return pagos;
+        }
+
+        private boolean superponeFechas(LocalDate desde, LocalDate hasta) {
+            return primerDia <= hasta.toEpochDay() && ultimoDia >= desde.toEpochDay();
+        }
+
+        private boolean superponePeriodos(int desde, int hasta) {
+            return primerPeriodo <= hasta && ultimoPeriodo >= desde;
+        }
+
+        /**
+         * Escribe la entrada en una instantánea, con el tipo {@link Instantanea#ARCHIVADO_CON_RANGOS}.
+         */
+        void escribir(DataOutput salida) throws IOException {
+            CodificadorEntidades.escribirTexto(salida, id);
+            salida.writeLong(posicion);
+            salida.writeInt(longitud);
+            salida.writeInt(pagos.length);
+            for (String pago : pagos) {
+                CodificadorEntidades.escribirTexto(salida, pago);
+            }
+            salida.writeLong(primerDia);
+            salida.writeLong(ultimoDia);
+            salida.writeInt(primerPeriodo);
+            salida.writeInt(ultimoPeriodo);
+            salida.writeInt(version);
+        }
+
+        /**
+         * Lee una entrada escrita con {@link #escribir(DataOutput)}.
+         * @param conRangos false para las entradas de {@link Instantanea#ARCHIVADO}, escritas antes de
+         *                  guardar los rangos; esas entradas cubren cualquier fecha y cualquier período.
+         * @param versionInstantanea La versión de la codificación de la instantánea. Antes de la actual,
+         *                           la entrada no anota la versión de su bloque, que es la misma.
+         */
+        static Entrada leer(DataInput entrada, boolean conRangos, int versionInstantanea) throws IOException {
+            String id = CodificadorEntidades.leerTexto(entrada);
+            long posicion = entrada.readLong();
+            int longitud = entrada.readInt();
+            String[] pagos = new String[entrada.readInt()];
+            for (int i = 0; i < pagos.length; i++) {
+                pagos[i] = CodificadorEntidades.leerTexto(entrada);
+            }
+            if (!conRangos) {
+                return new Entrada(id, posicion, longitud, pagos, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                        versionInstantanea);
+            }
+            long primerDia = entrada.readLong();
+            long ultimoDia = entrada.readLong();
+            int primerPeriodo = entrada.readInt();
+            int ultimoPeriodo = entrada.readInt();
+            int version = versionInstantanea < CodificadorEntidades.VERSION ? versionInstantanea : entrada.readInt();
+            return new Entrada(id, posicion, longitud, pagos, primerDia, ultimoDia, primerPeriodo, ultimoPeriodo, version);
+        }
+    }
+
+    /**
+     * Un contrato archivado con sus pagos, decodificado.
+     */
+    private static final class Bloque {
+        private final ContratoAlquiler contrato;
+        private final List<Pago> pagos;
+
+        private Bloque(ContratoAlquiler contrato, List<Pago> pagos) {
+            this.contrato = contrato;
+            this.pagos = pagos;
+        }
+    }
+
+    private final RepositorioPropiedades propiedades;
+    private final RepositorioInquilinos inquilinos;
+    private final ContratosEnMemoria contratosEnMemoria;
+    private final PagosEnMemoria pagosEnMemoria;
+
+    // ID de contrato normalizado -> entrada del índice
+    private final ConcurrentHashMap<String, Entrada> contratos = new ConcurrentHashMap<>();
+    // ID de pago normalizado -> ID de su contrato normalizado
+    private final ConcurrentHashMap<String, String> pagos = new ConcurrentHashMap<>();
+    // Protege el reemplazo del archivo al compactar; las lecturas y los agregados toman el de lectura
+    private final ReentrantReadWriteLock bloqueoArchivo = new ReentrantReadWriteLock();
+
+    private DirectorioDatos directorio;
+    private ArchivoFrio archivo;
+    private long numeroArchivo;
+
+    NivelFrio(RepositorioPropiedades propiedades, RepositorioInquilinos inquilinos,
+              ContratosEnMemoria contratosEnMemoria, PagosEnMemoria pagosEnMemoria) {
+        this.propiedades = propiedades;
+        this.inquilinos = inquilinos;
+        this.contratosEnMemoria = contratosEnMemoria;
+        this.pagosEnMemoria = pagosEnMemoria;
+    }
+
+    /**
+     * Asigna el directorio donde se crean los archivos del nivel frío. Debe llamarse antes de leer
+     * la instantánea y de archivar contratos.
+     */
+    void usarDirectorio(DirectorioDatos directorio) {
+        this.directorio = directorio;
+    }
+
+    /**
+     * Abre el archivo del nivel frío que usa una instantánea.
+     * @param numero El número del archivo, leído de la instantánea.
+     * @throws IOException Si no se puede abrir.
+     */
+    void abrirArchivo(long numero) throws IOException {
+        if (archivo != null) {
+            archivo.close();
+        }
+        archivo = ArchivoFrio.abrir(directorio.archivoFrio(numero));
+        numeroArchivo = numero;
+    }
+
+    /**
+     * @return El número del archivo en uso, o 0 si todavía no se archivó ningún contrato.
+     */
+    long getNumeroArchivo() {
+        return numeroArchivo;
+    }
+
+    // --- Índice ---
+
+    /**
+     * Registra un contrato archivado leído de una instantánea.
+     */
+    void registrar(Entrada entrada) {
+        String clave = AlmacenIndexado.normalizar(entrada.id);
+        contratos.put(clave, entrada);
+        for (String pago : entrada.pagos) {
+            pagos.put(AlmacenIndexado.normalizar(pago), clave);
+        }
+    }
+
+    /**
+     * Quita un contrato del índice sin reincorporarlo. Se usa al recuperar, cuando la instantánea
+     * tiene una versión en memoria del contrato más reciente que la archivada.
+     */
+    void descartar(String contratoId) {
+        Entrada entrada = contratoId == null ? null : contratos.remove(AlmacenIndexado.normalizar(contratoId));
+        if (entrada != null) {
+            for (String pago : entrada.pagos) {
+                pagos.remove(AlmacenIndexado.normalizar(pago));
+            }
+        }
+    }
+
+    /**
+     * @return La entrada del contrato archivado, o null si no está archivado.
+     */
+    Entrada entrada(String contratoId) {
+        return contratoId == null ? null : contratos.get(AlmacenIndexado.normalizar(contratoId));
+    }
+
+    /**
+     * @return Las entradas de los contratos archivados (vista débilmente consistente).
+     */
+    Collection<Entrada> entradas() {
+        return contratos.values();
+    }
+
+    boolean contieneContrato(String contratoId) {
+        return contratoId != null && contratos.containsKey(AlmacenIndexado.normalizar(contratoId));
+    }
+
+    boolean contienePago(String pagoId) {
+        return pagoId != null && pagos.containsKey(AlmacenIndexado.normalizar(pagoId));
+    }
+
+    /**
+     * @return El ID del contrato archivado al que pertenece el pago, o null si el pago no está archivado.
+     */
+    String contratoDePago(String pagoId) {
+        String clave = pagoId == null ? null : pagos.get(AlmacenIndexado.normalizar(pagoId));
+        Entrada entrada = clave == null ? null : contratos.get(clave);
+        return entrada == null ? null : entrada.id;
+    }
+
+    /**
+     * @return La cantidad de contratos archivados.
+     */
+    int cantidadContratos() {
+        return contratos.size();
+    }
+
+    /**
+     * @return La cantidad de pagos archivados.
+     */
+    int cantidadPagos() {
+        return pagos.size();
+    }
+
+    // --- Consultas ---
+
+    /**
+     * @return Una copia del contrato archivado, o null si no está archivado.
+     */
+    ContratoAlquiler contrato(String contratoId) {
+        Bloque bloque = leerBloque(contratoId);
+        return bloque == null ? null : bloque.contrato;
+    }
+
+    /**
+     * @return Copias de los pagos del contrato archivado en el orden de los listados, o null si el contrato no está archivado.
+     */
+    List<Pago> pagos(String contratoId) {
+        Bloque bloque = leerBloque(contratoId);
+        return bloque == null ? null : bloque.pagos;
+    }
+
+    /**
+     * @return Una copia del pago archivado, o null si no está archivado.
+     */
+    Pago pago(String pagoId) {
+        String contratoId = contratoDePago(pagoId);
+        List<Pago> pagosDelContrato = contratoId == null ? null : pagos(contratoId);
+        if (pagosDelContrato != null) {
+            for (Pago pago : pagosDelContrato) {
+                if (pago.getId().equalsIgnoreCase(pagoId)) {
+                    return pago;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee los contratos archivados cuyo período tiene algún día en el rango. Sólo se leen los bloques
+     * cuyo rango de fechas, guardado en el índice, se superpone con el pedido.
+     * @return Copias de los contratos, en el orden del índice.
+     */
+    List<ContratoAlquiler> contratosSuperpuestos(LocalDate desde, LocalDate hasta) {
+        List<ContratoAlquiler> resultado = new ArrayList<>();
+        for (Entrada entrada : contratos.values()) {
+            ContratoAlquiler contrato = entrada.superponeFechas(desde, hasta) ? contrato(entrada.id) : null;
+            // Las entradas sin rangos cubren cualquier fecha, así que se verifican las del contrato leído
+            if (contrato != null && (contrato.getFechaInicio() == null || !contrato.getFechaInicio().isAfter(hasta))
+                    && (contrato.getFechaFin() == null || !contrato.getFechaFin().isBefore(desde))) {
+                resultado.add(contrato);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Lee los pagos archivados con un período en el rango. Sólo se leen los bloques cuyo rango de
+     * períodos, guardado en el índice, se superpone con el pedido.
+     * @param desde El código del período mínimo.
+     * @param hasta El código del período máximo.
+     * @return Copias de los pagos, agrupados por contrato en el orden del índice.
+     */
+    List<Pago> pagosPorPeriodo(int desde, int hasta) {
+        List<Pago> resultado = new ArrayList<>();
+        for (Entrada entrada : contratos.values()) {
+            List<Pago> delContrato = entrada.superponePeriodos(desde, hasta) ? pagos(entrada.id) : null;
+            if (delContrato != null) {
+                for (Pago pago : delContrato) {
+                    if (pago.getPeriodoCodigo() >= desde && pago.getPeriodoCodigo() <= hasta) {
+                        resultado.add(pago);
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Agrega al final de un listado en memoria las entidades archivadas que no figuran en él. Una
+     * entidad que se archiva durante la consulta puede aparecer en los dos niveles, y se cuenta una vez.
+     * @return El listado en memoria, con las archivadas agregadas.
+     */
+    static <T> List<T> agregarArchivadas(List<T> enMemoria, List<T> archivadas, Function<T, String> obtenerId) {
+        if (archivadas.isEmpty()) {
+            return enMemoria;
+        }
+        Set<String> vistos = new HashSet<>();
+        for (T entidad : enMemoria) {
+            vistos.add(AlmacenIndexado.normalizar(obtenerId.apply(entidad)));
+        }
+        List<T> resultado = new ArrayList<>(enMemoria);
+        for (T entidad : archivadas) {
+            if (vistos.add(AlmacenIndexado.normalizar(obtenerId.apply(entidad)))) {
+                resultado.add(entidad);
+            }
+        }
+        return resultado;
+    }
+
+    // --- Escrituras ---
+
+    /**
+     * Archiva un contrato con sus pagos y los quita del nivel en memoria. El bloque no es durable
+     * hasta llamar a {@link #sincronizar()}. Debe llamarse con el bloqueo del contrato tomado.
+     * @param contrato El contrato, registrado en memoria e inactivo.
+     * @param pagosDelContrato Los pagos del contrato, en el orden de los listados.
+     * @throws IOException Si no se puede escribir el bloque.
+     */
+    void archivar(ContratoAlquiler contrato, List<Pago> pagosDelContrato) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + 64 * pagosDelContrato.size());
+        DataOutputStream datos = new DataOutputStream(bytes);
+        CodificadorEntidades.escribirContrato(datos, contrato);
+        datos.writeInt(pagosDelContrato.size());
+        String[] idsPagos = new String[pagosDelContrato.size()];
+        int primerPeriodo = Integer.MAX_VALUE;
+        int ultimoPeriodo = Integer.MIN_VALUE;
+        for (int i = 0; i < idsPagos.length; i++) {
+            Pago pago = pagosDelContrato.get(i);
+            CodificadorEntidades.escribirPago(datos, pago);
+            idsPagos[i] = pago.getId();
+            if (pago.getPeriodoCodigo() != Periodo.SIN_PERIODO) {
+                primerPeriodo = Math.min(primerPeriodo, pago.getPeriodoCodigo());
+                ultimoPeriodo = Math.max(ultimoPeriodo, pago.getPeriodoCodigo());
+            }
+        }
+        byte[] bloque = bytes.toByteArray();
+        long posicion;
+        bloqueoArchivo.readLock().lock();
+        try {
+            if (archivo == null) {
+                throw new IllegalStateException("El nivel frío no tiene un archivo abierto.");
+            }
+            posicion = archivo.agregar(bloque);
+        } finally {
+            bloqueoArchivo.readLock().unlock();
+        }
+        // Primero se publica en el índice y después se retira de memoria, para que las lecturas
+        // concurrentes lo encuentren siempre en alguno de los dos niveles
+        registrar(new Entrada(contrato.getId(), posicion, bloque.length, idsPagos,
+                contrato.getFechaInicio() == null ? Long.MIN_VALUE : contrato.getFechaInicio().toEpochDay(),
+                contrato.getFechaFin() == null ? Long.MAX_VALUE : contrato.getFechaFin().toEpochDay(),
+                primerPeriodo, ultimoPeriodo, CodificadorEntidades.VERSION));
+        pagosEnMemoria.eliminarPorContrato(contrato.getId());
+        contratosEnMemoria.eliminar(contrato.getId());
+    }
+
+    /**
+     * Devuelve un contrato archivado y sus pagos al nivel en memoria y lo quita del índice. Debe llamarse
+     * con el bloqueo del contrato tomado.
+     * @param contratoId El ID del contrato.
+     * @param reemplazo La versión del contrato a registrar en memoria en lugar de la archivada, o null
+     *                  para usar la archivada.
+     * @return El contrato registrado en memoria, o null si no estaba archivado.
+     */
+    ContratoAlquiler reincorporar(String contratoId, ContratoAlquiler reemplazo) {
+        Bloque bloque = leerBloque(contratoId);
+        if (bloque == null) {
+            return null;
+        }
+        ContratoAlquiler contrato = reemplazo == null ? bloque.contrato : reemplazo;
+        contratosEnMemoria.guardar(contrato);
+        for (Pago pago : bloque.pagos) {
+            pago.setContrato(contrato);
+            pagosEnMemoria.guardar(pago);
+        }
+        descartar(contratoId);
+        return contrato;
+    }
+
+    /**
+     * Abre el archivo del nivel frío si todavía no hay uno, y compacta el actual si la mayor parte son
+     * bloques sin uso. El archivo nuevo se crea con el número de segmento dado; el anterior se borra
+     * con los segmentos ya cubiertos por la instantánea ({@link DirectorioDatos#descartarAnteriores(long, long)}).
+     * Se llama al tomar una instantánea, antes de archivar.
+     * @param numeroSegmento El número del segmento de la nueva instantánea.
+     * @throws IOException Si no se puede crear o escribir el archivo nuevo.
+     */
+    void prepararArchivo(long numeroSegmento) throws IOException {
+        if (archivo == null) {
+            abrirArchivo(numeroSegmento);
+            return;
+        }
+        long tamanio = archivo.tamanio();
+        long vigentes = 0;
+        for (Entrada entrada : contratos.values()) {
+            vigentes += ArchivoFrio.tamanioBloque(entrada.longitud);
+        }
+        if (tamanio < TAMANIO_MINIMO_COMPACTACION || vigentes > tamanio / 2 || numeroSegmento == numeroArchivo) {
+            return;
+        }
+        bloqueoArchivo.writeLock().lock();
+        try {
+            ArchivoFrio nuevo = ArchivoFrio.abrir(directorio.archivoFrio(numeroSegmento));
+            for (Entrada entrada : contratos.values()) {
+                long posicion = nuevo.agregar(archivo.leer(entrada.posicion, entrada.longitud));
+                // Si el contrato se reincorporó mientras tanto, su bloque copiado queda sin uso
+                contratos.replace(AlmacenIndexado.normalizar(entrada.id), entrada,
+                        entrada.enPosicion(posicion));
+            }
+            archivo.close();
+            archivo = nuevo;
+            numeroArchivo = numeroSegmento;
+        } finally {
+            bloqueoArchivo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fuerza a disco los bloques archivados.
+     * @throws IOException Si falla la sincronización.
+     */
+    void sincronizar() throws IOException {
+        bloqueoArchivo.readLock().lock();
+        try {
+            if (archivo != null) {
+                archivo.sincronizar();
+            }
+        } finally {
+            bloqueoArchivo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        bloqueoArchivo.writeLock().lock();
+        try {
+            if (archivo != null) {
+                archivo.close();
+                archivo = null;
+            }
+        } finally {
+            bloqueoArchivo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lee y decodifica el bloque de un contrato archivado, enlazando su propiedad y su inquilino a las
+     * instancias en memoria.
+     * @return El bloque, o null si el contrato no está archivado.
+     * @throws UncheckedIOException Si el bloque no se puede leer.
+     */
+    private Bloque leerBloque(String contratoId) {
+        if (contratoId == null) {
+            return null;
+        }
+        byte[] datos;
+        int version;
+        bloqueoArchivo.readLock().lock();
+        try {
+            // La entrada se lee con el bloqueo tomado, para que su posición corresponda al archivo actual
+            Entrada entrada = contratos.get(AlmacenIndexado.normalizar(contratoId));
+            if (entrada == null) {
+                return null;
+            }
+            datos = archivo.leer(entrada.posicion, entrada.longitud);
+            version = entrada.version;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el contrato archivado " + contratoId + ".", e);
+        } finally {
+            bloqueoArchivo.readLock().unlock();
+        }
+        try {
+            DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos));
+            ContratoAlquiler contrato = CodificadorEntidades.leerContrato(entrada, version);
+            Propiedad propiedad = contrato.getPropiedad() == null ? null : propiedades.obtener(contrato.getPropiedad().getId());
+            if (propiedad != null) {
+                contrato.setPropiedad(propiedad);
+            }
+            Inquilino inquilino = contrato.getInquilino() == null ? null : inquilinos.obtener(contrato.getInquilino().getId());
+            if (inquilino != null) {
+                contrato.setInquilino(inquilino);
+            }
+            int cantidad = entrada.readInt();
+            List<Pago> pagosDelContrato = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                Pago pago = CodificadorEntidades.leerPago(entrada, version);
+                pago.setContrato(contrato);
+                pagosDelContrato.add(pago);
+            }
+            return new Bloque(contrato, pagosDelContrato);
+        } catch (IOException e) {
+            throw new UncheckedIOException("El contrato archivado " + contratoId + " está dañado.", e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Una página de resultados de un listado paginado por cursor.
+ * El cursor es un valor opaco que se pasa tal cual para pedir la página siguiente.
+ * @param <T> El tipo de entidad listada.
+ */
+public final class Pagina<T> {
+
+    private final List<T> elementos;
+    private final String cursorSiguiente;
+
+    /**
+     * @param elementos Los elementos de la página.
+     * @param cursorSiguiente El cursor de la página siguiente, o null si es la última.
+     */
+    public Pagina(List<T> elementos, String cursorSiguiente) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.cursorSiguiente = cursorSiguiente;
+    }
+
+    /**
+     * @return Los elementos de esta página, en orden de inserción (lista de solo lectura).
+     */
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * @return El cursor para pedir la página siguiente, o null si esta es la última.
+     */
+    public String getCursorSiguiente() {
+        return cursorSiguiente;
+    }
+
+    /**
+     * @return true si hay más elementos después de esta página.
+     */
+    public boolean hayMas() {
+        return cursorSiguiente != null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de pagos en memoria.
+ * Mantiene un índice secundario con las claves internas de los pagos de cada contrato, para que listar
+ * o eliminar los pagos de un contrato sólo recorra los de ese contrato, y un {@link IndicePeriodos}
+ * para las consultas por período correspondiente.
+ */
+class PagosEnMemoria extends AlmacenIndexado<Pago> implements RepositorioPagos {
+
+    // Índice secundario: ID de contrato -> claves de los pagos de ese contrato
+    private final ListasPorClave porContrato = new ListasPorClave();
+    private final IndicePeriodos periodos = new IndicePeriodos();
+
+    PagosEnMemoria() {
+        super(Pago::getId);
+    }
+
+    @Override
+    public boolean agregar(Pago pago) {
+        int clave = insertar(pago);
+        if (clave == SIN_CLAVE) {
+            return false;
+        }
+        porContrato.agregar(pago.getContrato().getId(), clave);
+        periodos.indexar(clave, pago.getPeriodoCodigo());
+        return true;
+    }
+
+    /**
+     * Guarda el pago y vuelve a indexar su período, que el gestor pudo haber cambiado en la misma instancia.
+     */
+    @Override
+    public void guardar(Pago pago) {
+        int clave = claveDe(pago.getId());
+        if (clave == SIN_CLAVE) {
+            agregar(pago);
+            return;
+        }
+        super.guardar(pago);
+        periodos.indexar(clave, pago.getPeriodoCodigo());
+    }
+
+    @Override
+    void desindexar(int clave, Pago pago) {
+        porContrato.quitar(pago.getContrato().getId(), clave);
+        periodos.quitar(clave);
+    }
+
+    @Override
+    public List<Pago> listarPorContrato(String contratoId) {
+        return enClaves(porContrato.claves(contratoId), pago -> mismoId(pago.getContrato().getId(), contratoId));
+    }
+
+    @Override
+    public Pagina<Pago> paginaPorContrato(String contratoId, String cursor, int tamanio) {
+        return pagina(porContrato.claves(contratoId), cursor, tamanio, pago -> mismoId(pago.getContrato().getId(), contratoId));
+    }
+
+    @Override
+    public int eliminarPorContrato(String contratoId) {
+        // Se retira la lista completa del índice y se borra cada pago del almacén en una sola pasada
+        int eliminados = 0;
+        for (int clave : porContrato.quitarTodas(contratoId)) {
+            Pago pago = enClave(clave);
+            if (pago != null && mismoId(pago.getContrato().getId(), contratoId) && eliminar(pago.getId()) != null) {
+                eliminados++;
+            }
+        }
+        return eliminados;
+    }
+
+    @Override
+    public List<Pago> listarPorPeriodo(YearMonth desde, YearMonth hasta) {
+        int codigoDesde = IndicePeriodos.codigoDesde(desde);
+        int codigoHasta = IndicePeriodos.codigoHasta(hasta);
+        return enClaves(periodos.claves(codigoDesde, codigoHasta), pago -> enPeriodo(pago, codigoDesde, codigoHasta));
+    }
+
+    @Override
+    public List<Pago> listarPorContratoYPeriodo(String contratoId, YearMonth desde, YearMonth hasta) {
+        int[] claves = porContrato.claves(contratoId);
+        int codigoDesde = IndicePeriodos.codigoDesde(desde);
+        int codigoHasta = IndicePeriodos.codigoHasta(hasta);
+        return enClaves(periodos.filtrar(claves, codigoDesde, codigoHasta),
+                pago -> mismoId(pago.getContrato().getId(), contratoId) && enPeriodo(pago, codigoDesde, codigoHasta));
+    }
+
+    private static boolean enPeriodo(Pago pago, int desde, int hasta) {
+        int periodo = pago.getPeriodoCodigo();
+        return periodo != Periodo.SIN_PERIODO && periodo >= desde && periodo <= hasta;
+    }
+
+    @Override
+    public List<YearMonth> listarPeriodosPagados(String contratoId) {
+        int[] codigos = periodos.periodos(porContrato.claves(contratoId));
+        List<YearMonth> resultado = new ArrayList<>(codigos.length);
+        for (int codigo : codigos) {
+            resultado.add(Periodo.decodificar(codigo));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,168 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio de pagos en dos niveles: los pagos en memoria y los de los contratos archivados en el
+ * {@link NivelFrio}.
+ * <p>
+ * Las búsquedas por ID, por contrato, por contrato y período, y por período consultan ambos niveles;
+ * en el listado por período los pagos archivados se leen sólo de los contratos cuyo rango de períodos se
+ * superpone con el pedido, y van al final. Los listados generales, la paginación general y el tamaño sólo
+ * cubren los pagos en memoria. Cualquier escritura sobre un pago de un contrato archivado reincorpora
+ * antes el contrato completo a memoria.
+ * <p>
+ * Los pagos de un contrato archivado se paginan por posición, con cursores propios. Si el contrato se
+ * reincorpora entre dos páginas, el cursor sigue siendo válido; si se archiva entre dos páginas, el
+ * cursor anterior se rechaza y el listado debe empezar de nuevo.
+ */
+class PagosEscalonados implements RepositorioPagos {
+
+    // Prefijo de los cursores por posición, que no aparece en los cursores de AlmacenIndexado
+    private static final String CURSOR_POSICION = "~";
+
+    private final PagosEnMemoria enMemoria;
+    private final NivelFrio frio;
+
+    PagosEscalonados(PagosEnMemoria enMemoria, NivelFrio frio) {
+        this.enMemoria = enMemoria;
+        this.frio = frio;
+    }
+
+    @Override
+    public Pago obtener(String id) {
+        Pago pago = enMemoria.obtener(id);
+        return pago != null ? pago : frio.pago(id);
+    }
+
+    @Override
+    public boolean agregar(Pago pago) {
+        if (frio.contienePago(pago.getId())) {
+            return false;
+        }
+        reincorporarContrato(pago);
+        return enMemoria.agregar(pago);
+    }
+
+    @Override
+    public void guardar(Pago pago) {
+        reincorporarContrato(pago);
+        enMemoria.guardar(pago);
+    }
+
+    @Override
+    public Pago eliminar(String id) {
+        String contratoId = frio.contratoDePago(id);
+        if (contratoId != null) {
+            frio.reincorporar(contratoId, null);
+        }
+        return enMemoria.eliminar(id);
+    }
+
+    /**
+     * Si el contrato del pago está archivado, lo reincorpora y enlaza el pago a la instancia en memoria.
+     */
+    private void reincorporarContrato(Pago pago) {
+        ContratoAlquiler contrato = pago.getContrato() == null ? null : frio.reincorporar(pago.getContrato().getId(), null);
+        if (contrato != null) {
+            pago.setContrato(contrato);
+        }
+    }
+
+    @Override
+    public Collection<Pago> valores() {
+        return enMemoria.valores();
+    }
+
+    @Override
+    public Pagina<Pago> pagina(String cursor, int tamanio) {
+        return enMemoria.pagina(cursor, tamanio);
+    }
+
+    @Override
+    public int tamanio() {
+        return enMemoria.tamanio();
+    }
+
+    @Override
+    public boolean estaVacio() {
+        return enMemoria.estaVacio() && frio.cantidadPagos() == 0;
+    }
+
+    @Override
+    public List<Pago> listarPorContrato(String contratoId) {
+        List<Pago> archivados = frio.pagos(contratoId);
+        return archivados != null ? archivados : enMemoria.listarPorContrato(contratoId);
+    }
+
+    @Override
+    public Pagina<Pago> paginaPorContrato(String contratoId, String cursor, int tamanio) {
+        boolean porPosicion = cursor != null && cursor.startsWith(CURSOR_POSICION);
+        List<Pago> archivados = frio.pagos(contratoId);
+        if (archivados != null) {
+            if (cursor != null && !porPosicion) {
+                throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor);
+            }
+            return paginaPorPosicion(archivados, cursor, tamanio);
+        }
+        if (porPosicion) {
+            return paginaPorPosicion(enMemoria.listarPorContrato(contratoId), cursor, tamanio);
+        }
+        return enMemoria.paginaPorContrato(contratoId, cursor, tamanio);
+    }
+
+    /**
+     * Devuelve una página de una lista, usando como cursor la posición del siguiente elemento.
+     */
+    private static Pagina<Pago> paginaPorPosicion(List<Pago> pagos, String cursor, int tamanio) {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamanio);
+        }
+        int desde;
+        try {
+            desde = cursor == null ? 0 : Integer.parseInt(cursor.substring(CURSOR_POSICION.length()), Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor, e);
+        }
+        if (desde < 0) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor);
+        }
+        int hasta = (int) Math.min(pagos.size(), (long) desde + tamanio);
+        List<Pago> elementos = desde >= hasta ? new ArrayList<>() : new ArrayList<>(pagos.subList(desde, hasta));
+        String siguiente = hasta < pagos.size() ? CURSOR_POSICION + Integer.toString(hasta, Character.MAX_RADIX) : null;
+        return new Pagina<>(elementos, siguiente);
+    }
+
+    @Override
+    public int eliminarPorContrato(String contratoId) {
+        frio.reincorporar(contratoId, null);
+        return enMemoria.eliminarPorContrato(contratoId);
+    }
+
+    @Override
+    public List<Pago> listarPorPeriodo(YearMonth desde, YearMonth hasta) {
+        return NivelFrio.agregarArchivadas(enMemoria.listarPorPeriodo(desde, hasta),
+                frio.pagosPorPeriodo(IndicePeriodos.codigoDesde(desde), IndicePeriodos.codigoHasta(hasta)), Pago::getId);
+    }
+
+    @Override
+    public List<Pago> listarPorContratoYPeriodo(String contratoId, YearMonth desde, YearMonth hasta) {
+        // Los pagos de un contrato archivado se filtran sobre su bloque; los demás usan el índice en memoria
+        return frio.contieneContrato(contratoId)
+                ? RepositorioPagos.super.listarPorContratoYPeriodo(contratoId, desde, hasta)
+                : enMemoria.listarPorContratoYPeriodo(contratoId, desde, hasta);
+    }
+
+    @Override
+    public List<YearMonth> listarPeriodosPagados(String contratoId) {
+        return frio.contieneContrato(contratoId)
+                ? RepositorioPagos.super.listarPeriodosPagados(contratoId)
+                : enMemoria.listarPeriodosPagados(contratoId);
+    }
+}
@@ -0,0 +1,780 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Repositorio de pagos que guarda cada pago en una casilla de ancho fijo fuera del heap, en segmentos de
+ * memoria ({@link MemorySegment}) reservados por bloques.
+ * <p>
+ * Un pago ocupa {@value #TAMANIO_CASILLA} bytes: el valor en centavos, la fecha como día de época, el contrato como un
+ * código del diccionario de contratos, el período como AAAAMM, los enlaces al pago anterior y al siguiente del
+ * mismo contrato, las marcas y el ID en UTF-8. Los IDs y períodos que no entran en ese formato se guardan aparte, en el heap.
+ * El índice por ID es una tabla hash de direccionamiento abierto, también fuera del heap, y cada contrato
+ * tiene una lista enlazada de sus casillas.
+ * <p>
+ * Las consultas devuelven copias en el heap de los pagos leídos ({@link CopiaDePago}), así que el heap sólo
+ * contiene los pagos que se están usando; como en los demás repositorios que devuelven copias, los cambios en
+ * un pago se registran con {@link #guardar(Pago)}. Dos copias del mismo pago almacenado son iguales con
+ * {@link Object#equals(Object)}.
+ * <p>
+ * Las casillas de los pagos eliminados se reutilizan en las altas siguientes, como las claves de
+ * {@link AlmacenIndexado}: el orden de los listados es el de las casillas, así que una alta posterior a
+ * una baja ocupa el lugar del pago eliminado. La lista de cada contrato también se mantiene en orden de
+ * casilla, para que sus listados sigan ese mismo orden.
+ * <p>
+ * Las escrituras se serializan con un {@link StampedLock}. Las lecturas son optimistas: no bloquean, y si
+ * coincidieron con una escritura (que pudo reutilizar la casilla que leían) se repiten con el cerrojo de
+ * lectura.
+ */
+class PagosFueraDelHeap implements RepositorioPagos {
+
+    // Disposición de una casilla
+    private static final long VALOR = 0;
+    private static final long FECHA = 8;
+    private static final long CONTRATO = 16;
+    private static final long PERIODO = 20;
+    private static final long SIGUIENTE = 24;
+    private static final long ANTERIOR = 28;
+    private static final long MARCAS = 32;
+    private static final long LARGO_ID = 33;
+    private static final long ID = 34;
+    static final int TAMANIO_CASILLA = 64;
+    private static final int MAXIMO_ID = TAMANIO_CASILLA - (int) ID;
+
+    // Marcas de una casilla
+    private static final byte OCUPADA = 1;
+    private static final byte CONFIRMADO = 2;
+    private static final byte FECHA_NULA = 4;
+    private static final byte PERIODO_NULO = 8;
+    // El período o el ID no entran en la casilla y están en el mapa de textos correspondiente
+    private static final byte PERIODO_TEXTO = 16;
+    private static final byte ID_LARGO = 32;
+
+    // Casillas por bloque de memoria (1 MB)
+    private static final int BITS_BLOQUE = 14;
+    private static final int CASILLAS_POR_BLOQUE = 1 << BITS_BLOQUE;
+
+    // Entradas de la tabla hash: 0 es una entrada libre, BORRADA una eliminada y el resto, la casilla más uno
+    private static final int BORRADA = -1;
+    private static final int CAPACIDAD_INICIAL = 1 << 12;
+
+    private static final int SIN_CASILLA = -1;
+
+    // Resuelve las referencias de los pagos a sus contratos
+    private final RepositorioContratos contratos;
+    private final StampedLock cerrojo = new StampedLock();
+    // Los segmentos se liberan cuando el almacén deja de usarse
+    private final Arena arena = Arena.ofAuto();
+    private volatile MemorySegment[] bloques = new MemorySegment[0];
+    private volatile MemorySegment tabla;
+    // Casillas escritas hasta ahora; publica el contenido de las casillas nuevas a los lectores
+    private volatile int limite;
+    private volatile int cantidad;
+    // Casillas liberadas por las bajas, que se asignan antes que las nuevas
+    private int[] libres = new int[16];
+    private int cantidadLibres;
+    // Entradas de la tabla en uso, incluidas las borradas
+    private int entradasUsadas;
+
+    // Diccionario de contratos: ID normalizado -> código, y código -> ID tal como se registró
+    private final Map<String, Integer> codigosContrato = new ConcurrentHashMap<>();
+    private volatile String[] idsContrato = new String[16];
+    // Primera y última casilla de los pagos de cada contrato, por código
+    private volatile int[] primeras = nuevasCabeceras(16);
+    private volatile int[] ultimas = nuevasCabeceras(16);
+
+    // IDs y períodos que no entran en su casilla, por número de casilla
+    private final Map<Integer, String> idsLargos = new ConcurrentHashMap<>();
+    private final Map<Integer, String> periodosTexto = new ConcurrentHashMap<>();
+
+    /**
+     * @param contratos El repositorio de contratos, con el que se resuelve el contrato de cada pago.
+     */
+    PagosFueraDelHeap(RepositorioContratos contratos) {
+        this.contratos = contratos;
+        this.tabla = arena.allocate(CAPACIDAD_INICIAL * 4L, 4);
+    }
+
+    private static int[] nuevasCabeceras(int tamanio) {
+        int[] cabeceras = new int[tamanio];
+        Arrays.fill(cabeceras, SIN_CASILLA);
+        return cabeceras;
+    }
+
+    // --- Consultas ---
+
+    @Override
+    public Pago obtener(String id) {
+        if (id == null) {
+            return null;
+        }
+        String clave = AlmacenIndexado.normalizar(id);
+        return leer(() -> {
+            int casilla = buscar(clave);
+            return casilla == SIN_CASILLA ? null : copiar(casilla);
+        });
+    }
+
+    /**
+     * Ejecuta una lectura de forma optimista y, si coincidió con una escritura, la repite con el cerrojo
+     * de lectura. Una lectura que coincidió con una escritura puede ver casillas a medio escribir y fallar;
+     * esa falla se descarta igual que su resultado.
+     */
+    private <R> R leer(Supplier<R> lectura) {
+        long sello = cerrojo.tryOptimisticRead();
+        if (sello != 0) {
+            try {
+                R resultado = lectura.get();
+                if (cerrojo.validate(sello)) {
+                    return resultado;
+                }
+            } catch (RuntimeException e) {
+                if (cerrojo.validate(sello)) {
+                    throw e;
+                }
+            }
+        }
+        sello = cerrojo.readLock();
+        try {
+            return lectura.get();
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Busca la casilla de un pago en la tabla hash.
+     * @param clave El ID normalizado.
+     * @return La casilla, o {@link #SIN_CASILLA} si no hay un pago con ese ID.
+     */
+    private int buscar(String clave) {
+        MemorySegment entradas = tabla;
+        int mascara = (int) (entradas.byteSize() / 4) - 1;
+        int escritas = limite;
+        for (int i = dispersar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int entrada = entradas.get(ValueLayout.JAVA_INT, i * 4L);
+            if (entrada == 0) {
+                return SIN_CASILLA;
+            }
+            int casilla = entrada - 1;
+            if (entrada != BORRADA && casilla < escritas && estaOcupada(casilla)
+                    && clave.equals(AlmacenIndexado.normalizar(leerId(casilla)))) {
+                return casilla;
+            }
+        }
+    }
+
+    private static int dispersar(String clave) {
+        int h = clave.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public Collection<Pago> valores() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Pago> iterator() {
+                return new Recorrido(0);
+            }
+
+            @Override
+            public int size() {
+                return cantidad;
+            }
+        };
+    }
+
+    @Override
+    public Pagina<Pago> pagina(String cursor, int tamanio) {
+        validarTamanio(tamanio);
+        Recorrido recorrido = new Recorrido(cursor == null ? 0 : leerCursor(cursor) + 1);
+        List<Pago> elementos = new ArrayList<>(Math.min(tamanio, 64));
+        while (recorrido.hasNext()) {
+            if (elementos.size() == tamanio) {
+                return new Pagina<>(elementos, cursor(elementos));
+            }
+            elementos.add(recorrido.next());
+        }
+        return new Pagina<>(elementos, null);
+    }
+
+    @Override
+    public List<Pago> listarPorContrato(String contratoId) {
+        Integer codigo = contratoId == null ? null : codigosContrato.get(AlmacenIndexado.normalizar(contratoId));
+        if (codigo == null) {
+            return new ArrayList<>();
+        }
+        return leer(() -> {
+            List<Pago> resultado = new ArrayList<>();
+            copiarDelContrato(codigo, SIN_CASILLA, Integer.MAX_VALUE, resultado);
+            return resultado;
+        });
+    }
+
+    @Override
+    public Pagina<Pago> paginaPorContrato(String contratoId, String cursor, int tamanio) {
+        validarTamanio(tamanio);
+        Integer codigo = contratoId == null ? null : codigosContrato.get(AlmacenIndexado.normalizar(contratoId));
+        if (codigo == null) {
+            return new Pagina<>(new ArrayList<>(), null);
+        }
+        long desde = cursor == null ? SIN_CASILLA : leerCursor(cursor);
+        return leer(() -> {
+            List<Pago> elementos = new ArrayList<>(Math.min(tamanio, 64));
+            boolean hayMas = copiarDelContrato(codigo, desde, tamanio, elementos);
+            return new Pagina<>(elementos, hayMas ? cursor(elementos) : null);
+        });
+    }
+
+    /**
+     * Copia los pagos de un contrato posteriores a una casilla. Las casillas de un contrato están
+     * enlazadas en orden creciente, que es el orden de los listados.
+     * @param desde La casilla después de la cual empezar, o {@link #SIN_CASILLA} para empezar por la primera.
+     * @param maximo La cantidad máxima de pagos a copiar.
+     * @param destino La lista donde se agregan las copias.
+     * @return true si quedan más pagos después de los copiados.
+     */
+    private boolean copiarDelContrato(int codigo, long desde, int maximo, List<Pago> destino) {
+        int pasos = 0;
+        for (int casilla = primeras[codigo]; casilla != SIN_CASILLA; casilla = siguiente(casilla)) {
+            // Una lectura optimista puede seguir enlaces a medio cambiar; nunca hay más casillas que el límite
+            if (++pasos > limite) {
+                throw new IllegalStateException("Enlaces inconsistentes en los pagos del contrato " + idsContrato[codigo]);
+            }
+            if (casilla <= desde || !estaOcupada(casilla)) {
+                continue;
+            }
+            if (destino.size() == maximo) {
+                return true;
+            }
+            destino.add(copiar(casilla));
+        }
+        return false;
+    }
+
+    private static void validarTamanio(int tamanio) {
+        if (tamanio <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo: " + tamanio);
+        }
+    }
+
+    /**
+     * El cursor de una página es el número de la última casilla devuelta.
+     */
+    private static String cursor(List<Pago> elementos) {
+        return Integer.toString(((CopiaDePago) elementos.get(elementos.size() - 1)).casilla, Character.MAX_RADIX);
+    }
+
+    private static long leerCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + cursor, e);
+        }
+    }
+
+    @Override
+    public int tamanio() {
+        return cantidad;
+    }
+
+    @Override
+    public boolean estaVacio() {
+        return cantidad == 0;
+    }
+
+    /**
+     * Recorre las casillas ocupadas en orden, desde una casilla dada, copiando cada pago al llegar a él. Es
+     * débilmente consistente: incluye las casillas escritas mientras se recorre.
+     */
+    private final class Recorrido implements Iterator<Pago> {
+        private long proxima;
+        private Pago siguiente;
+
+        private Recorrido(long desde) {
+            this.proxima = desde;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (siguiente == null && proxima < limite) {
+                int casilla = (int) proxima++;
+                siguiente = leer(() -> estaOcupada(casilla) ? copiar(casilla) : null);
+            }
+            return siguiente != null;
+        }
+
+        @Override
+        public Pago next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Pago pago = siguiente;
+            siguiente = null;
+            return pago;
+        }
+    }
+
+    // --- Escrituras ---
+
+    @Override
+    public boolean agregar(Pago pago) {
+        long sello = cerrojo.writeLock();
+        try {
+            return agregarBloqueado(pago);
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    private boolean agregarBloqueado(Pago pago) {
+        if (buscar(AlmacenIndexado.normalizar(pago.getId())) != SIN_CASILLA) {
+            return false;
+        }
+        // La tabla se amplía antes de escribir la casilla, para no colocarla dos veces
+        if ((entradasUsadas + 1) * 2L > tabla.byteSize() / 4) {
+            reconstruirTabla();
+        }
+        int casilla = cantidadLibres > 0 ? libres[--cantidadLibres] : limite;
+        if ((casilla >>> BITS_BLOQUE) == bloques.length) {
+            MemorySegment[] ampliados = Arrays.copyOf(bloques, bloques.length + 1);
+            ampliados[bloques.length] = arena.allocate((long) CASILLAS_POR_BLOQUE * TAMANIO_CASILLA, 8);
+            bloques = ampliados;
+        }
+        escribirId(casilla, pago.getId());
+        escribirValores(casilla, pago);
+        int codigo = codigoContrato(pago.getContrato() == null ? null : pago.getContrato().getId());
+        bloque(casilla).set(ValueLayout.JAVA_INT, desplazamiento(casilla) + CONTRATO, codigo);
+        if (casilla == limite) {
+            limite = casilla + 1;
+        }
+        if (codigo != SIN_CASILLA) {
+            enlazar(codigo, casilla);
+        }
+        if (colocar(tabla, casilla)) {
+            entradasUsadas++;
+        }
+        cantidad++;
+        return true;
+    }
+
+    /**
+     * Guarda los valores de un pago en su casilla, incluido su contrato, sin cambiar su lugar en los listados.
+     */
+    @Override
+    public void guardar(Pago pago) {
+        long sello = cerrojo.writeLock();
+        try {
+            int casilla = buscar(AlmacenIndexado.normalizar(pago.getId()));
+            if (casilla == SIN_CASILLA) {
+                agregarBloqueado(pago);
+                return;
+            }
+            escribirId(casilla, pago.getId());
+            escribirValores(casilla, pago);
+            int anterior = codigo(casilla);
+            int codigo = codigoContrato(pago.getContrato() == null ? null : pago.getContrato().getId());
+            if (codigo != anterior) {
+                if (anterior != SIN_CASILLA) {
+                    desenlazar(anterior, casilla);
+                }
+                bloque(casilla).set(ValueLayout.JAVA_INT, desplazamiento(casilla) + CONTRATO, codigo);
+                if (codigo != SIN_CASILLA) {
+                    enlazar(codigo, casilla);
+                }
+            }
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    @Override
+    public Pago eliminar(String id) {
+        if (id == null) {
+            return null;
+        }
+        long sello = cerrojo.writeLock();
+        try {
+            int casilla = buscar(AlmacenIndexado.normalizar(id));
+            if (casilla == SIN_CASILLA) {
+                return null;
+            }
+            Pago eliminado = copiar(casilla);
+            int codigo = codigo(casilla);
+            if (codigo != SIN_CASILLA) {
+                desenlazar(codigo, casilla);
+            }
+            liberar(casilla);
+            return eliminado;
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    @Override
+    public int eliminarPorContrato(String contratoId) {
+        Integer codigo = contratoId == null ? null : codigosContrato.get(AlmacenIndexado.normalizar(contratoId));
+        if (codigo == null) {
+            return 0;
+        }
+        long sello = cerrojo.writeLock();
+        try {
+            int eliminados = 0;
+            for (int casilla = primeras[codigo]; casilla != SIN_CASILLA; casilla = siguiente(casilla)) {
+                liberar(casilla);
+                eliminados++;
+            }
+            primeras[codigo] = SIN_CASILLA;
+            ultimas[codigo] = SIN_CASILLA;
+            return eliminados;
+        } finally {
+            cerrojo.unlockWrite(sello);
+        }
+    }
+
+    /**
+     * Marca una casilla como libre, la retira de la tabla y la deja disponible para una alta posterior.
+     * Sus enlaces no cambian, así que quien recorre la lista de su contrato puede continuar por ellos.
+     */
+    private void liberar(int casilla) {
+        MemorySegment entradas = tabla;
+        int mascara = (int) (entradas.byteSize() / 4) - 1;
+        for (int i = dispersar(AlmacenIndexado.normalizar(leerId(casilla))) & mascara; ; i = (i + 1) & mascara) {
+            int entrada = entradas.get(ValueLayout.JAVA_INT, i * 4L);
+            if (entrada == casilla + 1) {
+                entradas.set(ValueLayout.JAVA_INT, i * 4L, BORRADA);
+                break;
+            }
+        }
+        fijarMarcas(casilla, (byte) 0);
+        idsLargos.remove(casilla);
+        periodosTexto.remove(casilla);
+        if (cantidadLibres == libres.length) {
+            libres = Arrays.copyOf(libres, cantidadLibres * 2);
+        }
+        libres[cantidadLibres++] = casilla;
+        cantidad--;
+    }
+
+    /**
+     * Agrega una casilla a la lista de su contrato, en el lugar que le corresponde por su número. Una casilla
+     * nueva va al final; una reutilizada puede quedar entre otras.
+     */
+    private void enlazar(int codigo, int casilla) {
+        int posterior = SIN_CASILLA;
+        int anterior = ultimas[codigo];
+        while (anterior != SIN_CASILLA && anterior > casilla) {
+            posterior = anterior;
+            anterior = bloque(anterior).get(ValueLayout.JAVA_INT, desplazamiento(anterior) + ANTERIOR);
+        }
+        bloque(casilla).set(ValueLayout.JAVA_INT, desplazamiento(casilla) + SIGUIENTE, posterior);
+        bloque(casilla).set(ValueLayout.JAVA_INT, desplazamiento(casilla) + ANTERIOR, anterior);
+        if (anterior == SIN_CASILLA) {
+            primeras[codigo] = casilla;
+        } else {
+            bloque(anterior).set(ValueLayout.JAVA_INT, desplazamiento(anterior) + SIGUIENTE, casilla);
+        }
+        if (posterior == SIN_CASILLA) {
+            ultimas[codigo] = casilla;
+        } else {
+            bloque(posterior).set(ValueLayout.JAVA_INT, desplazamiento(posterior) + ANTERIOR, casilla);
+        }
+    }
+
+    /**
+     * Retira una casilla de la lista de su contrato. Los enlaces de la propia casilla no cambian.
+     */
+    private void desenlazar(int codigo, int casilla) {
+        int anterior = bloque(casilla).get(ValueLayout.JAVA_INT, desplazamiento(casilla) + ANTERIOR);
+        int posterior = siguiente(casilla);
+        if (anterior == SIN_CASILLA) {
+            primeras[codigo] = posterior;
+        } else {
+            bloque(anterior).set(ValueLayout.JAVA_INT, desplazamiento(anterior) + SIGUIENTE, posterior);
+        }
+        if (posterior == SIN_CASILLA) {
+            ultimas[codigo] = anterior;
+        } else {
+            bloque(posterior).set(ValueLayout.JAVA_INT, desplazamiento(posterior) + ANTERIOR, anterior);
+        }
+    }
+
+    /**
+     * Coloca una casilla en la primera entrada libre o borrada de su secuencia de sondeo.
+     * @return true si ocupó una entrada libre, false si reutilizó una borrada.
+     */
+    private static boolean colocar(MemorySegment entradas, int casilla, String clave) {
+        int mascara = (int) (entradas.byteSize() / 4) - 1;
+        for (int i = dispersar(clave) & mascara; ; i = (i + 1) & mascara) {
+            int entrada = entradas.get(ValueLayout.JAVA_INT, i * 4L);
+            if (entrada == 0 || entrada == BORRADA) {
+                entradas.set(ValueLayout.JAVA_INT, i * 4L, casilla + 1);
+                return entrada == 0;
+            }
+        }
+    }
+
+    private boolean colocar(MemorySegment entradas, int casilla) {
+        return colocar(entradas, casilla, AlmacenIndexado.normalizar(leerId(casilla)));
+    }
+
+    /**
+     * Reconstruye la tabla sin entradas borradas, con capacidad para el doble de los pagos actuales. Los
+     * lectores siguen usando la tabla anterior hasta que se publica la nueva.
+     */
+    private void reconstruirTabla() {
+        long capacidad = CAPACIDAD_INICIAL;
+        while (capacidad < (cantidad + 1) * 4L) {
+            capacidad <<= 1;
+        }
+        MemorySegment nueva = arena.allocate(capacidad * 4, 4);
+        for (int casilla = 0; casilla < limite; casilla++) {
+            if (estaOcupada(casilla)) {
+                colocar(nueva, casilla);
+            }
+        }
+        entradasUsadas = cantidad;
+        tabla = nueva;
+    }
+
+    /**
+     * Devuelve el código de un contrato en el diccionario, registrándolo si es nuevo.
+     */
+    private int codigoContrato(String contratoId) {
+        if (contratoId == null) {
+            return SIN_CASILLA;
+        }
+        String clave = AlmacenIndexado.normalizar(contratoId);
+        Integer codigo = codigosContrato.get(clave);
+        if (codigo != null) {
+            return codigo;
+        }
+        int nuevo = codigosContrato.size();
+        if (nuevo == idsContrato.length) {
+            int capacidad = nuevo * 2;
+            int[] nuevasPrimeras = Arrays.copyOf(primeras, capacidad);
+            int[] nuevasUltimas = Arrays.copyOf(ultimas, capacidad);
+            Arrays.fill(nuevasPrimeras, nuevo, capacidad, SIN_CASILLA);
+            Arrays.fill(nuevasUltimas, nuevo, capacidad, SIN_CASILLA);
+            primeras = nuevasPrimeras;
+            ultimas = nuevasUltimas;
+            idsContrato = Arrays.copyOf(idsContrato, capacidad);
+        }
+        idsContrato[nuevo] = contratoId;
+        codigosContrato.put(clave, nuevo);
+        return nuevo;
+    }
+
+    // --- Casillas ---
+
+    private MemorySegment bloque(int casilla) {
+        return bloques[casilla >>> BITS_BLOQUE];
+    }
+
+    private static long desplazamiento(int casilla) {
+        return (long) (casilla & (CASILLAS_POR_BLOQUE - 1)) * TAMANIO_CASILLA;
+    }
+
+    private byte marcas(int casilla) {
+        return bloque(casilla).get(ValueLayout.JAVA_BYTE, desplazamiento(casilla) + MARCAS);
+    }
+
+    private void fijarMarcas(int casilla, byte marcas) {
+        bloque(casilla).set(ValueLayout.JAVA_BYTE, desplazamiento(casilla) + MARCAS, marcas);
+    }
+
+    private boolean estaOcupada(int casilla) {
+        return (marcas(casilla) & OCUPADA) != 0;
+    }
+
+    private int siguiente(int casilla) {
+        return bloque(casilla).get(ValueLayout.JAVA_INT, desplazamiento(casilla) + SIGUIENTE);
+    }
+
+    private int codigo(int casilla) {
+        return bloque(casilla).get(ValueLayout.JAVA_INT, desplazamiento(casilla) + CONTRATO);
+    }
+
+    private void escribirId(int casilla, String id) {
+        MemorySegment bloque = bloque(casilla);
+        long base = desplazamiento(casilla);
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAXIMO_ID) {
+            idsLargos.put(casilla, id);
+            bloque.set(ValueLayout.JAVA_BYTE, base + LARGO_ID, (byte) 0);
+        } else {
+            idsLargos.remove(casilla);
+            MemorySegment.copy(bytes, 0, bloque, ValueLayout.JAVA_BYTE, base + ID, bytes.length);
+            bloque.set(ValueLayout.JAVA_BYTE, base + LARGO_ID, (byte) bytes.length);
+        }
+    }
+
+    private String leerId(int casilla) {
+        MemorySegment bloque = bloque(casilla);
+        long base = desplazamiento(casilla);
+        if ((marcas(casilla) & ID_LARGO) != 0) {
+            return idsLargos.get(casilla);
+        }
+        byte[] bytes = new byte[bloque.get(ValueLayout.JAVA_BYTE, base + LARGO_ID)];
+        MemorySegment.copy(bloque, ValueLayout.JAVA_BYTE, base + ID, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escribe todos los valores de un pago salvo el ID y el contrato, y marca la casilla como ocupada.
+     */
+    private void escribirValores(int casilla, Pago pago) {
+        byte marcas = OCUPADA;
+        if (idsLargos.containsKey(casilla)) {
+            marcas |= ID_LARGO;
+        }
+        if (pago.isConfirmado()) {
+            marcas |= CONFIRMADO;
+        }
+        bloque(casilla).set(ValueLayout.JAVA_LONG, desplazamiento(casilla) + VALOR, pago.getValorPagoCentavos());
+        marcas |= escribirFecha(casilla, pago.getFechaPago());
+        marcas |= escribirPeriodo(casilla, pago.getPeriodoCorrespondiente());
+        fijarMarcas(casilla, marcas);
+    }
+
+    /**
+     * @return La marca de fecha nula si corresponde.
+     */
+    private byte escribirFecha(int casilla, LocalDate fecha) {
+        if (fecha == null) {
+            return FECHA_NULA;
+        }
+        bloque(casilla).set(ValueLayout.JAVA_LONG, desplazamiento(casilla) + FECHA, fecha.toEpochDay());
+        return 0;
+    }
+
+    /**
+     * Escribe el período como AAAAMM si tiene la forma AAAA-MM, o lo guarda como texto.
+     * @return Las marcas que describen cómo quedó guardado.
+     */
+    private byte escribirPeriodo(int casilla, String periodo) {
+        YearMonth mes = periodo == null ? null : mesCanonico(periodo);
+        if (mes == null && periodo != null) {
+            periodosTexto.put(casilla, periodo);
+            return PERIODO_TEXTO;
+        }
+        periodosTexto.remove(casilla);
+        if (periodo == null) {
+            return PERIODO_NULO;
+        }
+        bloque(casilla).set(ValueLayout.JAVA_INT, desplazamiento(casilla) + PERIODO, Periodo.codificar(mes));
+        return 0;
+    }
+
+    /**
+     * @return El mes del período, o null si el texto no vuelve a escribirse exactamente igual desde el mes.
+     */
+    private static YearMonth mesCanonico(String periodo) {
+        try {
+            YearMonth mes = YearMonth.parse(periodo);
+            return mes.toString().equals(periodo) ? mes : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private String leerPeriodo(int casilla) {
+        byte marcas = marcas(casilla);
+        if ((marcas & PERIODO_NULO) != 0) {
+            return null;
+        }
+        if ((marcas & PERIODO_TEXTO) != 0) {
+            return periodosTexto.get(casilla);
+        }
+        return Periodo.decodificar(bloque(casilla).get(ValueLayout.JAVA_INT, desplazamiento(casilla) + PERIODO)).toString();
+    }
+
+    private LocalDate leerFecha(int casilla) {
+        if ((marcas(casilla) & FECHA_NULA) != 0) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(bloque(casilla).get(ValueLayout.JAVA_LONG, desplazamiento(casilla) + FECHA));
+    }
+
+    private long leerValor(int casilla) {
+        return bloque(casilla).get(ValueLayout.JAVA_LONG, desplazamiento(casilla) + VALOR);
+    }
+
+    private boolean leerConfirmado(int casilla) {
+        return (marcas(casilla) & CONFIRMADO) != 0;
+    }
+
+    private String leerContratoId(int casilla) {
+        int codigo = codigo(casilla);
+        return codigo == SIN_CASILLA ? null : idsContrato[codigo];
+    }
+
+    /**
+     * Resuelve el contrato de una casilla con el repositorio de contratos. Si el contrato no está (por ejemplo,
+     * durante la recuperación), devuelve una entidad de referencia con su ID.
+     */
+    private ContratoAlquiler leerContrato(int casilla) {
+        String id = leerContratoId(casilla);
+        if (id == null) {
+            return null;
+        }
+        ContratoAlquiler contrato = contratos.obtener(id);
+        return contrato != null ? contrato : new ContratoAlquiler(id, null, null, null, null, 0, false);
+    }
+
+    private Pago copiar(int casilla) {
+        return new CopiaDePago(this, casilla);
+    }
+
+    /**
+     * Copia en el heap de un pago almacenado. Es un pago común, que se puede modificar; recuerda sólo la
+     * casilla de la que se copió, para paginar y para reconocer otras copias del mismo pago: dos copias son
+     * iguales si vienen de la misma casilla y tienen el mismo ID, es decir, si nadie eliminó el pago y
+     * reutilizó la casilla para otro entre ambas lecturas.
+     */
+    static final class CopiaDePago extends Pago {
+        private final PagosFueraDelHeap almacen;
+        private final int casilla;
+
+        private CopiaDePago(PagosFueraDelHeap almacen, int casilla) {
+            super(almacen.leerId(casilla), almacen.leerContrato(casilla), almacen.leerFecha(casilla), 0,
+                    almacen.leerConfirmado(casilla), almacen.leerPeriodo(casilla));
+            setValorPagoCentavos(almacen.leerValor(casilla));
+            this.almacen = almacen;
+            this.casilla = casilla;
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            return otro instanceof CopiaDePago copia && copia.almacen == almacen && copia.casilla == casilla
+                    && Objects.equals(AlmacenIndexado.normalizar(copia.getId()), AlmacenIndexado.normalizar(getId()));
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(almacen) * 31 + casilla;
+        }
+    }
+}
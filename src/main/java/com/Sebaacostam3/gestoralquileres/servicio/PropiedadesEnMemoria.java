@@ -0,0 +1,58 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de propiedades en memoria.
+ * Mantiene un índice por tipo, estado de alquiler, superficie y precio ({@link IndicePropiedades})
+ * para las búsquedas por criterios. Todos los cambios de una propiedad, incluido alquilarla o
+ * liberarla con un contrato, pasan por {@link #guardar(Propiedad)}, que la vuelve a indexar.
+ */
+class PropiedadesEnMemoria extends AlmacenIndexado<Propiedad> implements RepositorioPropiedades {
+
+    private final IndicePropiedades indice = new IndicePropiedades();
+
+    PropiedadesEnMemoria() {
+        super(Propiedad::getId);
+    }
+
+    @Override
+    public boolean agregar(Propiedad propiedad) {
+        int clave = insertar(propiedad);
+        if (clave == SIN_CLAVE) {
+            return false;
+        }
+        indice.indexar(clave, propiedad);
+        return true;
+    }
+
+    @Override
+    public void guardar(Propiedad propiedad) {
+        int clave = claveDe(propiedad.getId());
+        if (clave == SIN_CLAVE) {
+            agregar(propiedad);
+            return;
+        }
+        super.guardar(propiedad);
+        indice.indexar(clave, propiedad);
+    }
+
+    @Override
+    void desindexar(int clave, Propiedad propiedad) {
+        indice.quitar(clave);
+    }
+
+    @Override
+    public List<Propiedad> buscar(ConsultaPropiedades consulta) {
+        if (consulta.sinCriterios()) {
+            return new ArrayList<>(valores());
+        }
+        List<Propiedad> resultado = enClaves(indice.buscar(consulta));
+        // Una propiedad modificada en el lugar que todavía no se guardó puede no coincidir con su entrada
+        resultado.removeIf(propiedad -> !consulta.incluye(propiedad));
+        return resultado;
+    }
+}
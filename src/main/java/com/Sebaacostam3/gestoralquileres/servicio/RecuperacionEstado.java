@@ -0,0 +1,210 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.persistencia.CodificadorEntidades;
+import com.Sebaacostam3.gestoralquileres.persistencia.Instantanea;
+import com.Sebaacostam3.gestoralquileres.persistencia.TipoOperacion;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+
+/**
+ * Reconstruye los repositorios en memoria de un gestor a partir de una instantánea y de los registros del diario
+ * anotados después de ella.
+ * <p>
+ * La instantánea se toma sin detener a las escrituras, así que puede reflejar algunas escrituras que
+ * también figuran en el diario. Por eso cada registro se aplica como un "rehacer" idempotente: las altas
+ * y actualizaciones guardan el estado completo de la entidad, las bajas eliminan si la entidad existe,
+ * y los cambios de estado (finalizar, confirmar) fijan el valor final. Los registros que afectan a otra
+ * entidad (finalizar o eliminar un contrato libera su propiedad) llevan el contrato completo, ya que la
+ * instantánea puede incluir la propiedad pero no el contrato. Aplicar todos los registros en
+ * orden deja el mismo estado sin importar en qué punto de ellos se tomó la instantánea.
+ * <p>
+ * Las referencias entre entidades se leen sólo con su ID y se enlazan a las instancias reales al final,
+ * con {@link #enlazarReferencias()}. Los IDs de las entidades eliminadas, y los reservados por la
+ * instantánea, se informan a los generadores para que no vuelvan a entregarse. Se usa desde un solo
+ * hilo, antes de publicar el gestor.
+ * <p>
+ * Con nivel frío, la instantánea empieza con el índice de los contratos archivados. Un contrato que además
+ * figura en memoria en la instantánea se reincorporó mientras se tomaba, así que su versión archivada se
+ * descarta. Los registros del diario posteriores sobre contratos archivados los reincorporan como en
+ * cualquier escritura.
+ */
+class RecuperacionEstado {
+
+    private final RepositorioPropiedades propiedades;
+    private final RepositorioInquilinos inquilinos;
+    private final RepositorioContratos contratos;
+    private final RepositorioPagos pagos;
+    private final RepositorioIncidencias incidencias;
+    private final NivelFrio nivelFrio;
+    // Recibe los IDs que ya no están en los almacenes pero no deben volver a generarse, con el tipo de entidad
+    private final BiConsumer<Integer, String> reservarId;
+
+    RecuperacionEstado(Repositorios repositorios, BiConsumer<Integer, String> reservarId) {
+        this.propiedades = repositorios.getPropiedades();
+        this.inquilinos = repositorios.getInquilinos();
+        this.contratos = repositorios.getContratos();
+        this.pagos = repositorios.getPagos();
+        this.incidencias = repositorios.getIncidencias();
+        this.nivelFrio = repositorios.getNivelFrio();
+        this.reservarId = reservarId;
+    }
+
+    /**
+     * Carga una entidad leída de una instantánea.
+     * @param tipo El tipo de entidad, según las constantes de {@link Instantanea}.
+     * @param entrada La entrada posicionada al comienzo de la entidad.
+     * @param version La versión de la codificación de la instantánea.
+     * @throws IOException Si la entidad no se puede leer o el tipo es desconocido.
+     */
+    void cargar(int tipo, DataInputStream entrada, int version) throws IOException {
+        switch (tipo) {
+            case Instantanea.PROPIEDAD -> propiedades.guardar(CodificadorEntidades.leerPropiedad(entrada, version));
+            case Instantanea.INQUILINO -> inquilinos.guardar(CodificadorEntidades.leerInquilino(entrada));
+            case Instantanea.CONTRATO -> {
+                ContratoAlquiler contrato = CodificadorEntidades.leerContrato(entrada, version);
+                if (nivelFrio != null) {
+                    nivelFrio.descartar(contrato.getId());
+                }
+                contratos.guardar(contrato);
+            }
+            case Instantanea.PAGO -> pagos.guardar(CodificadorEntidades.leerPago(entrada, version));
+            case Instantanea.INCIDENCIA -> incidencias.guardar(CodificadorEntidades.leerIncidencia(entrada, version));
+            case Instantanea.ID_RESERVADO -> reservarId.accept(entrada.readUnsignedByte(), CodificadorEntidades.leerTexto(entrada));
+            case Instantanea.ARCHIVO_FRIO -> nivelFrio().abrirArchivo(entrada.readLong());
+            case Instantanea.ARCHIVADO -> nivelFrio().registrar(NivelFrio.Entrada.leer(entrada, false, version));
+            case Instantanea.ARCHIVADO_CON_RANGOS -> nivelFrio().registrar(NivelFrio.Entrada.leer(entrada, true, version));
+            default -> throw new IOException("Tipo de entidad desconocido en la instantánea: " + tipo);
+        }
+    }
+
+    private NivelFrio nivelFrio() throws IOException {
+        if (nivelFrio == null) {
+            throw new IOException("La instantánea tiene contratos archivados: el gestor debe abrirse con nivel frío.");
+        }
+        return nivelFrio;
+    }
+
+    /**
+     * Aplica un registro del diario.
+     * @param registro El contenido del registro.
+     * @param version La versión de la codificación del segmento del diario.
+     * @throws UncheckedIOException Si el registro no se puede leer.
+     */
+    void rehacer(ByteBuffer registro, int version) {
+        DataInput entrada = new DataInputStream(new ByteArrayInputStream(
+                registro.array(), registro.arrayOffset() + registro.position(), registro.remaining()));
+        try {
+            TipoOperacion tipo = CodificadorEntidades.leerTipo(entrada);
+            switch (tipo) {
+                case AGREGAR_PROPIEDAD, ACTUALIZAR_PROPIEDAD -> propiedades.guardar(CodificadorEntidades.leerPropiedad(entrada, version));
+                case ELIMINAR_PROPIEDAD -> eliminar(propiedades, Instantanea.PROPIEDAD, CodificadorEntidades.leerTexto(entrada));
+                case AGREGAR_INQUILINO, ACTUALIZAR_INQUILINO -> inquilinos.guardar(CodificadorEntidades.leerInquilino(entrada));
+                case ELIMINAR_INQUILINO -> eliminar(inquilinos, Instantanea.INQUILINO, CodificadorEntidades.leerTexto(entrada));
+                case CREAR_CONTRATO -> {
+                    ContratoAlquiler contrato = CodificadorEntidades.leerContrato(entrada, version);
+                    contratos.guardar(contrato);
+                    marcarAlquilada(contrato, true);
+                }
+                case ACTUALIZAR_CONTRATO -> contratos.guardar(CodificadorEntidades.leerContrato(entrada, version));
+                case FINALIZAR_CONTRATO -> {
+                    ContratoAlquiler finalizado = CodificadorEntidades.leerContrato(entrada, version);
+                    ContratoAlquiler contrato = contratos.obtener(finalizado.getId());
+                    if (contrato != null) {
+                        contrato.setActivo(false);
+                        contratos.guardar(contrato);
+                    }
+                    marcarAlquilada(finalizado, false);
+                }
+                case ELIMINAR_CONTRATO -> eliminarContrato(CodificadorEntidades.leerContrato(entrada, version));
+                case REGISTRAR_PAGO -> {
+                    // Los pagos pueden eliminarse en cascada con su contrato, sin un registro propio
+                    Pago pago = CodificadorEntidades.leerPago(entrada, version);
+                    reservarId.accept(Instantanea.PAGO, pago.getId());
+                    pagos.guardar(pago);
+                }
+                case ACTUALIZAR_PAGO -> pagos.guardar(CodificadorEntidades.leerPago(entrada, version));
+                case CONFIRMAR_PAGO -> {
+                    Pago pago = pagos.obtener(CodificadorEntidades.leerTexto(entrada));
+                    if (pago != null) {
+                        pago.setConfirmado(true);
+                        pagos.guardar(pago);
+                    }
+                }
+                case ELIMINAR_PAGO -> eliminar(pagos, Instantanea.PAGO, CodificadorEntidades.leerTexto(entrada));
+                case REPORTAR_INCIDENCIA, ACTUALIZAR_INCIDENCIA -> incidencias.guardar(CodificadorEntidades.leerIncidencia(entrada, version));
+                case ELIMINAR_INCIDENCIA -> eliminar(incidencias, Instantanea.INCIDENCIA, CodificadorEntidades.leerTexto(entrada));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Registro del diario ilegible.", e);
+        }
+    }
+
+    /**
+     * Elimina una entidad si existe, reservando su ID.
+     */
+    private <T> void eliminar(Repositorio<T> repositorio, int tipo, String id) {
+        reservarId.accept(tipo, id);
+        repositorio.eliminar(id);
+    }
+
+    /**
+     * Elimina un contrato junto con sus pagos, liberando la propiedad si el contrato estaba activo.
+     * El estado del contrato se toma del registro, porque la instantánea puede no incluirlo.
+     */
+    private void eliminarContrato(ContratoAlquiler eliminado) {
+        eliminar(contratos, Instantanea.CONTRATO, eliminado.getId());
+        if (eliminado.isActivo()) {
+            marcarAlquilada(eliminado, false);
+        }
+        pagos.eliminarPorContrato(eliminado.getId());
+    }
+
+    private void marcarAlquilada(ContratoAlquiler contrato, boolean alquilada) {
+        Propiedad propiedad = contrato.getPropiedad() == null ? null : propiedades.obtener(contrato.getPropiedad().getId());
+        if (propiedad != null) {
+            propiedad.setAlquilada(alquilada);
+            propiedades.guardar(propiedad);
+        }
+    }
+
+    /**
+     * Reemplaza las referencias leídas por ID por las instancias registradas en los repositorios.
+     * Las referencias a entidades que ya no existen (por ejemplo, la propiedad eliminada de un
+     * contrato finalizado) conservan la entidad de referencia con su ID.
+     */
+    void enlazarReferencias() {
+        for (ContratoAlquiler contrato : contratos.valores()) {
+            Propiedad propiedad = contrato.getPropiedad() == null ? null : propiedades.obtener(contrato.getPropiedad().getId());
+            if (propiedad != null) {
+                contrato.setPropiedad(propiedad);
+            }
+            Inquilino inquilino = contrato.getInquilino() == null ? null : inquilinos.obtener(contrato.getInquilino().getId());
+            if (inquilino != null) {
+                contrato.setInquilino(inquilino);
+            }
+        }
+        for (Pago pago : pagos.valores()) {
+            ContratoAlquiler contrato = contratos.obtener(pago.getContrato().getId());
+            if (contrato != null) {
+                pago.setContrato(contrato);
+            }
+        }
+        for (Incidencia incidencia : incidencias.valores()) {
+            Propiedad propiedad = incidencia.getPropiedad() == null ? null : propiedades.obtener(incidencia.getPropiedad().getId());
+            if (propiedad != null) {
+                incidencia.setPropiedad(propiedad);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Registro asíncrono de los eventos de diagnóstico del gestor.
+ * <p>
+ * Las operaciones sólo encolan el evento (operación, resultado e ID), sin construir cadenas
+ * ni escribir en la salida. Un hilo de fondo da formato a los eventos y los entrega a la
+ * salida configurada. La cola es acotada: si se llena, los eventos nuevos se descartan y se
+ * cuentan, de modo que un destino lento nunca frena a las escrituras.
+ * <p>
+ * El registro desactivado no encola nada y es el que usa el gestor por defecto.
+ */
+public final class RegistroEventos implements AutoCloseable {
+
+    /**
+     * Evento pendiente de formatear.
+     */
+    private static final class Evento {
+        private final long instante;
+        private final String operacion;
+        private final Resultado resultado;
+        private final String id;
+
+        private Evento(long instante, String operacion, Resultado resultado, String id) {
+            this.instante = instante;
+            this.operacion = operacion;
+            this.resultado = resultado;
+            this.id = id;
+        }
+    }
+
+    private static final RegistroEventos DESACTIVADO = new RegistroEventos();
+
+    private final BlockingQueue<Evento> cola;
+    private final Consumer<String> salida;
+    private final Thread consumidor;
+    private final LongAdder descartados = new LongAdder();
+    private volatile boolean cerrado;
+
+    /**
+     * Constructor del registro desactivado.
+     */
+    private RegistroEventos() {
+        this.cola = null;
+        this.salida = null;
+        this.consumidor = null;
+        this.cerrado = true;
+    }
+
+    /**
+     * Crea un registro activo y arranca su hilo de fondo.
+     * @param capacidad Cantidad máxima de eventos en espera de ser escritos.
+     * @param salida Destino de las líneas ya formateadas (por ejemplo, {@code System.out::println}).
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    public RegistroEventos(int capacidad, Consumer<String> salida) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad del registro debe ser positiva: " + capacidad);
+        }
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.salida = salida;
+        this.consumidor = new Thread(this::consumir, "registro-eventos");
+        this.consumidor.setDaemon(true);
+        this.consumidor.start();
+    }
+
+    /**
+     * @return Un registro que descarta todos los eventos sin costo.
+     */
+    public static RegistroEventos desactivado() {
+        return DESACTIVADO;
+    }
+
+    /**
+     * @return true si el registro acepta eventos.
+     */
+    public boolean isActivo() {
+        return !cerrado;
+    }
+
+    /**
+     * Encola un evento sin bloquear. Si el registro está desactivado no hace nada.
+     * @param operacion El nombre de la operación del gestor.
+     * @param resultado El resultado de la operación.
+     * @param id El ID de la entidad involucrada (puede ser null).
+     */
+    void registrar(String operacion, Resultado resultado, String id) {
+        if (cerrado) {
+            return;
+        }
+        if (!cola.offer(new Evento(System.currentTimeMillis(), operacion, resultado, id))) {
+            descartados.increment();
+            return;
+        }
+        // Si el registro se cerró mientras se encolaba, puede que el cierre ya haya vaciado la cola:
+        // el evento se escribe aquí mismo para no perderlo
+        if (cerrado) {
+            vaciar();
+        }
+    }
+
+    /**
+     * @return La cantidad de eventos descartados porque la cola estaba llena.
+     */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Bucle del hilo de fondo: formatea y escribe los eventos hasta que el registro se cierra
+     * y la cola queda vacía.
+     */
+    private void consumir() {
+        while (!cerrado || !cola.isEmpty()) {
+            Evento evento;
+            try {
+                evento = cola.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (evento != null) {
+                escribir(evento);
+            }
+        }
+    }
+
+    /**
+     * Escribe un evento en la salida. Se sincroniza para que la salida nunca reciba dos líneas a la vez,
+     * aunque durante el cierre escriban también otros hilos.
+     */
+    private synchronized void escribir(Evento evento) {
+        salida.accept(formatear(evento));
+    }
+
+    /**
+     * Escribe, desde el hilo que llama, los eventos que queden en la cola.
+     */
+    private synchronized void vaciar() {
+        Evento evento;
+        while ((evento = cola.poll()) != null) {
+            salida.accept(formatear(evento));
+        }
+    }
+
+    /**
+     * Da formato a un evento para la salida.
+     */
+    private static String formatear(Evento evento) {
+        return Instant.ofEpochMilli(evento.instante) + " " + evento.operacion
+                + (evento.id == null ? "" : " [" + evento.id + "]")
+                + " " + evento.resultado + ": " + evento.resultado.getDescripcion();
+    }
+
+    /**
+     * Deja de aceptar eventos y espera a que se escriban los que quedaban en la cola. Los eventos
+     * encolados mientras el hilo de fondo terminaba se escriben desde aquí, y los que se encolen
+     * después, desde el hilo que los registra.
+     */
+    @Override
+    public void close() {
+        if (consumidor == null || cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            consumidor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vaciar();
+    }
+}
@@ -0,0 +1,106 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva: cuántas filas se importaron y, para cada fila rechazada,
+ * su número de línea en el archivo, el ID que traía (si se llegó a leer) y el motivo.
+ */
+public final class ReporteImportacion {
+
+    /**
+     * Una fila rechazada del archivo importado.
+     */
+    public static final class ErrorFila {
+        private final long linea;
+        private final String id;
+        private final String motivo;
+
+        ErrorFila(long linea, String id, String motivo) {
+            this.linea = linea;
+            this.id = id;
+            this.motivo = motivo;
+        }
+
+        /**
+         * @return El número de línea en el archivo (la cabecera es la línea 1).
+         */
+        public long getLinea() {
+            return linea;
+        }
+
+        /**
+         * @return El ID de la fila, o null si no tenía o no se pudo leer.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return Por qué se rechazó la fila.
+         */
+        public String getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "Línea " + linea + (id == null ? "" : " (ID: " + id + ")") + ": " + motivo;
+        }
+    }
+
+    private final List<ErrorFila> errores = new ArrayList<>();
+    private long importadas;
+
+    void contarImportada() {
+        importadas++;
+    }
+
+    void agregarError(long linea, String id, String motivo) {
+        errores.add(new ErrorFila(linea, id, motivo));
+    }
+
+    /**
+     * @return La cantidad de filas importadas.
+     */
+    public long getImportadas() {
+        return importadas;
+    }
+
+    /**
+     * @return La cantidad de filas rechazadas.
+     */
+    public int getRechazadas() {
+        return errores.size();
+    }
+
+    /**
+     * @return Las filas rechazadas, en el orden del archivo.
+     */
+    public List<ErrorFila> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    /**
+     * Escribe las filas rechazadas como CSV, con las columnas {@code linea,id,motivo}.
+     * @param destino El archivo a escribir; se reemplaza si existe.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public void escribir(Path destino) throws IOException {
+        try (BufferedWriter salida = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            salida.write("linea,id,motivo");
+            salida.newLine();
+            for (ErrorFila error : errores) {
+                salida.write(error.getLinea() + "," + FormatoCsv.escapar(error.getId()) + "," + FormatoCsv.escapar(error.getMotivo()));
+                salida.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Almacenamiento de una entidad, indexado por su ID.
+ * <p>
+ * El gestor aplica las reglas de negocio y delega en los repositorios sólo el almacenamiento y las
+ * consultas. Las búsquedas por ID no distinguen mayúsculas de minúsculas. Todos los listados de un
+ * repositorio siguen un mismo orden, el "orden de los listados": el de alta, salvo que la implementación
+ * reutilice para una alta el lugar de una entidad eliminada, como los repositorios en memoria. Guardar una
+ * entidad no cambia su lugar. Las implementaciones deben ser seguras para hilos; el gestor ya serializa
+ * las escrituras sobre una misma entidad con sus bloqueos.
+ * <p>
+ * Las entidades devueltas pueden ser las mismas instancias almacenadas o copias. Por eso, después de
+ * modificar una entidad, el gestor siempre llama a {@link #guardar(Object)} para registrar el cambio.
+ * @param <T> El tipo de entidad almacenada.
+ */
+public interface Repositorio<T> {
+
+    /**
+     * Busca una entidad por su ID.
+     * @param id El ID a buscar (no distingue mayúsculas/minúsculas).
+     * @return La entidad encontrada, o null si no existe.
+     */
+    T obtener(String id);
+
+    /**
+     * Agrega una entidad nueva, de forma atómica.
+     * @param entidad La entidad a agregar (con su ID ya asignado).
+     * @return true si se agregó, false si ya existía una entidad con ese ID.
+     */
+    boolean agregar(T entidad);
+
+    /**
+     * Agrega varias entidades nuevas de una vez. Las que tengan un ID ya registrado, o repetido dentro
+     * del mismo lote, se omiten.
+     * @param entidades Las entidades a agregar (con sus IDs ya asignados).
+     * @return Las entidades que se agregaron, en el mismo orden.
+     */
+    default List<T> agregarTodas(List<T> entidades) {
+        List<T> agregadas = new ArrayList<>(entidades.size());
+        for (T entidad : entidades) {
+            if (agregar(entidad)) {
+                agregadas.add(entidad);
+            }
+        }
+        return agregadas;
+    }
+
+    /**
+     * Registra el estado actual de una entidad, reemplazando el de la entidad con su mismo ID sin
+     * cambiar su posición en el orden de los listados. Si no existe, se agrega.
+     * @param entidad La entidad a guardar.
+     */
+    void guardar(T entidad);
+
+    /**
+     * Elimina la entidad con el ID dado.
+     * @param id El ID de la entidad a eliminar.
+     * @return La entidad eliminada, o null si no existía.
+     */
+    T eliminar(String id);
+
+    /**
+     * Devuelve las entidades almacenadas, en el orden de los listados. Según la implementación, es una vista
+     * débilmente consistente o una copia; en ambos casos es de solo lectura.
+     * @return Las entidades almacenadas.
+     */
+    Collection<T> valores();
+
+    /**
+     * Devuelve una página de entidades en el orden de los listados, empezando después del cursor dado.
+     * @param cursor El cursor devuelto por la página anterior, o null para empezar desde el principio.
+     * @param tamanio La cantidad máxima de entidades por página.
+     * @return La página solicitada.
+     * @throws IllegalArgumentException Si el tamaño no es positivo o el cursor no es válido.
+     */
+    Pagina<T> pagina(String cursor, int tamanio);
+
+    /**
+     * @return La cantidad de entidades almacenadas.
+     */
+    int tamanio();
+
+    /**
+     * @return true si el repositorio no contiene entidades.
+     */
+    default boolean estaVacio() {
+        return tamanio() == 0;
+    }
+}
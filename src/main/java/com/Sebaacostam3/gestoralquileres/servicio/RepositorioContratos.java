@@ -0,0 +1,77 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repositorio de contratos de alquiler, con las consultas por estado que usan los listados
+ * y las reglas de eliminación de propiedades e inquilinos, y las consultas por fechas.
+ * Un contrato sin fecha de inicio se toma como vigente desde siempre, y uno sin fecha de fin,
+ * como vigente para siempre y sin vencimiento.
+ */
+public interface RepositorioContratos extends Repositorio<ContratoAlquiler> {
+
+    /**
+     * @param propiedadId El ID de la propiedad.
+     * @return La cantidad de contratos activos de la propiedad.
+     */
+    int contarActivosPorPropiedad(String propiedadId);
+
+    /**
+     * @param inquilinoId El ID del inquilino.
+     * @return La cantidad de contratos activos del inquilino.
+     */
+    int contarActivosPorInquilino(String inquilinoId);
+
+    /**
+     * @return Los contratos activos, en el orden de los listados.
+     */
+    List<ContratoAlquiler> listarActivos();
+
+    /**
+     * Devuelve una página de los contratos activos, en el orden de los listados.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de contratos por página.
+     * @return La página solicitada.
+     */
+    Pagina<ContratoAlquiler> paginaActivos(String cursor, int tamanio);
+
+    /**
+     * @param desde El primer día del rango.
+     * @param hasta El último día del rango.
+     * @return Los contratos activos cuya fecha de fin cae en el rango, ordenados por fecha de fin y,
+     *         a igual fecha, en el orden de los listados.
+     */
+    default List<ContratoAlquiler> listarPorVencer(LocalDate desde, LocalDate hasta) {
+        List<ContratoAlquiler> resultado = new ArrayList<>();
+        for (ContratoAlquiler contrato : valores()) {
+            LocalDate fin = contrato.getFechaFin();
+            if (contrato.isActivo() && fin != null && !fin.isBefore(desde) && !fin.isAfter(hasta)) {
+                resultado.add(contrato);
+            }
+        }
+        resultado.sort(Comparator.comparing(ContratoAlquiler::getFechaFin));
+        return resultado;
+    }
+
+    /**
+     * @param desde El primer día del rango.
+     * @param hasta El último día del rango.
+     * @return Los contratos, activos o no, cuyo período tiene algún día en el rango, en el orden de los listados.
+     */
+    default List<ContratoAlquiler> listarSuperpuestos(LocalDate desde, LocalDate hasta) {
+        List<ContratoAlquiler> resultado = new ArrayList<>();
+        for (ContratoAlquiler contrato : valores()) {
+            LocalDate inicio = contrato.getFechaInicio();
+            LocalDate fin = contrato.getFechaFin();
+            if ((inicio == null || !inicio.isAfter(hasta)) && (fin == null || !fin.isBefore(desde))) {
+                resultado.add(contrato);
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,82 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositorio de incidencias, con las consultas por propiedad y por estado, y el conteo de
+ * incidencias pendientes que usa la regla de eliminación de propiedades.
+ * <p>
+ * Las consultas por estado tienen implementaciones por omisión que recorren las incidencias; el
+ * repositorio en memoria las resuelve con un índice por estado.
+ */
+public interface RepositorioIncidencias extends Repositorio<Incidencia> {
+
+    /**
+     * @param propiedadId El ID de la propiedad.
+     * @return La cantidad de incidencias abiertas de la propiedad.
+     */
+    int contarAbiertasPorPropiedad(String propiedadId);
+
+    /**
+     * @param propiedadId El ID de la propiedad.
+     * @return Las incidencias de la propiedad, en el orden de los listados.
+     */
+    List<Incidencia> listarPorPropiedad(String propiedadId);
+
+    /**
+     * Devuelve una página de las incidencias de una propiedad, en el orden de los listados.
+     * @param propiedadId El ID de la propiedad.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de incidencias por página.
+     * @return La página solicitada.
+     */
+    Pagina<Incidencia> paginaPorPropiedad(String propiedadId, String cursor, int tamanio);
+
+    /**
+     * @param propiedadId El ID de la propiedad.
+     * @return Las incidencias abiertas de la propiedad, en el orden de los listados.
+     */
+    default List<Incidencia> listarAbiertasPorPropiedad(String propiedadId) {
+        List<Incidencia> abiertas = new ArrayList<>();
+        for (Incidencia incidencia : listarPorPropiedad(propiedadId)) {
+            if (incidencia.getEstado().estaAbierta()) {
+                abiertas.add(incidencia);
+            }
+        }
+        return abiertas;
+    }
+
+    /**
+     * @param estado El estado buscado.
+     * @return Las incidencias en ese estado, en el orden de los listados.
+     */
+    default List<Incidencia> listarPorEstado(EstadoIncidencia estado) {
+        List<Incidencia> resultado = new ArrayList<>();
+        for (Incidencia incidencia : valores()) {
+            if (incidencia.getEstado() == estado) {
+                resultado.add(incidencia);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return La cantidad de incidencias en cada estado, con todos los estados presentes.
+     */
+    default Map<EstadoIncidencia, Integer> contarPorEstado() {
+        Map<EstadoIncidencia, Integer> cantidades = new EnumMap<>(EstadoIncidencia.class);
+        for (EstadoIncidencia estado : EstadoIncidencia.values()) {
+            cantidades.put(estado, 0);
+        }
+        for (Incidencia incidencia : valores()) {
+            cantidades.merge(incidencia.getEstado(), 1, Integer::sum);
+        }
+        return cantidades;
+    }
+}
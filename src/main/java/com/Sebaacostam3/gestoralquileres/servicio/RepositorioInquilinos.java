@@ -0,0 +1,85 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repositorio de inquilinos.
+ * <p>
+ * Un repositorio que hace cumplir por su cuenta la unicidad del DNI y del email lanza
+ * {@link DatoUnicoRepetido} desde {@link #agregar(Object)} y {@link #guardar(Object)} si otro inquilino
+ * ya tiene alguno de los dos, y {@link #agregarTodas(java.util.List)} omite esos inquilinos.
+ */
+public interface RepositorioInquilinos extends Repositorio<Inquilino> {
+
+    /**
+     * @param dni Un DNI, con o sin puntos ni guiones (ver {@link Inquilino#normalizarDni(String)}).
+     * @return El inquilino con ese DNI, o null si no hay ninguno. Si por datos anteriores a la regla
+     *         de unicidad hay varios, el primero en el orden de los listados.
+     */
+    default Inquilino buscarPorDni(String dni) {
+        String buscado = Inquilino.normalizarDni(dni);
+        if (buscado == null) {
+            return null;
+        }
+        for (Inquilino inquilino : valores()) {
+            if (buscado.equals(Inquilino.normalizarDni(inquilino.getDni()))) {
+                return inquilino;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param email Un email, sin distinguir mayúsculas (ver {@link Inquilino#normalizarEmail(String)}).
+     * @return El inquilino con ese email, o null si no hay ninguno. Si por datos anteriores a la regla
+     *         de unicidad hay varios, el primero en el orden de los listados.
+     */
+    default Inquilino buscarPorEmail(String email) {
+        String buscado = Inquilino.normalizarEmail(email);
+        if (buscado == null) {
+            return null;
+        }
+        for (Inquilino inquilino : valores()) {
+            if (buscado.equals(Inquilino.normalizarEmail(inquilino.getEmail()))) {
+                return inquilino;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca inquilinos por parte de su nombre, apellido, DNI, email o teléfono, tolerando errores de
+     * tipeo (ver {@link Trigramas}).
+     * @param texto El texto buscado.
+     * @param limite La cantidad máxima de resultados (positiva).
+     * @return Los inquilinos encontrados, del que más coincide al que menos; a igual coincidencia,
+     *         en el orden de los listados.
+     */
+    default List<Inquilino> buscarPorTexto(String texto, int limite) {
+        Trigramas.Consulta consulta = Trigramas.deBusqueda(texto);
+        List<Inquilino> candidatos = new ArrayList<>();
+        List<Integer> puntajes = new ArrayList<>();
+        if (!consulta.estaVacia()) {
+            for (Inquilino inquilino : valores()) {
+                int puntaje = consulta.puntaje(Trigramas.deInquilino(inquilino));
+                if (puntaje > 0) {
+                    candidatos.add(inquilino);
+                    puntajes.add(puntaje);
+                }
+            }
+        }
+        // Orden estable: a igual puntaje se conserva el orden de los listados
+        Integer[] orden = new Integer[candidatos.size()];
+        Arrays.setAll(orden, i -> i);
+        Arrays.sort(orden, (a, b) -> Integer.compare(puntajes.get(b), puntajes.get(a)));
+        List<Inquilino> resultado = new ArrayList<>(Math.min(orden.length, limite));
+        for (int i = 0; i < orden.length && i < limite; i++) {
+            resultado.add(candidatos.get(orden[i]));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,99 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Periodo;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repositorio de pagos, con las consultas y la baja en cascada por contrato.
+ * El contrato de un pago no cambia una vez registrado.
+ * <p>
+ * Las consultas por período correspondiente sólo consideran los pagos con un período AAAA-MM
+ * ({@link Pago#getPeriodoCodigo()}). Las implementaciones por omisión recorren los pagos; los
+ * repositorios en memoria las resuelven con un índice por período.
+ */
+public interface RepositorioPagos extends Repositorio<Pago> {
+
+    /**
+     * @param contratoId El ID del contrato.
+     * @return Los pagos del contrato, en el orden de los listados.
+     */
+    List<Pago> listarPorContrato(String contratoId);
+
+    /**
+     * Devuelve una página de los pagos de un contrato, en el orden de los listados.
+     * @param contratoId El ID del contrato.
+     * @param cursor El cursor de la página anterior, o null para la primera página.
+     * @param tamanio La cantidad máxima de pagos por página.
+     * @return La página solicitada.
+     */
+    Pagina<Pago> paginaPorContrato(String contratoId, String cursor, int tamanio);
+
+    /**
+     * Elimina todos los pagos de un contrato.
+     * @param contratoId El ID del contrato.
+     * @return La cantidad de pagos eliminados.
+     */
+    int eliminarPorContrato(String contratoId);
+
+    /**
+     * @param desde El período mínimo, o null para no limitar.
+     * @param hasta El período máximo, o null para no limitar.
+     * @return Los pagos con un período en el rango, en el orden de los listados.
+     */
+    default List<Pago> listarPorPeriodo(YearMonth desde, YearMonth hasta) {
+        return filtrarPorPeriodo(valores(), desde, hasta);
+    }
+
+    /**
+     * @param contratoId El ID del contrato.
+     * @param desde El período mínimo, o null para no limitar.
+     * @param hasta El período máximo, o null para no limitar.
+     * @return Los pagos del contrato con un período en el rango, en el orden de los listados.
+     */
+    default List<Pago> listarPorContratoYPeriodo(String contratoId, YearMonth desde, YearMonth hasta) {
+        return filtrarPorPeriodo(listarPorContrato(contratoId), desde, hasta);
+    }
+
+    /**
+     * @param contratoId El ID del contrato.
+     * @return Los períodos con al menos un pago registrado del contrato, confirmado o no, sin repetir
+     * y en orden cronológico.
+     */
+    default List<YearMonth> listarPeriodosPagados(String contratoId) {
+        List<Pago> delContrato = listarPorContrato(contratoId);
+        int[] codigos = new int[delContrato.size()];
+        int cantidad = 0;
+        for (Pago pago : delContrato) {
+            int codigo = pago.getPeriodoCodigo();
+            if (codigo != Periodo.SIN_PERIODO) {
+                codigos[cantidad++] = codigo;
+            }
+        }
+        Arrays.sort(codigos, 0, cantidad);
+        List<YearMonth> periodos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            if (i == 0 || codigos[i] != codigos[i - 1]) {
+                periodos.add(Periodo.decodificar(codigos[i]));
+            }
+        }
+        return periodos;
+    }
+
+    private static List<Pago> filtrarPorPeriodo(Iterable<Pago> pagos, YearMonth desde, YearMonth hasta) {
+        int minimo = IndicePeriodos.codigoDesde(desde);
+        int maximo = IndicePeriodos.codigoHasta(hasta);
+        List<Pago> resultado = new ArrayList<>();
+        for (Pago pago : pagos) {
+            int codigo = pago.getPeriodoCodigo();
+            if (codigo >= minimo && codigo <= maximo) {
+                resultado.add(pago);
+            }
+        }
+        return resultado;
+    }
+}
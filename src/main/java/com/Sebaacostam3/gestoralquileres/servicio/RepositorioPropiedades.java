@@ -0,0 +1,26 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repositorio de propiedades.
+ */
+public interface RepositorioPropiedades extends Repositorio<Propiedad> {
+
+    /**
+     * @param consulta Los criterios de la búsqueda.
+     * @return Las propiedades que cumplen todos los criterios, en el orden de los listados.
+     */
+    default List<Propiedad> buscar(ConsultaPropiedades consulta) {
+        List<Propiedad> resultado = new ArrayList<>();
+        for (Propiedad propiedad : valores()) {
+            if (consulta.incluye(propiedad)) {
+                resultado.add(propiedad);
+            }
+        }
+        return resultado;
+    }
+}
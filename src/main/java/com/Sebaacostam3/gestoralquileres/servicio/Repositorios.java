@@ -0,0 +1,125 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+/**
+ * Conjunto de repositorios sobre los que trabaja un gestor, uno por entidad.
+ * <p>
+ * {@link #enMemoria()} crea los repositorios en memoria, que son los que usa el gestor por defecto y
+ * los únicos que admiten el diario y las instantáneas de {@link GestorAlquileres#abrir(java.nio.file.Path)}.
+ * Otras implementaciones (por ejemplo, sobre una base de datos) se combinan con el constructor público
+ * y se encargan de su propia durabilidad.
+ * <p>
+ * {@link #enMemoriaConNivelFrio()} crea repositorios en memoria que además archivan en disco los contratos
+ * inactivos y sus pagos (ver {@link GestorAlquileres#abrirConNivelFrio(java.nio.file.Path)}).
+ * <p>
+ * {@link #enMemoriaConPagosFueraDelHeap()} crea repositorios en memoria que guardan los pagos en casillas
+ * fuera del heap, para que millones de pagos no ocupen el heap ni alarguen las pausas del recolector.
+ */
+public final class Repositorios {
+
+    private final RepositorioPropiedades propiedades;
+    private final RepositorioInquilinos inquilinos;
+    private final RepositorioContratos contratos;
+    private final RepositorioPagos pagos;
+    private final RepositorioIncidencias incidencias;
+    private final boolean enMemoria;
+    // Nivel frío de los contratos y pagos, si los repositorios en memoria lo usan
+    private final NivelFrio nivelFrio;
+
+    /**
+     * @param propiedades El repositorio de propiedades.
+     * @param inquilinos El repositorio de inquilinos.
+     * @param contratos El repositorio de contratos.
+     * @param pagos El repositorio de pagos.
+     * @param incidencias El repositorio de incidencias.
+     */
+    public Repositorios(RepositorioPropiedades propiedades, RepositorioInquilinos inquilinos, RepositorioContratos contratos,
+                        RepositorioPagos pagos, RepositorioIncidencias incidencias) {
+        this(propiedades, inquilinos, contratos, pagos, incidencias, false, null);
+    }
+
+    private Repositorios(RepositorioPropiedades propiedades, RepositorioInquilinos inquilinos, RepositorioContratos contratos,
+                         RepositorioPagos pagos, RepositorioIncidencias incidencias, boolean enMemoria, NivelFrio nivelFrio) {
+        this.propiedades = propiedades;
+        this.inquilinos = inquilinos;
+        this.contratos = contratos;
+        this.pagos = pagos;
+        this.incidencias = incidencias;
+        this.enMemoria = enMemoria;
+        this.nivelFrio = nivelFrio;
+    }
+
+    /**
+     * @return Repositorios nuevos y vacíos, en memoria.
+     */
+    public static Repositorios enMemoria() {
+        return new Repositorios(new PropiedadesEnMemoria(), new InquilinosEnMemoria(), new ContratosEnMemoria(),
+                new PagosEnMemoria(), new IncidenciasEnMemoria(), true, null);
+    }
+
+    /**
+     * @return Repositorios nuevos y vacíos, en memoria, con los contratos y pagos en dos niveles. El nivel
+     *         frío necesita un directorio de datos, así que sólo archiva contratos en un gestor persistente.
+     */
+    public static Repositorios enMemoriaConNivelFrio() {
+        RepositorioPropiedades propiedades = new PropiedadesEnMemoria();
+        RepositorioInquilinos inquilinos = new InquilinosEnMemoria();
+        ContratosEnMemoria contratos = new ContratosEnMemoria();
+        PagosEnMemoria pagos = new PagosEnMemoria();
+        NivelFrio nivelFrio = new NivelFrio(propiedades, inquilinos, contratos, pagos);
+        return new Repositorios(propiedades, inquilinos, new ContratosEscalonados(contratos, nivelFrio),
+                new PagosEscalonados(pagos, nivelFrio), new IncidenciasEnMemoria(), true, nivelFrio);
+    }
+
+    /**
+     * @return Repositorios nuevos y vacíos, en memoria, con los pagos guardados fuera del heap. Admiten el
+     *         diario y las instantáneas igual que los de {@link #enMemoria()}, pero no el nivel frío.
+     */
+    public static Repositorios enMemoriaConPagosFueraDelHeap() {
+        ContratosEnMemoria contratos = new ContratosEnMemoria();
+        return new Repositorios(new PropiedadesEnMemoria(), new InquilinosEnMemoria(), contratos,
+                new PagosFueraDelHeap(contratos), new IncidenciasEnMemoria(), true, null);
+    }
+
+    public RepositorioPropiedades getPropiedades() {
+        return propiedades;
+    }
+
+    public RepositorioInquilinos getInquilinos() {
+        return inquilinos;
+    }
+
+    public RepositorioContratos getContratos() {
+        return contratos;
+    }
+
+    public RepositorioPagos getPagos() {
+        return pagos;
+    }
+
+    public RepositorioIncidencias getIncidencias() {
+        return incidencias;
+    }
+
+    /**
+     * @return El nivel frío, o null si los repositorios no lo usan.
+     */
+    NivelFrio getNivelFrio() {
+        return nivelFrio;
+    }
+
+    /**
+     * @return true si son los repositorios en memoria creados con {@link #enMemoria()}, {@link #enMemoriaConNivelFrio()}
+     *         o {@link #enMemoriaConPagosFueraDelHeap()}.
+     */
+    public boolean isEnMemoria() {
+        return enMemoria;
+    }
+
+    /**
+     * @return true si ningún repositorio contiene entidades.
+     */
+    public boolean estanVacios() {
+        return propiedades.estaVacio() && inquilinos.estaVacio() && contratos.estaVacio()
+                && pagos.estaVacio() && incidencias.estaVacio();
+    }
+}
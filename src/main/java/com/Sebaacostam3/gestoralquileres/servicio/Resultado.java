@@ -0,0 +1,43 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+/**
+ * Resultado de una operación de escritura del gestor.
+ * Indica si la operación se aplicó o qué regla de negocio la impidió, de modo que
+ * quien llama decide cómo informarlo (consola, respuesta de un servicio, reporte de un lote, etc.).
+ */
+public enum Resultado {
+    EXITO("Operación realizada correctamente."),
+    NO_ENCONTRADO("No se encontró el registro solicitado."),
+    ID_DUPLICADO("Ya existe un registro con el mismo ID."),
+    DNI_DUPLICADO("Ya existe un inquilino con el mismo DNI."),
+    EMAIL_DUPLICADO("Ya existe un inquilino con el mismo email."),
+    REFERENCIA_INVALIDA("El registro debe referenciar una entidad válida (con ID)."),
+    REFERENCIA_INEXISTENTE("La entidad referenciada no existe."),
+    PROPIEDAD_ALQUILADA("La propiedad ya está alquilada."),
+    CONTRATO_VIGENTE("Tiene un contrato vigente."),
+    INCIDENCIAS_PENDIENTES("Tiene incidencias pendientes."),
+    CONTRATO_INACTIVO("El contrato ya está inactivo."),
+    PAGO_YA_CONFIRMADO("El pago ya estaba confirmado."),
+    TRANSICION_INVALIDA("El cambio de estado no está permitido."),
+    ERROR_PERSISTENCIA("No se pudieron guardar los datos en disco.");
+
+    private final String descripcion;
+
+    Resultado(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    /**
+     * @return Una descripción legible del resultado.
+     */
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * @return true si la operación se aplicó.
+     */
+    public boolean isExitoso() {
+        return this == EXITO;
+    }
+}
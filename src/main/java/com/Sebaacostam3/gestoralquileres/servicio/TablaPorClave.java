@@ -0,0 +1,62 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Mapa de claves enteras a objetos, para claves densas que se asignan en orden creciente.
+ * <p>
+ * Los valores se guardan en bloques de tamaño fijo que se agregan a medida que crecen las claves,
+ * sin cajas ni entradas por elemento. Las lecturas no bloquean y ven los valores publicados por
+ * las escrituras, que sólo se sincronizan para agregar bloques.
+ * @param <T> El tipo de los valores.
+ */
+final class TablaPorClave<T> {
+
+    private static final int BITS_BLOQUE = 12;
+    private static final int TAMANIO_BLOQUE = 1 << BITS_BLOQUE;
+
+    private volatile AtomicReferenceArray<?>[] bloques = new AtomicReferenceArray<?>[0];
+
+    /**
+     * @param clave La clave (no negativa).
+     * @return El valor asociado, o null si no hay ninguno.
+     */
+    @SuppressWarnings("unchecked")
+    T obtener(int clave) {
+        AtomicReferenceArray<?>[] actuales = bloques;
+        int numero = clave >>> BITS_BLOQUE;
+        return numero < actuales.length ? (T) actuales[numero].get(clave & (TAMANIO_BLOQUE - 1)) : null;
+    }
+
+    /**
+     * Asocia un valor a una clave, o la libera si el valor es null.
+     * @param clave La clave (no negativa).
+     * @param valor El valor, o null.
+     */
+    @SuppressWarnings("unchecked")
+    void fijar(int clave, T valor) {
+        int numero = clave >>> BITS_BLOQUE;
+        AtomicReferenceArray<?>[] actuales = bloques;
+        if (numero >= actuales.length) {
+            if (valor == null) {
+                return;
+            }
+            actuales = ampliar(numero);
+        }
+        ((AtomicReferenceArray<T>) actuales[numero]).set(clave & (TAMANIO_BLOQUE - 1), valor);
+    }
+
+    private synchronized AtomicReferenceArray<?>[] ampliar(int numero) {
+        AtomicReferenceArray<?>[] actuales = bloques;
+        if (numero >= actuales.length) {
+            AtomicReferenceArray<?>[] ampliados = Arrays.copyOf(actuales, numero + 1);
+            for (int i = actuales.length; i <= numero; i++) {
+                ampliados[i] = new AtomicReferenceArray<>(TAMANIO_BLOQUE);
+            }
+            bloques = ampliados;
+            actuales = ampliados;
+        }
+        return actuales;
+    }
+}
@@ -0,0 +1,279 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Trigramas de los datos de un inquilino y de los textos con que se lo busca.
+ * <p>
+ * Los textos se pasan a minúsculas y sin tildes. El nombre, el apellido y el email se parten en palabras
+ * (tramos de letras y dígitos); el DNI y el teléfono se toman enteros, sin puntos, guiones ni espacios.
+ * Cada palabra se rellena con dos espacios al principio y uno al final y se parte en trigramas, que se
+ * codifican en un {@code long} (tres caracteres de 16 bits).
+ * <p>
+ * En la búsqueda, cada palabra se rellena sólo al principio, de modo que sus trigramas aparecen en
+ * cualquier palabra que empiece con ella (búsqueda por prefijo). Una palabra con dígitos y sin letras,
+ * como parte de un DNI o un teléfono, no se rellena y encuentra cualquier tramo de un número. Basta con
+ * que coincida la mitad de los trigramas de una búsqueda de cuatro o más, así que una letra cambiada no
+ * impide encontrar un nombre; el trigrama final de cada palabra, con el espacio del relleno, no es
+ * obligatorio pero sube en el orden a los que coinciden con la palabra completa.
+ */
+final class Trigramas {
+
+    // Cantidad máxima de palabras de una búsqueda que se tienen en cuenta
+    private static final int MAXIMO_PALABRAS = 32;
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final char[] LATINOS = latinos();
+
+    private Trigramas() {
+    }
+
+    /**
+     * Los trigramas que se buscan. Los obligatorios valen {@link #PESO_OBLIGATORIO} en el puntaje y los
+     * opcionales, uno; un inquilino entra en el resultado si coincide con al menos
+     * {@link #getMinimo()} obligatorios.
+     */
+    static final class Consulta {
+
+        static final int PESO_OBLIGATORIO = MAXIMO_PALABRAS + 1;
+
+        private final long[] obligatorios;
+        private final long[] opcionales;
+
+        private Consulta(long[] obligatorios, long[] opcionales) {
+            this.obligatorios = obligatorios;
+            this.opcionales = opcionales;
+        }
+
+        long[] getObligatorios() {
+            return obligatorios;
+        }
+
+        long[] getOpcionales() {
+            return opcionales;
+        }
+
+        boolean estaVacia() {
+            return obligatorios.length == 0;
+        }
+
+        /**
+         * @return La cantidad mínima de trigramas obligatorios que deben coincidir: todos si son tres o
+         *         menos, la mitad (redondeada hacia arriba) si son más.
+         */
+        int getMinimo() {
+            return obligatorios.length <= 3 ? obligatorios.length : (obligatorios.length + 1) / 2;
+        }
+
+        /**
+         * Calcula el puntaje de un inquilino a partir de sus trigramas.
+         * @param trigramas Los trigramas del inquilino, ordenados y sin repetir.
+         * @return El puntaje, o 0 si no alcanza el mínimo de coincidencias.
+         */
+        int puntaje(long[] trigramas) {
+            int aciertos = 0;
+            for (long trigrama : obligatorios) {
+                if (Arrays.binarySearch(trigramas, trigrama) >= 0) {
+                    aciertos++;
+                }
+            }
+            if (aciertos == 0 || aciertos < getMinimo()) {
+                return 0;
+            }
+            int puntaje = aciertos * PESO_OBLIGATORIO;
+            for (long trigrama : opcionales) {
+                if (Arrays.binarySearch(trigramas, trigrama) >= 0) {
+                    puntaje++;
+                }
+            }
+            return puntaje;
+        }
+    }
+
+    /**
+     * @param inquilino Un inquilino.
+     * @return Los trigramas de sus datos, ordenados y sin repetir.
+     */
+    static long[] deInquilino(Inquilino inquilino) {
+        Acumulador trigramas = new Acumulador(64);
+        palabras(normalizar(inquilino.getNombre()), trigramas);
+        palabras(normalizar(inquilino.getApellido()), trigramas);
+        palabras(normalizar(inquilino.getEmail()), trigramas);
+        String dni = alfanumerico(normalizar(inquilino.getDni()));
+        trigramas.palabra(dni, 0, dni.length(), 2, 1);
+        String telefono = alfanumerico(normalizar(inquilino.getTelefono()));
+        trigramas.palabra(telefono, 0, telefono.length(), 2, 1);
+        return trigramas.sinRepetir();
+    }
+
+    /**
+     * @param texto El texto buscado, con una o más palabras.
+     * @return Los trigramas de la búsqueda.
+     */
+    static Consulta deBusqueda(String texto) {
+        Acumulador obligatorios = new Acumulador(16);
+        Acumulador opcionales = new Acumulador(MAXIMO_PALABRAS);
+        String normalizado = normalizar(texto);
+        int palabras = 0;
+        if (normalizado != null) {
+            for (String parte : normalizado.trim().split("\\s+")) {
+                String numero = alfanumerico(parte);
+                if (!numero.isEmpty() && numero.chars().allMatch(Character::isDigit)) {
+                    // Un número de tres o más dígitos se busca en cualquier posición; uno más corto, como prefijo
+                    if (palabras++ < MAXIMO_PALABRAS) {
+                        int relleno = numero.length() >= 3 ? 0 : 2;
+                        obligatorios.palabra(numero, 0, numero.length(), relleno, 0);
+                        opcionales.palabra(numero, Math.max(0, numero.length() - 2), numero.length(), 2 - Math.min(2, numero.length()), 1);
+                    }
+                    continue;
+                }
+                int inicio = -1;
+                for (int i = 0; i <= parte.length(); i++) {
+                    boolean letraODigito = i < parte.length() && Character.isLetterOrDigit(parte.charAt(i));
+                    if (letraODigito && inicio < 0) {
+                        inicio = i;
+                    } else if (!letraODigito && inicio >= 0) {
+                        if (palabras++ < MAXIMO_PALABRAS) {
+                            obligatorios.palabra(parte, inicio, i, 2, 0);
+                            // El final de la palabra seguido del espacio del relleno
+                            opcionales.palabra(parte, Math.max(inicio, i - 2), i, 2 - Math.min(2, i - inicio), 1);
+                        }
+                        inicio = -1;
+                    }
+                }
+            }
+        }
+        long[] unicos = obligatorios.sinRepetir();
+        long[] finales = opcionales.sinRepetir();
+        int distintos = 0;
+        for (long trigrama : finales) {
+            if (Arrays.binarySearch(unicos, trigrama) < 0) {
+                finales[distintos++] = trigrama;
+            }
+        }
+        return new Consulta(unicos, Arrays.copyOf(finales, distintos));
+    }
+
+    /**
+     * Agrega los trigramas de las palabras (tramos de letras y dígitos) de un texto normalizado.
+     */
+    private static void palabras(String texto, Acumulador destino) {
+        if (texto == null) {
+            return;
+        }
+        int inicio = -1;
+        for (int i = 0; i <= texto.length(); i++) {
+            boolean letraODigito = i < texto.length() && Character.isLetterOrDigit(texto.charAt(i));
+            if (letraODigito && inicio < 0) {
+                inicio = i;
+            } else if (!letraODigito && inicio >= 0) {
+                destino.palabra(texto, inicio, i, 2, 1);
+                inicio = -1;
+            }
+        }
+    }
+
+    /**
+     * @return El texto sin los caracteres que no son letras ni dígitos; vacío si el texto es null.
+     */
+    private static String alfanumerico(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder resultado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * @return El texto en minúsculas y sin tildes ni diéresis, o null si el texto es null.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        char[] resultado = new char[texto.length()];
+        for (int i = 0; i < resultado.length; i++) {
+            char c = texto.charAt(i);
+            if (c >= LATINOS.length) {
+                // Fuera del alfabeto latino se descompone todo el texto
+                String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+                return sinMarcas.toLowerCase(Locale.ROOT);
+            }
+            resultado[i] = LATINOS[c];
+        }
+        return new String(resultado);
+    }
+
+    /**
+     * @return Para cada carácter del alfabeto latino (hasta U+024F), su minúscula sin tildes.
+     */
+    private static char[] latinos() {
+        char[] tabla = new char[0x250];
+        for (char c = 0; c < tabla.length; c++) {
+            String base = MARCAS.matcher(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            tabla[c] = base.length() == 1 ? base.charAt(0) : Character.toLowerCase(c);
+        }
+        return tabla;
+    }
+
+    /**
+     * Trigramas codificados a medida que se generan, en un arreglo que crece.
+     */
+    private static final class Acumulador {
+        private long[] valores;
+        private int cantidad;
+
+        Acumulador(int capacidad) {
+            valores = new long[capacidad];
+        }
+
+        /**
+         * Agrega los trigramas de texto[desde, hasta) con espacios de relleno a cada lado.
+         */
+        void palabra(String texto, int desde, int hasta, int rellenoInicial, int rellenoFinal) {
+            int largo = rellenoInicial + (hasta - desde) + rellenoFinal;
+            if (hasta == desde) {
+                return;
+            }
+            for (int i = 0; i + 3 <= largo; i++) {
+                if (cantidad == valores.length) {
+                    valores = Arrays.copyOf(valores, cantidad * 2);
+                }
+                valores[cantidad++] = ((long) caracter(texto, desde, hasta, rellenoInicial, i) << 32)
+                        | ((long) caracter(texto, desde, hasta, rellenoInicial, i + 1) << 16)
+                        | caracter(texto, desde, hasta, rellenoInicial, i + 2);
+            }
+        }
+
+        private static char caracter(String texto, int desde, int hasta, int rellenoInicial, int posicion) {
+            int indice = desde + posicion - rellenoInicial;
+            return posicion < rellenoInicial || indice >= hasta ? ' ' : texto.charAt(indice);
+        }
+
+        long[] sinRepetir() {
+            return Trigramas.sinRepetir(valores, cantidad);
+        }
+    }
+
+    private static long[] sinRepetir(long[] valores, int cantidad) {
+        Arrays.sort(valores, 0, cantidad);
+        int distintos = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (distintos == 0 || valores[distintos - 1] != valores[i]) {
+                valores[distintos++] = valores[i];
+            }
+        }
+        return Arrays.copyOf(valores, distintos);
+    }
+}
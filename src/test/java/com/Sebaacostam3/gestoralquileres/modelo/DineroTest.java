@@ -0,0 +1,46 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Conversiones de {@link Dinero} y sus límites.
+ */
+class DineroTest {
+
+    @Test
+    void redondeaAlCentavoMasCercano() {
+        assertEquals(30, Dinero.centavos(0.1 + 0.2));
+        assertEquals(150075, Dinero.centavos(1500.75));
+        assertEquals(-1025, Dinero.centavos(-10.25));
+        assertEquals(0, Dinero.centavos(-0.0));
+        assertEquals(1500.75, Dinero.importe(150075));
+        assertEquals("1500.75", Dinero.formatear(150075));
+        assertEquals("-0.05", Dinero.formatear(-5));
+    }
+
+    @Test
+    void rechazaDoublesNoFinitosOFueraDeRango() {
+        // 90 billones de pesos todavía se convierten; 2^53 centavos ya no
+        assertEquals(9_000_000_000_000_000L, Dinero.centavos(90_000_000_000_000.0));
+        assertEquals(-9_000_000_000_000_000L, Dinero.centavos(-90_000_000_000_000.0));
+        for (double importe : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                (1L << 53) / 100.0, -(1L << 53) / 100.0, Double.MAX_VALUE}) {
+            assertThrows(IllegalArgumentException.class, () -> Dinero.centavos(importe), String.valueOf(importe));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Pago(null, null, null, Double.NaN, false, "2025-01"));
+    }
+
+    @Test
+    void parsearNoPasaPorDoubleYAceptaTodoElRangoDeUnLong() {
+        assertEquals(30, Dinero.parsear("0.30"));
+        assertEquals(100, Dinero.parsear(" 0.995 "));
+        assertEquals(Long.MAX_VALUE, Dinero.parsear("92233720368547758.07"));
+        assertEquals("92233720368547758.07", Dinero.formatear(Long.MAX_VALUE));
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("NaN"));
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("1e400"));
+    }
+}
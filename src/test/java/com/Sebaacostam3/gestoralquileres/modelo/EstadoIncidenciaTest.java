@@ -0,0 +1,44 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transiciones y lectura desde texto de {@link EstadoIncidencia}.
+ */
+class EstadoIncidenciaTest {
+
+    @Test
+    void soloPermiteLasTransicionesDelCicloDeVida() {
+        for (EstadoIncidencia estado : EstadoIncidencia.values()) {
+            assertTrue(estado.puedePasarA(estado));
+        }
+        assertTrue(EstadoIncidencia.PENDIENTE.puedePasarA(EstadoIncidencia.RESUELTA));
+        assertTrue(EstadoIncidencia.EN_PROCESO.puedePasarA(EstadoIncidencia.PENDIENTE));
+        assertTrue(EstadoIncidencia.RESUELTA.puedePasarA(EstadoIncidencia.PENDIENTE));
+        assertFalse(EstadoIncidencia.RESUELTA.puedePasarA(EstadoIncidencia.EN_PROCESO));
+        assertFalse(EstadoIncidencia.RESUELTA.puedePasarA(EstadoIncidencia.CANCELADA));
+        assertFalse(EstadoIncidencia.CANCELADA.puedePasarA(EstadoIncidencia.PENDIENTE));
+
+        assertTrue(EstadoIncidencia.EN_PROCESO.estaAbierta());
+        assertFalse(EstadoIncidencia.CANCELADA.estaAbierta());
+    }
+
+    @Test
+    void leeLosNombresSinDistinguirMayusculasNiSeparadores() {
+        assertEquals(EstadoIncidencia.EN_PROCESO, EstadoIncidencia.desdeTexto("En Proceso"));
+        assertEquals(EstadoIncidencia.EN_PROCESO, EstadoIncidencia.desdeTexto(" en_proceso "));
+        assertEquals("En Proceso", EstadoIncidencia.EN_PROCESO.getNombre());
+        assertThrows(IllegalArgumentException.class, () -> EstadoIncidencia.desdeTexto("Abierta"));
+        assertThrows(IllegalArgumentException.class, () -> EstadoIncidencia.desdeTexto(null));
+
+        // Los estados de texto libre de la versión anterior cuentan como pendientes
+        assertEquals(EstadoIncidencia.PENDIENTE, EstadoIncidencia.interpretar("Abierta"));
+        assertEquals(EstadoIncidencia.PENDIENTE, EstadoIncidencia.interpretar(null));
+        assertEquals(EstadoIncidencia.RESUELTA, EstadoIncidencia.interpretar("RESUELTA"));
+    }
+}
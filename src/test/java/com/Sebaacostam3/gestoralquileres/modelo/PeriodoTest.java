@@ -0,0 +1,51 @@
+package com.Sebaacostam3.gestoralquileres.modelo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Códigos AAAAMM de {@link Periodo} y su lectura desde texto.
+ */
+class PeriodoTest {
+
+    @Test
+    void codificaYDecodificaRespetandoElOrden() {
+        assertEquals(202503, Periodo.codificar(YearMonth.of(2025, 3)));
+        assertEquals(YearMonth.of(2025, 3), Periodo.decodificar(202503));
+        assertNull(Periodo.decodificar(Periodo.SIN_PERIODO));
+        assertTrue(Periodo.codificar(YearMonth.of(2024, 12)) < Periodo.codificar(YearMonth.of(2025, 1)));
+        assertEquals(202501, Periodo.siguiente(202412));
+        assertEquals(202412, Periodo.siguiente(202411));
+        assertThrows(IllegalArgumentException.class, () -> Periodo.codificar(YearMonth.of(10000, 1)));
+    }
+
+    @Test
+    void leeSoloLosTextosQueSonPeriodos() {
+        assertEquals(202501, Periodo.parsear("2025-01"));
+        assertEquals(202501, Periodo.parsear(" 2025-01 "));
+        assertEquals(Periodo.SIN_PERIODO, Periodo.parsear("2025-13"));
+        assertEquals(Periodo.SIN_PERIODO, Periodo.parsear("2025-1a"));
+        assertEquals(Periodo.SIN_PERIODO, Periodo.parsear("Enero 2025"));
+        assertEquals(Periodo.SIN_PERIODO, Periodo.parsear(""));
+        assertEquals(Periodo.SIN_PERIODO, Periodo.parsear(null));
+    }
+
+    @Test
+    void elPagoConservaElTextoIngresadoYSuPeriodo() {
+        Pago pago = new Pago("PAG1", null, null, 100, false, "Marzo");
+        assertNull(pago.getPeriodo());
+        assertEquals(Periodo.SIN_PERIODO, pago.getPeriodoCodigo());
+
+        pago.setPeriodoCorrespondiente("2025-03");
+        assertEquals(YearMonth.of(2025, 3), pago.getPeriodo());
+        pago.setPeriodo(YearMonth.of(2025, 4));
+        assertEquals("2025-04", pago.getPeriodoCorrespondiente());
+        assertEquals(202504, pago.getPeriodoCodigo());
+    }
+}
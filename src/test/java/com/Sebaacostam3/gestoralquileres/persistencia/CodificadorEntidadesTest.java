@@ -0,0 +1,99 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Importes en la codificación de las entidades: centavos exactos en la versión actual y lectura de los
+ * double de la versión anterior.
+ */
+class CodificadorEntidadesTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 1, 1);
+
+    @Test
+    void conservaImportesQueUnDoubleNoRepresenta() throws IOException {
+        // 2^53 + 1 centavos no tiene representación exacta como double
+        long centavos = (1L << 53) + 1;
+        Propiedad propiedad = new Propiedad("PRP1", "Calle", "Casa", 50, true, 0);
+        propiedad.setPrecioMensualCentavos(centavos);
+        propiedad.setAlquilada(true);
+        Pago pago = new Pago("PAG1", null, FECHA, 0, true, "2025-01");
+        pago.setValorPagoCentavos(Long.MAX_VALUE);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        CodificadorEntidades.escribirPropiedad(salida, propiedad);
+        CodificadorEntidades.escribirPago(salida, pago);
+        DataInputStream entrada = entrada(bytes);
+
+        Propiedad leida = CodificadorEntidades.leerPropiedad(entrada, CodificadorEntidades.VERSION);
+        assertEquals(centavos, leida.getPrecioMensualCentavos());
+        assertTrue(leida.isAlquilada());
+        assertEquals(Long.MAX_VALUE, CodificadorEntidades.leerPago(entrada, CodificadorEntidades.VERSION).getValorPagoCentavos());
+    }
+
+    @Test
+    void leeLosImportesDecimalesDeLaVersionAnterior() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(bytes);
+        // Contrato, pago e incidencia con el formato de la versión 1
+        CodificadorEntidades.escribirTexto(salida, "CON1");
+        salida.writeLong(FECHA.toEpochDay());
+        salida.writeLong(FECHA.plusYears(1).toEpochDay());
+        CodificadorEntidades.escribirTexto(salida, "PRP1");
+        CodificadorEntidades.escribirTexto(salida, "INQ1");
+        salida.writeDouble(1234.56);
+        salida.writeBoolean(true);
+        CodificadorEntidades.escribirTexto(salida, "PAG1");
+        CodificadorEntidades.escribirTexto(salida, "CON1");
+        salida.writeLong(FECHA.toEpochDay());
+        salida.writeDouble(0.1 + 0.2);
+        salida.writeBoolean(false);
+        CodificadorEntidades.escribirTexto(salida, "2025-01");
+        CodificadorEntidades.escribirTexto(salida, "INC1");
+        CodificadorEntidades.escribirTexto(salida, "PRP1");
+        CodificadorEntidades.escribirTexto(salida, "Gotera");
+        salida.writeLong(FECHA.toEpochDay());
+        CodificadorEntidades.escribirTexto(salida, EstadoIncidencia.PENDIENTE.getNombre());
+        salida.writeDouble(99.999);
+        DataInputStream entrada = entrada(bytes);
+
+        ContratoAlquiler contrato = CodificadorEntidades.leerContrato(entrada, CodificadorEntidades.VERSION_IMPORTES_DECIMALES);
+        assertEquals(123456, contrato.getValorMensualCentavos());
+        assertTrue(contrato.isActivo());
+        Pago pago = CodificadorEntidades.leerPago(entrada, CodificadorEntidades.VERSION_IMPORTES_DECIMALES);
+        assertEquals(30, pago.getValorPagoCentavos());
+        assertEquals("2025-01", pago.getPeriodoCorrespondiente());
+        Incidencia incidencia = CodificadorEntidades.leerIncidencia(entrada, CodificadorEntidades.VERSION_IMPORTES_DECIMALES);
+        assertEquals(10000, incidencia.getCostoEstimadoCentavos());
+        assertEquals(EstadoIncidencia.PENDIENTE, incidencia.getEstado());
+    }
+
+    @Test
+    void rechazaUnaVersionDesconocida() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodificadorEntidades.escribirPropiedad(new DataOutputStream(bytes), new Propiedad("PRP1", "Calle", "Casa", 50, false, 100));
+
+        assertThrows(IOException.class, () -> CodificadorEntidades.leerPropiedad(entrada(bytes), CodificadorEntidades.VERSION + 1));
+    }
+
+    private static DataInputStream entrada(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
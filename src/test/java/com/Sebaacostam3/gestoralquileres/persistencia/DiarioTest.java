@@ -0,0 +1,207 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato, recuperación y escritura agrupada del {@link Diario}.
+ */
+class DiarioTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void reproduceLosRegistrosEnOrden() throws IOException {
+        Path archivo = directorio.resolve("diario");
+        try (Diario diario = Diario.abrir(archivo)) {
+            long ultimo = 0;
+            for (int i = 0; i < 100; i++) {
+                ultimo = diario.anotar(registro("registro " + i));
+            }
+            diario.esperar(ultimo);
+        }
+
+        List<String> leidos = reproducir(archivo);
+        assertEquals(100, leidos.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("registro " + i, leidos.get(i));
+        }
+    }
+
+    @Test
+    void unArchivoVacioOInexistenteNoTieneRegistros() throws IOException {
+        assertEquals(0, Diario.reproducir(directorio.resolve("no-existe"), registro -> { }));
+        Path vacio = Files.createFile(directorio.resolve("vacio"));
+        assertEquals(0, Diario.reproducir(vacio, registro -> { }));
+    }
+
+    @Test
+    void rechazaUnArchivoQueNoEsUnDiario() throws IOException {
+        Path archivo = Files.writeString(directorio.resolve("otro"), "no es un diario");
+        assertThrows(IOException.class, () -> Diario.reproducir(archivo, registro -> { }));
+    }
+
+    @Test
+    void truncaUnRegistroFinalIncompleto() throws IOException {
+        Path archivo = directorio.resolve("diario");
+        escribir(archivo, "uno", "dos");
+        long tamanioValido = Files.size(archivo);
+        // Un corte durante la escritura deja un prefijo que anuncia más datos de los que hay
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.allocate(12).putInt(0, 100).putInt(4, 0));
+        }
+
+        assertEquals(List.of("uno", "dos"), reproducir(archivo));
+        assertEquals(tamanioValido, Files.size(archivo));
+
+        // Las anotaciones nuevas quedan a continuación del último registro válido
+        escribir(archivo, "tres");
+        assertEquals(List.of("uno", "dos", "tres"), reproducir(archivo));
+    }
+
+    @Test
+    void descartaDesdeElPrimerRegistroConCrcInvalido() throws IOException {
+        Path archivo = directorio.resolve("diario");
+        escribir(archivo, "uno", "dos", "tres");
+        // Se daña un byte de los datos de "dos": cabecera (4) + "uno" (8 + 3) + prefijo de "dos" (8)
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[] {'X'}), 4 + 8 + 3 + 8);
+        }
+
+        assertEquals(List.of("uno"), reproducir(archivo));
+        assertEquals(4 + 8 + 3, Files.size(archivo));
+    }
+
+    @Test
+    void lasEscriturasConcurrentesQuedanTodasYEnElOrdenDeCadaHilo() throws Exception {
+        Path archivo = directorio.resolve("diario");
+        int hilos = 8;
+        int porHilo = 500;
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        try (Diario diario = Diario.abrir(archivo)) {
+            Thread[] escritores = new Thread[hilos];
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                escritores[h] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < porHilo; i++) {
+                            // Cada escritor espera su propio registro, como el gestor: las esperas se agrupan
+                            diario.esperar(diario.anotar(registro(hilo + ":" + i)));
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                });
+                escritores[h].start();
+            }
+            for (Thread escritor : escritores) {
+                escritor.join();
+            }
+        }
+        assertNull(error.get());
+
+        List<String> leidos = reproducir(archivo);
+        assertEquals(hilos * porHilo, leidos.size());
+        int[] siguiente = new int[hilos];
+        for (String leido : leidos) {
+            int separador = leido.indexOf(':');
+            int hilo = Integer.parseInt(leido.substring(0, separador));
+            assertEquals(siguiente[hilo]++, Integer.parseInt(leido.substring(separador + 1)));
+        }
+    }
+
+    @Test
+    void rotarReparteLosRegistrosEntreLosArchivos() throws IOException {
+        Path primero = directorio.resolve("diario-1");
+        Path segundo = directorio.resolve("diario-2");
+        try (Diario diario = Diario.abrir(primero)) {
+            diario.anotar(registro("antes"));
+            diario.rotar(segundo);
+            diario.esperar(diario.anotar(registro("despues")));
+        }
+
+        assertEquals(List.of("antes"), reproducir(primero));
+        assertEquals(List.of("despues"), reproducir(segundo));
+    }
+
+    @Test
+    void despuesDeUnaFallaRechazaTodosLosRegistros() throws Exception {
+        Path archivo = directorio.resolve("diario");
+        Diario diario = Diario.abrir(archivo);
+        diario.esperar(diario.anotar(registro("durable")));
+        assertFalse(diario.isFallido());
+
+        cerrarCanal(diario);
+        long numero = diario.anotar(registro("perdido"));
+        assertThrows(UncheckedIOException.class, () -> diario.esperar(numero));
+        assertTrue(diario.isFallido());
+        assertThrows(UncheckedIOException.class, () -> diario.anotar(registro("rechazado")));
+        assertThrows(IOException.class, diario::close);
+
+        assertEquals(List.of("durable"), reproducir(archivo));
+    }
+
+    @Test
+    void noAceptaRegistrosDespuesDeCerrarse() throws IOException {
+        Diario diario = Diario.abrir(directorio.resolve("diario"));
+        diario.close();
+        assertThrows(IllegalStateException.class, () -> diario.anotar(registro("tarde")));
+    }
+
+    @Test
+    void elDiarioDesactivadoNoAnotaNada() {
+        Diario diario = Diario.desactivado();
+        assertFalse(diario.isActivo());
+        assertEquals(0, diario.anotar(registro("ignorado")));
+        diario.esperar(0);
+    }
+
+    /**
+     * Cierra el archivo del diario por debajo, para que la siguiente escritura del hilo escritor falle.
+     */
+    private static void cerrarCanal(Diario diario) throws ReflectiveOperationException, IOException {
+        Field campo = Diario.class.getDeclaredField("canal");
+        campo.setAccessible(true);
+        ((FileChannel) campo.get(diario)).close();
+    }
+
+    private static void escribir(Path archivo, String... registros) throws IOException {
+        try (Diario diario = Diario.abrir(archivo)) {
+            long ultimo = 0;
+            for (String texto : registros) {
+                ultimo = diario.anotar(registro(texto));
+            }
+            diario.esperar(ultimo);
+        }
+    }
+
+    private static List<String> reproducir(Path archivo) throws IOException {
+        List<String> leidos = new ArrayList<>();
+        Diario.reproducir(archivo, datos -> leidos.add(StandardCharsets.UTF_8.decode(datos).toString()));
+        return leidos;
+    }
+
+    private static byte[] registro(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato y verificación de una {@link Instantanea}.
+ */
+class InstantaneaTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void leeLasEntidadesEnElOrdenEscrito() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        escribir(archivo, "uno", "dos", "tres");
+
+        assertEquals(List.of("uno", "dos", "tres"), leer(archivo));
+        assertTrue(Files.notExists(archivo.resolveSibling("instantanea.bin.tmp")));
+    }
+
+    @Test
+    void rechazaUnaInstantaneaDaniada() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        escribir(archivo, "uno", "dos");
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.wrap(new byte[] {'X'}), 8);
+        }
+
+        assertThrows(IOException.class, () -> leer(archivo));
+    }
+
+    @Test
+    void rechazaUnaInstantaneaIncompleta() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        escribir(archivo, "uno", "dos");
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(Files.size(archivo) - 3);
+        }
+
+        assertThrows(IOException.class, () -> leer(archivo));
+    }
+
+    @Test
+    void reemplazaLaInstantaneaAnteriorDeFormaAtomica() throws IOException {
+        Path archivo = directorio.resolve("instantanea.bin");
+        escribir(archivo, "vieja");
+        escribir(archivo, "nueva");
+
+        assertEquals(List.of("nueva"), leer(archivo));
+    }
+
+    private static void escribir(Path archivo, String... textos) throws IOException {
+        Instantanea.escribir(archivo, salida -> {
+            for (String texto : textos) {
+                salida.writeByte(Instantanea.PROPIEDAD);
+                salida.writeUTF(texto);
+            }
+        });
+    }
+
+    private static List<String> leer(Path archivo) throws IOException {
+        List<String> leidos = new ArrayList<>();
+        Instantanea.leer(archivo, (tipo, entrada, version) -> {
+            assertEquals(Instantanea.PROPIEDAD, tipo);
+            assertEquals(CodificadorEntidades.VERSION, version);
+            leidos.add(entrada.readUTF());
+        });
+        return leidos;
+    }
+}
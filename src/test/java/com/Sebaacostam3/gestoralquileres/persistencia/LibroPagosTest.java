@@ -0,0 +1,114 @@
+package com.Sebaacostam3.gestoralquileres.persistencia;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.ResumenPagos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Resúmenes, anulaciones y reapertura del {@link LibroPagos}.
+ */
+class LibroPagosTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void resumePorContratoFechaYPeriodoDescontandoLasAnulaciones() throws IOException {
+        try (LibroPagos libro = abrir()) {
+            assertFalse(libro.isCompleto());
+            ContratoAlquiler uno = contrato("CON1");
+            ContratoAlquiler dos = contrato("CON2");
+            Pago enero = pago(uno, HOY, 1000.10, false, "2025-01");
+            libro.registrar(enero);
+            libro.registrar(pago(uno, HOY.plusMonths(1), 1000.10, true, "2025-02"));
+            libro.registrar(pago(dos, HOY.plusMonths(1), 500, true, "Febrero"));
+
+            // Confirmar un pago anula su estado anterior y asienta el nuevo
+            libro.anular(enero);
+            enero.setConfirmado(true);
+            libro.registrar(enero);
+
+            assertResumen(3, 250_020, libro.resumir(null, null, null, false));
+            assertResumen(2, 200_020, libro.resumir("con1", null, null, true));
+            assertResumen(2, 150_010, libro.resumir(null, HOY.plusDays(1), null, false));
+            assertResumen(0, 0, libro.resumir("CON9", null, null, false));
+            // El período que no tiene la forma AAAA-MM sólo se cuenta sin límites de período
+            assertResumen(1, 100_010, libro.resumirPorPeriodo(null, YearMonth.of(2025, 2), null, false));
+            assertResumen(2, 200_020, libro.resumirPorPeriodo(null, null, YearMonth.of(2025, 12), false));
+
+            libro.anular(enero);
+            assertResumen(1, 100_010, libro.resumir("CON1", null, null, false));
+            assertEquals(6, libro.getFilas());
+        }
+    }
+
+    @Test
+    void soloSeConservaSiSeCerroCorrectamente() throws IOException {
+        ContratoAlquiler contrato = contrato("CON1");
+        try (LibroPagos libro = abrir()) {
+            libro.registrar(pago(contrato, HOY, 10, true, "2025-01"));
+        }
+        try (LibroPagos libro = abrir()) {
+            assertTrue(libro.isCompleto());
+            assertResumen(1, 1000, libro.resumir("CON1", null, null, false));
+            libro.registrar(pago(contrato, HOY, 20, true, "2025-01"));
+
+            // Mientras está abierto, otra apertura lo encuentra sin cerrar y lo vacía
+            try (LibroPagos otro = abrir()) {
+                assertFalse(otro.isCompleto());
+                assertEquals(0, otro.getFilas());
+                assertResumen(0, 0, otro.resumir(null, null, null, false));
+            }
+        }
+    }
+
+    @Test
+    void sumaFilasDeVariosBloques() throws IOException {
+        ContratoAlquiler contrato = contrato("CON1");
+        int cantidad = 70_000;
+        try (LibroPagos libro = abrir()) {
+            for (int i = 0; i < cantidad; i++) {
+                libro.registrar(pago(contrato, HOY.plusDays(i % 365), 0.01 * (i % 100), i % 2 == 0, "2025-01"));
+            }
+            long total = 0;
+            for (int i = 0; i < cantidad; i++) {
+                total += i % 100;
+            }
+            assertResumen(cantidad, total, libro.resumir(null, null, null, false));
+        }
+        try (LibroPagos libro = abrir()) {
+            assertEquals(cantidad, libro.getFilas());
+            assertEquals(cantidad / 2, libro.resumir("CON1", null, null, true).getCantidad());
+        }
+    }
+
+    private LibroPagos abrir() throws IOException {
+        return LibroPagos.abrir(directorio.resolve("pagos.col"), directorio.resolve("pagos.dic"));
+    }
+
+    private static ContratoAlquiler contrato(String id) {
+        return new ContratoAlquiler(id, HOY, HOY.plusYears(1), null, null, 1000, true);
+    }
+
+    private static Pago pago(ContratoAlquiler contrato, LocalDate fecha, double valor, boolean confirmado, String periodo) {
+        return new Pago(null, contrato, fecha, valor, confirmado, periodo);
+    }
+
+    private static void assertResumen(long cantidad, long centavos, ResumenPagos resumen) {
+        assertEquals(cantidad, resumen.getCantidad());
+        assertEquals(centavos, resumen.getTotalCentavos());
+    }
+}
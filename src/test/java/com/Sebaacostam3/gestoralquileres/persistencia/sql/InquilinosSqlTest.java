@@ -0,0 +1,193 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.servicio.GestorAlquileres;
+import com.Sebaacostam3.gestoralquileres.servicio.Repositorios;
+import com.Sebaacostam3.gestoralquileres.servicio.Resultado;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unicidad del DNI y del email en la tabla de inquilinos: migración de bases anteriores y conflictos
+ * con escrituras de otro proceso.
+ */
+class InquilinosSqlTest {
+
+    @TempDir
+    Path directorio;
+
+    private String url() {
+        return "jdbc:h2:" + directorio.resolve("gestor").toAbsolutePath();
+    }
+
+    @Test
+    void migraUnaBaseAnteriorConDnisYEmailsRepetidos() throws Exception {
+        // Esquema anterior a las columnas normalizadas, con datos cargados antes de la regla de unicidad
+        try (Connection conexion = DriverManager.getConnection(url())) {
+            ejecutar(conexion, "CREATE TABLE inquilino (seq BIGINT GENERATED BY DEFAULT AS IDENTITY, clave VARCHAR(255) PRIMARY KEY,"
+                    + " id VARCHAR(255) NOT NULL, nombre VARCHAR, apellido VARCHAR, telefono VARCHAR, dni VARCHAR, email VARCHAR)");
+            ejecutar(conexion, "CREATE UNIQUE INDEX inquilino_seq ON inquilino (seq)");
+            insertar(conexion, "INQ1", "30.000.001", "Ana@Correo.com");
+            insertar(conexion, "INQ2", "30000001", "otra@correo.com");
+            insertar(conexion, "INQ3", "30000003", "ana@correo.com");
+        }
+
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1);
+             GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+            assertEquals(List.of("INQ1|30000001|ana@correo.com", "INQ2|null|otra@correo.com", "INQ3|30000003|null"),
+                    normalizados(base));
+            assertEquals(List.of("INQUILINO_DNI", "INQUILINO_EMAIL"), indicesUnicos(base));
+
+            assertEquals("INQ1", gestor.buscarInquilinoPorDni("30000001").orElseThrow().getId());
+            assertEquals("INQ1", base.repositorios().getInquilinos().buscarPorEmail("ANA@correo.com").getId());
+            assertEquals(Resultado.DNI_DUPLICADO, gestor.agregarInquilino(inquilino(null, "30-000-001", "nueva@correo.com")));
+            assertEquals(Resultado.EMAIL_DUPLICADO, gestor.agregarInquilino(inquilino(null, "30000009", "ana@CORREO.com")));
+        }
+
+        // Al reabrir, las filas ya completadas no cambian
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1)) {
+            assertEquals(List.of("INQ1|30000001|ana@correo.com", "INQ2|null|otra@correo.com", "INQ3|30000003|null"),
+                    normalizados(base));
+        }
+    }
+
+    @Test
+    void unDniOEmailEscritoPorOtroProcesoSeInformaComoRepetido() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2)) {
+            InquilinosConEscrituraAjena inquilinos = new InquilinosConEscrituraAjena(base);
+            GestorAlquileres gestor = new GestorAlquileres(new Repositorios(new PropiedadesSql(base), inquilinos,
+                    new ContratosSql(base), new PagosSql(base), new IncidenciasSql(base)));
+
+            inquilinos.ajeno = inquilino("AJENO1", "20000001", "ajeno1@correo.com");
+            assertEquals(Resultado.DNI_DUPLICADO, gestor.agregarInquilino(inquilino("INQ1", "20.000.001", "propio1@correo.com")));
+            inquilinos.ajeno = inquilino("AJENO2", "20000002", "ajeno2@correo.com");
+            assertEquals(Resultado.EMAIL_DUPLICADO, gestor.agregarInquilino(inquilino("INQ2", "20000012", "AJENO2@correo.com")));
+            inquilinos.ajeno = inquilino("inq3", "20000003", "ajeno3@correo.com");
+            assertEquals(Resultado.ID_DUPLICADO, gestor.agregarInquilino(inquilino("INQ3", "20000013", "propio3@correo.com")));
+
+            assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino("INQ4", "20000014", "propio4@correo.com")));
+            inquilinos.ajeno = inquilino("AJENO5", "20000005", "ajeno5@correo.com");
+            assertEquals(Resultado.EMAIL_DUPLICADO, gestor.actualizarInquilino(inquilino("INQ4", "20000014", "ajeno5@correo.com")));
+            assertEquals("propio4@correo.com", gestor.buscarInquilinoPorId("INQ4").orElseThrow().getEmail());
+
+            inquilinos.ajeno = inquilino("AJENO6", "20000006", "ajeno6@correo.com");
+            assertEquals(List.of(Resultado.EXITO, Resultado.DNI_DUPLICADO, Resultado.EXITO),
+                    gestor.agregarInquilinos(List.of(inquilino("INQ5", "20000015", "propio5@correo.com"),
+                            inquilino("INQ6", "20000006", "propio6@correo.com"),
+                            inquilino("INQ7", "20000017", "propio7@correo.com"))));
+            assertNull(gestor.buscarInquilinoPorId("INQ6").orElse(null));
+            assertEquals(List.of("AJENO1", "AJENO2", "inq3", "INQ4", "AJENO5", "AJENO6", "INQ5", "INQ7"), ids(gestor.listarInquilinos()));
+        }
+    }
+
+    /**
+     * Simula otro proceso que escribe un inquilino en la misma base justo después de que el gestor
+     * verificó los datos únicos y antes de que escriba.
+     */
+    private static final class InquilinosConEscrituraAjena extends InquilinosSql {
+
+        private final InquilinosSql otroProceso;
+        Inquilino ajeno;
+
+        InquilinosConEscrituraAjena(BaseDatosEmbebida base) {
+            super(base);
+            this.otroProceso = new InquilinosSql(base);
+        }
+
+        @Override
+        public boolean agregar(Inquilino inquilino) {
+            escribirAjeno();
+            return super.agregar(inquilino);
+        }
+
+        @Override
+        public List<Inquilino> agregarTodas(List<Inquilino> inquilinos) {
+            escribirAjeno();
+            return super.agregarTodas(inquilinos);
+        }
+
+        @Override
+        public void guardar(Inquilino inquilino) {
+            escribirAjeno();
+            super.guardar(inquilino);
+        }
+
+        private void escribirAjeno() {
+            if (ajeno != null) {
+                otroProceso.agregar(ajeno);
+                ajeno = null;
+            }
+        }
+    }
+
+    private static Inquilino inquilino(String id, String dni, String email) {
+        return new Inquilino(id, "Nombre", "Apellido", "099", dni, email);
+    }
+
+    private static void insertar(Connection conexion, String id, String dni, String email) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(
+                "INSERT INTO inquilino (clave, id, nombre, apellido, telefono, dni, email) VALUES (?, ?, 'Nombre', 'Apellido', '099', ?, ?)")) {
+            sentencia.setString(1, id);
+            sentencia.setString(2, id);
+            sentencia.setString(3, dni);
+            sentencia.setString(4, email);
+            sentencia.executeUpdate();
+        }
+    }
+
+    private static void ejecutar(Connection conexion, String sql) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.execute();
+        }
+    }
+
+    private static List<String> normalizados(BaseDatosEmbebida base) {
+        return base.ejecutar(conexion -> {
+            List<String> filas = new ArrayList<>();
+            try (PreparedStatement sentencia = conexion.prepareStatement(
+                    "SELECT id, dni_normalizado, email_normalizado FROM inquilino ORDER BY seq");
+                 ResultSet fila = sentencia.executeQuery()) {
+                while (fila.next()) {
+                    filas.add(fila.getString(1) + "|" + fila.getString(2) + "|" + fila.getString(3));
+                }
+            }
+            return filas;
+        });
+    }
+
+    private static List<String> indicesUnicos(BaseDatosEmbebida base) {
+        return base.ejecutar(conexion -> {
+            List<String> indices = new ArrayList<>();
+            try (ResultSet fila = conexion.getMetaData().getIndexInfo(null, "PUBLIC", "INQUILINO", true, false)) {
+                while (fila.next()) {
+                    String nombre = fila.getString("INDEX_NAME");
+                    if (nombre.equals("INQUILINO_DNI") || nombre.equals("INQUILINO_EMAIL")) {
+                        indices.add(nombre);
+                    }
+                }
+            }
+            indices.sort(null);
+            return indices;
+        });
+    }
+
+    private static List<String> ids(List<Inquilino> inquilinos) {
+        List<String> ids = new ArrayList<>();
+        for (Inquilino inquilino : inquilinos) {
+            ids.add(inquilino.getId());
+        }
+        return ids;
+    }
+}
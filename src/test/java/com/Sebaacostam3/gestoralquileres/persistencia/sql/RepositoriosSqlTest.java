@@ -0,0 +1,315 @@
+package com.Sebaacostam3.gestoralquileres.persistencia.sql;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.servicio.GestorAlquileres;
+import com.Sebaacostam3.gestoralquileres.servicio.Pagina;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioPagos;
+import com.Sebaacostam3.gestoralquileres.servicio.RepositorioPropiedades;
+import com.Sebaacostam3.gestoralquileres.servicio.Resultado;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Repositorios sobre la base de datos embebida H2: esquema, altas, cambios y bajas, paginación y
+ * altas por lotes.
+ */
+class RepositoriosSqlTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 1, 1);
+
+    @TempDir
+    java.nio.file.Path directorio;
+
+    private String url() {
+        return "jdbc:h2:" + directorio.resolve("gestor").toAbsolutePath();
+    }
+
+    @Test
+    void creaElEsquemaUnaSolaVezYConservaLosDatos() throws Exception {
+        List<String> esperado;
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2);
+             GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+            cargar(gestor, 3);
+            esperado = estado(gestor);
+        }
+        // Al reabrir, el esquema ya existe y no se vuelve a crear
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2);
+             GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+            assertEquals(esperado, estado(gestor));
+        }
+        try (Connection conexion = DriverManager.getConnection(url());
+             ResultSet tablas = conexion.getMetaData().getTables(null, "PUBLIC", "%", new String[] {"TABLE"})) {
+            List<String> nombres = new ArrayList<>();
+            while (tablas.next()) {
+                nombres.add(tablas.getString("TABLE_NAME"));
+            }
+            nombres.sort(null);
+            assertEquals(List.of("CONTRATO", "INCIDENCIA", "INQUILINO", "PAGO", "PROPIEDAD"), nombres);
+        }
+    }
+
+    @Test
+    void lasEscriturasDelGestorDejanElMismoEstadoQueEnMemoria() throws Exception {
+        GestorAlquileres enMemoria = new GestorAlquileres();
+        cargar(enMemoria, 5);
+        modificar(enMemoria);
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2);
+             GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+            cargar(gestor, 5);
+            modificar(gestor);
+            assertEquals(estado(enMemoria), estado(gestor));
+
+            String contrato = gestor.listarContratos().get(0).getId();
+            assertEquals(textos(enMemoria.listarPagosPorContrato(contrato)), textos(gestor.listarPagosPorContrato(contrato)));
+            assertEquals(textos(enMemoria.listarPagosPorPeriodo(YearMonth.of(2025, 2), null)),
+                    textos(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 2), null)));
+            assertEquals(textos(enMemoria.listarPagosPorContratoYPeriodo(contrato, null, YearMonth.of(2025, 1))),
+                    textos(gestor.listarPagosPorContratoYPeriodo(contrato, null, YearMonth.of(2025, 1))));
+            assertEquals(textos(enMemoria.listarContratosActivos()), textos(gestor.listarContratosActivos()));
+            assertEquals(enMemoria.contarIncidenciasPorEstado(), gestor.contarIncidenciasPorEstado());
+        }
+    }
+
+    @Test
+    void lasPaginasRecorrenTodoEnOrdenDeAlta() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2)) {
+            RepositorioPropiedades propiedades = base.repositorios().getPropiedades();
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                String id = String.format("PRP%03d", i);
+                assertTrue(propiedades.agregar(propiedad(id)));
+                ids.add(id);
+            }
+            assertNotNull(propiedades.eliminar("prp010"));
+            ids.remove("PRP010");
+
+            List<String> recorridos = new ArrayList<>();
+            String cursor = null;
+            int paginas = 0;
+            do {
+                Pagina<Propiedad> pagina = propiedades.pagina(cursor, 10);
+                pagina.getElementos().forEach(propiedad -> recorridos.add(propiedad.getId()));
+                cursor = pagina.getCursorSiguiente();
+                paginas++;
+            } while (cursor != null);
+            assertEquals(ids, recorridos);
+            assertEquals(3, paginas);
+            assertThrows(IllegalArgumentException.class, () -> propiedades.pagina("no es un cursor", 10));
+            assertThrows(IllegalArgumentException.class, () -> propiedades.pagina(null, 0));
+        }
+    }
+
+    @Test
+    void soloLaClavePrimariaRepetidaSeInformaComoIdDuplicado() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2)) {
+            RepositorioPropiedades propiedades = base.repositorios().getPropiedades();
+            assertTrue(propiedades.agregar(propiedad("PRP1")));
+            assertFalse(propiedades.agregar(propiedad("prp1")));
+            // Una fila sin clave viola otra restricción: es un error, no un ID repetido
+            assertThrows(ErrorBaseDatos.class, () -> propiedades.agregar(propiedad(null)));
+            assertEquals(1, propiedades.tamanio());
+        }
+    }
+
+    @Test
+    void unLoteQueChocaConUnaAltaConcurrenteSeReintentaDeAUna() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2);
+             Connection otra = DriverManager.getConnection(url())) {
+            RepositorioPropiedades propiedades = base.repositorios().getPropiedades();
+            // Otra transacción agrega PRP2 sin confirmarla: el lote no la ve al verificar, y choca al insertar
+            otra.setAutoCommit(false);
+            try (PreparedStatement insertar = otra.prepareStatement(
+                    "INSERT INTO propiedad (clave, id, direccion, alquilada) VALUES ('PRP2', 'PRP2', 'Concurrente', FALSE)")) {
+                insertar.executeUpdate();
+            }
+            AtomicReference<List<Propiedad>> agregadas = new AtomicReference<>();
+            Thread lote = new Thread(() -> agregadas.set(propiedades.agregarTodas(
+                    List.of(propiedad("PRP1"), propiedad("PRP2"), propiedad("PRP3")))));
+            lote.start();
+            Thread.sleep(300);
+            otra.commit();
+            lote.join();
+
+            assertEquals(List.of("PRP1", "PRP3"), ids(agregadas.get()));
+            assertEquals("Concurrente", propiedades.obtener("PRP2").getDireccion());
+            assertEquals(List.of("PRP2", "PRP1", "PRP3"), ids(new ArrayList<>(propiedades.valores())));
+        }
+    }
+
+    @Test
+    void unLoteConOtraViolacionNoAgregaNinguna() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 2)) {
+            RepositorioPropiedades propiedades = base.repositorios().getPropiedades();
+            assertThrows(ErrorBaseDatos.class, () -> propiedades.agregarTodas(List.of(propiedad("PRP1"), propiedad(null))));
+            assertEquals(0, propiedades.tamanio());
+        }
+    }
+
+    @Test
+    void completaElPeriodoDeLosPagosDeUnaBaseAnterior() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1);
+             GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+            cargar(gestor, 2);
+        }
+        // Una base escrita antes de la columna del período
+        try (Connection conexion = DriverManager.getConnection(url())) {
+            ejecutar(conexion, "DROP INDEX pago_periodo");
+            ejecutar(conexion, "ALTER TABLE pago DROP COLUMN periodo");
+        }
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1)) {
+            RepositorioPagos pagos = base.repositorios().getPagos();
+            assertEquals(2, pagos.listarPorPeriodo(YearMonth.of(2025, 2), YearMonth.of(2025, 2)).size());
+            assertEquals(4, pagos.listarPorPeriodo(null, null).size());
+        }
+    }
+
+    @Test
+    void migraLosImportesDecimalesDeUnaBaseAnteriorACentavos() throws Exception {
+        List<String> esperado;
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1);
+             GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+            cargar(gestor, 3);
+            esperado = estado(gestor);
+        }
+        // Una base escrita cuando los importes se guardaban como double
+        String[][] importes = {{"propiedad", "precio_mensual"}, {"contrato", "valor_mensual"}, {"pago", "valor_pago"},
+                {"incidencia", "costo_estimado"}};
+        try (Connection conexion = DriverManager.getConnection(url())) {
+            for (String[] importe : importes) {
+                ejecutar(conexion, "ALTER TABLE " + importe[0] + " ADD COLUMN " + importe[1] + " DOUBLE PRECISION");
+                ejecutar(conexion, "UPDATE " + importe[0] + " SET " + importe[1] + " = " + importe[1] + "_centavos / 100.0");
+                ejecutar(conexion, "ALTER TABLE " + importe[0] + " DROP COLUMN " + importe[1] + "_centavos");
+            }
+        }
+
+        for (int i = 0; i < 2; i++) {
+            try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1);
+                 GestorAlquileres gestor = new GestorAlquileres(base.repositorios())) {
+                assertEquals(esperado, estado(gestor));
+                for (String[] importe : importes) {
+                    assertFalse(existeColumna(base, importe[0], importe[1]));
+                    assertTrue(existeColumna(base, importe[0], importe[1] + "_centavos"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void guardaLosImportesEnCentavosExactos() throws Exception {
+        try (BaseDatosEmbebida base = new BaseDatosEmbebida(url(), 1)) {
+            RepositorioPropiedades propiedades = base.repositorios().getPropiedades();
+            Propiedad propiedad = propiedad("PRP1");
+            // 2^53 + 1 centavos no tiene representación exacta como double
+            propiedad.setPrecioMensualCentavos((1L << 53) + 1);
+            assertTrue(propiedades.agregar(propiedad));
+
+            assertEquals((1L << 53) + 1, propiedades.obtener("PRP1").getPrecioMensualCentavos());
+        }
+    }
+
+    private static boolean existeColumna(BaseDatosEmbebida base, String tabla, String columna) {
+        return base.ejecutar(conexion -> {
+            try (ResultSet fila = conexion.getMetaData().getColumns(null, "PUBLIC", tabla.toUpperCase(), columna.toUpperCase())) {
+                return fila.next();
+            }
+        });
+    }
+
+    private static void ejecutar(Connection conexion, String sql) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.execute();
+        }
+    }
+
+    /**
+     * Carga propiedades con un inquilino, un contrato activo, dos pagos y una incidencia cada una.
+     */
+    private static void cargar(GestorAlquileres gestor, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            Propiedad propiedad = new Propiedad(null, "Calle " + i, "Casa", 50 + i, false, 10000 + i);
+            assertEquals(Resultado.EXITO, gestor.agregarPropiedad(propiedad));
+            Inquilino inquilino = new Inquilino(null, "Nombre" + i, "Apellido" + i, "099" + i, Integer.toString(30000000 + i), "inquilino" + i + "@correo.com");
+            assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino));
+            ContratoAlquiler contrato = new ContratoAlquiler(null, HOY, HOY.plusYears(1), propiedad, inquilino, propiedad.getPrecioMensual(), true);
+            assertEquals(Resultado.EXITO, gestor.crearContrato(contrato));
+            for (int mes = 1; mes <= 2; mes++) {
+                Pago pago = new Pago(null, contrato, HOY.plusMonths(mes - 1), contrato.getValorMensual(), false, "2025-0" + mes);
+                assertEquals(Resultado.EXITO, gestor.registrarPago(pago));
+            }
+            Incidencia incidencia = new Incidencia(null, propiedad, "Incidencia " + i, HOY, EstadoIncidencia.PENDIENTE, 100);
+            assertEquals(Resultado.EXITO, gestor.reportarIncidencia(incidencia));
+        }
+    }
+
+    /**
+     * Aplica una actualización, una confirmación, una finalización y una baja de cada tipo de entidad posible.
+     */
+    private static void modificar(GestorAlquileres gestor) {
+        Propiedad propiedad = gestor.listarPropiedades().get(0);
+        assertEquals(Resultado.EXITO, gestor.actualizarPropiedad(new Propiedad(propiedad.getId(), "Calle cambiada", propiedad.getTipo(),
+                propiedad.getMetrosCuadrados(), propiedad.isAlquilada(), propiedad.getPrecioMensual())));
+        assertEquals(Resultado.EXITO, gestor.confirmarPago(gestor.listarPagos().get(0).getId()));
+        assertEquals(Resultado.EXITO, gestor.eliminarPago(gestor.listarPagos().get(1).getId()));
+        Incidencia incidencia = gestor.listarIncidencias().get(0);
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(incidencia.getId(), EstadoIncidencia.EN_PROCESO));
+        assertEquals(Resultado.EXITO, gestor.eliminarIncidencia(gestor.listarIncidencias().get(1).getId()));
+        assertEquals(Resultado.EXITO, gestor.finalizarContrato(gestor.listarContratosActivos().get(1).getId()));
+        ContratoAlquiler eliminado = gestor.listarContratosActivos().get(2);
+        assertEquals(Resultado.EXITO, gestor.eliminarContrato(eliminado.getId()));
+        assertNull(gestor.buscarContratoPorId(eliminado.getId()).orElse(null));
+    }
+
+    private static List<String> estado(GestorAlquileres gestor) {
+        List<String> estado = new ArrayList<>();
+        estado.addAll(textos(gestor.listarPropiedades()));
+        estado.addAll(textos(gestor.listarInquilinos()));
+        estado.addAll(textos(gestor.listarContratos()));
+        estado.addAll(textos(gestor.listarPagos()));
+        estado.addAll(textos(gestor.listarIncidencias()));
+        estado.sort(null);
+        return estado;
+    }
+
+    private static List<String> textos(List<?> entidades) {
+        List<String> textos = new ArrayList<>();
+        for (Object entidad : entidades) {
+            textos.add(entidad.toString());
+        }
+        return textos;
+    }
+
+    private static List<String> ids(List<Propiedad> propiedades) {
+        List<String> ids = new ArrayList<>();
+        for (Propiedad propiedad : propiedades) {
+            ids.add(propiedad.getId());
+        }
+        return ids;
+    }
+
+    private static Propiedad propiedad(String id) {
+        return new Propiedad(id, "Calle " + id, "Casa", 50, false, 1000);
+    }
+}
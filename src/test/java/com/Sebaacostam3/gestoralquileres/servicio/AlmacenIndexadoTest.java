@@ -0,0 +1,109 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.ids;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Reutilización de las claves internas de {@link AlmacenIndexado}: búsquedas y orden de los listados
+ * después de bajas y altas.
+ */
+class AlmacenIndexadoTest {
+
+    @Test
+    void unaAltaDespuesDeUnaBajaOcupaElLugarDeLaEliminada() {
+        AlmacenIndexado<Propiedad> almacen = new AlmacenIndexado<>(Propiedad::getId);
+        for (String id : List.of("P1", "P2", "P3")) {
+            almacen.agregar(propiedad(id));
+        }
+        almacen.eliminar("p2");
+        Propiedad nueva = propiedad("P4");
+        almacen.agregar(nueva);
+
+        assertNull(almacen.obtener("P2"));
+        assertSame(nueva, almacen.obtener("p4"));
+        assertEquals(List.of("P1", "P4", "P3"), ids(new ArrayList<>(almacen.valores())));
+        // La paginación recorre el mismo orden que el listado completo
+        Pagina<Propiedad> primera = almacen.pagina(null, 2);
+        assertEquals(List.of("P1", "P4"), ids(primera.getElementos()));
+        assertEquals(List.of("P3"), ids(almacen.pagina(primera.getCursorSiguiente(), 2).getElementos()));
+
+        // Guardar una entidad no cambia su lugar, y volver a dar de alta un ID eliminado no lo recupera
+        almacen.guardar(propiedad("P1"));
+        almacen.agregar(propiedad("P2"));
+        assertEquals(List.of("P1", "P4", "P3", "P2"), ids(new ArrayList<>(almacen.valores())));
+    }
+
+    @Test
+    void obtenerNoDevuelveLaEntidadQueReutilizoLaClave() throws InterruptedException {
+        AlmacenIndexado<Propiedad> almacen = new AlmacenIndexado<>(Propiedad::getId);
+        almacen.agregar(propiedad("FIJA"));
+        AtomicBoolean terminar = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+        // Dos IDs se alternan sobre la misma clave liberada mientras otros hilos los buscan
+        Thread escritor = new Thread(() -> {
+            for (int i = 0; i < 1_000_000 && error.get() == null; i++) {
+                String id = i % 2 == 0 ? "A" : "B";
+                almacen.agregar(propiedad(id));
+                almacen.eliminar(id);
+            }
+            terminar.set(true);
+        });
+        List<Thread> lectores = new ArrayList<>();
+        for (String buscado : List.of("A", "B", "A", "B")) {
+            lectores.add(new Thread(() -> {
+                while (!terminar.get()) {
+                    Propiedad encontrada = almacen.obtener(buscado);
+                    if (encontrada != null && !encontrada.getId().equals(buscado)) {
+                        error.set("Se buscó " + buscado + " y se obtuvo " + encontrada.getId());
+                    }
+                }
+            }));
+        }
+        escritor.start();
+        lectores.forEach(Thread::start);
+        escritor.join();
+        for (Thread lector : lectores) {
+            lector.join();
+        }
+
+        assertNull(error.get());
+        assertEquals(List.of("FIJA"), ids(new ArrayList<>(almacen.valores())));
+    }
+
+    @Test
+    void elGestorEncuentraUnPagoRegistradoEnLaClaveDeUnoEliminado() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 2);
+        List<Pago> pagos = gestor.listarPagos();
+        Pago eliminado = pagos.get(1);
+        assertEquals(Resultado.EXITO, gestor.eliminarPago(eliminado.getId()));
+        Pago nuevo = new Pago(null, eliminado.getContrato(), HOY.plusMonths(2), eliminado.getValorPago(), false, "2025-03");
+        assertEquals(Resultado.EXITO, gestor.registrarPago(nuevo));
+
+        assertNull(gestor.buscarPagoPorId(eliminado.getId()).orElse(null));
+        assertSame(nuevo, gestor.buscarPagoPorId(nuevo.getId()).orElseThrow());
+        List<String> esperado = ids(pagos);
+        esperado.set(1, nuevo.getId());
+        assertEquals(esperado, ids(gestor.listarPagos()));
+        assertEquals(List.of(pagos.get(0).getId(), nuevo.getId()), ids(gestor.listarPagosPorContrato(eliminado.getContrato().getId())));
+        assertEquals(Resultado.EXITO, gestor.confirmarPago(nuevo.getId()));
+        assertEquals(Resultado.NO_ENCONTRADO, gestor.confirmarPago(eliminado.getId()));
+    }
+
+    private static Propiedad propiedad(String id) {
+        return new Propiedad(id, "Calle " + id, "Casa", 50, false, 1000);
+    }
+}
@@ -0,0 +1,35 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.ZoneOffset;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Avisos al barrido de vencimientos después de cerrar el gestor.
+ */
+class BarridoVencimientosTest {
+
+    @Test
+    void losAvisosDespuesDeCerrarNoFallan() throws IOException {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 2);
+        gestor.programarVencimientos(Clock.fixed(HOY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+        gestor.close();
+
+        // Adelantar el próximo vencimiento reprogramaría la revisión en el programador ya detenido
+        ContratoAlquiler contrato = gestor.listarContratos().get(0);
+        assertEquals(Resultado.EXITO, gestor.actualizarContrato(new ContratoAlquiler(contrato.getId(), contrato.getFechaInicio(),
+                HOY.plusMonths(1), contrato.getPropiedad(), contrato.getInquilino(), contrato.getValorMensual(), true)));
+        assertEquals(Resultado.EXITO, gestor.finalizarContrato(gestor.listarContratos().get(1).getId()));
+        assertTrue(gestor.buscarContratoPorId(contrato.getId()).orElseThrow().isActivo());
+        assertEquals(HOY.plusMonths(1), gestor.buscarContratoPorId(contrato.getId()).orElseThrow().getFechaFin());
+    }
+}
@@ -0,0 +1,119 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Exclusión y orden de adquisición de {@link BloqueoEstriado}, y escrituras concurrentes del gestor.
+ */
+class BloqueoEstriadoTest {
+
+    private static final int HILOS = 8;
+
+    @Test
+    void lasOperacionesSobreLaMismaEntidadSeExcluyen() throws InterruptedException {
+        BloqueoEstriado bloqueos = new BloqueoEstriado(64);
+        int[] contador = new int[1];
+        ejecutar(HILOS, hilo -> {
+            for (int i = 0; i < 10_000; i++) {
+                // El mismo ID con distintas mayúsculas cae en la misma franja
+                try (BloqueoEstriado.Bloqueo _ = bloqueos.bloquear(hilo % 2 == 0 ? "prp1" : "PRP1")) {
+                    contador[0]++;
+                }
+            }
+        });
+        assertEquals(HILOS * 10_000, contador[0]);
+    }
+
+    @Test
+    void variosIdsEnDistintoOrdenNoSeInterbloquean() {
+        BloqueoEstriado bloqueos = new BloqueoEstriado(4);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> ejecutar(HILOS, hilo -> {
+            for (int i = 0; i < 20_000; i++) {
+                String a = "A" + (i % 16);
+                String b = "B" + (i % 16);
+                // IDs repetidos y nulos: cada franja se adquiere y se libera una sola vez
+                try (BloqueoEstriado.Bloqueo _ = hilo % 2 == 0 ? bloqueos.bloquear(a, b, null, a) : bloqueos.bloquear(b, a, b)) {
+                    Thread.onSpinWait();
+                }
+            }
+        }));
+    }
+
+    @Test
+    void lasAltasConcurrentesRecibenIdsDistintosYUnaPropiedadSeAlquilaUnaSolaVez() throws InterruptedException {
+        GestorAlquileres gestor = new GestorAlquileres(16);
+        ejecutar(HILOS, hilo -> {
+            for (int i = 0; i < 500; i++) {
+                assertEquals(Resultado.EXITO, gestor.agregarPropiedad(new Propiedad(null, "Calle " + hilo + "-" + i, "Casa", 50, false, 1000)));
+            }
+        });
+        assertEquals(HILOS * 500, new HashSet<>(DatosPrueba.ids(gestor.listarPropiedades())).size());
+
+        Propiedad propiedad = gestor.listarPropiedades().get(0);
+        List<Inquilino> inquilinos = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            Inquilino inquilino = new Inquilino(null, "Nombre", "Apellido", "099", Integer.toString(30000000 + i), null);
+            assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino));
+            inquilinos.add(inquilino);
+        }
+        AtomicInteger creados = new AtomicInteger();
+        ejecutar(HILOS, hilo -> {
+            Resultado resultado = gestor.crearContrato(new ContratoAlquiler(null, HOY, HOY.plusYears(1), propiedad,
+                    inquilinos.get(hilo), 1000, true));
+            if (resultado == Resultado.EXITO) {
+                creados.incrementAndGet();
+            } else {
+                assertEquals(Resultado.PROPIEDAD_ALQUILADA, resultado);
+            }
+        });
+        assertEquals(1, creados.get());
+        assertEquals(1, gestor.listarContratosActivos().size());
+    }
+
+    private interface Tarea {
+        void ejecutar(int hilo);
+    }
+
+    /**
+     * Ejecuta la tarea en varios hilos que arrancan a la vez y espera a que terminen; falla si alguno falló.
+     */
+    private static void ejecutar(int hilos, Tarea tarea) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Throwable> errores = new ArrayList<>();
+        List<Thread> trabajadores = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            int hilo = i;
+            trabajadores.add(Thread.ofPlatform().start(() -> {
+                try {
+                    largada.await();
+                    tarea.ejecutar(hilo);
+                } catch (Throwable e) {
+                    synchronized (errores) {
+                        errores.add(e);
+                    }
+                }
+            }));
+        }
+        largada.countDown();
+        for (Thread trabajador : trabajadores) {
+            trabajador.join();
+        }
+        if (!errores.isEmpty()) {
+            throw new AssertionError(errores.get(0));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Programación, cambios y bajas de la {@link ColaVencimientos}, comparando con un mapa de fechas.
+ */
+class ColaVencimientosTest {
+
+    @Test
+    void extraeLosVencidosDelMasAntiguoAlMasReciente() {
+        ColaVencimientos cola = new ColaVencimientos();
+        cola.programar("con3", 30);
+        cola.programar("CON1", 10);
+        cola.programar("con2", 20);
+        assertEquals(10, cola.proximo());
+
+        assertEquals(List.of("CON1", "CON2"), cola.extraerAnteriores(30));
+        assertEquals(30, cola.proximo());
+        assertEquals(List.of("CON3"), cola.extraerAnteriores(31));
+        assertEquals(Long.MAX_VALUE, cola.proximo());
+    }
+
+    @Test
+    void programarDeNuevoMueveElVencimientoSinDuplicarlo() {
+        ColaVencimientos cola = new ColaVencimientos();
+        cola.programar("CON1", 10);
+        cola.programar("CON2", 20);
+        cola.programar("con1", 40);
+        assertEquals(20, cola.proximo());
+
+        cola.quitar("CON2");
+        cola.quitar("CON2");
+        assertEquals(List.of("CON1"), cola.extraerAnteriores(100));
+        assertTrue(cola.extraerAnteriores(100).isEmpty());
+    }
+
+    @Test
+    void coincideConUnMapaTrasOperacionesAlAzar() {
+        SplittableRandom azar = new SplittableRandom(7);
+        ColaVencimientos cola = new ColaVencimientos();
+        Map<String, Long> modelo = new HashMap<>();
+        long hoy = 0;
+
+        for (int paso = 0; paso < 20000; paso++) {
+            String id = "CON" + azar.nextInt(800);
+            int operacion = azar.nextInt(10);
+            if (operacion < 6) {
+                long dia = hoy + azar.nextInt(500);
+                cola.programar(id, dia);
+                modelo.put(id, dia);
+            } else if (operacion < 9) {
+                cola.quitar(id);
+                modelo.remove(id);
+            } else {
+                hoy += azar.nextInt(20);
+                List<String> vencidos = cola.extraerAnteriores(hoy);
+                long anterior = Long.MIN_VALUE;
+                for (String vencido : vencidos) {
+                    long dia = modelo.remove(vencido);
+                    assertTrue(dia < hoy && dia >= anterior, "paso " + paso);
+                    anterior = dia;
+                }
+                for (long dia : modelo.values()) {
+                    assertTrue(dia >= hoy, "paso " + paso);
+                }
+            }
+            assertEquals(minimo(modelo), cola.proximo(), "paso " + paso);
+        }
+
+        List<String> restantes = new ArrayList<>(cola.extraerAnteriores(Long.MAX_VALUE));
+        restantes.sort(null);
+        List<String> esperados = new ArrayList<>(modelo.keySet());
+        esperados.sort(null);
+        assertEquals(esperados, restantes);
+    }
+
+    private static long minimo(Map<String, Long> modelo) {
+        long minimo = Long.MAX_VALUE;
+        for (long dia : modelo.values()) {
+            minimo = Math.min(minimo, dia);
+        }
+        return minimo;
+    }
+}
@@ -0,0 +1,99 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.ids;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Búsqueda de propiedades por varios criterios con {@link ConsultaPropiedades} y los índices del repositorio.
+ */
+class ConsultaPropiedadesTest {
+
+    private static final List<String> TIPOS = List.of("Casa", "Departamento", "Local", "Apartamento");
+
+    @Test
+    void combinaLosCriteriosConLimitesIncluidos() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        agregar(gestor, "P1", "Casa", 50, 1000);
+        agregar(gestor, "P2", " casa ", 80, 1500.50);
+        agregar(gestor, "P3", "Departamento", 80, 1500.49);
+        agregar(gestor, "P4", "Casa", 120, 3000);
+
+        assertEquals(List.of("P1", "P2", "P4"), buscar(gestor, new ConsultaPropiedades("CASA", null, null, null, null, null)));
+        assertEquals(List.of("P2", "P3"), buscar(gestor, new ConsultaPropiedades(null, null, 80.0, 80.0, null, null)));
+        assertEquals(List.of("P2"), buscar(gestor, new ConsultaPropiedades("casa", false, 60.0, null, 1500.50, 2000.0)));
+        assertEquals(List.of("P1", "P3"), buscar(gestor, new ConsultaPropiedades(null, null, null, null, null, 1500.49)));
+        assertEquals(List.of(), buscar(gestor, new ConsultaPropiedades("Local", null, null, null, null, null)));
+        assertEquals(List.of("P1", "P2", "P3", "P4"), buscar(gestor, new ConsultaPropiedades(" ", null, null, null, null, null)));
+        assertEquals(List.of("P1", "P2", "P3", "P4"), buscar(gestor, null));
+
+        assertThrows(IllegalArgumentException.class, () -> new ConsultaPropiedades(null, null, 100.0, 50.0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new ConsultaPropiedades(null, null, null, null, Double.NaN, null));
+    }
+
+    @Test
+    void losIndicesSiguenLasActualizacionesYLosAlquileres() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        Propiedad propiedad = agregar(gestor, "P1", "Casa", 50, 1000);
+        agregar(gestor, "P2", "Casa", 50, 1000);
+        ConsultaPropiedades casasLibres = new ConsultaPropiedades("Casa", false, null, null, null, null);
+        assertEquals(List.of("P1", "P2"), buscar(gestor, casasLibres));
+
+        Inquilino inquilino = new Inquilino(null, "Ana", "Pérez", "099", "30000001", null);
+        assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino));
+        ContratoAlquiler contrato = new ContratoAlquiler(null, HOY, HOY.plusYears(1), propiedad, inquilino, 1000, true);
+        assertEquals(Resultado.EXITO, gestor.crearContrato(contrato));
+        assertEquals(List.of("P2"), buscar(gestor, casasLibres));
+        assertEquals(List.of("P1"), buscar(gestor, new ConsultaPropiedades(null, true, null, null, null, null)));
+
+        assertEquals(Resultado.EXITO, gestor.actualizarPropiedad(new Propiedad("P2", "Calle P2", "Local", 90, false, 2500)));
+        assertEquals(List.of(), buscar(gestor, casasLibres));
+        assertEquals(List.of("P2"), buscar(gestor, new ConsultaPropiedades("local", null, 90.0, null, 2500.0, 2500.0)));
+
+        assertEquals(Resultado.EXITO, gestor.finalizarContrato(contrato.getId()));
+        assertEquals(List.of("P1"), buscar(gestor, casasLibres));
+    }
+
+    @Test
+    void coincideConUnFiltroCompletoSobreDatosAlAzar() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        Random azar = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            agregar(gestor, "P" + i, TIPOS.get(azar.nextInt(TIPOS.size())), 20 + azar.nextInt(200), 500 + azar.nextInt(5000) / 4.0);
+        }
+        for (int i = 0; i < 200; i++) {
+            Double metrosMinimos = azar.nextBoolean() ? null : (double) (20 + azar.nextInt(200));
+            Double precioMaximo = azar.nextBoolean() ? null : 500 + azar.nextInt(5000) / 4.0;
+            String tipo = azar.nextBoolean() ? null : TIPOS.get(azar.nextInt(TIPOS.size()));
+            ConsultaPropiedades consulta = new ConsultaPropiedades(tipo, null, metrosMinimos, null, null, precioMaximo);
+
+            List<String> esperado = new ArrayList<>();
+            for (Propiedad propiedad : gestor.listarPropiedades()) {
+                if (consulta.incluye(propiedad)) {
+                    esperado.add(propiedad.getId());
+                }
+            }
+            assertEquals(esperado, buscar(gestor, consulta));
+        }
+    }
+
+    private static Propiedad agregar(GestorAlquileres gestor, String id, String tipo, double metros, double precio) {
+        Propiedad propiedad = new Propiedad(id, "Calle " + id, tipo, metros, false, precio);
+        assertEquals(Resultado.EXITO, gestor.agregarPropiedad(propiedad));
+        return propiedad;
+    }
+
+    private static List<String> buscar(GestorAlquileres gestor, ConsultaPropiedades consulta) {
+        return ids(gestor.buscarPropiedades(consulta));
+    }
+}
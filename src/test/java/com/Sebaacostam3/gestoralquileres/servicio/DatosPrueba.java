@@ -0,0 +1,118 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Datos y comparaciones comunes de los tests del gestor.
+ */
+final class DatosPrueba {
+
+    static final LocalDate HOY = LocalDate.of(2025, 1, 1);
+
+    private DatosPrueba() {
+    }
+
+    /**
+     * Carga propiedades con un contrato activo, dos pagos por contrato y una incidencia cada una.
+     */
+    static void cargar(GestorAlquileres gestor, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            Propiedad propiedad = new Propiedad(null, "Calle " + i, "Casa", 50 + i, false, 10000 + i);
+            assertEquals(Resultado.EXITO, gestor.agregarPropiedad(propiedad));
+            Inquilino inquilino = new Inquilino(null, "Nombre" + i, "Apellido" + i, "099" + i, Integer.toString(30000000 + i), "inquilino" + i + "@correo.com");
+            assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino));
+            ContratoAlquiler contrato = new ContratoAlquiler(null, HOY, HOY.plusYears(1), propiedad, inquilino, propiedad.getPrecioMensual(), true);
+            assertEquals(Resultado.EXITO, gestor.crearContrato(contrato));
+            for (int mes = 1; mes <= 2; mes++) {
+                Pago pago = new Pago(null, contrato, HOY.plusMonths(mes - 1), contrato.getValorMensual(), false, "2025-0" + mes);
+                assertEquals(Resultado.EXITO, gestor.registrarPago(pago));
+            }
+            Incidencia incidencia = new Incidencia(null, propiedad, "Incidencia " + i, HOY, EstadoIncidencia.PENDIENTE, 100);
+            assertEquals(Resultado.EXITO, gestor.reportarIncidencia(incidencia));
+        }
+    }
+
+    /**
+     * Aplica una escritura de cada tipo sobre los datos cargados.
+     */
+    static void modificar(GestorAlquileres gestor) {
+        Propiedad propiedad = gestor.listarPropiedades().get(0);
+        assertEquals(Resultado.EXITO, gestor.actualizarPropiedad(new Propiedad(propiedad.getId(), "Calle cambiada", propiedad.getTipo(),
+                propiedad.getMetrosCuadrados(), propiedad.isAlquilada(), propiedad.getPrecioMensual())));
+        Pago pago = gestor.listarPagos().get(0);
+        assertEquals(Resultado.EXITO, gestor.confirmarPago(pago.getId()));
+        assertEquals(Resultado.EXITO, gestor.eliminarPago(gestor.listarPagos().get(1).getId()));
+        Incidencia incidencia = gestor.listarIncidencias().get(0);
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(incidencia.getId(), EstadoIncidencia.EN_PROCESO));
+        ContratoAlquiler contrato = gestor.listarContratosActivos().get(1);
+        assertEquals(Resultado.EXITO, gestor.finalizarContrato(contrato.getId()));
+        Inquilino inquilino = new Inquilino(null, "Sin", "Contrato", "0990", "40000000", "sin.contrato@correo.com");
+        assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino));
+        assertEquals(Resultado.EXITO, gestor.eliminarInquilino(inquilino.getId()));
+    }
+
+    /**
+     * Agrega una propiedad disponible.
+     * @return El ID asignado.
+     */
+    static String agregarPropiedad(GestorAlquileres gestor, String direccion) {
+        Propiedad propiedad = new Propiedad(null, direccion, "Apartamento", 40, false, 9000);
+        assertEquals(Resultado.EXITO, gestor.agregarPropiedad(propiedad));
+        return propiedad.getId();
+    }
+
+    /**
+     * @return Todas las entidades en memoria como texto, ordenadas para no depender del orden de los listados.
+     */
+    static List<String> estado(GestorAlquileres gestor) {
+        List<String> estado = new ArrayList<>();
+        estado.addAll(textos(gestor.listarPropiedades()));
+        estado.addAll(textos(gestor.listarInquilinos()));
+        estado.addAll(textos(gestor.listarContratos()));
+        estado.addAll(textos(gestor.listarPagos()));
+        estado.addAll(textos(gestor.listarIncidencias()));
+        estado.sort(null);
+        return estado;
+    }
+
+    /**
+     * @return El texto de cada entidad, ordenado.
+     */
+    static List<String> textos(List<?> entidades) {
+        List<String> textos = new ArrayList<>();
+        for (Object entidad : entidades) {
+            textos.add(entidad.toString());
+        }
+        textos.sort(null);
+        return textos;
+    }
+
+    /**
+     * @return Los IDs de las entidades, en el orden de la lista.
+     */
+    static List<String> ids(List<?> entidades) {
+        List<String> ids = new ArrayList<>();
+        for (Object entidad : entidades) {
+            ids.add(switch (entidad) {
+                case Propiedad propiedad -> propiedad.getId();
+                case Inquilino inquilino -> inquilino.getId();
+                case ContratoAlquiler contrato -> contrato.getId();
+                case Pago pago -> pago.getId();
+                case Incidencia incidencia -> incidencia.getId();
+                default -> throw new IllegalArgumentException("Entidad desconocida: " + entidad);
+            });
+        }
+        return ids;
+    }
+}
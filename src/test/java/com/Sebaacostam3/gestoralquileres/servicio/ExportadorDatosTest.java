@@ -0,0 +1,83 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Codificación UTF-8 de la exportación: textos con caracteres de varios bytes que cruzan el buffer de
+ * salida y caracteres que no se pueden codificar.
+ */
+class ExportadorDatosTest {
+
+    private static final int CANTIDAD = 2500;
+    private static final String DESCRIPCION = "Caño roto en el baño 🚿, revisar";
+
+    @Test
+    void exportaTextosConCaracteresDeVariosBytesYReemplazaLosInvalidos() throws IOException {
+        GestorAlquileres gestor = new GestorAlquileres();
+        Propiedad propiedad = new Propiedad(null, "Calle Ñandú", "Casa", 50, false, 10000);
+        assertEquals(Resultado.EXITO, gestor.agregarPropiedad(propiedad));
+        for (int i = 0; i < CANTIDAD; i++) {
+            // La última termina en un sustituto suelto, que no es UTF-8 válido
+            String descripcion = i == CANTIDAD - 1 ? DESCRIPCION + " \uD83D" : DESCRIPCION + " " + i;
+            assertEquals(Resultado.EXITO, gestor.reportarIncidencia(
+                    new Incidencia(null, propiedad, descripcion, HOY, EstadoIncidencia.PENDIENTE, 100)));
+        }
+        ExportadorDatos exportador = new ExportadorDatos(gestor);
+
+        List<String> csv = exportar(exportador, FormatoExportacion.CSV, FiltroExportacion.todos());
+        assertEquals(CANTIDAD + 1, csv.size());
+        assertEquals("id,propiedad_id,descripcion,fecha,estado,costo_estimado", csv.get(0));
+        for (int i = 0; i < CANTIDAD - 1; i++) {
+            assertEquals(FormatoCsv.escapar(DESCRIPCION + " " + i), csv.get(i + 1).split(",", 3)[2].split(",01-01-2025")[0]);
+        }
+        assertEquals(FormatoCsv.escapar(DESCRIPCION + " ?"), csv.get(CANTIDAD).split(",", 3)[2].split(",01-01-2025")[0]);
+
+        List<String> jsonl = exportar(exportador, FormatoExportacion.JSONL, FiltroExportacion.todos());
+        assertEquals(CANTIDAD, jsonl.size());
+        assertEquals("\"descripcion\":\"" + DESCRIPCION + " 0\"", jsonl.get(0).split(",", 3)[2].split(",\"fecha\"")[0]);
+        assertEquals("\"descripcion\":\"" + DESCRIPCION + " ?\"", jsonl.get(CANTIDAD - 1).split(",", 3)[2].split(",\"fecha\"")[0]);
+    }
+
+    @Test
+    void sinIncidenciasParaElContratoSoloEscribeElEncabezado() throws IOException {
+        GestorAlquileres gestor = new GestorAlquileres();
+        DatosPrueba.cargar(gestor, 2);
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long exportadas = new ExportadorDatos(gestor).exportarIncidencias(Channels.newChannel(salida), FormatoExportacion.CSV,
+                new FiltroExportacion(null, null, "NO_EXISTE"));
+
+        assertEquals(0, exportadas);
+        assertEquals("id,propiedad_id,descripcion,fecha,estado,costo_estimado\n", salida.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Exporta las incidencias y decodifica el resultado de forma estricta, para fallar si algún byte no es UTF-8 válido.
+     */
+    private static List<String> exportar(ExportadorDatos exportador, FormatoExportacion formato, FiltroExportacion filtro)
+            throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long exportadas = exportador.exportarIncidencias(Channels.newChannel(salida), formato, filtro);
+        assertEquals(CANTIDAD, exportadas);
+        try {
+            String texto = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(salida.toByteArray())).toString();
+            return texto.lines().toList();
+        } catch (CharacterCodingException e) {
+            throw new AssertionError("La exportación no es UTF-8 válido", e);
+        }
+    }
+}
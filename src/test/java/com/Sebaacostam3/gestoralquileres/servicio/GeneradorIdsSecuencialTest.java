@@ -0,0 +1,83 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato, orden y unicidad de los IDs de {@link GeneradorIdsSecuencial}.
+ */
+class GeneradorIdsSecuencialTest {
+
+    @Test
+    void rellenaConCerosYSuperaElAnchoSinRepetir() {
+        GeneradorIdsSecuencial generador = new GeneradorIdsSecuencial("PRP", 3);
+        assertEquals("PRP001", generador.siguiente());
+        assertEquals("PRP002", generador.siguiente());
+
+        generador.observar("prp998");
+        assertEquals("PRP999", generador.siguiente());
+        // Pasado el ancho configurado el número crece en lugar de volver a empezar
+        assertEquals("PRP1000", generador.siguiente());
+        assertEquals("PRP00000001", new GeneradorIdsSecuencial("PRP").siguiente());
+    }
+
+    @Test
+    void observarSoloAvanzaConIdsDelMismoFormato() {
+        GeneradorIdsSecuencial generador = new GeneradorIdsSecuencial("INQ", 4);
+        generador.observar("INQ0050");
+        generador.observar("INQ0010");
+        // Otro prefijo, letras o un número más ancho que el configurado no cuentan
+        generador.observar("PRP9000");
+        generador.observar("INQ12A4");
+        generador.observar("INQ99999");
+        generador.observar("INQ");
+        generador.observar(null);
+        assertEquals("INQ0051", generador.siguiente());
+    }
+
+    @Test
+    void losHilosNuncaRecibenElMismoId() throws InterruptedException {
+        GeneradorIdsSecuencial generador = new GeneradorIdsSecuencial("PAG");
+        List<List<String>> porHilo = new ArrayList<>();
+        List<Thread> hilos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            List<String> generados = new ArrayList<>();
+            porHilo.add(generados);
+            hilos.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    generados.add(generador.siguiente());
+                }
+            }));
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        Set<String> todos = new HashSet<>();
+        for (List<String> generados : porHilo) {
+            todos.addAll(generados);
+            // Cada hilo ve sus IDs en orden creciente
+            for (int j = 1; j < generados.size(); j++) {
+                assertTrue(generados.get(j - 1).compareTo(generados.get(j)) < 0);
+            }
+        }
+        assertEquals(80_000, todos.size());
+    }
+
+    @Test
+    void elGestorNoRepiteLosIdsIngresadosAMano() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        assertEquals(Resultado.EXITO, gestor.agregarPropiedad(new Propiedad("PRP00000002", "Calle 1", "Casa", 50, false, 1000)));
+        Propiedad primera = new Propiedad(null, "Calle 2", "Casa", 50, false, 1000);
+        assertEquals(Resultado.EXITO, gestor.agregarPropiedad(primera));
+        assertEquals("PRP00000003", primera.getId());
+    }
+}
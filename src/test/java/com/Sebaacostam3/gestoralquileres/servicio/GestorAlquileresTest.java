@@ -0,0 +1,201 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.agregarPropiedad;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.ids;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Búsquedas por ID, índices secundarios, reglas de baja, listados paginados y consultas por período y por
+ * estado del gestor en memoria.
+ */
+class GestorAlquileresTest {
+
+    @Test
+    void buscaPorIdSinDistinguirMayusculasYRechazaIdsRepetidos() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        Propiedad propiedad = new Propiedad("Prp-Casa", "Calle 1", "Casa", 50, false, 1000);
+        assertEquals(Resultado.EXITO, gestor.agregarPropiedad(propiedad));
+
+        assertSame(propiedad, gestor.buscarPropiedadPorId("PRP-CASA").orElseThrow());
+        assertSame(propiedad, gestor.buscarPropiedadPorId("prp-casa").orElseThrow());
+        assertEquals(Resultado.ID_DUPLICADO, gestor.agregarPropiedad(new Propiedad("PRP-CASA", "Calle 2", "Casa", 60, false, 2000)));
+        assertNull(gestor.buscarPropiedadPorId("PRP-OTRA").orElse(null));
+        assertEquals(Resultado.NO_ENCONTRADO, gestor.eliminarPropiedad("PRP-OTRA"));
+
+        // Los IDs generados siguen el orden de alta
+        String primero = agregarPropiedad(gestor, "Calle 3");
+        String segundo = agregarPropiedad(gestor, "Calle 4");
+        assertTrue(primero.compareTo(segundo) < 0);
+        assertEquals(List.of("Prp-Casa", primero, segundo), ids(gestor.listarPropiedades()));
+    }
+
+    @Test
+    void listaLosPagosDeCadaContratoYLosEliminaConElContrato() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 3);
+        ContratoAlquiler contrato = gestor.listarContratos().get(1);
+        List<Pago> pagos = gestor.listarPagosPorContrato(contrato.getId().toLowerCase());
+        assertEquals(2, pagos.size());
+        for (Pago pago : pagos) {
+            assertSame(contrato, pago.getContrato());
+        }
+        assertEquals(List.of(), gestor.listarPagosPorContrato("CON-INEXISTENTE"));
+
+        assertEquals(Resultado.EXITO, gestor.eliminarContrato(contrato.getId()));
+
+        assertEquals(List.of(), gestor.listarPagosPorContrato(contrato.getId()));
+        assertEquals(4, gestor.listarPagos().size());
+        for (Pago pago : pagos) {
+            assertNull(gestor.buscarPagoPorId(pago.getId()).orElse(null));
+        }
+        assertFalse(gestor.buscarPropiedadPorId(contrato.getPropiedad().getId()).orElseThrow().isAlquilada());
+        assertEquals(Resultado.NO_ENCONTRADO, gestor.eliminarContrato(contrato.getId()));
+    }
+
+    @Test
+    void noEliminaPropiedadesNiInquilinosConContratosVigentesOIncidenciasAbiertas() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 1);
+        ContratoAlquiler contrato = gestor.listarContratos().get(0);
+        String propiedadId = contrato.getPropiedad().getId();
+        String inquilinoId = contrato.getInquilino().getId();
+        Incidencia incidencia = gestor.listarIncidencias().get(0);
+
+        assertEquals(Resultado.CONTRATO_VIGENTE, gestor.eliminarPropiedad(propiedadId));
+        assertEquals(Resultado.CONTRATO_VIGENTE, gestor.eliminarInquilino(inquilinoId));
+        assertEquals(Resultado.PROPIEDAD_ALQUILADA, gestor.crearContrato(new ContratoAlquiler(null, HOY, HOY.plusYears(1),
+                contrato.getPropiedad(), contrato.getInquilino(), 1000, true)));
+
+        assertEquals(Resultado.EXITO, gestor.finalizarContrato(contrato.getId()));
+        assertEquals(Resultado.CONTRATO_INACTIVO, gestor.finalizarContrato(contrato.getId()));
+        assertEquals(Resultado.EXITO, gestor.eliminarInquilino(inquilinoId));
+        assertEquals(Resultado.INCIDENCIAS_PENDIENTES, gestor.eliminarPropiedad(propiedadId));
+
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(incidencia.getId(), EstadoIncidencia.EN_PROCESO));
+        assertEquals(Resultado.INCIDENCIAS_PENDIENTES, gestor.eliminarPropiedad(propiedadId));
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(incidencia.getId(), EstadoIncidencia.RESUELTA));
+        assertEquals(Resultado.EXITO, gestor.eliminarPropiedad(propiedadId));
+        assertNull(gestor.buscarPropiedadPorId(propiedadId).orElse(null));
+    }
+
+    @Test
+    void lasPaginasRecorrenElMismoOrdenQueElListadoCompleto() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 7);
+        assertEquals(ids(gestor.listarPagos()), recorrer(gestor, 3));
+        assertEquals(ids(gestor.listarPagos()), recorrer(gestor, 14));
+        assertEquals(ids(gestor.listarPagos()), recorrer(gestor, 100));
+        assertThrows(IllegalArgumentException.class, () -> gestor.listarPagos(null, 0));
+
+        // Las páginas de un índice secundario también se recorren por cursor
+        String contratoId = gestor.listarContratos().get(4).getId();
+        Pagina<Pago> primera = gestor.listarPagosPorContrato(contratoId, null, 1);
+        assertTrue(primera.hayMas());
+        Pagina<Pago> segunda = gestor.listarPagosPorContrato(contratoId, primera.getCursorSiguiente(), 1);
+        assertFalse(segunda.hayMas());
+        List<Pago> pagos = new ArrayList<>(primera.getElementos());
+        pagos.addAll(segunda.getElementos());
+        assertEquals(ids(gestor.listarPagosPorContrato(contratoId)), ids(pagos));
+    }
+
+    @Test
+    void lasVistasReflejanLasAltasYNoSePuedenModificar() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 2);
+        Collection<Inquilino> vista = gestor.vistaInquilinos();
+        assertEquals(2, vista.size());
+
+        Inquilino nuevo = new Inquilino(null, "Nueva", "Inquilina", "0991", "40000001", "nueva@correo.com");
+        assertEquals(Resultado.EXITO, gestor.agregarInquilino(nuevo));
+
+        assertEquals(3, vista.size());
+        assertEquals(ids(gestor.listarInquilinos()), ids(new ArrayList<>(vista)));
+        assertThrows(UnsupportedOperationException.class, () -> vista.add(nuevo));
+        assertThrows(UnsupportedOperationException.class, () -> gestor.listarPropiedades(null, 5).getElementos().clear());
+    }
+
+    @Test
+    void lasConsultasPorPeriodoSiguenLosCambiosDeLosPagos() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 3);
+        String contratoId = gestor.listarContratos().get(0).getId();
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 2)), gestor.listarPeriodosPagados(contratoId));
+        assertEquals(List.of(YearMonth.of(2025, 3), YearMonth.of(2025, 4)), gestor.listarPeriodosAdeudados(contratoId, YearMonth.of(2025, 4)));
+        assertEquals(3, gestor.listarPagosPorPeriodo(YearMonth.of(2025, 2), YearMonth.of(2025, 2)).size());
+
+        Pago febrero = gestor.listarPagosPorContratoYPeriodo(contratoId, YearMonth.of(2025, 2), null).get(0);
+        Pago cambiado = new Pago(febrero.getId(), febrero.getContrato(), febrero.getFechaPago(), febrero.getValorPago(), false, "2025-03");
+        assertEquals(Resultado.EXITO, gestor.actualizarPago(cambiado));
+        // Un pago con un período en otro formato no figura en el índice por período
+        assertEquals(Resultado.EXITO, gestor.registrarPago(new Pago(null, febrero.getContrato(), HOY, 100, false, "Abril")));
+
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 3)), gestor.listarPeriodosPagados(contratoId));
+        assertEquals(List.of(YearMonth.of(2025, 2), YearMonth.of(2025, 4)), gestor.listarPeriodosAdeudados(contratoId, YearMonth.of(2025, 4)));
+        assertEquals(2, gestor.listarPagosPorPeriodo(YearMonth.of(2025, 2), YearMonth.of(2025, 2)).size());
+        assertEquals(List.of(febrero.getId()), ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 3), null)));
+        assertEquals(6, gestor.listarPagosPorPeriodo(null, null).size());
+        assertEquals(List.of(), gestor.listarPeriodosAdeudados("CON-INEXISTENTE", null));
+    }
+
+    @Test
+    void lasIncidenciasCambianDeEstadoSoloPorTransicionesPermitidas() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        cargar(gestor, 3);
+        List<Incidencia> incidencias = gestor.listarIncidencias();
+        String primera = incidencias.get(0).getId();
+        String segunda = incidencias.get(1).getId();
+
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(primera, EstadoIncidencia.RESUELTA));
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(segunda, EstadoIncidencia.CANCELADA));
+        assertEquals(Resultado.TRANSICION_INVALIDA, gestor.cambiarEstadoIncidencia(segunda, EstadoIncidencia.PENDIENTE));
+        assertEquals(Resultado.TRANSICION_INVALIDA, gestor.cambiarEstadoIncidencia(primera, EstadoIncidencia.EN_PROCESO));
+        assertEquals(Resultado.NO_ENCONTRADO, gestor.cambiarEstadoIncidencia("INC-X", EstadoIncidencia.RESUELTA));
+
+        assertEquals(List.of(primera), ids(gestor.listarIncidenciasPorEstado(EstadoIncidencia.RESUELTA)));
+        assertEquals(List.of(segunda), ids(gestor.listarIncidenciasPorEstado(EstadoIncidencia.CANCELADA)));
+        Map<EstadoIncidencia, Integer> conteo = gestor.contarIncidenciasPorEstado();
+        assertEquals(1, conteo.getOrDefault(EstadoIncidencia.PENDIENTE, 0));
+        assertEquals(0, conteo.getOrDefault(EstadoIncidencia.EN_PROCESO, 0));
+        assertEquals(1, conteo.getOrDefault(EstadoIncidencia.RESUELTA, 0));
+
+        // Una incidencia resuelta puede reabrirse y vuelve a contar como abierta
+        String propiedadId = incidencias.get(0).getPropiedad().getId();
+        assertEquals(List.of(), gestor.listarIncidenciasAbiertasPorPropiedad(propiedadId));
+        assertEquals(Resultado.EXITO, gestor.cambiarEstadoIncidencia(primera, EstadoIncidencia.PENDIENTE));
+        assertEquals(List.of(primera), ids(gestor.listarIncidenciasAbiertasPorPropiedad(propiedadId)));
+        assertEquals(2, gestor.listarIncidenciasPorEstado(EstadoIncidencia.PENDIENTE).size());
+    }
+
+    private static List<String> recorrer(GestorAlquileres gestor, int tamanio) {
+        List<String> recorridos = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<Pago> pagina = gestor.listarPagos(cursor, tamanio);
+            assertTrue(pagina.getElementos().size() <= tamanio);
+            recorridos.addAll(ids(pagina.getElementos()));
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null);
+        return recorridos;
+    }
+}
@@ -0,0 +1,158 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.EstadoIncidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Incidencia;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import com.Sebaacostam3.gestoralquileres.persistencia.CodificadorEntidades;
+import com.Sebaacostam3.gestoralquileres.persistencia.Diario;
+import com.Sebaacostam3.gestoralquileres.persistencia.DirectorioDatos;
+import com.Sebaacostam3.gestoralquileres.persistencia.TipoOperacion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.agregarPropiedad;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.estado;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.modificar;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recuperación de un gestor persistente a partir del diario: después de un cierre normal, de un corte,
+ * de una falla del diario y desde un diario de la versión anterior de la codificación.
+ */
+class GestorPersistenteTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recuperaElDiarioDespuesDeUnCierreNormal() throws IOException {
+        List<String> esperado;
+        String ultimaPropiedad;
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            cargar(gestor, 10);
+            modificar(gestor);
+            ultimaPropiedad = agregarPropiedad(gestor, "Calle final");
+            esperado = estado(gestor);
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(gestor));
+            // Los IDs nuevos siguen a los recuperados
+            assertTrue(agregarPropiedad(gestor, "Calle nueva").compareTo(ultimaPropiedad) > 0);
+        }
+    }
+
+    @Test
+    void recuperaTodoLoConfirmadoDespuesDeUnCorte() throws IOException {
+        // El gestor no se cierra: sólo queda lo que el diario hizo durable antes de cada escritura
+        GestorAlquileres abandonado = GestorAlquileres.abrir(directorio);
+        cargar(abandonado, 10);
+        modificar(abandonado);
+        List<String> esperado = estado(abandonado);
+
+        // Un corte a mitad de una escritura deja un registro incompleto al final del segmento en uso
+        DirectorioDatos datos = new DirectorioDatos(directorio);
+        List<Long> segmentos = datos.segmentos();
+        Path ultimo = datos.segmento(segmentos.get(segmentos.size() - 1));
+        try (FileChannel canal = FileChannel.open(ultimo, StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.allocate(20).putInt(0, 1000));
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(gestor));
+            agregarPropiedad(gestor, "Calle tras el corte");
+            esperado = estado(gestor);
+        }
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(gestor));
+        }
+    }
+
+    @Test
+    void unaFallaDelDiarioNoAplicaLaEscrituraYDejaElGestorDeSoloLectura() throws Exception {
+        GestorAlquileres gestor = GestorAlquileres.abrir(directorio);
+        cargar(gestor, 5);
+        List<String> esperado = estado(gestor);
+        assertFalse(gestor.isSoloLectura());
+
+        cerrarArchivoDelDiario(gestor);
+        Propiedad rechazada = new Propiedad(null, "Calle rechazada", "Casa", 50, false, 0);
+        assertEquals(Resultado.ERROR_PERSISTENCIA, gestor.agregarPropiedad(rechazada));
+        assertTrue(gestor.isSoloLectura());
+        assertEquals(esperado, estado(gestor));
+
+        // Desde entonces todas las escrituras válidas se rechazan sin modificar nada
+        Incidencia incidencia = gestor.listarIncidencias().get(0);
+        assertEquals(Resultado.ERROR_PERSISTENCIA, gestor.cambiarEstadoIncidencia(incidencia.getId(), EstadoIncidencia.EN_PROCESO));
+        assertEquals(esperado, estado(gestor));
+
+        try (GestorAlquileres reabierto = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(reabierto));
+            assertFalse(reabierto.isSoloLectura());
+        }
+    }
+
+    @Test
+    void recuperaUnDiarioConImportesDecimalesYContinuaEnUnSegmentoNuevo() throws IOException {
+        // Segmento escrito con la versión 1 de la codificación: cabecera "GAD1" e importes como double
+        DirectorioDatos datos = new DirectorioDatos(directorio);
+        ByteArrayOutputStream registro = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(registro);
+        salida.writeByte(TipoOperacion.AGREGAR_PROPIEDAD.getCodigo());
+        CodificadorEntidades.escribirTexto(salida, "PRP0007");
+        CodificadorEntidades.escribirTexto(salida, "Calle anterior");
+        CodificadorEntidades.escribirTexto(salida, "Casa");
+        salida.writeDouble(80);
+        salida.writeBoolean(false);
+        salida.writeDouble(1500.75);
+        byte[] bytes = registro.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        ByteBuffer segmento = ByteBuffer.allocate(12 + bytes.length).putInt(0x47414431)
+                .putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        Files.write(datos.segmento(1), segmento.array());
+
+        String nueva;
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(150075, gestor.buscarPropiedadPorId("PRP0007").orElseThrow().getPrecioMensualCentavos());
+            nueva = agregarPropiedad(gestor, "Calle nueva");
+        }
+
+        // El segmento anterior queda como estaba y los registros nuevos van al siguiente, con la versión actual
+        assertEquals(List.of(1L, 2L), datos.segmentos());
+        assertArrayEquals(segmento.array(), Files.readAllBytes(datos.segmento(1)));
+        assertEquals(CodificadorEntidades.VERSION, Diario.version(datos.segmento(2)));
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(150075, gestor.buscarPropiedadPorId("PRP0007").orElseThrow().getPrecioMensualCentavos());
+            assertTrue(gestor.buscarPropiedadPorId(nueva).isPresent());
+        }
+    }
+
+    /**
+     * Cierra por debajo el archivo del diario del gestor, para que la siguiente escritura falle al sincronizarlo.
+     */
+    private static void cerrarArchivoDelDiario(GestorAlquileres gestor) throws ReflectiveOperationException, IOException {
+        Field campoDiario = GestorAlquileres.class.getDeclaredField("diario");
+        campoDiario.setAccessible(true);
+        Diario diario = (Diario) campoDiario.get(gestor);
+        Field campoCanal = Diario.class.getDeclaredField("canal");
+        campoCanal.setAccessible(true);
+        ((FileChannel) campoCanal.get(diario)).close();
+    }
+}
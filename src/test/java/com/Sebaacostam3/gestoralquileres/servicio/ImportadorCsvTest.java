@@ -0,0 +1,98 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Propiedad;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Importación por bloques de {@link ImportadorCsv}: orden del archivo, filas inválidas y reglas del gestor.
+ */
+class ImportadorCsvTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void importaVariosBloquesEnElOrdenDelArchivoEInformaLasFilasRechazadas() throws IOException {
+        int cantidad = ImportadorCsv.TAMANIO_LOTE * 3 + 17;
+        List<String> lineas = new ArrayList<>();
+        lineas.add("id,direccion,tipo,metros_cuadrados,precio_mensual");
+        for (int i = 0; i < cantidad; i++) {
+            lineas.add("P" + i + ",\"Calle " + i + ", piso 1\",Casa,50.5,12000.10");
+        }
+        lineas.add("");
+        lineas.add("P1,Repetida,Casa,40,100");
+        lineas.add("P-NEGATIVA,Calle,Casa,-1,100");
+        lineas.add("P-COLUMNAS,Calle,Casa");
+        lineas.add(",Sin ID,Departamento,30,9000");
+        GestorAlquileres gestor = new GestorAlquileres();
+
+        ReporteImportacion reporte = new ImportadorCsv(gestor, 3).importarPropiedades(escribir("propiedades.csv", lineas));
+
+        assertEquals(cantidad + 1, reporte.getImportadas());
+        assertEquals(3, reporte.getRechazadas());
+        List<ReporteImportacion.ErrorFila> errores = reporte.getErrores();
+        // La cabecera es la línea 1 y la línea en blanco también se cuenta
+        assertEquals(List.of(cantidad + 3L, cantidad + 4L, cantidad + 5L),
+                List.of(errores.get(0).getLinea(), errores.get(1).getLinea(), errores.get(2).getLinea()));
+        assertEquals(List.of("P1", "P-NEGATIVA", "P-COLUMNAS"),
+                List.of(errores.get(0).getId(), errores.get(1).getId(), errores.get(2).getId()));
+        assertEquals(Resultado.ID_DUPLICADO.getDescripcion(), errores.get(0).getMotivo());
+
+        List<Propiedad> propiedades = gestor.listarPropiedades();
+        assertEquals(cantidad + 1, propiedades.size());
+        for (int i = 0; i < cantidad; i++) {
+            assertEquals("P" + i, propiedades.get(i).getId());
+        }
+        assertEquals("Calle 1, piso 1", propiedades.get(1).getDireccion());
+        assertEquals(1_200_010, propiedades.get(1).getPrecioMensualCentavos());
+        assertEquals("Sin ID", propiedades.get(cantidad).getDireccion());
+    }
+
+    @Test
+    void losContratosAplicanLasReglasDelGestor() throws IOException {
+        GestorAlquileres gestor = new GestorAlquileres();
+        ImportadorCsv importador = new ImportadorCsv(gestor, 2);
+        importador.importarPropiedades(escribir("propiedades.csv", List.of("id,direccion,tipo,metros_cuadrados,precio_mensual",
+                "P1,Calle 1,Casa,50,1000", "P2,Calle 2,Casa,50,1000")));
+        importador.importarInquilinos(escribir("inquilinos.csv", List.of("id,nombre,apellido,telefono,dni,email",
+                "I1,Ana,Pérez,099,30000001,ana@correo.com", "I2,Luis,Gómez,,30000002,")));
+
+        ReporteImportacion reporte = importador.importarContratos(escribir("contratos.csv", List.of(
+                "id,propiedad_id,inquilino_id,fecha_inicio,fecha_fin,valor_mensual",
+                "C1,p1,I1,01-01-2025,31-12-2025,1000",
+                "C2,P1,I2,01-01-2025,31-12-2025,1000",
+                "C3,P9,I2,01-01-2025,31-12-2025,1000",
+                "C4,P2,I2,31-12-2025,01-01-2025,1000",
+                "C5,P2,I2,2025-01-01,31-12-2025,1000",
+                "C6,P2,I2,01-02-2025,31-01-2026,1100.5")));
+
+        assertEquals(2, reporte.getImportadas());
+        assertEquals(List.of(Resultado.PROPIEDAD_ALQUILADA.getDescripcion(), Resultado.REFERENCIA_INEXISTENTE.getDescripcion()),
+                List.of(reporte.getErrores().get(0).getMotivo(), reporte.getErrores().get(1).getMotivo()));
+        assertTrue(reporte.getErrores().get(2).getMotivo().contains("anterior"));
+        assertTrue(reporte.getErrores().get(3).getMotivo().contains("fecha_inicio"));
+
+        ContratoAlquiler contrato = gestor.buscarContratoPorId("C6").orElseThrow();
+        assertEquals("I2", contrato.getInquilino().getId());
+        assertEquals("Luis", contrato.getInquilino().getNombre());
+        assertEquals(110_050, contrato.getValorMensualCentavos());
+        assertTrue(gestor.buscarPropiedadPorId("P1").orElseThrow().isAlquilada());
+        assertTrue(gestor.buscarPropiedadPorId("P2").orElseThrow().isAlquilada());
+    }
+
+    private Path escribir(String nombre, List<String> lineas) throws IOException {
+        return Files.write(directorio.resolve(nombre), lineas, StandardCharsets.UTF_8);
+    }
+}
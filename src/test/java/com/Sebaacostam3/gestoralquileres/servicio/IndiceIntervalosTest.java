@@ -0,0 +1,95 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Altas, cambios y bajas del {@link IndiceIntervalos}, comparando cada búsqueda con un recorrido completo.
+ */
+class IndiceIntervalosTest {
+
+    @Test
+    void encuentraLosIntervalosSuperpuestosConLimitesIncluidos() {
+        IndiceIntervalos indice = new IndiceIntervalos();
+        indice.indexar(0, 10, 20);
+        indice.indexar(1, 20, 30);
+        indice.indexar(2, 31, 40);
+        indice.indexar(3, 5, 5);
+
+        assertEquals(claves(0, 1), superpuestos(indice, 20, 20));
+        assertEquals(claves(1, 2), superpuestos(indice, 25, 31));
+        assertEquals(claves(3), superpuestos(indice, 0, 9));
+        assertEquals(claves(), superpuestos(indice, 41, 50));
+        // Un rango invertido no encuentra nada
+        assertEquals(claves(), superpuestos(indice, 30, 10));
+    }
+
+    @Test
+    void reindexarMueveElIntervaloYQuitarLoRetira() {
+        IndiceIntervalos indice = new IndiceIntervalos();
+        indice.indexar(7, 10, 20);
+        indice.indexar(7, 100, 200);
+        assertEquals(claves(), superpuestos(indice, 10, 20));
+        assertEquals(claves(7), superpuestos(indice, 150, 150));
+
+        indice.quitar(7);
+        indice.quitar(7);
+        assertEquals(claves(), superpuestos(indice, 0, 1000));
+    }
+
+    @Test
+    void coincideConUnRecorridoCompletoTrasOperacionesAlAzar() {
+        SplittableRandom azar = new SplittableRandom(20250101);
+        IndiceIntervalos indice = new IndiceIntervalos();
+        Map<Integer, long[]> modelo = new HashMap<>();
+
+        for (int paso = 0; paso < 20000; paso++) {
+            // Pocas claves para que se repitan altas, cambios y bajas de la misma clave
+            int clave = azar.nextInt(600);
+            if (azar.nextInt(4) == 0) {
+                indice.quitar(clave);
+                modelo.remove(clave);
+            } else {
+                long desde = azar.nextInt(1000);
+                long hasta = desde + azar.nextInt(60);
+                indice.indexar(clave, desde, hasta);
+                modelo.put(clave, new long[] {desde, hasta});
+            }
+            if (paso % 50 == 0) {
+                long desde = azar.nextInt(1100) - 50;
+                long hasta = desde + azar.nextInt(100);
+                assertEquals(recorrer(modelo, desde, hasta), superpuestos(indice, desde, hasta), "paso " + paso);
+            }
+        }
+    }
+
+    private static BitSet superpuestos(IndiceIntervalos indice, long desde, long hasta) {
+        BitSet encontrados = new BitSet();
+        indice.marcarSuperpuestos(desde, hasta, encontrados);
+        return encontrados;
+    }
+
+    private static BitSet recorrer(Map<Integer, long[]> modelo, long desde, long hasta) {
+        BitSet esperados = new BitSet();
+        for (Map.Entry<Integer, long[]> intervalo : modelo.entrySet()) {
+            if (intervalo.getValue()[0] <= hasta && intervalo.getValue()[1] >= desde) {
+                esperados.set(intervalo.getKey());
+            }
+        }
+        return esperados;
+    }
+
+    private static BitSet claves(int... claves) {
+        BitSet conjunto = new BitSet();
+        for (int clave : claves) {
+            conjunto.set(clave);
+        }
+        return conjunto;
+    }
+}
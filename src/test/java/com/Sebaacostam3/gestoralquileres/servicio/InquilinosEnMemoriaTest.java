@@ -0,0 +1,124 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.Inquilino;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Índices de trigramas, DNI y email de {@link InquilinosEnMemoria} a través de altas, cambios y bajas,
+ * y las reglas de unicidad que el gestor aplica con ellos.
+ */
+class InquilinosEnMemoriaTest {
+
+    @Test
+    void ordenaLaBusquedaPorTextoDeMayorAMenorCoincidencia() {
+        InquilinosEnMemoria inquilinos = new InquilinosEnMemoria();
+        inquilinos.agregar(inquilino("INQ1", "Juana", "Pereyra", "11111111", "juana@correo.com"));
+        inquilinos.agregar(inquilino("INQ2", "Juan", "Pérez", "22222222", "juan@correo.com"));
+        inquilinos.agregar(inquilino("INQ3", "Ana", "Gómez", "33333333", "ana@correo.com"));
+
+        List<String> encontrados = ids(inquilinos.buscarPorTexto("juan perez", 10));
+        assertEquals("INQ2", encontrados.get(0));
+        assertFalse(encontrados.contains("INQ3"));
+        // Los errores de tipeo se toleran en las palabras de cuatro o más letras
+        assertEquals("INQ3", ids(inquilinos.buscarPorTexto("gomes", 10)).get(0));
+        // Un número se busca en cualquier parte del DNI
+        assertEquals(List.of("INQ3"), ids(inquilinos.buscarPorTexto("3333", 10)));
+        assertEquals(1, inquilinos.buscarPorTexto("juan", 1).size());
+    }
+
+    @Test
+    void guardarReindexaElTexto() {
+        InquilinosEnMemoria inquilinos = new InquilinosEnMemoria();
+        inquilinos.agregar(inquilino("INQ1", "Marta", "Suárez", "30123456", "marta@correo.com"));
+        assertEquals(List.of("INQ1"), ids(inquilinos.buscarPorTexto("suarez", 10)));
+
+        inquilinos.guardar(inquilino("INQ1", "Marta", "Benítez", "30123456", "marta@correo.com"));
+        assertTrue(inquilinos.buscarPorTexto("suarez", 10).isEmpty());
+        assertEquals(List.of("INQ1"), ids(inquilinos.buscarPorTexto("benitez", 10)));
+    }
+
+    @Test
+    void unaBajaRetiraLaClaveDelIndiceAunqueSeReutilice() {
+        InquilinosEnMemoria inquilinos = new InquilinosEnMemoria();
+        inquilinos.agregar(inquilino("INQ1", "Pedro", "Rossi", "50000000", "pedro@correo.com"));
+        inquilinos.eliminar("INQ1");
+        assertTrue(inquilinos.buscarPorTexto("rossi", 10).isEmpty());
+
+        // El alta siguiente puede ocupar la clave liberada: sólo debe encontrarse con sus propios datos
+        inquilinos.agregar(inquilino("INQ2", "Lucía", "Ferro", "60000000", "lucia@correo.com"));
+        assertTrue(inquilinos.buscarPorTexto("rossi", 10).isEmpty());
+        assertEquals(List.of("INQ2"), ids(inquilinos.buscarPorTexto("ferro", 10)));
+    }
+
+    @Test
+    void guardarReindexaElDniYElEmail() {
+        InquilinosEnMemoria inquilinos = new InquilinosEnMemoria();
+        inquilinos.agregar(inquilino("INQ1", "Marta", "Suárez", "30.123.456", "Marta@Correo.com"));
+        assertEquals("INQ1", inquilinos.buscarPorDni("30123456").getId());
+        assertEquals("INQ1", inquilinos.buscarPorEmail(" marta@correo.COM ").getId());
+
+        inquilinos.guardar(inquilino("INQ1", "Marta", "Suárez", "40123456", "marta.b@correo.com"));
+        assertNull(inquilinos.buscarPorDni("30123456"));
+        assertNull(inquilinos.buscarPorEmail("marta@correo.com"));
+        assertEquals("INQ1", inquilinos.buscarPorDni("40-123-456").getId());
+        assertEquals("INQ1", inquilinos.buscarPorEmail("marta.b@correo.com").getId());
+    }
+
+    @Test
+    void unaBajaLiberaElDniYElEmailAunqueSeReutiliceLaClave() {
+        InquilinosEnMemoria inquilinos = new InquilinosEnMemoria();
+        inquilinos.agregar(inquilino("INQ1", "Pedro", "Rossi", "50000000", "pedro@correo.com"));
+        inquilinos.eliminar("INQ1");
+        assertNull(inquilinos.buscarPorDni("50000000"));
+        assertNull(inquilinos.buscarPorEmail("pedro@correo.com"));
+
+        inquilinos.agregar(inquilino("INQ2", "Lucía", "Ferro", "60000000", "lucia@correo.com"));
+        assertNull(inquilinos.buscarPorDni("50000000"));
+        assertNull(inquilinos.buscarPorEmail("pedro@correo.com"));
+        assertEquals("INQ2", inquilinos.buscarPorDni("60000000").getId());
+    }
+
+    @Test
+    void elGestorRechazaDnisYEmailsRepetidos() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        Inquilino primero = inquilino(null, "Ana", "Uno", "12.345.678", "ana@correo.com");
+        Inquilino segundo = inquilino(null, "Bruno", "Dos", "87654321", "bruno@correo.com");
+        assertEquals(Resultado.EXITO, gestor.agregarInquilino(primero));
+        assertEquals(Resultado.EXITO, gestor.agregarInquilino(segundo));
+
+        assertEquals(Resultado.DNI_DUPLICADO, gestor.agregarInquilino(inquilino(null, "Otra", "Ana", "12345678", "otra@correo.com")));
+        assertEquals(Resultado.EMAIL_DUPLICADO, gestor.agregarInquilino(inquilino(null, "Otra", "Ana", "11111111", " ANA@correo.com")));
+        assertEquals(Resultado.EMAIL_DUPLICADO, gestor.actualizarInquilino(
+                inquilino(segundo.getId(), "Bruno", "Dos", "87654321", "ana@correo.com")));
+        // Actualizar no cambia el DNI, así que no puede tomar el de otro inquilino
+        assertEquals(Resultado.EXITO, gestor.actualizarInquilino(
+                inquilino(segundo.getId(), "Bruno", "Dos", "12345678", "bruno@correo.com")));
+        assertEquals(segundo.getId(), gestor.buscarInquilinoPorDni("87654321").get().getId());
+        assertEquals(primero.getId(), gestor.buscarInquilinoPorDni("12345678").get().getId());
+
+        // Conservar los propios datos no es una repetición, y al eliminar un inquilino sus datos quedan libres
+        assertEquals(Resultado.EXITO, gestor.actualizarInquilino(inquilino(primero.getId(), "Ana", "Uno", "12345678", "ana@correo.com")));
+        assertEquals(Resultado.EXITO, gestor.eliminarInquilino(primero.getId()));
+        assertEquals(Resultado.EXITO, gestor.agregarInquilino(inquilino(null, "Otra", "Ana", "12345678", "ana@correo.com")));
+    }
+
+    private static Inquilino inquilino(String id, String nombre, String apellido, String dni, String email) {
+        return new Inquilino(id, nombre, apellido, "099000000", dni, email);
+    }
+
+    private static List<String> ids(List<Inquilino> inquilinos) {
+        List<String> ids = new ArrayList<>();
+        for (Inquilino inquilino : inquilinos) {
+            ids.add(inquilino.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,96 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.persistencia.DirectorioDatos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.agregarPropiedad;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.estado;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.modificar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Instantáneas del gestor persistente y compactación del diario.
+ */
+class InstantaneasTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void recuperaLaInstantaneaYElDiarioPosterior() throws IOException {
+        List<String> esperado;
+        String ultimaPropiedad;
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            cargar(gestor, 20);
+            gestor.tomarInstantanea();
+            // Lo escrito después de la instantánea sólo está en el segmento nuevo del diario
+            modificar(gestor);
+            ultimaPropiedad = agregarPropiedad(gestor, "Calle posterior");
+            esperado = estado(gestor);
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(gestor));
+            assertTrue(agregarPropiedad(gestor, "Calle nueva").compareTo(ultimaPropiedad) > 0);
+        }
+    }
+
+    @Test
+    void compactaLosSegmentosCubiertosPorLaInstantanea() throws IOException {
+        DirectorioDatos datos = new DirectorioDatos(directorio);
+        List<String> esperado;
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            cargar(gestor, 5);
+            gestor.tomarInstantanea();
+            agregarPropiedad(gestor, "Calle intermedia");
+            gestor.tomarInstantanea();
+            esperado = estado(gestor);
+
+            // Sólo quedan la última instantánea y el segmento que empezó con ella
+            long ultima = datos.ultimaInstantanea();
+            assertEquals(List.of(ultima), datos.segmentos());
+            for (long anterior = 1; anterior < ultima; anterior++) {
+                assertTrue(Files.notExists(datos.segmento(anterior)));
+                assertTrue(Files.notExists(datos.instantanea(anterior)));
+            }
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(gestor));
+        }
+    }
+
+    @Test
+    void ignoraUnaInstantaneaTemporalSinTerminar() throws IOException {
+        List<String> esperado;
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            cargar(gestor, 5);
+            esperado = estado(gestor);
+        }
+        // Un corte durante la escritura deja sólo el archivo temporal, que nunca se renombró
+        DirectorioDatos datos = new DirectorioDatos(directorio);
+        Path definitiva = datos.instantanea(2);
+        Files.write(definitiva.resolveSibling(definitiva.getFileName() + ".tmp"), new byte[] {1, 2, 3});
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio)) {
+            assertEquals(esperado, estado(gestor));
+        }
+    }
+
+    @Test
+    void unGestorEnMemoriaNoTomaInstantaneas() {
+        GestorAlquileres gestor = new GestorAlquileres();
+        assertThrows(IllegalStateException.class, gestor::tomarInstantanea);
+        assertThrows(IllegalStateException.class, () -> gestor.programarInstantaneas(1, TimeUnit.HOURS));
+    }
+}
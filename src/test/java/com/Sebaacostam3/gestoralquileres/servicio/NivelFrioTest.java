@@ -0,0 +1,161 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.estado;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.ids;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.textos;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archivo de contratos inactivos en el nivel frío y su reincorporación a memoria.
+ */
+class NivelFrioTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void archivaLosContratosFinalizadosAlTomarUnaInstantanea() throws IOException {
+        String contratoId;
+        List<String> pagosArchivados;
+        List<String> esperado;
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            cargar(gestor, 5);
+            contratoId = gestor.listarContratos().get(2).getId();
+            assertEquals(Resultado.EXITO, gestor.finalizarContrato(contratoId));
+            pagosArchivados = textos(gestor.listarPagosPorContrato(contratoId));
+            gestor.tomarInstantanea();
+
+            assertArchivado(gestor, contratoId, pagosArchivados);
+            esperado = estado(gestor);
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            assertArchivado(gestor, contratoId, pagosArchivados);
+            assertEquals(esperado, estado(gestor));
+        }
+    }
+
+    @Test
+    void actualizarUnContratoArchivadoLoReincorporaAMemoria() throws IOException {
+        String contratoId;
+        List<String> pagosArchivados;
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            cargar(gestor, 3);
+            contratoId = gestor.listarContratos().get(0).getId();
+            assertEquals(Resultado.EXITO, gestor.finalizarContrato(contratoId));
+            pagosArchivados = textos(ids(gestor.listarPagosPorContrato(contratoId)));
+            gestor.tomarInstantanea();
+            assertEquals(List.of(contratoId), gestor.listarIdsContratosArchivados());
+
+            ContratoAlquiler archivado = gestor.buscarContratoPorId(contratoId).orElseThrow();
+            ContratoAlquiler actualizado = new ContratoAlquiler(contratoId, archivado.getFechaInicio(), HOY.plusMonths(6),
+                    archivado.getPropiedad(), archivado.getInquilino(), archivado.getValorMensual(), false);
+            assertEquals(Resultado.EXITO, gestor.actualizarContrato(actualizado));
+
+            assertTrue(gestor.listarIdsContratosArchivados().isEmpty());
+            assertTrue(ids(gestor.listarContratos()).contains(contratoId));
+            assertEquals(pagosArchivados, textos(ids(gestor.listarPagosPorContrato(contratoId))));
+            assertTrue(ids(gestor.listarPagos()).containsAll(pagosArchivados));
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            assertTrue(gestor.listarIdsContratosArchivados().isEmpty());
+            assertEquals(HOY.plusMonths(6), gestor.buscarContratoPorId(contratoId).orElseThrow().getFechaFin());
+            assertEquals(pagosArchivados, textos(ids(gestor.listarPagosPorContrato(contratoId))));
+        }
+    }
+
+    @Test
+    void exportaLosPagosDeLosContratosArchivados() throws IOException {
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            cargar(gestor, 4);
+            String contratoId = gestor.listarContratos().get(1).getId();
+            assertEquals(Resultado.EXITO, gestor.finalizarContrato(contratoId));
+            gestor.tomarInstantanea();
+
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            long exportados = new ExportadorDatos(gestor).exportarPagos(Channels.newChannel(salida),
+                    FormatoExportacion.JSONL, FiltroExportacion.todos());
+
+            assertEquals(8, exportados);
+            String texto = salida.toString(StandardCharsets.UTF_8);
+            for (Pago pago : gestor.listarPagosPorContrato(contratoId)) {
+                assertTrue(texto.contains(pago.getId()));
+            }
+        }
+    }
+
+    @Test
+    void lasConsultasPorFechaYPorPeriodoIncluyenLosArchivados() throws IOException {
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            cargar(gestor, 4);
+            ContratoAlquiler corto = gestor.listarContratos().get(1);
+            assertEquals(Resultado.EXITO, gestor.actualizarContrato(new ContratoAlquiler(corto.getId(), HOY, HOY.plusMonths(2),
+                    corto.getPropiedad(), corto.getInquilino(), corto.getValorMensual(), true)));
+            assertEquals(Resultado.EXITO, gestor.finalizarContrato(corto.getId()));
+            assertEquals(Resultado.EXITO, gestor.registrarPago(new Pago(null, gestor.buscarContratoPorId(corto.getId()).orElseThrow(),
+                    HOY.plusMonths(2), corto.getValorMensual(), false, "2025-03")));
+            List<String> vigentes = textos(ids(gestor.listarContratosVigentesEn(HOY.plusMonths(1))));
+            List<String> enMarzo = ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 3), null));
+            List<String> enFebrero = textos(ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 2), YearMonth.of(2025, 2))));
+            gestor.tomarInstantanea();
+            assertEquals(List.of(corto.getId()), gestor.listarIdsContratosArchivados());
+
+            assertConsultas(gestor, corto.getId(), vigentes, enMarzo, enFebrero);
+        }
+
+        // Los rangos del índice se recuperan de la instantánea
+        try (GestorAlquileres gestor = GestorAlquileres.abrirConNivelFrio(directorio)) {
+            ContratoAlquiler corto = gestor.buscarContratoPorId(gestor.listarIdsContratosArchivados().get(0)).orElseThrow();
+            assertConsultas(gestor, corto.getId(), textos(ids(gestor.listarContratosVigentesEn(HOY.plusMonths(1)))),
+                    ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 3), null)),
+                    textos(ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 2), YearMonth.of(2025, 2)))));
+        }
+    }
+
+    private static void assertConsultas(GestorAlquileres gestor, String archivado, List<String> vigentes, List<String> enMarzo,
+                                        List<String> enFebrero) {
+        // El contrato archivado vence antes de mayo y sus pagos llegan a marzo; va al final de cada listado
+        List<String> vigentesAhora = ids(gestor.listarContratosVigentesEn(HOY.plusMonths(1)));
+        assertEquals(4, vigentes.size());
+        assertEquals(vigentes, textos(vigentesAhora));
+        assertEquals(archivado, vigentesAhora.get(3));
+        assertEquals(List.of(), ids(gestor.listarContratosSuperpuestos(HOY.plusMonths(12).plusDays(1), HOY.plusYears(2))));
+        assertEquals(3, gestor.listarContratosSuperpuestos(HOY.plusMonths(4), HOY.plusMonths(5)).size());
+        assertFalse(ids(gestor.listarContratosSuperpuestos(HOY.plusMonths(4), HOY.plusMonths(5))).contains(archivado));
+
+        assertEquals(1, enMarzo.size());
+        assertEquals(enMarzo, ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 3), null)));
+        assertEquals(archivado, gestor.buscarPagoPorId(enMarzo.get(0)).orElseThrow().getContrato().getId());
+        assertEquals(4, enFebrero.size());
+        assertEquals(enFebrero, textos(ids(gestor.listarPagosPorPeriodo(YearMonth.of(2025, 2), YearMonth.of(2025, 2)))));
+        assertEquals(9, gestor.listarPagosPorPeriodo(null, null).size());
+    }
+
+    private static void assertArchivado(GestorAlquileres gestor, String contratoId, List<String> pagos) {
+        assertEquals(List.of(contratoId), gestor.listarIdsContratosArchivados());
+        assertFalse(ids(gestor.listarContratos()).contains(contratoId));
+        assertFalse(gestor.buscarContratoPorId(contratoId).orElseThrow().isActivo());
+        assertEquals(pagos, textos(gestor.listarPagosPorContrato(contratoId)));
+        for (String pago : textos(gestor.listarPagos())) {
+            assertFalse(pagos.contains(pago));
+        }
+    }
+}
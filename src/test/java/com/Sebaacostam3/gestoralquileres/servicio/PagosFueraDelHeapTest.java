@@ -0,0 +1,184 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import com.Sebaacostam3.gestoralquileres.modelo.ContratoAlquiler;
+import com.Sebaacostam3.gestoralquileres.modelo.Pago;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.HOY;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.cargar;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.estado;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.ids;
+import static com.Sebaacostam3.gestoralquileres.servicio.DatosPrueba.modificar;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pagos guardados fuera del heap: reutilización de las casillas liberadas, copias que se pueden modificar
+ * y lecturas concurrentes con altas que reutilizan casillas.
+ */
+class PagosFueraDelHeapTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void unaAltaDespuesDeUnaBajaReutilizaLaCasilla() throws ReflectiveOperationException {
+        PagosFueraDelHeap pagos = new PagosFueraDelHeap(new ContratosEnMemoria());
+        for (String id : List.of("PAG1", "PAG2", "PAG3")) {
+            pagos.agregar(pago(id, "CON1", 100));
+        }
+        pagos.eliminar("pag2");
+        pagos.agregar(pago("PAG4", "CON1", 400));
+
+        assertEquals(3, casillasEscritas(pagos));
+        assertNull(pagos.obtener("PAG2"));
+        assertEquals(40000, pagos.obtener("pag4").getValorPagoCentavos());
+        // Los listados, también los del contrato, siguen el orden de las casillas
+        assertEquals(List.of("PAG1", "PAG4", "PAG3"), ids(new ArrayList<>(pagos.valores())));
+        assertEquals(List.of("PAG1", "PAG4", "PAG3"), ids(pagos.listarPorContrato("con1")));
+        Pagina<Pago> primera = pagos.paginaPorContrato("CON1", null, 2);
+        assertEquals(List.of("PAG1", "PAG4"), ids(primera.getElementos()));
+        assertEquals(List.of("PAG3"), ids(pagos.paginaPorContrato("CON1", primera.getCursorSiguiente(), 2).getElementos()));
+
+        // Las bajas en cascada también liberan sus casillas
+        assertEquals(3, pagos.eliminarPorContrato("CON1"));
+        for (int i = 0; i < 3; i++) {
+            pagos.agregar(pago("NUEVO" + i, "CON2", 1));
+        }
+        assertEquals(3, casillasEscritas(pagos));
+        assertEquals(3, pagos.listarPorContrato("CON2").size());
+        assertEquals(List.of(), pagos.listarPorContrato("CON1"));
+    }
+
+    @Test
+    void unaCasillaReutilizadaNoConservaElIdNiElPeriodoAnteriores() {
+        PagosFueraDelHeap pagos = new PagosFueraDelHeap(new ContratosEnMemoria());
+        String largo = "PAGO-CON-UN-ID-QUE-NO-ENTRA-EN-LA-CASILLA";
+        Pago anterior = pago(largo, "CON1", 100);
+        anterior.setPeriodoCorrespondiente("marzo 2025");
+        pagos.agregar(anterior);
+        pagos.eliminar(largo);
+        pagos.agregar(pago("PAG2", "CON1", 200));
+
+        Pago leido = pagos.obtener("PAG2");
+        assertEquals("PAG2", leido.getId());
+        assertEquals("2025-01", leido.getPeriodoCorrespondiente());
+        assertNull(pagos.obtener(largo));
+    }
+
+    @Test
+    void lasCopiasSeModificanYSeRegistranAlGuardarlas() {
+        ContratosEnMemoria contratos = new ContratosEnMemoria();
+        PagosFueraDelHeap pagos = new PagosFueraDelHeap(contratos);
+        pagos.agregar(pago("PAG1", "CON1", 100));
+        pagos.agregar(pago("PAG2", "CON2", 200));
+
+        Pago copia = pagos.obtener("PAG1");
+        assertEquals(copia, pagos.obtener("pag1"));
+        assertNotEquals(copia, pagos.obtener("PAG2"));
+        copia.setValorPagoCentavos(15000);
+        copia.setContrato(contrato("CON2"));
+        assertEquals(10000, pagos.obtener("PAG1").getValorPagoCentavos());
+
+        // Guardar registra también el cambio de contrato, sin mover el pago en los listados
+        pagos.guardar(copia);
+        assertEquals(15000, pagos.obtener("PAG1").getValorPagoCentavos());
+        assertEquals(List.of(), pagos.listarPorContrato("CON1"));
+        assertEquals(List.of("PAG1", "PAG2"), ids(pagos.listarPorContrato("CON2")));
+        assertEquals(List.of("PAG1", "PAG2"), ids(new ArrayList<>(pagos.valores())));
+
+        // Cambiar el ID de una copia da un pago nuevo
+        copia.setId("PAG3");
+        assertTrue(pagos.agregar(copia));
+        assertEquals(3, pagos.tamanio());
+        assertEquals("CON2", pagos.obtener("PAG3").getContrato().getId());
+    }
+
+    @Test
+    void lasLecturasNoVenElPagoQueReutilizoLaCasilla() throws InterruptedException {
+        PagosFueraDelHeap pagos = new PagosFueraDelHeap(new ContratosEnMemoria());
+        pagos.agregar(pago("FIJO", "CON1", 1));
+        AtomicBoolean terminar = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+        // Dos pagos, con valores distintos, se alternan sobre la misma casilla liberada
+        Thread escritor = new Thread(() -> {
+            for (int i = 0; i < 200_000 && error.get() == null; i++) {
+                String id = i % 2 == 0 ? "A" : "B";
+                pagos.agregar(pago(id, "CON-" + id, i % 2 == 0 ? 100 : 200));
+                pagos.eliminar(id);
+            }
+            terminar.set(true);
+        });
+        List<Thread> lectores = new ArrayList<>();
+        for (String buscado : List.of("A", "B", "A", "B")) {
+            long valor = buscado.equals("A") ? 10000 : 20000;
+            lectores.add(new Thread(() -> {
+                while (!terminar.get()) {
+                    Pago encontrado = pagos.obtener(buscado);
+                    if (encontrado != null && (!encontrado.getId().equals(buscado) || encontrado.getValorPagoCentavos() != valor
+                            || !encontrado.getContrato().getId().equals("CON-" + buscado))) {
+                        error.set("Se buscó " + buscado + " y se obtuvo " + encontrado);
+                    }
+                    for (Pago pago : pagos.listarPorContrato("CON-" + buscado)) {
+                        if (!pago.getId().equals(buscado)) {
+                            error.set("El contrato de " + buscado + " listó " + pago);
+                        }
+                    }
+                }
+            }));
+        }
+        escritor.start();
+        lectores.forEach(Thread::start);
+        escritor.join();
+        for (Thread lector : lectores) {
+            lector.join();
+        }
+
+        assertNull(error.get());
+        assertEquals(List.of("FIJO"), ids(new ArrayList<>(pagos.valores())));
+    }
+
+    @Test
+    void laInstantaneaIncluyeLosPagosEnCasillasReutilizadas() throws IOException {
+        List<String> esperado;
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio, new GestorAlquileres(Repositorios.enMemoriaConPagosFueraDelHeap()))) {
+            cargar(gestor, 4);
+            modificar(gestor);
+            Pago eliminado = gestor.listarPagos().get(1);
+            assertEquals(Resultado.EXITO, gestor.eliminarPago(eliminado.getId()));
+            assertEquals(Resultado.EXITO, gestor.registrarPago(new Pago(null, eliminado.getContrato(), HOY.plusMonths(2),
+                    eliminado.getValorPago(), false, "2025-03")));
+            gestor.tomarInstantanea();
+            esperado = estado(gestor);
+        }
+
+        try (GestorAlquileres gestor = GestorAlquileres.abrir(directorio, new GestorAlquileres(Repositorios.enMemoriaConPagosFueraDelHeap()))) {
+            assertEquals(esperado, estado(gestor));
+        }
+    }
+
+    private static int casillasEscritas(PagosFueraDelHeap pagos) throws ReflectiveOperationException {
+        Field limite = PagosFueraDelHeap.class.getDeclaredField("limite");
+        limite.setAccessible(true);
+        return limite.getInt(pagos);
+    }
+
+    private static ContratoAlquiler contrato(String id) {
+        return new ContratoAlquiler(id, null, null, null, null, 0, true);
+    }
+
+    private static Pago pago(String id, String contratoId, double valor) {
+        return new Pago(id, contrato(contratoId), HOY, valor, false, "2025-01");
+    }
+}
@@ -0,0 +1,89 @@
+package com.Sebaacostam3.gestoralquileres.servicio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Entrega, descarte y cierre de {@link RegistroEventos}, y los eventos que envía el gestor.
+ */
+class RegistroEventosTest {
+
+    @Test
+    void cerrarEscribeTodosLosEventosEncolados() {
+        List<String> lineas = Collections.synchronizedList(new ArrayList<>());
+        RegistroEventos registro = new RegistroEventos(10_000, lineas::add);
+        for (int i = 0; i < 5000; i++) {
+            registro.registrar("operacion", Resultado.EXITO, "ID" + i);
+        }
+        registro.close();
+
+        assertFalse(registro.isActivo());
+        assertEquals(5000, lineas.size());
+        assertEquals(0, registro.getDescartados());
+        assertTrue(lineas.get(4999).endsWith(" operacion [ID4999] EXITO: " + Resultado.EXITO.getDescripcion()));
+
+        // Después de cerrar, los eventos se ignoran y cerrar otra vez no hace nada
+        registro.registrar("operacion", Resultado.EXITO, "TARDE");
+        registro.close();
+        assertEquals(5000, lineas.size());
+    }
+
+    @Test
+    void unaSalidaLentaDescartaYCuentaLosEventosQueNoEntran() throws InterruptedException {
+        CountDownLatch ocupada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<String> lineas = Collections.synchronizedList(new ArrayList<>());
+        RegistroEventos registro = new RegistroEventos(2, linea -> {
+            ocupada.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lineas.add(linea);
+        });
+        // El hilo de fondo queda detenido en el primer evento; la cola admite dos más
+        registro.registrar("operacion", Resultado.NO_ENCONTRADO, null);
+        ocupada.await();
+        for (int i = 0; i < 9; i++) {
+            registro.registrar("operacion", Resultado.NO_ENCONTRADO, null);
+        }
+        assertEquals(7, registro.getDescartados());
+        liberar.countDown();
+        registro.close();
+        assertEquals(3, lineas.size());
+        assertTrue(lineas.get(0).endsWith(" operacion NO_ENCONTRADO: " + Resultado.NO_ENCONTRADO.getDescripcion()));
+    }
+
+    @Test
+    void elGestorInformaElResultadoDeCadaEscritura() {
+        List<String> lineas = Collections.synchronizedList(new ArrayList<>());
+        try (RegistroEventos registro = new RegistroEventos(100, lineas::add)) {
+            GestorAlquileres gestor = new GestorAlquileres(16, GeneradorIdsSecuencial::new, registro);
+            assertEquals(Resultado.NO_ENCONTRADO, gestor.eliminarPropiedad("PRP-X"));
+            assertEquals(Resultado.NO_ENCONTRADO, gestor.confirmarPago("PAG-X"));
+        }
+        assertEquals(2, lineas.size());
+        assertTrue(lineas.get(0).contains(" eliminarPropiedad [PRP-X] NO_ENCONTRADO: "));
+        assertTrue(lineas.get(1).contains(" confirmarPago [PAG-X] NO_ENCONTRADO: "));
+    }
+
+    @Test
+    void elRegistroDesactivadoNoAceptaEventos() {
+        RegistroEventos desactivado = RegistroEventos.desactivado();
+        assertFalse(desactivado.isActivo());
+        desactivado.registrar("operacion", Resultado.EXITO, "ID");
+        desactivado.close();
+        assertEquals(0, desactivado.getDescartados());
+        assertThrows(IllegalArgumentException.class, () -> new RegistroEventos(0, linea -> { }));
+    }
+}